@@ -0,0 +1,123 @@
+package io.advantageous.qbit.benchmarks;
+
+import io.advantageous.qbit.annotation.RequestMapping;
+import io.advantageous.qbit.client.Client;
+import io.advantageous.qbit.client.ClientBuilder;
+import io.advantageous.qbit.http.client.HttpClient;
+import io.advantageous.qbit.http.client.HttpClientBuilder;
+import io.advantageous.qbit.http.request.HttpTextResponse;
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.server.EndpointServerBuilder;
+import io.advantageous.qbit.server.ServiceEndpointServer;
+import io.advantageous.qbit.service.ServiceProxyUtils;
+import io.advantageous.qbit.util.PortUtils;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs an embedded HttpServerVertx endpoint and calls it over HTTP and over a WebSocket client proxy.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HttpEndToEndBenchmark {
+
+    private static final int BATCH = 10;
+
+    /** The WebSocket client can drop responses under load, so waits are bounded instead of spinning forever. */
+    private static final long RESPONSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Logger logger = LoggerFactory.getLogger(HttpEndToEndBenchmark.class);
+
+    private ServiceEndpointServer server;
+    private HttpClient httpClient;
+    private Client client;
+    private HelloClient hello;
+    private final AtomicLong responses = new AtomicLong();
+    private long lost;
+    private Callback<String> callback;
+
+    @Setup
+    public void setup() {
+        final int port = PortUtils.findOpenPortStartAt(9600);
+        server = EndpointServerBuilder.endpointServerBuilder().setPort(port)
+                .addService(new HelloService()).build().startServerAndWait();
+
+        httpClient = HttpClientBuilder.httpClientBuilder().setPort(port).buildAndStart();
+
+        client = ClientBuilder.clientBuilder().setPort(port).build().startClient();
+        hello = client.createProxy(HelloClient.class, "hello");
+        callback = value -> responses.incrementAndGet();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (lost > 0) {
+            logger.warn("WebSocket responses not received within timeout: {}", lost);
+        }
+        client.stop();
+        httpClient.stop();
+        server.stop();
+    }
+
+    @Benchmark
+    public HttpTextResponse httpGet() {
+        final HttpTextResponse response = httpClient.get("/services/hello/hello");
+        if (response.code() != 200) {
+            throw new IllegalStateException("HTTP " + response.code() + " " + response.body());
+        }
+        return response;
+    }
+
+    @Benchmark
+    public void webSocketRoundTrip() {
+        final long expected = responses.get() + 1;
+        hello.hello(callback);
+        ServiceProxyUtils.flushServiceProxy(hello);
+        awaitResponses(expected);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OperationsPerInvocation(BATCH)
+    public void webSocketBatch() {
+        final long expected = responses.get() + BATCH;
+        for (int index = 0; index < BATCH; index++) {
+            hello.hello(callback);
+        }
+        ServiceProxyUtils.flushServiceProxy(hello);
+        awaitResponses(expected);
+    }
+
+    private void awaitResponses(final long expected) {
+        final long deadline = System.nanoTime() + RESPONSE_TIMEOUT_NANOS;
+        while (responses.get() < expected) {
+            if (System.nanoTime() > deadline) {
+                lost += expected - responses.get();
+                responses.set(expected);
+                return;
+            }
+            Thread.yield();
+        }
+    }
+
+    public interface HelloClient {
+        void hello(Callback<String> callback);
+    }
+
+    @RequestMapping("/hello")
+    public static class HelloService {
+
+        @RequestMapping("/hello")
+        public String hello() {
+            return "hello";
+        }
+    }
+}
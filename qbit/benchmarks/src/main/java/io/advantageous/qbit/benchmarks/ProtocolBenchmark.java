@@ -0,0 +1,93 @@
+package io.advantageous.qbit.benchmarks;
+
+import io.advantageous.boon.core.Lists;
+import io.advantageous.qbit.boon.spi.BoonProtocolEncoder;
+import io.advantageous.qbit.boon.spi.BoonProtocolParser;
+import io.advantageous.qbit.message.Message;
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.message.MethodCallBuilder;
+import io.advantageous.qbit.message.Response;
+import io.advantageous.qbit.message.ResponseBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and parses the WebSocket wire protocol with BoonProtocolEncoder and BoonProtocolParser.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProtocolBenchmark {
+
+    private static final String ADDRESS = "/services/trade/add";
+    private static final String RETURN_ADDRESS = "client-1";
+
+    @Param({"1", "10"})
+    public int batch;
+
+    private final BoonProtocolEncoder encoder = new BoonProtocolEncoder();
+    private final BoonProtocolParser parser = new BoonProtocolParser();
+    private List<MethodCall<Object>> methodCalls;
+    private List<Response<Object>> responses;
+    private String encodedMethodCalls;
+    private String encodedResponses;
+
+    @Setup
+    public void setup() {
+        methodCalls = new ArrayList<>(batch);
+        responses = new ArrayList<>(batch);
+        for (int index = 0; index < batch; index++) {
+            methodCalls.add(MethodCallBuilder.methodCallBuilder()
+                    .setName("add")
+                    .setObjectName("trade")
+                    .setAddress(ADDRESS)
+                    .setReturnAddress(RETURN_ADDRESS)
+                    .setTimestamp(System.currentTimeMillis())
+                    .setBody(Lists.list(new Trade("IBM", index), index))
+                    .setId(index).build());
+            responses.add(ResponseBuilder.responseBuilder()
+                    .setAddress(ADDRESS)
+                    .setReturnAddress(RETURN_ADDRESS)
+                    .setBody(new Trade("IBM", index))
+                    .setId(index).setTimestamp(200).build());
+        }
+        encodedMethodCalls = encoder.encodeMethodCalls(RETURN_ADDRESS, methodCalls);
+        encodedResponses = encoder.encodeResponses(RETURN_ADDRESS, responses);
+    }
+
+    @Benchmark
+    public String encodeMethodCalls() {
+        return encoder.encodeMethodCalls(RETURN_ADDRESS, methodCalls);
+    }
+
+    @Benchmark
+    public List<Message<Object>> parseMethodCalls() {
+        return parser.parse(ADDRESS, encodedMethodCalls);
+    }
+
+    @Benchmark
+    public String encodeResponses() {
+        return encoder.encodeResponses(RETURN_ADDRESS, responses);
+    }
+
+    @Benchmark
+    public List<Message<Object>> parseResponses() {
+        return parser.parse(ADDRESS, encodedResponses);
+    }
+
+    public static class Trade {
+        private final String name;
+        private final long amount;
+
+        public Trade(final String name, final long amount) {
+            this.name = name;
+            this.amount = amount;
+        }
+    }
+}
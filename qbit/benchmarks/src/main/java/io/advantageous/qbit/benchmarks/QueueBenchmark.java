@@ -0,0 +1,108 @@
+package io.advantageous.qbit.benchmarks;
+
+import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.QueueBuilder;
+import io.advantageous.qbit.queue.ReceiveQueue;
+import io.advantageous.qbit.queue.ReceiveQueueListener;
+import io.advantageous.qbit.queue.SendQueue;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends through every send queue variant.
+ * <ul>
+ * <li>noBatch: NoBatchSendQueue (batch size 1)</li>
+ * <li>tryTransfer: BasicSendQueueWithTryTransfer</li>
+ * <li>transfer: BasicSendQueueWithTransferQueue</li>
+ * <li>blocking: BasicBlockingQueueSender on an ArrayBlockingQueue</li>
+ * <li>ringBuffer: BasicBlockingQueueSender on a RingBufferBlockingQueue</li>
+ * </ul>
+ * sendToListener hands items to a queue listener thread and backs off at the high watermark, sendAndDrain sends and reads a batch on one thread so it
+ * measures the queue code without the thread hand off.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QueueBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({"noBatch", "tryTransfer", "transfer", "blocking", "ringBuffer"})
+    public String sender;
+
+    private Queue<Object> listenerQueue;
+    private SendQueue<Object> listenerSendQueue;
+    private Queue<Object> drainQueue;
+    private SendQueue<Object> drainSendQueue;
+    private ReceiveQueue<Object> drainReceiveQueue;
+    private final LongAdder received = new LongAdder();
+    private final Object item = new Object();
+
+    static QueueBuilder queueBuilder(final String sender) {
+        final QueueBuilder queueBuilder = QueueBuilder.queueBuilder().setName("benchmark-" + sender);
+        switch (sender) {
+            case "noBatch":
+                return queueBuilder.setBatchSize(1);
+            case "tryTransfer":
+                return queueBuilder.setLinkTransferQueue().setTryTransfer(true).setBatchSize(BATCH);
+            case "transfer":
+                return queueBuilder.setLinkTransferQueue().setBatchSize(BATCH);
+            case "blocking":
+                return queueBuilder.setArrayBlockingQueue().setBatchSize(BATCH);
+            case "ringBuffer":
+                return queueBuilder.setRingBufferQueue().setBatchSize(BATCH);
+            default:
+                throw new IllegalArgumentException("Unknown sender " + sender);
+        }
+    }
+
+    @Setup
+    public void setup() {
+        /* The watermark keeps the unbounded transfer queues from growing without limit. */
+        listenerQueue = queueBuilder(sender).setHighWatermark(100_000).build();
+        listenerQueue.startListener(new ReceiveQueueListener<Object>() {
+            @Override
+            public void receive(final Object item) {
+                received.increment();
+            }
+        });
+        listenerSendQueue = listenerQueue.sendQueue();
+
+        drainQueue = queueBuilder(sender).setSize(1_000).build();
+        drainSendQueue = drainQueue.sendQueue();
+        drainReceiveQueue = drainQueue.receiveQueue();
+    }
+
+    @TearDown
+    public void tearDown() {
+        listenerSendQueue.flushSends();
+        listenerQueue.stop();
+        drainQueue.stop();
+    }
+
+    @Benchmark
+    public boolean sendToListener() {
+        while (!listenerSendQueue.isWritable()) {
+            Thread.yield();
+        }
+        return listenerSendQueue.send(item);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void sendAndDrain(final Blackhole blackhole) {
+        for (int index = 0; index < BATCH; index++) {
+            drainSendQueue.send(item);
+        }
+        drainSendQueue.flushSends();
+        for (int index = 0; index < BATCH; index++) {
+            blackhole.consume(drainReceiveQueue.poll());
+        }
+    }
+}
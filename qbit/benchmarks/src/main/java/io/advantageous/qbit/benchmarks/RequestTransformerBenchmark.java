@@ -0,0 +1,110 @@
+package io.advantageous.qbit.benchmarks;
+
+import io.advantageous.qbit.annotation.HeaderParam;
+import io.advantageous.qbit.annotation.PathVariable;
+import io.advantageous.qbit.annotation.RequestMapping;
+import io.advantageous.qbit.annotation.RequestMethod;
+import io.advantageous.qbit.annotation.RequestParam;
+import io.advantageous.qbit.http.request.HttpRequest;
+import io.advantageous.qbit.http.request.HttpRequestBuilder;
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.meta.builder.ContextMetaBuilder;
+import io.advantageous.qbit.meta.provider.StandardMetaDataProvider;
+import io.advantageous.qbit.meta.transformer.StandardRequestTransformer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static io.advantageous.boon.core.Maps.safeMap;
+
+/**
+ * Binds HTTP requests to method calls with StandardRequestTransformer: request params, path variables plus a
+ * header, and a JSON body.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RequestTransformerBenchmark {
+
+    private StandardRequestTransformer transformer;
+    private HttpRequest paramsRequest;
+    private HttpRequest pathRequest;
+    private HttpRequest bodyRequest;
+    private final List<String> errors = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        final ContextMetaBuilder contextMetaBuilder = ContextMetaBuilder.contextMetaBuilder();
+        contextMetaBuilder.addService(TradeService.class);
+        transformer = new StandardRequestTransformer(safeMap(
+                RequestMethod.GET, new StandardMetaDataProvider(contextMetaBuilder.build(), RequestMethod.GET),
+                RequestMethod.POST, new StandardMetaDataProvider(contextMetaBuilder.build(), RequestMethod.POST)),
+                Optional.empty());
+
+        paramsRequest = new HttpRequestBuilder().setUri("/services/trade/add")
+                .addParam("a", "1").addParam("b", "2").build();
+        pathRequest = new HttpRequestBuilder().setUri("/services/trade/quote/IBM/10")
+                .addHeader("currency", "USD").build();
+        bodyRequest = new HttpRequestBuilder().setUri("/services/trade/trade").setMethodPost()
+                .setContentType("application/json")
+                .setBody("{\"name\":\"IBM\",\"amount\":10}").build();
+
+        for (HttpRequest request : new HttpRequest[]{paramsRequest, pathRequest, bodyRequest}) {
+            errors.clear();
+            final MethodCall<Object> methodCall = transformer.transform(request, errors);
+            if (methodCall == null || !errors.isEmpty()) {
+                throw new IllegalStateException("Unable to bind " + request.address() + " " + errors);
+            }
+        }
+    }
+
+    @Benchmark
+    public MethodCall<Object> requestParams() {
+        errors.clear();
+        return transformer.transform(paramsRequest, errors);
+    }
+
+    @Benchmark
+    public MethodCall<Object> pathVariables() {
+        errors.clear();
+        return transformer.transform(pathRequest, errors);
+    }
+
+    @Benchmark
+    public MethodCall<Object> jsonBody() {
+        errors.clear();
+        return transformer.transform(bodyRequest, errors);
+    }
+
+    @RequestMapping("/trade")
+    public static class TradeService {
+
+        @RequestMapping("/add")
+        public int add(@RequestParam("a") final int a, @RequestParam("b") final int b) {
+            return a + b;
+        }
+
+        @RequestMapping("/quote/{0}/{1}")
+        public double quote(@PathVariable final String symbol,
+                            @PathVariable final int amount,
+                            @HeaderParam("currency") final String currency) {
+            return amount;
+        }
+
+        @RequestMapping(value = "/trade", method = RequestMethod.POST)
+        public boolean trade(final Trade trade) {
+            return true;
+        }
+    }
+
+    public static class Trade {
+        private String name;
+        private long amount;
+    }
+}
@@ -0,0 +1,109 @@
+package io.advantageous.qbit.benchmarks;
+
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.service.ServiceBuilder;
+import io.advantageous.qbit.service.ServiceProxyUtils;
+import io.advantageous.qbit.service.ServiceQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calls a service through its ServiceQueue proxy.
+ * <p>
+ * oneWay sends void calls, callbackBatch sends calls with callbacks and waits for all the responses, and
+ * callbackRoundTrip measures the latency of one call and its callback.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ServiceQueueBenchmark {
+
+    static final int BATCH = 100;
+
+    private ServiceQueue serviceQueue;
+    private Adder adder;
+    private AdderService adderService;
+    private final AtomicLong responses = new AtomicLong();
+    private long sent;
+    private Callback<Integer> callback;
+
+    @Setup
+    public void setup() {
+        adderService = new AdderService();
+        final ServiceBuilder serviceBuilder = ServiceBuilder.serviceBuilder().setServiceObject(adderService);
+        /* Otherwise responses wait for the periodic response flush and the callbacks measure the flush timer. */
+        serviceBuilder.getResponseQueueBuilder().setBatchSize(1);
+        serviceQueue = serviceBuilder.buildAndStartAll();
+        adder = serviceQueue.createProxy(Adder.class);
+        callback = sum -> responses.incrementAndGet();
+    }
+
+    @TearDown
+    public void tearDown() {
+        serviceQueue.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void oneWay() {
+        for (int index = 0; index < BATCH; index++) {
+            adder.sum(index, 1);
+        }
+        ServiceProxyUtils.flushServiceProxy(adder);
+        sent += BATCH;
+        /* Wait for the service so the request queue does not grow between invocations. */
+        while (adderService.calls < sent) {
+            Thread.yield();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void callbackBatch() {
+        final long expected = responses.get() + BATCH;
+        for (int index = 0; index < BATCH; index++) {
+            adder.add(callback, index, 1);
+        }
+        ServiceProxyUtils.flushServiceProxy(adder);
+        while (responses.get() < expected) {
+            Thread.yield();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void callbackRoundTrip() {
+        final long expected = responses.get() + 1;
+        adder.add(callback, 1, 1);
+        ServiceProxyUtils.flushServiceProxy(adder);
+        while (responses.get() < expected) {
+            Thread.yield();
+        }
+    }
+
+    public interface Adder {
+        void sum(int a, int b);
+
+        void add(Callback<Integer> callback, int a, int b);
+    }
+
+    public static class AdderService {
+
+        volatile long calls;
+
+        public void sum(final int a, final int b) {
+            calls++;
+        }
+
+        public void add(final Callback<Integer> callback, final int a, final int b) {
+            calls++;
+            callback.accept(a + b);
+        }
+    }
+}
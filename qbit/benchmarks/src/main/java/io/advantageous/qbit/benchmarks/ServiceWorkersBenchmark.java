@@ -0,0 +1,90 @@
+package io.advantageous.qbit.benchmarks;
+
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.service.ServiceBuilder;
+import io.advantageous.qbit.service.ServiceBundle;
+import io.advantageous.qbit.service.ServiceBundleBuilder;
+import io.advantageous.qbit.service.ServiceProxyUtils;
+import io.advantageous.qbit.service.dispatchers.RoundRobinServiceWorkerBuilder;
+import io.advantageous.qbit.service.dispatchers.ServiceMethodDispatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.advantageous.qbit.service.ServiceBundleBuilder.serviceBundleBuilder;
+
+/**
+ * Dispatches calls from a ServiceBundle proxy to round robin ServiceWorkers and waits for the callbacks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ServiceWorkersBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({"1", "4"})
+    public int workers;
+
+    private ServiceBundle serviceBundle;
+    private ServiceMethodDispatcher dispatcher;
+    private WorkerClient worker;
+    private final AtomicLong responses = new AtomicLong();
+    private Callback<Integer> callback;
+
+    @Setup
+    public void setup() {
+        /* Flush responses right away so the callbacks do not measure the periodic response flush. */
+        final ServiceBuilder serviceBuilder = ServiceBuilder.serviceBuilder();
+        serviceBuilder.getResponseQueueBuilder().setBatchSize(1);
+        dispatcher = RoundRobinServiceWorkerBuilder.roundRobinServiceWorkerBuilder()
+                .setServiceBuilder(serviceBuilder)
+                .setWorkerCount(workers)
+                .setFlushInterval(1)
+                .setServiceObjectSupplier(Worker::new)
+                .build();
+        dispatcher.start();
+
+        final ServiceBundleBuilder serviceBundleBuilder = serviceBundleBuilder().setAddress("/root");
+        serviceBundleBuilder.getResponseQueueBuilder().setBatchSize(1);
+        serviceBundle = serviceBundleBuilder.build();
+        serviceBundle.addServiceConsumer("/workers", dispatcher);
+        serviceBundle.startUpCallQueue();
+
+        worker = serviceBundle.createLocalProxy(WorkerClient.class, "/workers");
+        callback = value -> responses.incrementAndGet();
+    }
+
+    @TearDown
+    public void tearDown() {
+        serviceBundle.stop();
+        dispatcher.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void dispatch() {
+        final long expected = responses.get() + BATCH;
+        for (int index = 0; index < BATCH; index++) {
+            worker.work(callback, index);
+        }
+        ServiceProxyUtils.flushServiceProxy(worker);
+        while (responses.get() < expected) {
+            Thread.yield();
+        }
+    }
+
+    public interface WorkerClient {
+        void work(Callback<Integer> callback, int value);
+    }
+
+    public static class Worker {
+        public void work(final Callback<Integer> callback, final int value) {
+            callback.accept(value + 1);
+        }
+    }
+}
@@ -132,6 +132,39 @@ public interface Factory {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * @param directRouting callers enqueue on the service queues from their own thread instead of going through
+     *                      the bundle's call queue
+     */
+    @SuppressWarnings("rawtypes")
+    default ServiceBundle createServiceBundle(String address,
+                                              final QueueBuilder requestQueueBuilder,
+                                              final QueueBuilder responseQueueBuilder,
+                                              final QueueBuilder webResponseQueueBuilder,
+                                              final Factory factory, final boolean asyncCalls,
+                                              final BeforeMethodCall beforeMethodCall,
+                                              final BeforeMethodCall beforeMethodCallAfterTransform,
+                                              final Transformer<Request, Object> argTransformer,
+                                              boolean invokeDynamic,
+                                              final QBitSystemManager systemManager,
+                                              final HealthServiceAsync healthService,
+                                              final StatsCollector statsCollector,
+                                              final Timer timer,
+                                              final int statsFlushRateSeconds,
+                                              final int checkTimingEveryXCalls,
+                                              final CallbackManager callbackManager,
+                                              final EventManager eventManager,
+                                              final BeforeMethodSent beforeMethodSent,
+                                              final BeforeMethodCall beforeMethodCallOnServiceQueue,
+                                              final AfterMethodCall afterMethodCallOnServiceQueue,
+                                              final boolean directRouting) {
+        return createServiceBundle(address, requestQueueBuilder, responseQueueBuilder, webResponseQueueBuilder,
+                factory, asyncCalls, beforeMethodCall, beforeMethodCallAfterTransform, argTransformer, invokeDynamic,
+                systemManager, healthService, statsCollector, timer, statsFlushRateSeconds, checkTimingEveryXCalls,
+                callbackManager, eventManager, beforeMethodSent, beforeMethodCallOnServiceQueue,
+                afterMethodCallOnServiceQueue);
+    }
+
 
     default ServiceMethodHandler createServiceMethodHandler(boolean invokeDynamic) {
         throw new UnsupportedOperationException();
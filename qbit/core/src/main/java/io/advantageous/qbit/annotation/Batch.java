@@ -0,0 +1,24 @@
+package io.advantageous.qbit.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Marks a service method that handles all of its calls from one drained batch of the service queue at once.
+ * <p>
+ * The method takes a single {@code List<Object[]>}, one argument array per call with callbacks removed.
+ * It either returns nothing, in which case each call with a callback is answered with null, or returns a
+ * {@code List} with one result per call in the same order. A result that is a {@code Throwable} fails that call.
+ * If the method throws, every call in the batch fails.
+ * <p>
+ * Calls to a batch method are collected until the batch ends or a call to a method that is not a batch method
+ * comes in, so the service never sees a call before one that was sent ahead of it. Calls to different batch
+ * methods are grouped per method.
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Batch {
+}
@@ -0,0 +1,21 @@
+package io.advantageous.qbit.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Marks a service method that makes kept {@link Cacheable} results stale.
+ * <p>
+ * The results are dropped before the method is called. When the method also listens to an event channel,
+ * every event on that channel drops them as well.
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheEvict {
+
+    /* Names of the cacheable methods whose results are dropped, all of them when empty. */
+    String[] value() default {};
+}
@@ -0,0 +1,36 @@
+package io.advantageous.qbit.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Marks a read only service method whose results the service queue keeps and hands to repeated calls.
+ * <p>
+ * A call with the same arguments as a kept result is answered by the service queue without reaching the service.
+ * Failures are not kept. Results are dropped when they are older than {@link #ttlMS()}, when the method has
+ * more than {@link #maxEntries()} results, or when a {@link CacheEvict} method is called or hears an event.
+ * The method must return a value, return a promise or take a callback.
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Cacheable {
+
+    /* How long a result is kept, 0 keeps it until it is evicted. */
+    long ttlMS() default 0;
+
+    /* Most results kept for the method. */
+    int maxEntries() default 1_000;
+
+    /* Which result is dropped when the method has too many. */
+    Eviction eviction() default Eviction.LRU;
+
+    enum Eviction {
+        /* Drops the result used least recently. */
+        LRU,
+        /* Drops the result used least often. */
+        LFU
+    }
+}
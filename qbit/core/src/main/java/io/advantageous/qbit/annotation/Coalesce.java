@@ -0,0 +1,29 @@
+package io.advantageous.qbit.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Marks a read only service method whose identical calls can share one execution.
+ * <p>
+ * A call with the same key as a call that is still running waits for that call and gets its result.
+ * A successful result is also handed to identical calls until the end of the current batch of the service
+ * queue, or for {@link #windowMS()} when that is set. Failures are passed to the waiting calls but not reused.
+ * The method must return a value, return a promise or take a callback.
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesce {
+
+    /* Positions of the arguments, not counting callbacks, that make up the key. All arguments when empty. */
+    int[] keyArgs() default {};
+
+    /* How long a result is reused after it was produced, 0 reuses it until the end of the batch. */
+    long windowMS() default 0;
+
+    /* How long a running call takes identical calls, so a call that never answers does not hold them forever. */
+    long inFlightTimeoutMS() default 30_000;
+}
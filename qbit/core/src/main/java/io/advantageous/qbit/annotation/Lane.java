@@ -0,0 +1,18 @@
+package io.advantageous.qbit.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sends calls to this service method to a request lane. Lane 0 has the highest priority.
+ * Only used when the service request queue is built with more than one lane.
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Lane {
+
+    /* The lane number. */
+    int value();
+}
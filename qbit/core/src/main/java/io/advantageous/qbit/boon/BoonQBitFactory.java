@@ -211,6 +211,7 @@ public class BoonQBitFactory implements Factory {
         methodCallBuilder.setOriginatingRequest(request);
         methodCallBuilder.setBody(args);
         methodCallBuilder.setHeaders(request.headers());
+        methodCallBuilder.setDeadlineFromHeaders(request.headers());
         methodCallBuilder.setParams(request.params());
         methodCallBuilder.setAddress(request.address());
         methodCallBuilder.overridesFromParams();
@@ -286,13 +287,44 @@ public class BoonQBitFactory implements Factory {
                                              final BeforeMethodSent beforeMethodSent,
                                              final BeforeMethodCall beforeMethodCallOnServiceQueue,
                                              final AfterMethodCall afterMethodCallOnServiceQueue) {
+        return createServiceBundle(address, requestQueueBuilder, responseQueueBuilder, webResponseQueueBuilder,
+                factory, asyncCalls, beforeMethodCall, beforeMethodCallAfterTransform, argTransformer, invokeDynamic,
+                systemManager, healthService, statsCollector, timer, statsFlushRateSeconds, checkTimingEveryXCalls,
+                callbackManager, eventManager, beforeMethodSent, beforeMethodCallOnServiceQueue,
+                afterMethodCallOnServiceQueue, false);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public ServiceBundle createServiceBundle(final String address,
+                                             final QueueBuilder requestQueueBuilder,
+                                             final QueueBuilder responseQueueBuilder,
+                                             final QueueBuilder webResponseQueueBuilder,
+                                             final Factory factory,
+                                             final boolean asyncCalls,
+                                             final BeforeMethodCall beforeMethodCall,
+                                             final BeforeMethodCall beforeMethodCallAfterTransform,
+                                             final Transformer<Request, Object> argTransformer,
+                                             final boolean invokeDynamic,
+                                             final QBitSystemManager systemManager,
+                                             final HealthServiceAsync healthService,
+                                             final StatsCollector statsCollector,
+                                             final Timer timer,
+                                             final int statsFlushRateSeconds,
+                                             final int checkTimingEveryXCalls,
+                                             final CallbackManager callbackManager,
+                                             final EventManager eventManager,
+                                             final BeforeMethodSent beforeMethodSent,
+                                             final BeforeMethodCall beforeMethodCallOnServiceQueue,
+                                             final AfterMethodCall afterMethodCallOnServiceQueue,
+                                             final boolean directRouting) {
         return new ServiceBundleImpl(address, requestQueueBuilder, responseQueueBuilder,
                 webResponseQueueBuilder,
                 factory, asyncCalls, beforeMethodCall, beforeMethodCallAfterTransform,
                 argTransformer, invokeDynamic, systemManager, healthService, statsCollector, timer,
                 statsFlushRateSeconds, checkTimingEveryXCalls, callbackManager,
                 eventManager, beforeMethodSent, beforeMethodCallOnServiceQueue,
-                afterMethodCallOnServiceQueue);
+                afterMethodCallOnServiceQueue, directRouting);
     }
 
 
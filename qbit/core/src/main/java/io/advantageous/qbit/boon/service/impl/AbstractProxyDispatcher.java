@@ -0,0 +1,133 @@
+package io.advantageous.qbit.boon.service.impl;
+
+import io.advantageous.qbit.client.BeforeMethodSent;
+import io.advantageous.qbit.client.proxy.ProxyDispatcher;
+import io.advantageous.qbit.message.MethodCallBuilder;
+import io.advantageous.qbit.reactive.AsyncFutureCallback;
+import io.advantageous.qbit.reakt.Reakt;
+import io.advantageous.qbit.service.impl.BaseServiceQueueImpl;
+import io.advantageous.qbit.util.Timer;
+import io.advantageous.reakt.CallbackHandler;
+import io.advantageous.reakt.promise.Promise;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Message timestamps, Reakt callback conversion and BeforeMethodSent handling shared by the proxy dispatchers.
+ */
+abstract class AbstractProxyDispatcher implements ProxyDispatcher {
+
+    protected final BeforeMethodSent beforeMethodSent;
+    /**
+     * True when BeforeMethodSent is the no-op default, so calls can be built without a MethodCallBuilder.
+     */
+    protected final boolean buildDirect;
+    /**
+     * Id of the target service, -1 when calls are addressed by name.
+     */
+    protected final int serviceId;
+    private final ToIntFunction<String> methodIdResolver;
+    protected long timestamp;
+    private int times;
+
+    AbstractProxyDispatcher(final BeforeMethodSent beforeMethodSent) {
+        this(beforeMethodSent, -1, null);
+    }
+
+    AbstractProxyDispatcher(final BeforeMethodSent beforeMethodSent, final int serviceId,
+                            final ToIntFunction<String> methodIdResolver) {
+        this.serviceId = serviceId;
+        this.methodIdResolver = methodIdResolver;
+        this.beforeMethodSent = beforeMethodSent != null ? beforeMethodSent : new BeforeMethodSent() {
+        };
+        this.buildDirect = isNoOp(this.beforeMethodSent);
+        timestamp = Timer.timer().now();
+        times = 10;
+    }
+
+    private static boolean isNoOp(final BeforeMethodSent beforeMethodSent) {
+        try {
+            return beforeMethodSent.getClass().getMethod("beforeMethodSent", MethodCallBuilder.class)
+                    .getDeclaringClass() == BeforeMethodSent.class;
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+
+    @Override
+    public int[] methodIds(final String[] names) {
+        final int[] ids = new int[names.length];
+        for (int index = 0; index < names.length; index++) {
+            ids[index] = methodIdResolver == null ? -1 : methodIdResolver.applyAsInt(names[index]);
+        }
+        return ids;
+    }
+
+    @Override
+    public void call(final String name, final Object[] args, final boolean convertReaktCallbacks) {
+        call(-1, name, args, convertReaktCallbacks);
+    }
+
+    @Override
+    public Promise<Object> promise(final String name, final Object[] args) {
+        return promise(-1, name, args);
+    }
+
+    protected void generateTimeStamp() {
+        times--;
+        if (times == 0) {
+            timestamp = Timer.timer().now();
+            times = 10;
+        } else {
+            timestamp++;
+        }
+    }
+
+    /**
+     * Deadline of a call: the earliest timeout of its callbacks, or the deadline of the call the calling service
+     * is handling. A call without a callback has none, nobody waits for its answer.
+     *
+     * @param args arguments of the call
+     * @return deadline, 0 for none
+     */
+    protected static long deadline(final Object[] args) {
+        if (args == null) {
+            return 0;
+        }
+        boolean hasCallback = false;
+        long deadline = 0;
+        for (Object arg : args) {
+            if (arg instanceof CallbackHandler) {
+                hasCallback = true;
+                if (arg instanceof AsyncFutureCallback) {
+                    final AsyncFutureCallback<?> callback = (AsyncFutureCallback<?>) arg;
+                    /* A start time of 0 means the callback is not timed by a reactor. */
+                    if (callback.startTime() > 0 && callback.timeOutDuration() > 0) {
+                        deadline = earliest(deadline, callback.startTime() + callback.timeOutDuration());
+                    }
+                }
+            }
+        }
+        return hasCallback ? earliest(deadline, BaseServiceQueueImpl.currentDeadline()) : 0;
+    }
+
+    protected static long earliest(final long deadline, final long other) {
+        if (deadline == 0) {
+            return other;
+        }
+        return other == 0 ? deadline : Math.min(deadline, other);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected static void convertToReaktCallbacks(final Object[] args) {
+        if (args == null) {
+            return;
+        }
+        for (int index = 0; index < args.length; index++) {
+            Object object = args[index];
+            if (object instanceof CallbackHandler) {
+                args[index] = Reakt.convertCallback(((CallbackHandler<Object>) object));
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.advantageous.qbit.boon.service.impl;
+
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.message.Response;
+import io.advantageous.qbit.message.impl.MessagePool;
+import io.advantageous.qbit.message.impl.ResponseImpl;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.reactive.Callback;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the calls to a {@link io.advantageous.qbit.annotation.Batch} method until the batch ends,
+ * then invokes the method once and answers each call.
+ */
+final class BatchedMethod {
+
+    private final ServiceMethodInvoker invoker;
+    private final List<MethodCall<Object>> calls = new ArrayList<>();
+
+    BatchedMethod(final ServiceMethodInvoker invoker) {
+        if (invoker.parameterCount() != 1 || !List.class.isAssignableFrom(invoker.parameterTypes()[0])) {
+            throw new IllegalStateException("Batch method " + invoker.name() + " must take a single List");
+        }
+        if (!invoker.returnsVoid() && !List.class.isAssignableFrom(invoker.methodAccess().returnType())) {
+            throw new IllegalStateException("Batch method " + invoker.name() + " must return void or a List");
+        }
+        this.invoker = invoker;
+    }
+
+    void add(final MethodCall<Object> methodCall) {
+        calls.add(methodCall);
+    }
+
+    void flush(final Object service, final SendQueue<Response<Object>> responseSendQueue) {
+        if (calls.isEmpty()) {
+            return;
+        }
+        final List<Object[]> arguments = new ArrayList<>(calls.size());
+        for (MethodCall<Object> methodCall : calls) {
+            arguments.add(arguments(methodCall));
+        }
+
+        Object returnValue = null;
+        Throwable error = null;
+        try {
+            returnValue = invoker.invoke(service, new Object[]{arguments}, false);
+        } catch (Exception ex) {
+            error = ex.getCause() instanceof InvocationTargetException
+                    ? ((InvocationTargetException) ex.getCause()).getTargetException() : ex;
+        }
+
+        final List<?> results = returnValue instanceof List ? (List<?>) returnValue : null;
+        for (int index = 0; index < calls.size(); index++) {
+            final MethodCall<Object> methodCall = calls.get(index);
+            if (error != null) {
+                responseSendQueue.send(ResponseImpl.error(methodCall, error));
+            } else if (invoker.returnsVoid()) {
+                if (methodCall.hasCallback()) {
+                    responseSendQueue.send(ResponseImpl.response(methodCall, null));
+                } else {
+                    MessagePool.release(methodCall);
+                }
+            } else {
+                final Object result = results != null && index < results.size() ? results.get(index) : null;
+                responseSendQueue.send(result instanceof Throwable
+                        ? ResponseImpl.error(methodCall, (Throwable) result)
+                        : ResponseImpl.response(methodCall, result));
+            }
+        }
+        calls.clear();
+    }
+
+    /**
+     * @return arguments of the call without callbacks
+     */
+    static Object[] arguments(final MethodCall<Object> methodCall) {
+        if (methodCall.body() == null) {
+            return new Object[0];
+        }
+        final Object[] args = methodCall.args();
+        int callbacks = 0;
+        for (Object arg : args) {
+            if (arg instanceof Callback) {
+                callbacks++;
+            }
+        }
+        if (callbacks == 0) {
+            return args;
+        }
+        final Object[] values = new Object[args.length - callbacks];
+        int valueIndex = 0;
+        for (Object arg : args) {
+            if (!(arg instanceof Callback)) {
+                values[valueIndex++] = arg;
+            }
+        }
+        return values;
+    }
+}
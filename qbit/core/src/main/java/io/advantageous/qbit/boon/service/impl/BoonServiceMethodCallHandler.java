@@ -59,6 +59,15 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
     private final MapAndInvoke mapAndInvoke;
     private final TreeSet<String> addresses = new TreeSet<>();
     private final Map<String, MethodAccess> methodMap = new LinkedHashMap<>();
+    /**
+     * Generated invokers by method name, built at init so dispatch does not go through Boon reflection.
+     */
+    private final Map<String, ServiceMethodInvoker> invokerMap = new HashMap<>();
+    private ServiceMethodInvoker[] invokers = new ServiceMethodInvoker[0];
+    private final Map<String, BatchedMethod> batchedMethodMap = new HashMap<>();
+    private BatchedMethod[] batchedMethods = new BatchedMethod[0];
+    private final Map<String, CallCoalescer.CoalescedMethod> coalescedMethodMap = new HashMap<>();
+    private CallCoalescer callCoalescer;
     /**
      * Holds on to Boon cache so we don't have to recreate reflected gak.
      */
@@ -86,19 +95,19 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
     public Response<Object> receiveMethodCall(MethodCall<Object> methodCall) {
 
         try {
-            return invokeByName(methodCall);
+            return callCoalescer == null ? invokeByName(methodCall) : callCoalescer.receive(methodCall);
         } catch (Exception ex) {
 
 
             if (ex.getCause() instanceof InvocationTargetException) {
                 InvocationTargetException tex = (InvocationTargetException) ex.getCause();
-                return new ResponseImpl<>(methodCall, tex.getTargetException());
+                return ResponseImpl.error(methodCall, tex.getTargetException());
             }
-            return new ResponseImpl<>(methodCall, ex);
+            return ResponseImpl.error(methodCall, ex);
         }
     }
 
-    private Response<Object> mapArgsAsyncHandlersAndInvoke(MethodCall<Object> methodCall, MethodAccess serviceMethod) {
+    private Response<Object> mapArgsAsyncHandlersAndInvoke(MethodCall<Object> methodCall, ServiceMethodInvoker serviceMethod) {
         return this.mapAndInvoke.mapArgsAsyncHandlersAndInvoke(methodCall, serviceMethod);
     }
 
@@ -118,7 +127,7 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
         return has;
     }
 
-    protected boolean hasHandlers(MethodCall<Object> methodCall, MethodAccess serviceMethod) {
+    boolean hasHandlers(MethodCall<Object> methodCall, ServiceMethodInvoker serviceMethod) {
 
         Boolean has = hasHandlerMap.get(methodCall.name());
 
@@ -135,18 +144,8 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
 
     }
 
-    private boolean hasHandlers(MethodAccess serviceMethod) {
-
-        if (Promise.class.isAssignableFrom(serviceMethod.returnType())) {
-            return true;
-        }
-
-        for (Class<?> paramType : serviceMethod.parameterTypes()) {
-            if (paramType == Callback.class) {
-                return true;
-            }
-        }
-        return false;
+    private boolean hasHandlers(ServiceMethodInvoker serviceMethod) {
+        return serviceMethod.returnsPromise() || serviceMethod.hasCallbackParameter();
     }
 
     private boolean hasHandlers(MethodCall<Object> methodCall) {
@@ -178,7 +177,7 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
         }
     }
 
-    protected void extractHandlersFromArgumentList(Callback<Object> callback, MethodAccess method, Object body, List<Object> argsList) {
+    void extractHandlersFromArgumentList(Callback<Object> callback, ServiceMethodInvoker method, Object body, Object[] argsList) {
         if (body instanceof List) {
 
             @SuppressWarnings("unchecked") List<Object> list = (List<Object>) body;
@@ -191,21 +190,20 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
     }
 
     private void extractHandlersFromArgumentListArrayCase(final Callback<Object> callback,
-                                                          final MethodAccess serviceMethod,
+                                                          final ServiceMethodInvoker serviceMethod,
                                                           final Object[] inputParams,
-                                                          final List<Object> preparedArgumentList) {
-        final Class<?>[] parameterTypes = serviceMethod.method().getParameterTypes();
+                                                          final Object[] preparedArgumentList) {
 
 
         /** If the argument need by the service method is greater than the arguments than we have in the
          * inputParams than we need to find the callback.
          */
-        if (inputParams.length < preparedArgumentList.size()) {
-            for (int index = 0, arrayIndex = 0; index < preparedArgumentList.size(); index++, arrayIndex++) {
-                final Object o = preparedArgumentList.get(index);
-                if (parameterTypes[index] == Callback.class) {
+        if (inputParams.length < preparedArgumentList.length) {
+            for (int index = 0, arrayIndex = 0; index < preparedArgumentList.length; index++, arrayIndex++) {
+                final Object o = preparedArgumentList[index];
+                if (serviceMethod.isCallback(index)) {
                     if (o == null) {
-                        preparedArgumentList.set(index, callback);
+                        preparedArgumentList[index] = callback;
                     }
                     arrayIndex--;
                     continue;
@@ -213,14 +211,14 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
                 if (arrayIndex >= inputParams.length) {
                     break;
                 }
-                preparedArgumentList.set(index, inputParams[arrayIndex]);
+                preparedArgumentList[index] = inputParams[arrayIndex];
 
             }
         } else {
 
 
-            if (inputParams.length > preparedArgumentList.size()) {
-                for (int index = 0, arrayIndex = 0; index < preparedArgumentList.size(); index++, arrayIndex++) {
+            if (inputParams.length > preparedArgumentList.length) {
+                for (int index = 0, arrayIndex = 0; index < preparedArgumentList.length; index++, arrayIndex++) {
 
                     final Object in = inputParams[arrayIndex];
                     if (in instanceof Callback) {
@@ -229,21 +227,21 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
                     if (arrayIndex >= inputParams.length) {
                         break;
                     }
-                    preparedArgumentList.set(index, inputParams[arrayIndex]);
+                    preparedArgumentList[index] = inputParams[arrayIndex];
 
                 }
 
             } else {
 
-                for (int index = 0, arrayIndex = 0; index < preparedArgumentList.size(); index++, arrayIndex++) {
-                    final Object paramPrepare = preparedArgumentList.get(index);
+                for (int index = 0, arrayIndex = 0; index < preparedArgumentList.length; index++, arrayIndex++) {
+                    final Object paramPrepare = preparedArgumentList[index];
                     if (paramPrepare instanceof Callback) {
                         continue;
                     }
                     if (arrayIndex >= inputParams.length) {
                         break;
                     }
-                    preparedArgumentList.set(index, inputParams[arrayIndex]);
+                    preparedArgumentList[index] = inputParams[arrayIndex];
 
                 }
             }
@@ -252,30 +250,28 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
     }
 
     private void extractHandlersFromArgumentListBodyIsList(final Callback<Object> callback,
-                                                           final MethodAccess serviceMethod,
-                                                           final List<Object> argsList,
+                                                           final ServiceMethodInvoker serviceMethod,
+                                                           final Object[] argsList,
                                                            List<Object> list) {
 
 
-        final Class<?>[] parameterTypes = serviceMethod.method().getParameterTypes();
-
         /** Check to see if the array size is one less that the argument size
          * If it is then we think this is a method that has a Callback
          * as the first argument.
          */
-        if (serviceMethod.method().getReturnType() == void.class && (list.size() - 1 == serviceMethod.parameterTypes().length)) {
-            if (parameterTypes[0] == Callback.class) {
+        if (serviceMethod.methodAccess().returnType() == void.class && (list.size() - 1 == serviceMethod.parameterCount())) {
+            if (serviceMethod.isCallback(0)) {
                 list = Lists.slc(list, 1); //remove the callback from the args bc the callback is called
                 // when the method returns.
             }
         }
 
-        if (list.size() < argsList.size()) {
-            for (int index = 0, arrayIndex = 0; index < argsList.size(); index++, arrayIndex++) {
-                final Object o = argsList.get(index);
-                if (parameterTypes[index] == Callback.class) {
+        if (list.size() < argsList.length) {
+            for (int index = 0, arrayIndex = 0; index < argsList.length; index++, arrayIndex++) {
+                final Object o = argsList[index];
+                if (serviceMethod.isCallback(index)) {
                     if (o == null) {
-                        argsList.set(index, callback);
+                        argsList[index] = callback;
                     }
                     arrayIndex--;
                     continue;
@@ -283,16 +279,16 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
                 if (arrayIndex >= list.size()) {
                     break;
                 }
-                argsList.set(index, list.get(arrayIndex));
+                argsList[index] = list.get(arrayIndex);
 
             }
         } else {
 
             final Iterator<Object> iterator = list.iterator();
 
-            for (int index = 0; index < argsList.size(); index++) {
+            for (int index = 0; index < argsList.length; index++) {
 
-                final Object o = argsList.get(index);
+                final Object o = argsList[index];
                 if (o instanceof Callback) {
                     continue;
                 }
@@ -301,27 +297,25 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
                     break;
                 }
 
-                argsList.set(index, iterator.next());
+                argsList[index] = iterator.next();
             }
         }
     }
 
-    protected Response<Object> response(MethodAccess methodAccess, MethodCall<Object> methodCall, Object returnValue) {
+    Response<Object> response(ServiceMethodInvoker serviceMethod, MethodCall<Object> methodCall, Object returnValue) {
 
-        if (methodAccess.returnType() == void.class || methodAccess.returnType() == Void.class) {
+        if (serviceMethod.returnsVoid()) {
             return ServiceConstants.VOID;
         }
-        return ResponseImpl.response(methodCall.id(), methodCall.timestamp(), methodCall.address(), methodCall.returnAddress(), returnValue, methodCall);
+        return ResponseImpl.response(methodCall, returnValue);
     }
 
-    protected List<Object> prepareArgumentList(final MethodCall<Object> methodCall, Class<?>[] parameterTypes) {
-        final List<Object> argsList = new ArrayList<>(parameterTypes.length);
-        for (Class<?> parameterType : parameterTypes) {
-            if (parameterType == Callback.class) {
-                argsList.add(createCallBackHandler(methodCall));
-                continue;
+    Object[] prepareArgumentList(final MethodCall<Object> methodCall, final ServiceMethodInvoker serviceMethod) {
+        final Object[] argsList = new Object[serviceMethod.parameterCount()];
+        for (int index = 0; index < argsList.length; index++) {
+            if (serviceMethod.isCallback(index)) {
+                argsList[index] = createCallBackHandler(methodCall);
             }
-            argsList.add(null);
         }
         return argsList;
 
@@ -334,7 +328,16 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
     }
 
     private Response<Object> invokeByName(MethodCall<Object> methodCall) {
-        final MethodAccess method = classMeta.method(methodCall.name());
+        if (batchedMethods.length > 0) {
+            final BatchedMethod batchedMethod = batchedMethodMap.get(methodCall.name());
+            if (batchedMethod != null) {
+                batchedMethod.add(methodCall);
+                return ServiceConstants.VOID;
+            }
+            /* Batched calls that came first run first, so the service sees calls in the order they came. */
+            flushBatchedMethods();
+        }
+        final ServiceMethodInvoker method = lookupInvoker(methodCall);
 
         if (method != null) {
             return mapArgsAsyncHandlersAndInvoke(methodCall, method);
@@ -463,6 +466,11 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
         readMethodMetaData();
         initQueueHandlerMethods();
 
+        if (!coalescedMethodMap.isEmpty()) {
+            callCoalescer = new CallCoalescer(responseSendQueue, coalescedMethodMap, this::invokeByName);
+            this.responseSendQueue = callCoalescer;
+        }
+
     }
 
     private void initQueueHandlerMethods() {
@@ -489,11 +497,73 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
         for (MethodAccess methodAccess : methods) {
 
             registerMethod(methodAccess);
+            registerInvoker(methodAccess.name());
         }
 
         addresses.addAll(methodMap.keySet());
     }
 
+    /**
+     * Uses the method id when the caller resolved one, checking the name so an id from another
+     * service falls back to the name lookup.
+     */
+    private ServiceMethodInvoker lookupInvoker(final MethodCall<Object> methodCall) {
+        final int methodId = methodCall.methodId();
+        final ServiceMethodInvoker[] invokers = this.invokers;
+        if (methodId >= 0 && methodId < invokers.length) {
+            final ServiceMethodInvoker invoker = invokers[methodId];
+            if (invoker.name().equals(methodCall.name())) {
+                return invoker;
+            }
+        }
+        return invokerMap.get(methodCall.name());
+    }
+
+    @Override
+    public int methodId(final String name) {
+        final ServiceMethodInvoker invoker = invokerMap.get(name);
+        return invoker == null ? -1 : invoker.index();
+    }
+
+    private void registerInvoker(final String methodName) {
+        if (invokerMap.containsKey(methodName)) {
+            return;
+        }
+        final MethodAccess methodAccess = classMeta.method(methodName);
+        /* Overloaded names have no single method to bind, Boon could not invoke them by name either. */
+        if (methodAccess == null || methodAccess.method() == null) {
+            return;
+        }
+        final ServiceMethodInvoker invoker = new ServiceMethodInvoker(invokers.length, methodAccess, invokeDynamic);
+        invokers = Arrays.copyOf(invokers, invokers.length + 1);
+        invokers[invoker.index()] = invoker;
+        invokerMap.put(methodName, invoker);
+        if (methodAccess.annotation("Batch") != null) {
+            final BatchedMethod batchedMethod = new BatchedMethod(invoker);
+            batchedMethods = Arrays.copyOf(batchedMethods, batchedMethods.length + 1);
+            batchedMethods[batchedMethods.length - 1] = batchedMethod;
+            batchedMethodMap.put(methodName, batchedMethod);
+        }
+        final AnnotationData coalesce = methodAccess.annotation("Coalesce");
+        if (coalesce != null) {
+            coalescedMethodMap.put(methodName, new CallCoalescer.CoalescedMethod(invoker, coalesce));
+        }
+    }
+
+    private void flushBatchedMethods() {
+        for (BatchedMethod batchedMethod : batchedMethods) {
+            batchedMethod.flush(service, responseSendQueue);
+        }
+    }
+
+    @Override
+    public void flushBatches() {
+        flushBatchedMethods();
+        if (callCoalescer != null) {
+            callCoalescer.endBatch();
+        }
+    }
+
     private void registerMethod(MethodAccess methodAccess) {
 
         if (!methodAccess.isPrivate()) {
@@ -675,17 +745,20 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
     @Override
     public void empty() {
 
+        flushBatches();
         queueCallBackHandler.queueEmpty();
 
     }
 
     @Override
     public void limit() {
+        flushBatches();
         queueCallBackHandler.queueLimit();
     }
 
     @Override
     public void shutdown() {
+        flushBatches();
         queueCallBackHandler.queueShutdown();
     }
 
@@ -25,7 +25,9 @@ import io.advantageous.qbit.client.BeforeMethodSent;
 import io.advantageous.qbit.client.ClientProxy;
 import io.advantageous.qbit.client.RemoteTCPClientProxy;
 import io.advantageous.qbit.client.ServiceProxyFactory;
+import io.advantageous.qbit.client.proxy.GeneratedProxies;
 import io.advantageous.qbit.service.EndPoint;
+import io.advantageous.qbit.service.ServiceBundle;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
@@ -76,8 +78,25 @@ public class BoonServiceProxyFactory implements ServiceProxyFactory {
         };
 
 
-        final InvocationHandler invocationHandler = createInvocationHandler(serviceInterface, serviceName, host, port, connected,
-                endPoint, beforeMethodSent, objectAddress, returnAddress, addressCreatorBufRef);
+        /* Calls through a local bundle can address the service and its methods by id. */
+        final EndPointProxyDispatcher dispatcher;
+        if (endPoint instanceof ServiceBundle) {
+            final ServiceBundle serviceBundle = (ServiceBundle) endPoint;
+            final int serviceId = serviceBundle.serviceId(serviceName);
+            dispatcher = new EndPointProxyDispatcher(generatedMessageId, serviceName, host, port,
+                    connected, endPoint, beforeMethodSent, objectAddress, returnAddress, addressCreatorBufRef,
+                    serviceId, methodName -> serviceBundle.methodId(serviceId, methodName));
+        } else {
+            dispatcher = new EndPointProxyDispatcher(generatedMessageId, serviceName, host, port,
+                    connected, endPoint, beforeMethodSent, objectAddress, returnAddress, addressCreatorBufRef);
+        }
+
+        final T generatedProxy = GeneratedProxies.createProxy(serviceInterface, port != 0, dispatcher);
+        if (generatedProxy != null) {
+            return generatedProxy;
+        }
+
+        final InvocationHandler invocationHandler = new BoonInvocationHandlerForEndPoint(dispatcher, serviceInterface);
 
 
         if (port == 0) {
@@ -94,22 +113,6 @@ public class BoonServiceProxyFactory implements ServiceProxyFactory {
     }
 
 
-    private InvocationHandler createInvocationHandler(Class<?> serviceInterface,
-                                                      final String serviceName,
-                                                      final String host,
-                                                      final int port,
-                                                      final AtomicBoolean connected,
-                                                      final EndPoint endPoint,
-                                                      final BeforeMethodSent beforeMethodSent,
-                                                      final String objectAddress,
-                                                      final String returnAddress,
-                                                      final ThreadLocal<CharBuf> addressCreatorBufRef) {
-
-        return new BoonInvocationHandlerForEndPoint(generatedMessageId, serviceInterface, serviceName, host, port, connected, endPoint,
-                beforeMethodSent, objectAddress, returnAddress, addressCreatorBufRef);
-    }
-
-
     @Override
     public <T> T createProxy(Class<T> serviceInterface, String serviceName, EndPoint endPoint, BeforeMethodSent beforeMethodSent) {
         return createProxyWithReturnAddress(serviceInterface, serviceName, "local", 0, new AtomicBoolean(true), "", endPoint, beforeMethodSent);
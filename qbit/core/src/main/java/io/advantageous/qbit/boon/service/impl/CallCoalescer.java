@@ -0,0 +1,253 @@
+package io.advantageous.qbit.boon.service.impl;
+
+import io.advantageous.boon.core.reflection.AnnotationData;
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.message.MethodCallBuilder;
+import io.advantageous.qbit.message.Request;
+import io.advantageous.qbit.message.Response;
+import io.advantageous.qbit.message.impl.PooledMethodCall;
+import io.advantageous.qbit.message.impl.ResponseImpl;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.service.impl.CallKey;
+import io.advantageous.qbit.service.impl.ServiceConstants;
+import io.advantageous.qbit.util.Timer;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Folds identical calls to {@link io.advantageous.qbit.annotation.Coalesce} methods onto one execution.
+ * <p>
+ * Sits in front of the response send queue, so a response to a running call, sent from any thread,
+ * is also sent to every call that waits for it.
+ */
+final class CallCoalescer implements SendQueue<Response<Object>> {
+
+    private final SendQueue<Response<Object>> responseSendQueue;
+    private final Map<String, CoalescedMethod> methods;
+    private final Function<MethodCall<Object>, Response<Object>> invoker;
+    /* Running executions by the key of their first call, guarded by this. Calls may be pooled and reused, so
+       they are never keys themselves. */
+    private final Map<CallKey, Execution> inFlight = new HashMap<>();
+
+    /**
+     * @param responseSendQueue queue the responses go to
+     * @param methods           coalesced methods by name
+     * @param invoker           invokes a call that has no execution to share
+     */
+    CallCoalescer(final SendQueue<Response<Object>> responseSendQueue,
+                  final Map<String, CoalescedMethod> methods,
+                  final Function<MethodCall<Object>, Response<Object>> invoker) {
+        this.responseSendQueue = responseSendQueue;
+        this.methods = methods;
+        this.invoker = invoker;
+    }
+
+    /**
+     * Answers the call from an execution with the same key, or invokes it.
+     *
+     * @param methodCall method call
+     * @return response, VOID when the call waits for a running execution or answers later
+     */
+    Response<Object> receive(final MethodCall<Object> methodCall) {
+        final CoalescedMethod method = methods.get(methodCall.name());
+        if (method == null) {
+            return invoker.apply(methodCall);
+        }
+        final List<Object> key = method.key(methodCall);
+        final CallKey callKey = CallKey.callKey(methodCall);
+        final long now = Timer.timer().now();
+
+        final Execution execution;
+        synchronized (this) {
+            final Execution existing = method.executions.get(key);
+            if (existing != null) {
+                if (existing.done) {
+                    if (method.windowMS == 0 || now - existing.doneTime <= method.windowMS) {
+                        return ResponseImpl.response(methodCall, existing.result);
+                    }
+                } else if (now - existing.startTime < method.inFlightTimeoutMS) {
+                    /* A pooled call may be released before it is answered, so keep a copy to answer. */
+                    existing.followers.add(methodCall instanceof PooledMethodCall
+                            ? MethodCallBuilder.transformed(methodCall, methodCall.body()) : methodCall);
+                    return ServiceConstants.VOID;
+                } else {
+                    inFlight.remove(existing.leader);
+                }
+            }
+            /* Registered before the call runs, an asynchronous answer can come back before invoke returns. */
+            execution = new Execution(method, key, callKey, now);
+            method.executions.put(key, execution);
+            inFlight.put(callKey, execution);
+        }
+
+        final Response<Object> response;
+        try {
+            response = invoker.apply(methodCall);
+        } catch (RuntimeException ex) {
+            synchronized (this) {
+                inFlight.remove(callKey);
+                execution.method.executions.remove(key, execution);
+            }
+            throw ex;
+        }
+        if (response != ServiceConstants.VOID) {
+            complete(methodCall, response);
+        }
+        return response;
+    }
+
+    /**
+     * Drops results that may only be reused within a batch, results past their window and executions
+     * that did not answer in time.
+     */
+    synchronized void endBatch() {
+        final long now = Timer.timer().now();
+        for (CoalescedMethod method : methods.values()) {
+            if (method.executions.isEmpty()) {
+                continue;
+            }
+            method.executions.values().removeIf(execution -> {
+                if (execution.done) {
+                    return method.windowMS == 0 || now - execution.doneTime > method.windowMS;
+                }
+                if (now - execution.startTime >= method.inFlightTimeoutMS) {
+                    inFlight.remove(execution.leader);
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+
+    @Override
+    public boolean send(final Response<Object> response) {
+        final Object body = response.body();
+        final boolean errors = response.wasErrors();
+        final List<MethodCall<Object>> followers = complete(response.request(), response);
+        final boolean sent = responseSendQueue.send(response);
+        if (followers != null) {
+            for (MethodCall<Object> follower : followers) {
+                responseSendQueue.send(errors
+                        ? ResponseImpl.error(follower, body instanceof Throwable
+                        ? (Throwable) body : new Exception(String.valueOf(body)))
+                        : ResponseImpl.response(follower, body));
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * Records the result of a running execution.
+     *
+     * @return calls waiting for the execution, null if the response is not for a running execution
+     */
+    private synchronized List<MethodCall<Object>> complete(final Request<Object> request,
+                                                           final Response<Object> response) {
+        if (inFlight.isEmpty() || request == null) {
+            return null;
+        }
+        final Execution execution = inFlight.remove(CallKey.callKey(request));
+        if (execution == null) {
+            return null;
+        }
+        if (response.wasErrors()) {
+            execution.method.executions.remove(execution.key, execution);
+        } else {
+            execution.done = true;
+            execution.result = response.body();
+            execution.doneTime = Timer.timer().now();
+        }
+        return execution.followers.isEmpty() ? null : execution.followers;
+    }
+
+    @Override
+    public void flushSends() {
+        responseSendQueue.flushSends();
+    }
+
+    @Override
+    public int size() {
+        return responseSendQueue.size();
+    }
+
+    @Override
+    public boolean shouldBatch() {
+        return responseSendQueue.shouldBatch();
+    }
+
+    @Override
+    public String name() {
+        return responseSendQueue.name();
+    }
+
+    @Override
+    public void start() {
+        responseSendQueue.start();
+    }
+
+    @Override
+    public void stop() {
+        responseSendQueue.stop();
+    }
+
+    /**
+     * Coalescing settings of one method and its executions by key.
+     */
+    static final class CoalescedMethod {
+
+        private final int[] keyArgs;
+        private final long windowMS;
+        private final long inFlightTimeoutMS;
+        private final Map<List<Object>, Execution> executions = new HashMap<>();
+
+        CoalescedMethod(final ServiceMethodInvoker invoker, final AnnotationData coalesce) {
+            if (invoker.returnsVoid() && !invoker.hasCallbackParameter()) {
+                throw new IllegalStateException("Coalesce method " + invoker.name()
+                        + " must return a value, return a promise or take a callback");
+            }
+            final Map<String, Object> values = coalesce.getValues();
+            final Object keyArgs = values.get("keyArgs");
+            this.keyArgs = keyArgs instanceof int[] ? (int[]) keyArgs : new int[0];
+            this.windowMS = longValue(values.get("windowMS"), 0);
+            this.inFlightTimeoutMS = longValue(values.get("inFlightTimeoutMS"), 30_000);
+        }
+
+        private static long longValue(final Object value, final long defaultValue) {
+            return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+        }
+
+        private List<Object> key(final MethodCall<Object> methodCall) {
+            final Object[] arguments = BatchedMethod.arguments(methodCall);
+            if (keyArgs.length == 0) {
+                return Arrays.asList(arguments);
+            }
+            final Object[] key = new Object[keyArgs.length];
+            for (int index = 0; index < keyArgs.length; index++) {
+                final int position = keyArgs[index];
+                key[index] = position < arguments.length ? arguments[position] : null;
+            }
+            return Arrays.asList(key);
+        }
+    }
+
+    private static final class Execution {
+
+        private final CoalescedMethod method;
+        private final List<Object> key;
+        private final CallKey leader;
+        private final long startTime;
+        private final List<MethodCall<Object>> followers = new ArrayList<>();
+        private boolean done;
+        private Object result;
+        private long doneTime;
+
+        private Execution(final CoalescedMethod method, final List<Object> key,
+                          final CallKey leader, final long startTime) {
+            this.method = method;
+            this.key = key;
+            this.leader = leader;
+            this.startTime = startTime;
+        }
+    }
+}
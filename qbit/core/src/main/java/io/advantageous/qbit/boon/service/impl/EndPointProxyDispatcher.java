@@ -0,0 +1,155 @@
+package io.advantageous.qbit.boon.service.impl;
+
+import io.advantageous.boon.primitive.CharBuf;
+import io.advantageous.qbit.client.BeforeMethodSent;
+import io.advantageous.qbit.message.MethodCallBuilder;
+import io.advantageous.qbit.message.impl.MethodCallImpl;
+import io.advantageous.qbit.service.EndPoint;
+import io.advantageous.qbit.service.impl.BaseServiceQueueImpl;
+import io.advantageous.qbit.util.MultiMap;
+import io.advantageous.reakt.promise.Promise;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+import static io.advantageous.boon.core.Str.sputs;
+
+/**
+ * Sends proxy calls to an end point such as a service bundle or a remote client.
+ */
+class EndPointProxyDispatcher extends AbstractProxyDispatcher {
+
+    private final String serviceName;
+    private final String host;
+    private final int port;
+    private final AtomicBoolean connected;
+    private final EndPoint endPoint;
+    private final String objectAddress;
+    private final String returnAddress;
+    private final ThreadLocal<CharBuf> addressCreatorBufRef;
+    private final AtomicLong generatedMessageId;
+
+    EndPointProxyDispatcher(AtomicLong generatedMessageId, String serviceName, String host, int port,
+                            AtomicBoolean connected, EndPoint endPoint,
+                            BeforeMethodSent beforeMethodSent, String objectAddress, String returnAddress,
+                            ThreadLocal<CharBuf> addressCreatorBufRef) {
+        this(generatedMessageId, serviceName, host, port, connected, endPoint, beforeMethodSent, objectAddress,
+                returnAddress, addressCreatorBufRef, -1, null);
+    }
+
+    EndPointProxyDispatcher(AtomicLong generatedMessageId, String serviceName, String host, int port,
+                            AtomicBoolean connected, EndPoint endPoint,
+                            BeforeMethodSent beforeMethodSent, String objectAddress, String returnAddress,
+                            ThreadLocal<CharBuf> addressCreatorBufRef,
+                            int serviceId, ToIntFunction<String> methodIdResolver) {
+        super(beforeMethodSent, serviceId, methodIdResolver);
+        this.serviceName = serviceName;
+        this.host = host;
+        this.port = port;
+        this.connected = connected;
+        this.endPoint = endPoint;
+        this.objectAddress = objectAddress;
+        this.returnAddress = returnAddress;
+        this.addressCreatorBufRef = addressCreatorBufRef;
+        this.generatedMessageId = generatedMessageId;
+    }
+
+    @Override
+    public void call(final int methodId, final String name, final Object[] args, final boolean convertReaktCallbacks) {
+        if (convertReaktCallbacks) {
+            convertToReaktCallbacks(args);
+        }
+        if (buildDirect) {
+            final long messageId = generatedMessageId.incrementAndGet();
+            generateTimeStamp();
+            endPoint.call(new MethodCallImpl(timestamp, messageId, name, createAddress(name), MultiMap.empty(),
+                    MultiMap.empty(), args, serviceName, returnAddress, null, null, serviceId, methodId,
+                    deadline(args)));
+        } else {
+            final MethodCallBuilder methodCallBuilder = createMethodBuilder(methodId, name, args);
+            beforeMethodSent.beforeMethodSent(methodCallBuilder);
+            endPoint.call(methodCallBuilder.build());
+        }
+    }
+
+    @Override
+    public Promise<Object> promise(final int methodId, final String name, final Object[] args) {
+        return new InvokePromiseWithEndPoint(endPoint,
+                createMethodBuilder(methodId, name, args).setDeadline(BaseServiceQueueImpl.currentDeadline()),
+                beforeMethodSent);
+    }
+
+    private MethodCallBuilder createMethodBuilder(final int methodId, final String name, final Object[] args) {
+
+        long messageId = generatedMessageId.incrementAndGet();
+        generateTimeStamp();
+        final String address = createAddress(name);
+        return MethodCallBuilder.methodCallBuilder()
+                .setId(messageId)
+                .setAddress(address)
+                .setObjectName(serviceName)
+                .setReturnAddress(returnAddress)
+                .setName(name)
+                .setTimestamp(timestamp)
+                .setBody(args)
+                .setMethodId(methodId)
+                .setDeadline(deadline(args));
+    }
+
+    private String createAddress(final String name) {
+        final CharBuf addressBuf = addressCreatorBufRef.get();
+
+        addressBuf.recycle();
+
+        addressBuf.add(objectAddress).add("/").add(name);
+
+        return addressBuf.toString();
+    }
+
+    @Override
+    public void flush() {
+        assert endPoint != null;
+        endPoint.flush();
+    }
+
+    /**
+     * End point proxies have no stop of their own, stop is a call on the service.
+     */
+    @Override
+    public void stop() {
+        call("stop", null, false);
+    }
+
+    @Override
+    public void silentClose() {
+        try {
+            assert endPoint != null;
+            endPoint.stop();
+        } catch (Exception ex) {
+            //silentClose
+        }
+        flush();
+    }
+
+    @Override
+    public boolean connected() {
+        return connected.get();
+    }
+
+    @Override
+    public String host() {
+        return host;
+    }
+
+    @Override
+    public int port() {
+        return port;
+    }
+
+    @Override
+    public String toString() {
+        return port == 0 ? sputs("{Local Proxy", serviceName, "}") :
+                sputs("{Remote Proxy", serviceName, host, port, "}");
+    }
+}
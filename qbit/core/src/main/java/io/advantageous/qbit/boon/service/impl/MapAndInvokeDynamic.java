@@ -1,6 +1,5 @@
 package io.advantageous.qbit.boon.service.impl;
 
-import io.advantageous.boon.core.reflection.MethodAccess;
 import io.advantageous.qbit.message.MethodCall;
 import io.advantageous.qbit.message.Response;
 import io.advantageous.qbit.message.impl.ResponseImpl;
@@ -20,12 +19,12 @@ class MapAndInvokeDynamic implements MapAndInvoke {
         this.boonServiceMethodCallHandler = boonServiceMethodCallHandler;
     }
 
-    public Response<Object> mapArgsAsyncHandlersAndInvoke(MethodCall<Object> serviceMethodCall, MethodAccess serviceMethod) {
+    public Response<Object> mapArgsAsyncHandlersAndInvoke(MethodCall<Object> serviceMethodCall, ServiceMethodInvoker serviceMethod) {
 
 
-        if (serviceMethod.parameterTypes().length == 0 && !(Promise.class.isAssignableFrom(serviceMethod.returnType()))) {
+        if (serviceMethod.parameterCount() == 0 && !serviceMethod.returnsPromise()) {
 
-            Object returnValue = serviceMethod.invokeDynamicObject(boonServiceMethodCallHandler.service, null);
+            Object returnValue = serviceMethod.invoke(boonServiceMethodCallHandler.service, null, true);
             return boonServiceMethodCallHandler.response(serviceMethod, serviceMethodCall, returnValue);
 
         }
@@ -37,15 +36,15 @@ class MapAndInvokeDynamic implements MapAndInvoke {
 
         if (hasHandlers) {
             Object body = serviceMethodCall.body();
-            List<Object> argsList = boonServiceMethodCallHandler.prepareArgumentList(serviceMethodCall, serviceMethod.parameterTypes());
+            Object[] argsList = boonServiceMethodCallHandler.prepareArgumentList(serviceMethodCall, serviceMethod);
             if (body instanceof List || body instanceof Object[]) {
                 boonServiceMethodCallHandler.extractHandlersFromArgumentList(serviceMethodCall.callback(), serviceMethod, body, argsList);
             } else {
-                if (argsList.size() == 1 && !(argsList.get(0) instanceof Callback)) {
-                    argsList.set(0, body);
+                if (argsList.length == 1 && !(argsList[0] instanceof Callback)) {
+                    argsList[0] = body;
                 }
             }
-            returnValue = serviceMethod.invokeDynamicObject(boonServiceMethodCallHandler.service, argsList);
+            returnValue = serviceMethod.invoke(boonServiceMethodCallHandler.service, argsList, true);
 
             if (returnValue instanceof Promise) {
                 final Promise<Object> promise = ((Promise<Object>) returnValue);
@@ -64,12 +63,12 @@ class MapAndInvokeDynamic implements MapAndInvoke {
         } else {
             if (serviceMethodCall.body() instanceof List) {
                 final List argsList = (List) serviceMethodCall.body();
-                returnValue = serviceMethod.invokeDynamic(boonServiceMethodCallHandler.service, argsList.toArray(new Object[argsList.size()]));
+                returnValue = serviceMethod.invoke(boonServiceMethodCallHandler.service, argsList.toArray(new Object[argsList.size()]), true);
             } else if (serviceMethodCall.body() instanceof Object[]) {
                 final Object[] argsList = (Object[]) serviceMethodCall.body();
-                returnValue = serviceMethod.invokeDynamic(boonServiceMethodCallHandler.service, argsList);
+                returnValue = serviceMethod.invoke(boonServiceMethodCallHandler.service, argsList, true);
             } else {
-                returnValue = serviceMethod.invokeDynamic(boonServiceMethodCallHandler.service, serviceMethodCall.body());
+                returnValue = serviceMethod.invoke(boonServiceMethodCallHandler.service, new Object[]{serviceMethodCall.body()}, true);
             }
         }
 
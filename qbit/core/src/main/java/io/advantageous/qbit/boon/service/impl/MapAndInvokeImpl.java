@@ -1,6 +1,5 @@
 package io.advantageous.qbit.boon.service.impl;
 
-import io.advantageous.boon.core.reflection.MethodAccess;
 import io.advantageous.boon.primitive.Arry;
 import io.advantageous.qbit.message.MethodCall;
 import io.advantageous.qbit.message.Response;
@@ -19,14 +18,14 @@ class MapAndInvokeImpl implements MapAndInvoke {
         this.boonServiceMethodCallHandler = boonServiceMethodCallHandler;
     }
 
-    public Response<Object> mapArgsAsyncHandlersAndInvoke(MethodCall<Object> methodCall, MethodAccess serviceMethod) {
+    public Response<Object> mapArgsAsyncHandlersAndInvoke(MethodCall<Object> methodCall, ServiceMethodInvoker serviceMethod) {
         boolean hasHandlers = boonServiceMethodCallHandler.hasHandlers(methodCall, serviceMethod);
         Object returnValue;
         if (hasHandlers) {
             Object[] args = (Object[]) methodCall.body();
-            Object[] argsList = prepareArgumentList(methodCall, serviceMethod.parameterTypes());
+            Object[] argsList = boonServiceMethodCallHandler.prepareArgumentList(methodCall, serviceMethod);
             extractHandlersFromArgumentList(serviceMethod, args, argsList);
-            returnValue = serviceMethod.invoke(boonServiceMethodCallHandler.service, argsList);
+            returnValue = serviceMethod.invoke(boonServiceMethodCallHandler.service, argsList, false);
             if (returnValue instanceof Promise) {
                 final Promise<Object> promise = ((Promise<Object>) returnValue);
                 promise
@@ -42,35 +41,21 @@ class MapAndInvokeImpl implements MapAndInvoke {
             }
         } else {
             final Object[] argsList = (Object[]) methodCall.body();
-            returnValue = serviceMethod.invoke(boonServiceMethodCallHandler.service, argsList);
+            returnValue = serviceMethod.invoke(boonServiceMethodCallHandler.service, argsList, false);
         }
         return boonServiceMethodCallHandler.response(serviceMethod, methodCall, returnValue);
 
     }
 
 
-    private Object[] prepareArgumentList(final MethodCall<Object> methodCall, Class<?>[] parameterTypes) {
-        final Object[] argsList = new Object[parameterTypes.length];
-
-        for (int index = 0; index < parameterTypes.length; index++) {
-            final Class<?> parameterType = parameterTypes[index];
-            if (parameterType == Callback.class) {
-                argsList[index] = boonServiceMethodCallHandler.createCallBackHandler(methodCall);
-            }
-
-        }
-        return argsList;
-    }
-
-
-    private void extractHandlersFromArgumentList(MethodAccess method, Object[] args, Object[] argsList) {
+    private void extractHandlersFromArgumentList(ServiceMethodInvoker method, Object[] args, Object[] argsList) {
 
         extractHandlersFromArgumentListArrayCase(method, args, argsList);
 
     }
 
-    private void extractHandlersFromArgumentListArrayCase(MethodAccess method, Object[] array, Object[] argsList) {
-        if (array != null && array.length - 1 == method.parameterTypes().length) {
+    private void extractHandlersFromArgumentListArrayCase(ServiceMethodInvoker method, Object[] array, Object[] argsList) {
+        if (array != null && array.length - 1 == method.parameterCount()) {
             if (array[0] instanceof Callback) {
                 array = Arry.slc(array, 1);
             }
@@ -0,0 +1,11 @@
+package io.advantageous.qbit.boon.service.impl;
+
+/**
+ * Calls one service method with an argument array that already matches its signature.
+ * Instances are generated once per method by {@link MethodInvokers}.
+ */
+@FunctionalInterface
+interface MethodInvoker {
+
+    Object invoke(Object service, Object[] args) throws Throwable;
+}
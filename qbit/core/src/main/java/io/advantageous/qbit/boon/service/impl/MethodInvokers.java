@@ -0,0 +1,219 @@
+package io.advantageous.qbit.boon.service.impl;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Generates a {@link MethodInvoker} per service method.
+ * <p>
+ * Public methods of public service classes with up to four parameters get a LambdaMetafactory
+ * generated call site, so the call is a plain interface dispatch with per signature unboxing.
+ * Everything else gets a spread MethodHandle. Both replace Boon's reflective invoke.
+ */
+final class MethodInvokers {
+
+    private static final int MAX_LAMBDA_ARITY = 4;
+
+    private static final Class<?>[] CALLS = {Call0.class, Call1.class, Call2.class, Call3.class, Call4.class};
+    private static final Class<?>[] RUNS = {Run0.class, Run1.class, Run2.class, Run3.class, Run4.class};
+
+    private MethodInvokers() {
+    }
+
+    /**
+     * Creates an invoker for the method.
+     *
+     * @param method service method
+     * @return invoker, or null if the method can only be called through reflection
+     */
+    static MethodInvoker create(final Method method) {
+        if (Modifier.isStatic(method.getModifiers())) {
+            return null;
+        }
+        if (method.getParameterCount() <= MAX_LAMBDA_ARITY && isLinkable(method)) {
+            try {
+                return lambdaInvoker(method);
+            } catch (Throwable ex) {
+                //fall through to a method handle.
+            }
+        }
+        try {
+            return methodHandleInvoker(method);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private static MethodInvoker lambdaInvoker(final Method method) throws Throwable {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final MethodHandle target = lookup.unreflect(method);
+        final int arity = method.getParameterCount();
+        final boolean isVoid = method.getReturnType() == void.class;
+
+        final MethodType samType = isVoid
+                ? MethodType.genericMethodType(arity + 1).changeReturnType(void.class)
+                : MethodType.genericMethodType(arity + 1);
+        final MethodType instantiatedType = isVoid
+                ? target.type().wrap().changeReturnType(void.class)
+                : target.type().wrap();
+
+        final Class<?> functionType = (isVoid ? RUNS : CALLS)[arity];
+        final CallSite site = LambdaMetafactory.metafactory(lookup, "call", MethodType.methodType(functionType),
+                samType, target, instantiatedType);
+        final Object function = site.getTarget().invoke();
+
+        if (isVoid) {
+            return runInvoker(arity, function);
+        } else {
+            return callInvoker(arity, function);
+        }
+    }
+
+    private static MethodInvoker callInvoker(final int arity, final Object function) {
+        switch (arity) {
+            case 0:
+                final Call0 call0 = (Call0) function;
+                return (service, args) -> call0.call(service);
+            case 1:
+                final Call1 call1 = (Call1) function;
+                return (service, args) -> call1.call(service, args[0]);
+            case 2:
+                final Call2 call2 = (Call2) function;
+                return (service, args) -> call2.call(service, args[0], args[1]);
+            case 3:
+                final Call3 call3 = (Call3) function;
+                return (service, args) -> call3.call(service, args[0], args[1], args[2]);
+            default:
+                final Call4 call4 = (Call4) function;
+                return (service, args) -> call4.call(service, args[0], args[1], args[2], args[3]);
+        }
+    }
+
+    private static MethodInvoker runInvoker(final int arity, final Object function) {
+        switch (arity) {
+            case 0:
+                final Run0 run0 = (Run0) function;
+                return (service, args) -> {
+                    run0.call(service);
+                    return null;
+                };
+            case 1:
+                final Run1 run1 = (Run1) function;
+                return (service, args) -> {
+                    run1.call(service, args[0]);
+                    return null;
+                };
+            case 2:
+                final Run2 run2 = (Run2) function;
+                return (service, args) -> {
+                    run2.call(service, args[0], args[1]);
+                    return null;
+                };
+            case 3:
+                final Run3 run3 = (Run3) function;
+                return (service, args) -> {
+                    run3.call(service, args[0], args[1], args[2]);
+                    return null;
+                };
+            default:
+                final Run4 run4 = (Run4) function;
+                return (service, args) -> {
+                    run4.call(service, args[0], args[1], args[2], args[3]);
+                    return null;
+                };
+        }
+    }
+
+    private static MethodInvoker methodHandleInvoker(final Method method) throws IllegalAccessException {
+        method.setAccessible(true);
+        final MethodHandle handle = MethodHandles.lookup().unreflect(method)
+                .asFixedArity()
+                .asSpreader(Object[].class, method.getParameterCount())
+                .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+        return (service, args) -> handle.invokeExact(service, args);
+    }
+
+    /**
+     * The generated class lives in this package and is linked against this class loader,
+     * so every type in the signature has to be public and resolvable from here.
+     */
+    private static boolean isLinkable(final Method method) {
+        if (!Modifier.isPublic(method.getModifiers()) || method.isVarArgs()) {
+            return false;
+        }
+        if (!isLinkable(method.getDeclaringClass()) || !isLinkable(method.getReturnType())) {
+            return false;
+        }
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            if (!isLinkable(parameterType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLinkable(final Class<?> type) {
+        Class<?> cls = type;
+        while (cls.isArray()) {
+            cls = cls.getComponentType();
+        }
+        if (cls.isPrimitive()) {
+            return true;
+        }
+        for (Class<?> enclosing = cls; enclosing != null; enclosing = enclosing.getEnclosingClass()) {
+            if (!Modifier.isPublic(enclosing.getModifiers())) {
+                return false;
+            }
+        }
+        try {
+            return Class.forName(cls.getName(), false, MethodInvokers.class.getClassLoader()) == cls;
+        } catch (ClassNotFoundException ex) {
+            return false;
+        }
+    }
+
+    interface Call0 {
+        Object call(Object service);
+    }
+
+    interface Call1 {
+        Object call(Object service, Object arg0);
+    }
+
+    interface Call2 {
+        Object call(Object service, Object arg0, Object arg1);
+    }
+
+    interface Call3 {
+        Object call(Object service, Object arg0, Object arg1, Object arg2);
+    }
+
+    interface Call4 {
+        Object call(Object service, Object arg0, Object arg1, Object arg2, Object arg3);
+    }
+
+    interface Run0 {
+        void call(Object service);
+    }
+
+    interface Run1 {
+        void call(Object service, Object arg0);
+    }
+
+    interface Run2 {
+        void call(Object service, Object arg0, Object arg1);
+    }
+
+    interface Run3 {
+        void call(Object service, Object arg0, Object arg1, Object arg2);
+    }
+
+    interface Run4 {
+        void call(Object service, Object arg0, Object arg1, Object arg2, Object arg3);
+    }
+}
@@ -0,0 +1,136 @@
+package io.advantageous.qbit.boon.service.impl;
+
+import io.advantageous.qbit.client.BeforeMethodSent;
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.message.MethodCallBuilder;
+import io.advantageous.qbit.message.impl.MessagePool;
+import io.advantageous.qbit.message.impl.MethodCallLocal;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.service.impl.BaseServiceQueueImpl;
+import io.advantageous.reakt.promise.Promise;
+
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+import static io.advantageous.boon.core.Str.sputs;
+
+/**
+ * Sends proxy calls straight to a service queue. Like the queue's send queue, not thread safe.
+ */
+public class SendQueueProxyDispatcher extends AbstractProxyDispatcher {
+
+    private final String serviceName;
+    private final String returnAddress;
+    private final SendQueue<MethodCall<Object>> sendQueue;
+    /**
+     * Send recycled method calls, only used when calls are built without a MethodCallBuilder.
+     */
+    private final boolean pooledMessages;
+    private long generatedMessageId;
+
+    public SendQueueProxyDispatcher(final SendQueue<MethodCall<Object>> sendQueue,
+                                    final Class<?> serviceInterface,
+                                    final String serviceName,
+                                    final BeforeMethodSent beforeMethodSent) {
+        this(sendQueue, serviceInterface, serviceName, beforeMethodSent, null);
+    }
+
+    public SendQueueProxyDispatcher(final SendQueue<MethodCall<Object>> sendQueue,
+                                    final Class<?> serviceInterface,
+                                    final String serviceName,
+                                    final BeforeMethodSent beforeMethodSent,
+                                    final ToIntFunction<String> methodIdResolver) {
+        this(sendQueue, serviceInterface, serviceName, beforeMethodSent, methodIdResolver, false);
+    }
+
+    public SendQueueProxyDispatcher(final SendQueue<MethodCall<Object>> sendQueue,
+                                    final Class<?> serviceInterface,
+                                    final String serviceName,
+                                    final BeforeMethodSent beforeMethodSent,
+                                    final ToIntFunction<String> methodIdResolver,
+                                    final boolean pooledMessages) {
+        super(beforeMethodSent, -1, methodIdResolver);
+        this.pooledMessages = pooledMessages;
+        this.serviceName = serviceName;
+        this.returnAddress = serviceInterface.getName() + "::" + UUID.randomUUID().toString();
+        this.sendQueue = sendQueue;
+    }
+
+    @Override
+    public void call(final int methodId, final String name, final Object[] args, final boolean convertReaktCallbacks) {
+        if (convertReaktCallbacks) {
+            convertToReaktCallbacks(args);
+        }
+        if (buildDirect) {
+            final long messageId = generatedMessageId++;
+            generateTimeStamp();
+            final long deadline = deadline(args);
+            sendQueue.send(pooledMessages
+                    ? MessagePool.methodCall(name, returnAddress, timestamp, messageId, args, methodId, deadline)
+                    : new MethodCallLocal(name, returnAddress, timestamp, messageId, args, null, null, -1, methodId,
+                    deadline));
+        } else {
+            final MethodCallBuilder methodCallBuilder = createMethodBuilder(methodId, name, args);
+            beforeMethodSent.beforeMethodSent(methodCallBuilder);
+            sendQueue.send(methodCallBuilder.build());
+        }
+    }
+
+    @Override
+    public Promise<Object> promise(final int methodId, final String name, final Object[] args) {
+        return new InvokePromiseWithSendQueue(sendQueue,
+                createMethodBuilder(methodId, name, args).setDeadline(BaseServiceQueueImpl.currentDeadline()),
+                beforeMethodSent);
+    }
+
+    private MethodCallBuilder createMethodBuilder(final int methodId, final String name, final Object[] args) {
+
+        long messageId = generatedMessageId++;
+        generateTimeStamp();
+
+        return MethodCallBuilder.methodCallBuilder()
+                .setLocal(true)
+                .setAddress(name)
+                .setName(name)
+                .setReturnAddress(returnAddress)
+                .setTimestamp(timestamp).setId(messageId)
+                .setBodyArgs(args)
+                .setMethodId(methodId)
+                .setDeadline(deadline(args));
+    }
+
+    @Override
+    public void flush() {
+        sendQueue.flushSends();
+    }
+
+    @Override
+    public void stop() {
+        sendQueue.stop();
+    }
+
+    @Override
+    public void silentClose() {
+        call("silentClose", null, false);
+    }
+
+    @Override
+    public boolean connected() {
+        return true;
+    }
+
+    @Override
+    public String host() {
+        return "localProxy";
+    }
+
+    @Override
+    public int port() {
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return sputs("{Local Proxy", serviceName, "}");
+    }
+}
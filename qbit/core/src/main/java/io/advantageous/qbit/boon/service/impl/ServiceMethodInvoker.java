@@ -0,0 +1,163 @@
+package io.advantageous.qbit.boon.service.impl;
+
+import io.advantageous.boon.core.Exceptions;
+import io.advantageous.boon.core.reflection.MethodAccess;
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.reakt.promise.Promise;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Dispatch entry for one service method, built when the handler is initialized.
+ * <p>
+ * Holds the generated invoker and the argument shape of the method. Arguments that already match
+ * the signature go straight to the generated invoker; anything that needs conversion (JSON numbers,
+ * maps to beans, typed collections) falls back to Boon's coercing invoke.
+ */
+final class ServiceMethodInvoker {
+
+    private final int index;
+    private final MethodAccess methodAccess;
+    private final MethodInvoker invoker;
+    private final Class<?>[] parameterTypes;
+    private final Class<?>[] argumentTypes;
+    private final boolean[] primitives;
+    private final boolean[] callbacks;
+    private final boolean hasCallbackParameter;
+    private final boolean returnsPromise;
+    private final boolean returnsVoid;
+    private final boolean coerceTypedContainers;
+
+    ServiceMethodInvoker(final int index, final MethodAccess methodAccess, final boolean invokeDynamic) {
+        this.index = index;
+        this.methodAccess = methodAccess;
+        final Method method = methodAccess.method();
+        this.invoker = MethodInvokers.create(method);
+        this.parameterTypes = method.getParameterTypes();
+        this.argumentTypes = new Class<?>[parameterTypes.length];
+        this.primitives = new boolean[parameterTypes.length];
+        this.callbacks = new boolean[parameterTypes.length];
+
+        final Type[] genericTypes = method.getGenericParameterTypes();
+        boolean hasCallback = false;
+        boolean typedContainers = false;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            final Class<?> parameterType = parameterTypes[i];
+            primitives[i] = parameterType.isPrimitive();
+            argumentTypes[i] = primitives[i] ? boxed(parameterType) : parameterType;
+            callbacks[i] = parameterType == Callback.class;
+            hasCallback |= callbacks[i];
+            if ((Collection.class.isAssignableFrom(parameterType) || Map.class.isAssignableFrom(parameterType))
+                    && genericTypes.length == parameterTypes.length
+                    && genericTypes[i] instanceof ParameterizedType) {
+                typedContainers = true;
+            }
+        }
+        this.hasCallbackParameter = hasCallback;
+        this.returnsPromise = Promise.class.isAssignableFrom(method.getReturnType());
+        this.returnsVoid = method.getReturnType() == void.class || method.getReturnType() == Void.class;
+        this.coerceTypedContainers = invokeDynamic && typedContainers;
+    }
+
+    private static Class<?> boxed(final Class<?> type) {
+        if (type == int.class) return Integer.class;
+        if (type == long.class) return Long.class;
+        if (type == boolean.class) return Boolean.class;
+        if (type == double.class) return Double.class;
+        if (type == float.class) return Float.class;
+        if (type == short.class) return Short.class;
+        if (type == byte.class) return Byte.class;
+        if (type == char.class) return Character.class;
+        return Void.class;
+    }
+
+    /**
+     * Invokes the method.
+     *
+     * @param service       service object
+     * @param args          arguments in parameter order
+     * @param invokeDynamic true to coerce arguments that do not match the signature
+     * @return return value of the method
+     */
+    Object invoke(final Object service, final Object[] args, final boolean invokeDynamic) {
+        if (invoker != null && matches(args)) {
+            try {
+                return invoker.invoke(service, args);
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                return Exceptions.handle(Object.class, new InvocationTargetException(ex));
+            }
+        }
+        if (invokeDynamic) {
+            return methodAccess.invokeDynamic(service, args);
+        } else {
+            return methodAccess.invoke(service, args);
+        }
+    }
+
+    private boolean matches(final Object[] args) {
+        if (coerceTypedContainers) {
+            return false;
+        }
+        final int length = parameterTypes.length;
+        if (length == 0) {
+            return true;
+        }
+        if (args == null || args.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            final Object arg = args[i];
+            if (arg == null) {
+                if (primitives[i]) {
+                    return false;
+                }
+            } else if (!argumentTypes[i].isInstance(arg)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int index() {
+        return index;
+    }
+
+    String name() {
+        return methodAccess.name();
+    }
+
+    MethodAccess methodAccess() {
+        return methodAccess;
+    }
+
+    int parameterCount() {
+        return parameterTypes.length;
+    }
+
+    Class<?>[] parameterTypes() {
+        return parameterTypes;
+    }
+
+    boolean isCallback(final int parameterIndex) {
+        return callbacks[parameterIndex];
+    }
+
+    boolean hasCallbackParameter() {
+        return hasCallbackParameter;
+    }
+
+    boolean returnsPromise() {
+        return returnsPromise;
+    }
+
+    boolean returnsVoid() {
+        return returnsVoid;
+    }
+}
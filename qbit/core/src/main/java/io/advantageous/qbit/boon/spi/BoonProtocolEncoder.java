@@ -26,6 +26,7 @@ import io.advantageous.qbit.message.Response;
 import io.advantageous.qbit.service.Protocol;
 import io.advantageous.qbit.spi.ProtocolEncoder;
 import io.advantageous.qbit.util.MultiMap;
+import io.advantageous.qbit.util.Timer;
 
 import java.util.Collection;
 import java.util.Map;
@@ -110,9 +111,18 @@ public class BoonProtocolEncoder implements ProtocolEncoder {
         buf.add(methodCall.address());
 
         buf.addChar(PROTOCOL_SEPARATOR);
-        encodeHeadersAndParams(buf, methodCall.headers());
+        final long deadline = methodCall.deadline();
+        encodeHeadersAndParams(buf, methodCall.headers(), deadline != 0);
+        if (deadline != 0) {
+            /* The time left rather than the deadline, the clock of the receiver may not agree with ours. */
+            buf.add(TIMEOUT_HEADER);
+            buf.addChar(Protocol.PROTOCOL_KEY_HEADER_DELIM);
+            buf.add(Math.max(0, deadline - Timer.timer().now()));
+            buf.addChar(Protocol.PROTOCOL_VALUE_HEADER_DELIM);
+            buf.addChar(Protocol.PROTOCOL_ENTRY_HEADER_DELIM);
+        }
         buf.addChar(PROTOCOL_SEPARATOR);
-        encodeHeadersAndParams(buf, methodCall.params());
+        encodeHeadersAndParams(buf, methodCall.params(), false);
         buf.addChar(PROTOCOL_SEPARATOR);
         buf.add(methodCall.objectName());
         buf.addChar(PROTOCOL_SEPARATOR);
@@ -170,7 +180,7 @@ public class BoonProtocolEncoder implements ProtocolEncoder {
         }
     }
 
-    private void encodeHeadersAndParams(CharBuf buf, MultiMap<String, String> headerOrParams) {
+    private void encodeHeadersAndParams(CharBuf buf, MultiMap<String, String> headerOrParams, boolean skipTimeout) {
 
         if (headerOrParams == null) {
             return;
@@ -182,7 +192,7 @@ public class BoonProtocolEncoder implements ProtocolEncoder {
 
             final Collection<String> values = entry.getValue();
 
-            if (values.size() == 0) {
+            if (values.size() == 0 || skipTimeout && TIMEOUT_HEADER.equals(entry.getKey())) {
                 continue;
             }
 
@@ -220,7 +220,7 @@ public class BoonProtocolParser implements ProtocolParser {
             argList[index] = arg;
         }
 
-        return new MethodCallBuilder().setId(id).setAddress(address).setReturnAddress(returnAddress).setHeaders(headers).setObjectName(objectName).setName(methodName).setTimestamp(timestamp).setBody(argList).setParams(params).build();
+        return new MethodCallBuilder().setId(id).setAddress(address).setReturnAddress(returnAddress).setHeaders(headers).setObjectName(objectName).setName(methodName).setTimestamp(timestamp).setBody(argList).setParams(params).setDeadlineFromHeaders(headers).build();
 
     }
 
@@ -0,0 +1,78 @@
+package io.advantageous.qbit.client.proxy;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Finds the proxy classes generated by {@link ServiceProxyProcessor}.
+ * <p>
+ * A generated proxy lives in the package of its interface and is named after the interface, with nested
+ * names joined by an underscore: {@code Outer.TodoService} gets {@code Outer_TodoService_QBitProxy}, and
+ * {@code Outer_TodoService_RemoteQBitProxy} for remote TCP proxies.
+ */
+public final class GeneratedProxies {
+
+    public static final String PROXY_SUFFIX = "_QBitProxy";
+    public static final String REMOTE_PROXY_SUFFIX = "_RemoteQBitProxy";
+
+    private static final ClassValue<Constructor<?>[]> CONSTRUCTORS = new ClassValue<Constructor<?>[]>() {
+        @Override
+        protected Constructor<?>[] computeValue(final Class<?> serviceInterface) {
+            return new Constructor<?>[]{
+                    constructor(serviceInterface, PROXY_SUFFIX),
+                    constructor(serviceInterface, REMOTE_PROXY_SUFFIX)};
+        }
+    };
+
+    private GeneratedProxies() {
+    }
+
+    /**
+     * Creates a generated proxy for the interface.
+     *
+     * @param serviceInterface service interface
+     * @param remote           true for a proxy that also implements RemoteTCPClientProxy
+     * @param dispatcher       dispatcher the proxy sends calls to
+     * @param <T>              type of the interface
+     * @return proxy, or null if no proxy was generated for the interface
+     */
+    public static <T> T createProxy(final Class<T> serviceInterface, final boolean remote,
+                                    final ProxyDispatcher dispatcher) {
+        if (!serviceInterface.isInterface()) {
+            return null;
+        }
+        final Constructor<?> constructor = CONSTRUCTORS.get(serviceInterface)[remote ? 1 : 0];
+        if (constructor == null) {
+            return null;
+        }
+        try {
+            return serviceInterface.cast(constructor.newInstance(dispatcher));
+        } catch (Exception ex) {
+            throw new IllegalStateException("Unable to create generated proxy for " + serviceInterface.getName(), ex);
+        }
+    }
+
+    /**
+     * @param serviceInterface service interface
+     * @param suffix           proxy class suffix
+     * @return binary name of the generated class
+     */
+    public static String proxyClassName(final Class<?> serviceInterface, final String suffix) {
+        final String name = serviceInterface.getName();
+        final int lastDot = name.lastIndexOf('.');
+        final String packagePrefix = lastDot == -1 ? "" : name.substring(0, lastDot + 1);
+        return packagePrefix + name.substring(lastDot + 1).replace('$', '_') + suffix;
+    }
+
+    private static Constructor<?> constructor(final Class<?> serviceInterface, final String suffix) {
+        try {
+            final Class<?> proxyClass = Class.forName(proxyClassName(serviceInterface, suffix), true,
+                    serviceInterface.getClassLoader());
+            if (!serviceInterface.isAssignableFrom(proxyClass) || !GeneratedServiceProxy.class.isAssignableFrom(proxyClass)) {
+                return null;
+            }
+            return proxyClass.getConstructor(ProxyDispatcher.class);
+        } catch (ClassNotFoundException | NoSuchMethodException | LinkageError ex) {
+            return null;
+        }
+    }
+}
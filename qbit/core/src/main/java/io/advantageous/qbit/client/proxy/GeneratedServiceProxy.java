@@ -0,0 +1,25 @@
+package io.advantageous.qbit.client.proxy;
+
+import io.advantageous.qbit.client.ClientProxy;
+
+/**
+ * Base class of the client proxies generated by {@link ServiceProxyProcessor}.
+ */
+public abstract class GeneratedServiceProxy implements ClientProxy {
+
+    protected final ProxyDispatcher dispatcher;
+
+    protected GeneratedServiceProxy(final ProxyDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public void clientProxyFlush() {
+        dispatcher.flush();
+    }
+
+    @Override
+    public String toString() {
+        return dispatcher.toString();
+    }
+}
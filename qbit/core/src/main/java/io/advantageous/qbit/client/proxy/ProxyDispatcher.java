@@ -0,0 +1,80 @@
+package io.advantageous.qbit.client.proxy;
+
+import io.advantageous.reakt.promise.Promise;
+
+import java.util.Arrays;
+
+/**
+ * Sends the calls made on a client proxy to a service queue or an end point.
+ * <p>
+ * Both the reflective proxies and the proxies generated by {@link ServiceProxyProcessor} delegate to a dispatcher,
+ * so flush, stop and message id generation behave the same either way.
+ */
+public interface ProxyDispatcher {
+
+    /**
+     * Sends a one way or callback method call.
+     *
+     * @param name                  method name
+     * @param args                  arguments, null for no arguments
+     * @param convertReaktCallbacks true if the method takes Reakt callbacks that have to be converted
+     */
+    void call(String name, Object[] args, boolean convertReaktCallbacks);
+
+    /**
+     * Creates a promise that sends the method call when it is invoked.
+     *
+     * @param name method name
+     * @param args arguments, null for no arguments
+     * @return invokable promise
+     */
+    Promise<Object> promise(String name, Object[] args);
+
+    /**
+     * Resolves method names to ids once, so generated proxies can address methods without a name lookup per call.
+     *
+     * @param names method names
+     * @return ids in the order of the names, -1 for methods that have to be addressed by name
+     */
+    default int[] methodIds(final String[] names) {
+        final int[] ids = new int[names.length];
+        Arrays.fill(ids, -1);
+        return ids;
+    }
+
+    /**
+     * Sends a method call that carries a method id from {@link #methodIds(String[])}.
+     *
+     * @param methodId              method id, or -1
+     * @param name                  method name
+     * @param args                  arguments, null for no arguments
+     * @param convertReaktCallbacks true if the method takes Reakt callbacks that have to be converted
+     */
+    default void call(final int methodId, final String name, final Object[] args, final boolean convertReaktCallbacks) {
+        call(name, args, convertReaktCallbacks);
+    }
+
+    /**
+     * Creates a promise for a method call that carries a method id from {@link #methodIds(String[])}.
+     *
+     * @param methodId method id, or -1
+     * @param name     method name
+     * @param args     arguments, null for no arguments
+     * @return invokable promise
+     */
+    default Promise<Object> promise(final int methodId, final String name, final Object[] args) {
+        return promise(name, args);
+    }
+
+    void flush();
+
+    void stop();
+
+    void silentClose();
+
+    boolean connected();
+
+    String host();
+
+    int port();
+}
@@ -0,0 +1,352 @@
+package io.advantageous.qbit.client.proxy;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates client proxy classes for interfaces annotated with {@code @Service}.
+ * <p>
+ * Each generated method hands a constant method name, the argument array and the precomputed Reakt callback flag
+ * to a {@link ProxyDispatcher}, so calls skip the InvocationHandler name switch and per call map lookups.
+ * {@link GeneratedProxies} picks the classes up at runtime; interfaces that cannot be generated (generic
+ * interfaces or methods, private interfaces, primitive returns) keep using reflective proxies.
+ * <p>
+ * The processor is not registered as a service, so it only runs when a build opts in with
+ * {@code -processor io.advantageous.qbit.client.proxy.ServiceProxyProcessor}.
+ */
+@SupportedAnnotationTypes(ServiceProxyProcessor.SERVICE_ANNOTATION)
+public class ServiceProxyProcessor extends AbstractProcessor {
+
+    static final String SERVICE_ANNOTATION = "io.advantageous.qbit.annotation.Service";
+    private static final String PROMISE = "io.advantageous.reakt.promise.Promise";
+    private static final String REAKT_CALLBACK = "io.advantageous.reakt.Callback";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.INTERFACE) {
+                    generate((TypeElement) element);
+                }
+            }
+        }
+        return false;
+    }
+
+    private void generate(final TypeElement serviceInterface) {
+        final ProxyModel model = model(serviceInterface);
+        if (model == null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "No client proxy generated, reflective proxy will be used", serviceInterface);
+            return;
+        }
+        write(serviceInterface, model.packageName, model.proxyName, localSource(model));
+        if (model.remoteSupported) {
+            write(serviceInterface, model.packageName, model.remoteProxyName, remoteSource(model));
+        }
+    }
+
+    private void write(final TypeElement serviceInterface, final String packageName,
+                       final String simpleName, final String source) {
+        final String name = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(name, serviceInterface).openWriter()) {
+            writer.write(source);
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write client proxy " + name + ": " + ex.getMessage(), serviceInterface);
+        }
+    }
+
+    private ProxyModel model(final TypeElement serviceInterface) {
+        if (!serviceInterface.getTypeParameters().isEmpty() || !isAccessible(serviceInterface)) {
+            return null;
+        }
+
+        final Elements elements = processingEnv.getElementUtils();
+        final Types types = processingEnv.getTypeUtils();
+        final TypeElement promiseElement = elements.getTypeElement(PROMISE);
+        final TypeMirror promiseType = promiseElement == null ? null : types.erasure(promiseElement.asType());
+        final TypeElement reaktCallbackElement = elements.getTypeElement(REAKT_CALLBACK);
+        final TypeMirror reaktCallbackType = reaktCallbackElement == null ? null : types.erasure(reaktCallbackElement.asType());
+
+        final ProxyModel model = new ProxyModel();
+        model.packageName = elements.getPackageOf(serviceInterface).getQualifiedName().toString();
+        model.interfaceName = serviceInterface.getQualifiedName().toString();
+        final String flatName = flatName(serviceInterface);
+        model.proxyName = flatName + GeneratedProxies.PROXY_SUFFIX;
+        model.remoteProxyName = flatName + GeneratedProxies.REMOTE_PROXY_SUFFIX;
+
+        final DeclaredType interfaceType = (DeclaredType) serviceInterface.asType();
+        final Map<String, MethodModel> methods = new LinkedHashMap<>();
+
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(serviceInterface))) {
+            if (!method.getModifiers().contains(Modifier.ABSTRACT) || isObjectMethod(method)) {
+                continue;
+            }
+            if (!method.getTypeParameters().isEmpty()) {
+                return null;
+            }
+            final ExecutableType methodType = (ExecutableType) types.asMemberOf(interfaceType, method);
+            final MethodModel methodModel = new MethodModel();
+            methodModel.name = method.getSimpleName().toString();
+            methodModel.returnType = methodType.getReturnType();
+
+            final StringBuilder signature = new StringBuilder(methodModel.name);
+            for (TypeMirror parameterType : methodType.getParameterTypes()) {
+                methodModel.parameterTypes.add(parameterType);
+                signature.append(',').append(types.erasure(parameterType));
+                if (reaktCallbackType != null && types.isSameType(types.erasure(parameterType), reaktCallbackType)) {
+                    methodModel.reaktCallbacks = true;
+                }
+            }
+
+            final TypeKind returnKind = methodModel.returnType.getKind();
+            methodModel.control = controlMethod(methodModel.name, methodModel.parameterTypes.size(), methodModel.returnType);
+            if (methodModel.control == null) {
+                if (returnKind == TypeKind.VOID) {
+                    methodModel.kind = MethodKind.CALL;
+                } else if (promiseType != null && types.isAssignable(types.erasure(methodModel.returnType), promiseType)) {
+                    methodModel.kind = MethodKind.PROMISE;
+                } else if (returnKind.isPrimitive() || methodModel.name.equals("clientProxyFlush")) {
+                    return null;
+                } else {
+                    methodModel.kind = MethodKind.CALL_RETURN_NULL;
+                }
+            } else {
+                methodModel.kind = MethodKind.CONTROL;
+            }
+            methods.putIfAbsent(signature.toString(), methodModel);
+        }
+        model.methods.addAll(methods.values());
+
+        model.remoteSupported = true;
+        for (MethodModel method : model.methods) {
+            if (method.parameterTypes.isEmpty() && method.control == null && isRemoteControlName(method.name)) {
+                model.remoteSupported = false;
+            }
+            if (method.control != null && isRemoteControlName(method.name)) {
+                model.declaredRemoteControls.add(method.name);
+            }
+        }
+        return model;
+    }
+
+    private static boolean isObjectMethod(final ExecutableElement method) {
+        final String name = method.getSimpleName().toString();
+        final int parameterCount = method.getParameters().size();
+        return (parameterCount == 0 && (name.equals("toString") || name.equals("hashCode")))
+                || (parameterCount == 1 && name.equals("equals"));
+    }
+
+    private static boolean isRemoteControlName(final String name) {
+        return name.equals("connected") || name.equals("host") || name.equals("port") || name.equals("silentClose");
+    }
+
+    /**
+     * Mirrors the method names the reflective proxies treat as proxy control rather than service calls.
+     */
+    private static String controlMethod(final String name, final int parameterCount, final TypeMirror returnType) {
+        if (parameterCount != 0) {
+            return null;
+        }
+        final TypeKind kind = returnType.getKind();
+        switch (name) {
+            case "flush":
+            case "clientProxyFlush":
+                return kind == TypeKind.VOID ? "dispatcher.flush();" : null;
+            case "stop":
+                return kind == TypeKind.VOID ? "dispatcher.stop();" : null;
+            case "silentClose":
+                return kind == TypeKind.VOID ? "dispatcher.silentClose();" : null;
+            case "connected":
+                return kind == TypeKind.BOOLEAN ? "return dispatcher.connected();" : null;
+            case "port":
+                return kind == TypeKind.INT ? "return dispatcher.port();" : null;
+            case "host":
+                return returnType.toString().equals("java.lang.String") ? "return dispatcher.host();" : null;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isAccessible(final TypeElement serviceInterface) {
+        for (Element element = serviceInterface; element != null && element.getKind() != ElementKind.PACKAGE;
+             element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (!(element.getKind().isClass() || element.getKind().isInterface())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String flatName(final TypeElement serviceInterface) {
+        final StringBuilder name = new StringBuilder(serviceInterface.getSimpleName());
+        for (Element element = serviceInterface.getEnclosingElement(); element != null
+                && element.getKind() != ElementKind.PACKAGE; element = element.getEnclosingElement()) {
+            name.insert(0, '_').insert(0, element.getSimpleName());
+        }
+        return name.toString();
+    }
+
+    private String localSource(final ProxyModel model) {
+        final StringBuilder source = header(model);
+        source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+                .append("public class ").append(model.proxyName)
+                .append(" extends io.advantageous.qbit.client.proxy.GeneratedServiceProxy implements ")
+                .append(model.interfaceName).append(" {\n\n");
+
+        /* Method ids are resolved once per proxy; dispatch then skips the name lookup. */
+        final List<String> methodNames = new ArrayList<>();
+        for (MethodModel method : model.methods) {
+            if (method.kind != MethodKind.CONTROL && !methodNames.contains(method.name)) {
+                methodNames.add(method.name);
+            }
+        }
+        source.append("    private static final String[] METHOD_NAMES = {");
+        for (int index = 0; index < methodNames.size(); index++) {
+            source.append(index > 0 ? ", " : "").append('"').append(methodNames.get(index)).append('"');
+        }
+        source.append("};\n\n    private final int[] methodIds;\n\n");
+        source.append("    public ").append(model.proxyName)
+                .append("(final io.advantageous.qbit.client.proxy.ProxyDispatcher dispatcher) {\n")
+                .append("        super(dispatcher);\n")
+                .append("        this.methodIds = dispatcher.methodIds(METHOD_NAMES);\n    }\n\n");
+
+        for (MethodModel method : model.methods) {
+            source.append("    @Override\n    public ").append(method.returnType).append(' ').append(method.name).append('(');
+            for (int index = 0; index < method.parameterTypes.size(); index++) {
+                if (index > 0) {
+                    source.append(", ");
+                }
+                source.append("final ").append(method.parameterTypes.get(index)).append(" arg").append(index);
+            }
+            source.append(") {\n        ");
+
+            final String name = "methodIds[" + methodNames.indexOf(method.name) + "], \"" + method.name + "\"";
+            switch (method.kind) {
+                case CONTROL:
+                    source.append(method.control);
+                    break;
+                case PROMISE:
+                    source.append("return (").append(method.returnType).append(") (Object) dispatcher.promise(")
+                            .append(name).append(", ").append(arguments(method)).append(");");
+                    break;
+                case CALL_RETURN_NULL:
+                    source.append("dispatcher.call(").append(name).append(", ").append(arguments(method))
+                            .append(", ").append(method.reaktCallbacks).append(");\n        return null;");
+                    break;
+                default:
+                    source.append("dispatcher.call(").append(name).append(", ").append(arguments(method))
+                            .append(", ").append(method.reaktCallbacks).append(");");
+            }
+            source.append("\n    }\n\n");
+        }
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private String remoteSource(final ProxyModel model) {
+        final StringBuilder source = header(model);
+        source.append("public class ").append(model.remoteProxyName).append(" extends ").append(model.proxyName)
+                .append(" implements io.advantageous.qbit.client.RemoteTCPClientProxy {\n\n");
+        constructor(source, model.remoteProxyName);
+        remoteControl(source, model, "boolean", "connected", "return dispatcher.connected();");
+        remoteControl(source, model, "java.lang.String", "host", "return dispatcher.host();");
+        remoteControl(source, model, "int", "port", "return dispatcher.port();");
+        remoteControl(source, model, "void", "silentClose", "dispatcher.silentClose();");
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private static void remoteControl(final StringBuilder source, final ProxyModel model, final String returnType,
+                                      final String name, final String body) {
+        if (model.declaredRemoteControls.contains(name)) {
+            return;
+        }
+        source.append("    @Override\n    public ").append(returnType).append(' ').append(name).append("() {\n        ")
+                .append(body).append("\n    }\n\n");
+    }
+
+    private static StringBuilder header(final ProxyModel model) {
+        final StringBuilder source = new StringBuilder(1024);
+        if (!model.packageName.isEmpty()) {
+            source.append("package ").append(model.packageName).append(";\n\n");
+        }
+        source.append("/**\n * Client proxy for {@link ").append(model.interfaceName)
+                .append("}, generated by ServiceProxyProcessor. Do not edit.\n */\n");
+        return source;
+    }
+
+    private static void constructor(final StringBuilder source, final String className) {
+        source.append("    public ").append(className)
+                .append("(final io.advantageous.qbit.client.proxy.ProxyDispatcher dispatcher) {\n")
+                .append("        super(dispatcher);\n    }\n\n");
+    }
+
+    private static String arguments(final MethodModel method) {
+        if (method.parameterTypes.isEmpty()) {
+            return "null";
+        }
+        final StringBuilder arguments = new StringBuilder("new Object[]{");
+        for (int index = 0; index < method.parameterTypes.size(); index++) {
+            if (index > 0) {
+                arguments.append(", ");
+            }
+            arguments.append("arg").append(index);
+        }
+        return arguments.append('}').toString();
+    }
+
+    private enum MethodKind {
+        CALL, CALL_RETURN_NULL, PROMISE, CONTROL
+    }
+
+    private static final class MethodModel {
+        private final List<TypeMirror> parameterTypes = new ArrayList<>();
+        private String name;
+        private TypeMirror returnType;
+        private MethodKind kind;
+        private String control;
+        private boolean reaktCallbacks;
+    }
+
+    private static final class ProxyModel {
+        private final List<MethodModel> methods = new ArrayList<>();
+        private final List<String> declaredRemoteControls = new ArrayList<>();
+        private String packageName;
+        private String interfaceName;
+        private String proxyName;
+        private String remoteProxyName;
+        private boolean remoteSupported;
+    }
+}
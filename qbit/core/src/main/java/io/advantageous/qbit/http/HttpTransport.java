@@ -29,6 +29,7 @@ package io.advantageous.qbit.http;
 import io.advantageous.qbit.http.request.HttpRequest;
 import io.advantageous.qbit.http.server.websocket.WebSocketMessage;
 import io.advantageous.qbit.http.websocket.WebSocket;
+import io.advantageous.qbit.queue.BackPressure;
 import io.advantageous.qbit.service.Startable;
 
 import java.util.function.Consumer;
@@ -55,6 +56,16 @@ public interface HttpTransport extends Startable {
     default void setOnError(Consumer<Throwable> exceptionConsumer) {
     }
 
+
+    /**
+     * Lets the transport stop reading from its connections while the back pressure is saturated.
+     * Transports that can't pause reading ignore this.
+     *
+     * @param backPressure back pressure of the queues the transport feeds
+     */
+    default void setBackPressure(BackPressure backPressure) {
+    }
+
     void setWebSocketMessageConsumer(Consumer<WebSocketMessage> webSocketMessageConsumer);
 
     void setWebSocketCloseConsumer(Consumer<WebSocketMessage> webSocketMessageConsumer);
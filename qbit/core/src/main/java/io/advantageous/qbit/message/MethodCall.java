@@ -39,6 +39,33 @@ public interface MethodCall<T> extends Request<T> {
 
     Callback<Object> callback();
 
+    /**
+     * Compact address of the target service inside the bundle the call was created for.
+     *
+     * @return service id, or -1 if the call is addressed by name
+     */
+    default int serviceId() {
+        return -1;
+    }
+
+    /**
+     * Index of the target method inside its service, see ServiceMethodHandler.methodId.
+     *
+     * @return method id, or -1 if the call is addressed by name
+     */
+    default int methodId() {
+        return -1;
+    }
+
+    /**
+     * Time, from {@link io.advantageous.qbit.util.Timer}, after which nobody waits for the answer to the call.
+     *
+     * @return deadline, 0 if the call has none
+     */
+    default long deadline() {
+        return 0;
+    }
+
     default Object[] args() {
         Object body = this.body();
 
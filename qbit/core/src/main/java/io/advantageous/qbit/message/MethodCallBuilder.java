@@ -23,6 +23,7 @@ import io.advantageous.qbit.message.impl.MethodCallLocal;
 import io.advantageous.qbit.reactive.Callback;
 import io.advantageous.qbit.service.Protocol;
 import io.advantageous.qbit.util.MultiMap;
+import io.advantageous.qbit.util.Timer;
 
 import java.util.Collections;
 import java.util.List;
@@ -47,6 +48,9 @@ public class MethodCallBuilder {
     private boolean local;
     private Object[] bodyArgs;
     private Callback<Object> callback;
+    private int serviceId = -1;
+    private int methodId = -1;
+    private long deadline;
 
     public static MethodCallBuilder methodCallBuilder() {
         return new MethodCallBuilder();
@@ -66,6 +70,9 @@ public class MethodCallBuilder {
                 .setBody(arg)
                 .setObjectName(methodCall.objectName())
                 .setReturnAddress(methodCall.returnAddress())
+                .setServiceId(methodCall.serviceId())
+                .setMethodId(methodCall.methodId())
+                .setDeadline(methodCall.deadline())
                 .setOriginatingRequest(methodCall.originatingRequest()).build();
 
     }
@@ -208,10 +215,12 @@ public class MethodCallBuilder {
 
 
         if (isLocal()) {
-            return new MethodCallLocal(getName(), getReturnAddress(), getTimestamp(), getId(), getBodyArgs(), getCallback(), getOriginatingRequest());
+            return new MethodCallLocal(getName(), getReturnAddress(), getTimestamp(), getId(), getBodyArgs(), getCallback(), getOriginatingRequest(),
+                    getServiceId(), getMethodId(), getDeadline());
         } else {
             return new MethodCallImpl(getTimestamp(), getId(), getName(), getAddress(), getParams(), getHeaders(),
-                    getBody(), getObjectName(), getReturnAddress(), getOriginatingRequest(), callback);
+                    getBody(), getObjectName(), getReturnAddress(), getOriginatingRequest(), callback,
+                    getServiceId(), getMethodId(), getDeadline());
         }
 
     }
@@ -233,6 +242,62 @@ public class MethodCallBuilder {
         }
     }
 
+    public int getServiceId() {
+        return serviceId;
+    }
+
+    public MethodCallBuilder setServiceId(int serviceId) {
+        this.serviceId = serviceId;
+        return this;
+    }
+
+    public int getMethodId() {
+        return methodId;
+    }
+
+    public MethodCallBuilder setMethodId(int methodId) {
+        this.methodId = methodId;
+        return this;
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * @param deadline time, from {@link Timer}, after which nobody waits for the answer, 0 for none
+     * @return this, fluent
+     */
+    public MethodCallBuilder setDeadline(long deadline) {
+        this.deadline = deadline;
+        return this;
+    }
+
+    /**
+     * Sets the deadline from the {@link Protocol#TIMEOUT_HEADER} of a call that came from another process.
+     * The header holds the time left rather than a time, so clocks of the two hosts do not need to agree.
+     *
+     * @param headers headers of the call or of the HTTP request
+     * @return this, fluent
+     */
+    public MethodCallBuilder setDeadlineFromHeaders(final MultiMap<String, String> headers) {
+        if (headers == null || headers.size() == 0) {
+            return this;
+        }
+        String timeout = headers.get(Protocol.TIMEOUT_HEADER);
+        if (timeout == null) {
+            timeout = headers.get(Protocol.TIMEOUT_HEADER.toLowerCase());
+        }
+        if (timeout != null) {
+            try {
+                this.deadline = Timer.timer().now() + Long.parseLong(timeout.trim());
+            } catch (NumberFormatException ex) {
+                this.deadline = 0;
+            }
+        }
+        return this;
+    }
+
     public Object[] getBodyArgs() {
         return bodyArgs;
     }
@@ -0,0 +1,19 @@
+package io.advantageous.qbit.message.impl;
+
+/**
+ * Method call that is never dispatched to the service. The service queue runs the marker when it comes up,
+ * so the sender knows every call it sent on the same send queue before the marker has been handled.
+ */
+public class DrainMarker extends MethodCallLocal {
+
+    private final Runnable onReached;
+
+    public DrainMarker(final Runnable onReached) {
+        super("drainMarker", "", 0L, -1L, new Object[0], null, null);
+        this.onReached = onReached;
+    }
+
+    public void reached() {
+        onReached.run();
+    }
+}
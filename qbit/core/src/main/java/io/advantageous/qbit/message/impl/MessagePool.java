@@ -0,0 +1,82 @@
+package io.advantageous.qbit.message.impl;
+
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.message.Response;
+
+/**
+ * Per thread pools of method calls and responses for the in JVM call path.
+ * <p>
+ * A pooled call is released with its response after the callback manager handled the response, or by the service
+ * queue right after the call when the method has no response. Messages that are never released are simply
+ * garbage collected. Remote and HTTP calls never use pooled messages.
+ */
+public final class MessagePool {
+
+    private static final ThreadLocal<PooledMessage.Pool<PooledMethodCall>> methodCallPools =
+            ThreadLocal.withInitial(PooledMessage.Pool::new);
+    private static final ThreadLocal<PooledMessage.Pool<PooledResponse>> responsePools =
+            ThreadLocal.withInitial(PooledMessage.Pool::new);
+
+    private MessagePool() {
+    }
+
+    public static MethodCall<Object> methodCall(final String name,
+                                                final String returnAddress,
+                                                final long timestamp,
+                                                final long messageId,
+                                                final Object[] args,
+                                                final int methodId) {
+        return methodCall(name, returnAddress, timestamp, messageId, args, methodId, 0);
+    }
+
+    public static MethodCall<Object> methodCall(final String name,
+                                                final String returnAddress,
+                                                final long timestamp,
+                                                final long messageId,
+                                                final Object[] args,
+                                                final int methodId,
+                                                final long deadline) {
+        final PooledMessage.Pool<PooledMethodCall> pool = methodCallPools.get();
+        PooledMethodCall methodCall = pool.acquire();
+        if (methodCall == null) {
+            methodCall = new PooledMethodCall(pool);
+        }
+        return methodCall.init(name, returnAddress, timestamp, messageId, args, methodId, deadline);
+    }
+
+    static Response<Object> response(final PooledMethodCall methodCall, final Object body, final boolean errors) {
+        /* A call answered twice must not be released twice, the extra response is not pooled. */
+        if (methodCall.responded) {
+            return errors ? new ResponseImpl<>(methodCall, (Throwable) body) : new ResponseImpl<>(methodCall, body);
+        }
+        methodCall.responded = true;
+        final PooledMessage.Pool<PooledResponse> pool = responsePools.get();
+        PooledResponse response = pool.acquire();
+        if (response == null) {
+            response = new PooledResponse(pool);
+        }
+        return response.init(methodCall, body, errors);
+    }
+
+    /**
+     * Releases a pooled response and its method call, does nothing for other responses.
+     *
+     * @param response response that was handled
+     */
+    public static void release(final Response<Object> response) {
+        if (response instanceof PooledResponse) {
+            ((PooledResponse) response).release();
+        }
+    }
+
+    /**
+     * Releases a pooled method call that will not get a response, does nothing for other calls.
+     *
+     * @param methodCall method call that was handled
+     */
+    public static void release(final MethodCall<Object> methodCall) {
+        if (methodCall instanceof PooledMethodCall) {
+            ((PooledMethodCall) methodCall).release();
+        }
+    }
+}
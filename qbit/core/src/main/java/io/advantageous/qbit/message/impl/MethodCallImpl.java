@@ -41,11 +41,27 @@ public class MethodCallImpl implements MethodCall<Object> {
     private final String objectName;
     private final String returnAddress;
     private final Callback<Object> callback;
+    private final int serviceId;
+    private final int methodId;
+    private final long deadline;
     private Object transformedBody;
     private Request<Object> originatingRequest;
 
 
     public MethodCallImpl(long timestamp, long id, String name, String address, MultiMap<String, String> params, MultiMap<String, String> headers, Object body, String objectName, String returnAddress, Request<Object> originatingRequest, Callback<Object> callback) {
+        this(timestamp, id, name, address, params, headers, body, objectName, returnAddress, originatingRequest, callback, -1, -1);
+    }
+
+    public MethodCallImpl(long timestamp, long id, String name, String address, MultiMap<String, String> params, MultiMap<String, String> headers, Object body, String objectName, String returnAddress, Request<Object> originatingRequest, Callback<Object> callback,
+                          int serviceId, int methodId) {
+        this(timestamp, id, name, address, params, headers, body, objectName, returnAddress, originatingRequest, callback, serviceId, methodId, 0);
+    }
+
+    public MethodCallImpl(long timestamp, long id, String name, String address, MultiMap<String, String> params, MultiMap<String, String> headers, Object body, String objectName, String returnAddress, Request<Object> originatingRequest, Callback<Object> callback,
+                          int serviceId, int methodId, long deadline) {
+        this.serviceId = serviceId;
+        this.deadline = deadline;
+        this.methodId = methodId;
         this.timestamp = timestamp;
         this.id = id;
         this.name = name;
@@ -88,11 +104,26 @@ public class MethodCallImpl implements MethodCall<Object> {
         return name;
     }
 
+    @Override
+    public int serviceId() {
+        return serviceId;
+    }
+
+    @Override
+    public int methodId() {
+        return methodId;
+    }
+
     @Override
     public long timestamp() {
         return timestamp;
     }
 
+    @Override
+    public long deadline() {
+        return deadline;
+    }
+
     @Override
     public boolean isHandled() {
         return false;
@@ -18,6 +18,10 @@ public class MethodCallLocal implements MethodCall<Object> {
 
     private final Request<Object> originatingRequest;
 
+    private final int serviceId;
+    private final int methodId;
+    private final long deadline;
+
 
     public MethodCallLocal(final String name,
                            final String uuid,
@@ -25,6 +29,32 @@ public class MethodCallLocal implements MethodCall<Object> {
                            final long messageId,
                            final Object[] args,
                            Callback<Object> callback, final Request<Object> originatingRequest) {
+        this(name, uuid, timestamp, messageId, args, callback, originatingRequest, -1, -1);
+    }
+
+    public MethodCallLocal(final String name,
+                           final String uuid,
+                           final long timestamp,
+                           final long messageId,
+                           final Object[] args,
+                           Callback<Object> callback, final Request<Object> originatingRequest,
+                           final int serviceId,
+                           final int methodId) {
+        this(name, uuid, timestamp, messageId, args, callback, originatingRequest, serviceId, methodId, 0);
+    }
+
+    public MethodCallLocal(final String name,
+                           final String uuid,
+                           final long timestamp,
+                           final long messageId,
+                           final Object[] args,
+                           Callback<Object> callback, final Request<Object> originatingRequest,
+                           final int serviceId,
+                           final int methodId,
+                           final long deadline) {
+        this.serviceId = serviceId;
+        this.deadline = deadline;
+        this.methodId = methodId;
         this.name = name;
         this.timestamp = timestamp;
         this.arguments = args;
@@ -65,6 +95,16 @@ public class MethodCallLocal implements MethodCall<Object> {
         return name;
     }
 
+    @Override
+    public int serviceId() {
+        return serviceId;
+    }
+
+    @Override
+    public int methodId() {
+        return methodId;
+    }
+
     @Override
     public String address() {
         return name;
@@ -100,6 +140,11 @@ public class MethodCallLocal implements MethodCall<Object> {
         return timestamp;
     }
 
+    @Override
+    public long deadline() {
+        return deadline;
+    }
+
     @Override
     public boolean isHandled() {
         return false;
@@ -0,0 +1,89 @@
+package io.advantageous.qbit.message.impl;
+
+import io.advantageous.boon.core.Sys;
+import io.advantageous.qbit.GlobalConstants;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Base for recycled messages. Each message belongs to the pool of the thread that created it and can be released
+ * from any thread.
+ * <p>
+ * In debug mode released messages are never reused, so any later use of a released message throws.
+ */
+abstract class PooledMessage<T extends PooledMessage<T>> {
+
+    static final boolean DEBUG = GlobalConstants.DEBUG || Sys.sysProp("QBIT_POOL_DEBUG", false);
+
+    private final Pool<T> pool;
+    T next;
+    volatile boolean released;
+
+    PooledMessage(final Pool<T> pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Clears references held by the message so a pooled message does not keep them alive.
+     */
+    abstract void clear();
+
+    @SuppressWarnings("unchecked")
+    final void release() {
+        if (released) {
+            throw new IllegalStateException("Message released twice " + getClass().getSimpleName());
+        }
+        released = true;
+        clear();
+        if (!DEBUG) {
+            pool.release((T) this);
+        }
+    }
+
+    final void checkNotReleased() {
+        if (DEBUG && released) {
+            throw new IllegalStateException("Message used after release " + getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Free list of one thread. The owner takes from a plain stack, other threads push released messages on a
+     * lock free stack that the owner takes over in one step when its own stack runs out.
+     */
+    static final class Pool<T extends PooledMessage<T>> {
+
+        private final Thread owner = Thread.currentThread();
+        private final AtomicReference<T> returned = new AtomicReference<>();
+        private T free;
+
+        /**
+         * @return a released message or null when the pool is empty, must be called from the owner thread
+         */
+        T acquire() {
+            T message = free;
+            if (message == null) {
+                message = returned.getAndSet(null);
+                if (message == null) {
+                    return null;
+                }
+            }
+            free = message.next;
+            message.next = null;
+            message.released = false;
+            return message;
+        }
+
+        private void release(final T message) {
+            if (Thread.currentThread() == owner) {
+                message.next = free;
+                free = message;
+                return;
+            }
+            T head;
+            do {
+                head = returned.get();
+                message.next = head;
+            } while (!returned.compareAndSet(head, message));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package io.advantageous.qbit.message.impl;
+
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.message.Request;
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.util.MultiMap;
+
+/**
+ * Recycled in JVM method call, same shape as {@link MethodCallLocal}.
+ * Released with its response, or after it is handled when there is no response.
+ */
+public final class PooledMethodCall extends PooledMessage<PooledMethodCall> implements MethodCall<Object> {
+
+    private String name;
+    private String returnAddress;
+    private long timestamp;
+    private long messageId;
+    private Object[] arguments;
+    private Callback<Object> callback;
+    private int methodId;
+    private long deadline;
+    boolean responded;
+
+    PooledMethodCall(final Pool<PooledMethodCall> pool) {
+        super(pool);
+    }
+
+    PooledMethodCall init(final String name,
+                          final String returnAddress,
+                          final long timestamp,
+                          final long messageId,
+                          final Object[] args,
+                          final int methodId,
+                          final long deadline) {
+        this.name = name;
+        this.deadline = deadline;
+        this.returnAddress = returnAddress;
+        this.timestamp = timestamp;
+        this.messageId = messageId;
+        this.arguments = args;
+        this.methodId = methodId;
+        this.callback = detectCallback(args);
+        this.responded = false;
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Callback<Object> detectCallback(final Object[] args) {
+        if (args == null) {
+            return null;
+        }
+        for (Object arg : args) {
+            if (arg instanceof Callback) {
+                return (Callback<Object>) arg;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    void clear() {
+        arguments = null;
+        callback = null;
+    }
+
+    @Override
+    public boolean hasCallback() {
+        checkNotReleased();
+        return callback != null;
+    }
+
+    @Override
+    public Callback<Object> callback() {
+        checkNotReleased();
+        return callback;
+    }
+
+    @Override
+    public String name() {
+        checkNotReleased();
+        return name;
+    }
+
+    @Override
+    public int methodId() {
+        checkNotReleased();
+        return methodId;
+    }
+
+    @Override
+    public String address() {
+        checkNotReleased();
+        return name;
+    }
+
+    @Override
+    public String returnAddress() {
+        checkNotReleased();
+        return returnAddress;
+    }
+
+    @Override
+    public MultiMap<String, String> params() {
+        return null;
+    }
+
+    @Override
+    public MultiMap<String, String> headers() {
+        return null;
+    }
+
+    @Override
+    public boolean hasParams() {
+        return false;
+    }
+
+    @Override
+    public boolean hasHeaders() {
+        return false;
+    }
+
+    @Override
+    public long timestamp() {
+        checkNotReleased();
+        return timestamp;
+    }
+
+    @Override
+    public long deadline() {
+        checkNotReleased();
+        return deadline;
+    }
+
+    @Override
+    public boolean isHandled() {
+        return false;
+    }
+
+    @Override
+    public void handled() {
+    }
+
+    @Override
+    public String objectName() {
+        return "";
+    }
+
+    @Override
+    public Request<Object> originatingRequest() {
+        return null;
+    }
+
+    @Override
+    public long id() {
+        checkNotReleased();
+        return messageId;
+    }
+
+    @Override
+    public Object body() {
+        checkNotReleased();
+        return arguments;
+    }
+
+    @Override
+    public boolean isSingleton() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "PooledMethodCall{" +
+                "name='" + name + '\'' +
+                ", returnAddress='" + returnAddress + '\'' +
+                ", id=" + messageId +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
@@ -0,0 +1,98 @@
+package io.advantageous.qbit.message.impl;
+
+import io.advantageous.boon.core.Exceptions;
+import io.advantageous.qbit.message.Request;
+import io.advantageous.qbit.message.Response;
+
+/**
+ * Recycled response to a {@link PooledMethodCall}. Releasing the response releases its request too.
+ */
+public final class PooledResponse extends PooledMessage<PooledResponse> implements Response<Object> {
+
+    private PooledMethodCall request;
+    private Object body;
+    private Object transformedBody;
+    private boolean errors;
+
+    PooledResponse(final Pool<PooledResponse> pool) {
+        super(pool);
+    }
+
+    PooledResponse init(final PooledMethodCall request, final Object body, final boolean errors) {
+        this.request = request;
+        this.body = errors && body instanceof Exceptions.SoftenedException ? ((Throwable) body).getCause() : body;
+        this.errors = errors;
+        return this;
+    }
+
+    @Override
+    void clear() {
+        final PooledMethodCall pooledMethodCall = request;
+        request = null;
+        body = null;
+        transformedBody = null;
+        pooledMethodCall.release();
+    }
+
+    @Override
+    public long id() {
+        checkNotReleased();
+        return request.id();
+    }
+
+    @Override
+    public Object body() {
+        checkNotReleased();
+        return transformedBody == null ? body : transformedBody;
+    }
+
+    @Override
+    public void body(final Object newBody) {
+        checkNotReleased();
+        transformedBody = newBody;
+    }
+
+    @Override
+    public boolean isSingleton() {
+        return true;
+    }
+
+    @Override
+    public boolean wasErrors() {
+        checkNotReleased();
+        return errors;
+    }
+
+    @Override
+    public String returnAddress() {
+        checkNotReleased();
+        return request.returnAddress();
+    }
+
+    @Override
+    public String address() {
+        checkNotReleased();
+        return request.address();
+    }
+
+    @Override
+    public long timestamp() {
+        checkNotReleased();
+        return request.timestamp();
+    }
+
+    @Override
+    public Request<Object> request() {
+        checkNotReleased();
+        return request;
+    }
+
+    @Override
+    public String toString() {
+        return "PooledResponse{" +
+                "request=" + request +
+                ", body=" + body +
+                ", errors=" + errors +
+                '}';
+    }
+}
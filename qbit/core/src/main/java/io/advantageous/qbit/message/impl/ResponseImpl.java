@@ -105,6 +105,10 @@ public class ResponseImpl<T> implements Response<T> {
 
     public static Response<Object> response(MethodCall<Object> methodCall, Object returnValue) {
 
+        if (methodCall instanceof PooledMethodCall) {
+            return MessagePool.response((PooledMethodCall) methodCall, returnValue, false);
+        }
+
         //noinspection UnnecessaryLocalVariable
         @SuppressWarnings("UnnecessaryLocalVariable") ResponseImpl<Object> response = new ResponseImpl<>(methodCall, returnValue);
 
@@ -112,6 +116,9 @@ public class ResponseImpl<T> implements Response<T> {
     }
 
     public static Response<Object> error(MethodCall<Object> methodCall, Throwable error) {
+        if (methodCall instanceof PooledMethodCall) {
+            return MessagePool.response((PooledMethodCall) methodCall, error, true);
+        }
         return new ResponseImpl<>(methodCall, error);
     }
 
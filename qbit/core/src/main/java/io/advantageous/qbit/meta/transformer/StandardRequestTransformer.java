@@ -110,6 +110,7 @@ public class StandardRequestTransformer implements RequestTransformer {
         final MethodCallBuilder methodCallBuilder = new MethodCallBuilder();
         methodCallBuilder.setAddress(request.address());
         methodCallBuilder.setOriginatingRequest(request);
+        methodCallBuilder.setDeadlineFromHeaders(request.headers());
 
         if (metaData == null) {
             errorsList.add("Unable to find handler");
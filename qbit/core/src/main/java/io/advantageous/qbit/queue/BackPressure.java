@@ -0,0 +1,26 @@
+package io.advantageous.qbit.queue;
+
+/**
+ * Something producers can check before they hand off more work.
+ * <p>
+ * It becomes saturated once its high watermark is reached and stays saturated until it has drained down to its
+ * low watermark. Front ends use this to stop reading from their connections instead of filling queues that are
+ * already behind.
+ */
+public interface BackPressure {
+
+    /**
+     * @return true if the high watermark was reached and the low watermark has not been reached since
+     */
+    boolean isSaturated();
+
+    /**
+     * Runs the runnable once this is no longer saturated, right away if it is not saturated now.
+     * <p>
+     * The runnable may be called from the consumer thread that drained the queue, so it should only hand off
+     * work, for example resume a connection, and not block.
+     *
+     * @param runnable called once writable again
+     */
+    void onWritable(Runnable runnable);
+}
@@ -0,0 +1,19 @@
+package io.advantageous.qbit.queue;
+
+/**
+ * Picks the lane of a multi lane queue that an item goes to. Lane 0 has the highest priority.
+ */
+@FunctionalInterface
+public interface LaneSelector {
+
+    /**
+     * Returned when the item has no lane of its own and should go to the queue's default lane.
+     */
+    int DEFAULT_LANE = -1;
+
+    /**
+     * @param item item being sent
+     * @return lane number or DEFAULT_LANE
+     */
+    int lane(Object item);
+}
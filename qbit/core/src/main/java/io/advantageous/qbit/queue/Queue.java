@@ -32,7 +32,7 @@ import java.util.concurrent.TimeUnit;
  *
  * @author rhightower
  */
-public interface Queue<T> extends Stoppable {
+public interface Queue<T> extends Stoppable, BackPressure {
 
     /**
      * This returns a thread safe receive queue. Pulling an item off of the queue makes it unavailable to other thread.
@@ -63,8 +63,7 @@ public interface Queue<T> extends Stoppable {
     default SendQueue<T> sendQueueWithAutoFlush(final PeriodicScheduler periodicScheduler,
                                                 final int interval, final TimeUnit timeUnit) {
 
-        SendQueue<T> sendQueue = sendQueue();
-        return new AutoFlushingSendQueue<>(sendQueue, periodicScheduler, interval, timeUnit);
+        return new AutoFlushingSendQueue<>(this::sendQueue, periodicScheduler, interval, timeUnit);
     }
 
     /**
@@ -87,4 +86,30 @@ public interface Queue<T> extends Stoppable {
     default String name() {
         return "NO OP";
     }
+
+    /**
+     * True if the queue has a high watermark and is past it.
+     *
+     * @return saturated
+     */
+    @Override
+    default boolean isSaturated() {
+        return false;
+    }
+
+    @Override
+    default void onWritable(final Runnable runnable) {
+        runnable.run();
+    }
+
+    /**
+     * Listen for the queue crossing its high and low watermarks.
+     * A queue without watermarks never crosses them, so it does not keep the listener and returns false.
+     *
+     * @param listener watermark listener
+     * @return true if the listener was added, false if this queue has no watermarks
+     */
+    default boolean addWatermarkListener(final QueueWatermarkListener listener) {
+        return false;
+    }
 }
@@ -22,9 +22,21 @@ import io.advantageous.qbit.config.PropertyResolver;
 import io.advantageous.qbit.queue.impl.AddTimeoutUnableToEnqueueHandler;
 import io.advantageous.qbit.queue.impl.BasicQueue;
 import io.advantageous.qbit.queue.impl.DefaultUnableToEnqueueHandler;
-
+import io.advantageous.qbit.queue.impl.LaneQueue;
+import io.advantageous.qbit.queue.impl.QueueInstrumentation;
+import io.advantageous.qbit.queue.impl.RingBufferBlockingQueue;
+import io.advantageous.qbit.queue.impl.SharedQueueScheduler;
+import io.advantageous.qbit.queue.impl.durable.DurableQueue;
+import io.advantageous.qbit.queue.impl.durable.FsyncPolicy;
+import io.advantageous.qbit.queue.impl.wait.BlockingWaitStrategy;
+import io.advantageous.qbit.service.stats.StatsCollector;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.*;
+import java.util.function.Function;
 
 /**
  * Allows for the programmatic construction of a queue.
@@ -50,6 +62,24 @@ public class QueueBuilder implements Cloneable {
     private int enqueueTimeout;
 
     private UnableToEnqueueHandler unableToEnqueueHandler;
+    private WaitStrategy waitStrategy;
+    private int batchPoolSize;
+    private SharedQueueScheduler queueScheduler;
+    private boolean adaptiveBatching;
+    private int highWatermark;
+    private int lowWatermark;
+    private StatsCollector statsCollector;
+    private String statsPrefix;
+    private int statsFlushSeconds;
+    private int statsSampleEvery;
+    private String durableDirectory;
+    private int segmentSize;
+    private FsyncPolicy fsyncPolicy;
+    private long fsyncIntervalMS;
+    private int lanes;
+    private int[] laneWeights;
+    private int defaultLane;
+    private LaneSelector laneSelector;
 
     public QueueBuilder(PropertyResolver propertyResolver) {
         this.pollWait = propertyResolver
@@ -70,6 +100,43 @@ public class QueueBuilder implements Cloneable {
         this.queueClass = propertyResolver
                 .getGenericPropertyWithDefault("queueClass", ArrayBlockingQueue.class);
 
+        this.batchPoolSize = propertyResolver
+                .getIntegerProperty("batchPoolSize", 0);
+
+        this.adaptiveBatching = propertyResolver
+                .getBooleanProperty("adaptiveBatching", false);
+
+        this.highWatermark = propertyResolver
+                .getIntegerProperty("highWatermark", 0);
+        this.lowWatermark = propertyResolver
+                .getIntegerProperty("lowWatermark", 0);
+
+        this.statsFlushSeconds = propertyResolver
+                .getIntegerProperty("statsFlushSeconds", 5);
+        this.statsSampleEvery = propertyResolver
+                .getIntegerProperty("statsSampleEvery", 1000);
+
+        this.durableDirectory = propertyResolver
+                .getStringProperty("durableDirectory", null);
+        this.segmentSize = propertyResolver
+                .getIntegerProperty("segmentSize", 64 * 1024 * 1024);
+        this.fsyncPolicy = FsyncPolicy.valueOf(propertyResolver
+                .getStringProperty("fsyncPolicy", FsyncPolicy.INTERVAL.name()));
+        this.fsyncIntervalMS = propertyResolver
+                .getLongProperty("fsyncIntervalMS", 1000L);
+
+        this.lanes = propertyResolver
+                .getIntegerProperty("lanes", 1);
+        this.defaultLane = propertyResolver
+                .getIntegerProperty("defaultLane", LaneSelector.DEFAULT_LANE);
+
+        if (propertyResolver.getBooleanProperty("sharedScheduler", false)) {
+            this.queueScheduler = SharedQueueScheduler.sharedQueueScheduler();
+        }
+
+        this.waitStrategy = WaitStrategy.waitStrategy(propertyResolver
+                .getStringProperty("waitStrategy", "blocking"));
+
     }
 
     public QueueBuilder() {
@@ -120,6 +187,284 @@ public class QueueBuilder implements Cloneable {
         return this;
     }
 
+    public WaitStrategy getWaitStrategy() {
+        if (waitStrategy == null) {
+            waitStrategy = WaitStrategy.blocking();
+        }
+        return waitStrategy;
+    }
+
+    /**
+     * Sets how the queue listener waits once the queue is empty.
+     * A listener on a shared scheduler parks instead, so only the blocking strategy goes with a queue scheduler.
+     *
+     * @param waitStrategy wait strategy, see {@link WaitStrategy}
+     * @return this
+     */
+    public QueueBuilder setWaitStrategy(final WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+        return this;
+    }
+
+    public int getBatchPoolSize() {
+        return batchPoolSize;
+    }
+
+    /**
+     * Recycle batch arrays through a bounded pool instead of copying the local batch on every flush.
+     * The receive queue hands each array back once drained so the send to receive path does not allocate
+     * once the pool is warm. Zero, the default, turns recycling off.
+     *
+     * @param batchPoolSize max number of free batch arrays kept for reuse
+     * @return this
+     */
+    public QueueBuilder setBatchPoolSize(final int batchPoolSize) {
+        this.batchPoolSize = batchPoolSize;
+        return this;
+    }
+
+    public QueueBuilder setRecycleBatches(final boolean recycleBatches) {
+        this.batchPoolSize = recycleBatches ? 1024 : 0;
+        return this;
+    }
+
+    public boolean isAdaptiveBatching() {
+        return adaptiveBatching;
+    }
+
+    /**
+     * Let each send queue pick its batch size between one and batchSize based on how well the consumer keeps up.
+     * Batches shrink while the consumer drains everything it gets, hold while it drains as fast as batches
+     * arrive, and grow while a backlog builds up faster than it drains.
+     * A batch is also flushed right away whenever the consumer is waiting for items, so an idle consumer never
+     * waits for a timed flush.
+     *
+     * @param adaptiveBatching true to adapt the batch size, batchSize is then the ceiling
+     * @return this
+     */
+    public QueueBuilder setAdaptiveBatching(final boolean adaptiveBatching) {
+        this.adaptiveBatching = adaptiveBatching;
+        return this;
+    }
+
+    public int getHighWatermark() {
+        return highWatermark;
+    }
+
+    /**
+     * Number of queued items at which the queue reports itself saturated, see {@link Queue#isSaturated()} and
+     * {@link SendQueue#availableCredits()}. Zero, the default, turns watermarks off.
+     *
+     * @param highWatermark high watermark in items
+     * @return this
+     */
+    public QueueBuilder setHighWatermark(final int highWatermark) {
+        this.highWatermark = highWatermark;
+        return this;
+    }
+
+    /**
+     * The low watermark, defaults to half the high watermark.
+     *
+     * @return low watermark in items
+     */
+    public int getLowWatermark() {
+        return lowWatermark > 0 ? lowWatermark : highWatermark / 2;
+    }
+
+    /**
+     * Number of queued items at which a saturated queue is writable again.
+     *
+     * @param lowWatermark low watermark in items
+     * @return this
+     */
+    public QueueBuilder setLowWatermark(final int lowWatermark) {
+        this.lowWatermark = lowWatermark;
+        return this;
+    }
+
+    public StatsCollector getStatsCollector() {
+        return statsCollector;
+    }
+
+    /**
+     * Turn on queue stats: enqueue and dequeue rates, batch sizes, depth and sampled time in queue.
+     * See {@link QueueInstrumentation} for the keys. Stats are off unless a collector is set.
+     *
+     * @param statsCollector stats collector
+     * @return this
+     */
+    public QueueBuilder setStatsCollector(final StatsCollector statsCollector) {
+        this.statsCollector = statsCollector;
+        return this;
+    }
+
+    public String getStatsPrefix() {
+        return statsPrefix;
+    }
+
+    /**
+     * Prefix for the queue stat keys, defaults to "queue." followed by the queue name.
+     *
+     * @param statsPrefix stats prefix
+     * @return this
+     */
+    public QueueBuilder setStatsPrefix(final String statsPrefix) {
+        this.statsPrefix = statsPrefix;
+        return this;
+    }
+
+    public int getStatsFlushSeconds() {
+        return statsFlushSeconds;
+    }
+
+    public QueueBuilder setStatsFlushSeconds(final int statsFlushSeconds) {
+        this.statsFlushSeconds = statsFlushSeconds;
+        return this;
+    }
+
+    public int getStatsSampleEvery() {
+        return statsSampleEvery;
+    }
+
+    /**
+     * Sample time in queue once every this many hand offs from each send queue. Zero turns sampling off.
+     *
+     * @param statsSampleEvery hand offs between samples
+     * @return this
+     */
+    public QueueBuilder setStatsSampleEvery(final int statsSampleEvery) {
+        this.statsSampleEvery = statsSampleEvery;
+        return this;
+    }
+
+    public String getDurableDirectory() {
+        return durableDirectory;
+    }
+
+    /**
+     * Keep the queue on disk in memory mapped segment files under this directory.
+     * Only queues of strings can be durable, for example the queue behind a JsonQueue, see
+     * {@link #buildDurableQueue()}.
+     *
+     * @param durableDirectory directory for the segments and consumer offset, null for an in memory queue
+     * @return this
+     */
+    public QueueBuilder setDurableDirectory(final String durableDirectory) {
+        this.durableDirectory = durableDirectory;
+        return this;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    public QueueBuilder setSegmentSize(final int segmentSize) {
+        this.segmentSize = segmentSize;
+        return this;
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    public QueueBuilder setFsyncPolicy(final FsyncPolicy fsyncPolicy) {
+        this.fsyncPolicy = fsyncPolicy;
+        return this;
+    }
+
+    public long getFsyncIntervalMS() {
+        return fsyncIntervalMS;
+    }
+
+    public QueueBuilder setFsyncIntervalMS(final long fsyncIntervalMS) {
+        this.fsyncIntervalMS = fsyncIntervalMS;
+        return this;
+    }
+
+    public int getLanes() {
+        return lanes;
+    }
+
+    /**
+     * Split the queue into lanes that one listener drains, lane 0 first.
+     * More than one lane builds a {@link LaneQueue}.
+     *
+     * @param lanes number of lanes
+     * @return this
+     */
+    public QueueBuilder setLanes(final int lanes) {
+        this.lanes = lanes;
+        return this;
+    }
+
+    public int[] getLaneWeights() {
+        return laneWeights;
+    }
+
+    /**
+     * Drain the lanes by weighted round robin, taking up to weight items from a lane per round.
+     * Without weights, the default, lanes are drained by strict priority.
+     *
+     * @param laneWeights one weight per lane
+     * @return this
+     */
+    public QueueBuilder setLaneWeights(final int... laneWeights) {
+        this.laneWeights = laneWeights;
+        return this;
+    }
+
+    /**
+     * The lane for items the lane selector does not place. Defaults to the last, lowest priority lane.
+     *
+     * @return default lane
+     */
+    public int getDefaultLane() {
+        return defaultLane == LaneSelector.DEFAULT_LANE ? lanes - 1 : defaultLane;
+    }
+
+    public QueueBuilder setDefaultLane(final int defaultLane) {
+        this.defaultLane = defaultLane;
+        return this;
+    }
+
+    public LaneSelector getLaneSelector() {
+        return laneSelector;
+    }
+
+    public QueueBuilder setLaneSelector(final LaneSelector laneSelector) {
+        this.laneSelector = laneSelector;
+        return this;
+    }
+
+    public SharedQueueScheduler getQueueScheduler() {
+        return queueScheduler;
+    }
+
+    /**
+     * Run the queue listener on a shared worker pool instead of a dedicated thread.
+     * Null, the default, gives the queue its own thread.
+     * The listener parks while the queue is empty and the send queues wake it, so the wait strategy must stay
+     * blocking.
+     *
+     * @param queueScheduler shared scheduler
+     * @return this
+     */
+    public QueueBuilder setQueueScheduler(final SharedQueueScheduler queueScheduler) {
+        this.queueScheduler = queueScheduler;
+        return this;
+    }
+
+    /**
+     * Run the queue listener on the process wide shared worker pool (one worker per core).
+     *
+     * @return this
+     */
+    public QueueBuilder setUseSharedScheduler() {
+        this.queueScheduler = SharedQueueScheduler.sharedQueueScheduler();
+        return this;
+    }
+
     public TimeUnit getEnqueueTimeoutTimeUnit() {
         return enqueueTimeoutTimeUnit;
     }
@@ -194,6 +539,29 @@ public class QueueBuilder implements Cloneable {
     }
 
 
+    /**
+     * Use a preallocated lock-free ring buffer as the backing queue.
+     * The size is rounded up to the next power of two.
+     *
+     * @param size number of slots (each slot holds one batch)
+     * @return this
+     */
+    public QueueBuilder setRingBufferQueue(final int size) {
+        this.size = size;
+        queueClass = RingBufferBlockingQueue.class;
+        return this;
+    }
+
+    public QueueBuilder setRingBufferQueue() {
+        if (size == -1) {
+            size = 100_000;
+        }
+
+        queueClass = RingBufferBlockingQueue.class;
+        return this;
+    }
+
+
     public QueueBuilder setLinkTransferQueue() {
         size = -1;
         batchSize = checkEvery * 10;
@@ -255,18 +623,104 @@ public class QueueBuilder implements Cloneable {
     }
 
 
+    /**
+     * Builds an in memory queue, or a queue of lanes if there is more than one lane.
+     * A durable queue can only hold strings, so it is built with {@link #buildDurableQueue()}.
+     *
+     * @param <T> type of the items
+     * @return queue
+     */
     public <T> Queue<T> build() {
-        return new BasicQueue<>(this.getName(),
+        if (durableDirectory != null) {
+            throw new IllegalStateException("Queue " + getName() + " has a durable directory, " +
+                    "only queues of strings can be durable, use buildDurableQueue()");
+        }
+        if (queueScheduler != null && !(getWaitStrategy() instanceof BlockingWaitStrategy)) {
+            throw new IllegalStateException("Queue " + getName() + " runs its listener on a shared scheduler, " +
+                    "which parks it instead of waiting, so it does not support wait strategy " + waitStrategy);
+        }
+        if (lanes > 1) {
+            return this.<T>buildLaneQueue(QueueBuilder::build);
+        }
+        return new BasicQueue<>(this);
+    }
+
+    /**
+     * Builds a queue of strings kept on disk under the durable directory, or a queue of durable lanes if there is
+     * more than one lane.
+     * Wait strategies, batch recycling, adaptive batching, watermarks, stats and the shared scheduler only apply
+     * to in memory queues, so setting any of them is an error rather than being ignored.
+     *
+     * @return durable queue
+     */
+    public Queue<String> buildDurableQueue() {
+        if (durableDirectory == null) {
+            throw new IllegalStateException("Queue " + getName() + " has no durable directory");
+        }
+        final List<String> unsupported = new ArrayList<>();
+        if (waitStrategy != null && !(waitStrategy instanceof BlockingWaitStrategy)) {
+            unsupported.add("waitStrategy");
+        }
+        if (batchPoolSize > 0) {
+            unsupported.add("batchPoolSize");
+        }
+        if (adaptiveBatching) {
+            unsupported.add("adaptiveBatching");
+        }
+        if (highWatermark > 0) {
+            unsupported.add("highWatermark");
+        }
+        if (statsCollector != null) {
+            unsupported.add("statsCollector");
+        }
+        if (queueScheduler != null) {
+            unsupported.add("queueScheduler");
+        }
+        if (!unsupported.isEmpty()) {
+            throw new IllegalStateException("Durable queue " + getName() + " does not support " + unsupported);
+        }
+
+        if (lanes > 1) {
+            return buildLaneQueue(QueueBuilder::buildDurableQueue);
+        }
+        return new DurableQueue(this.getName(),
+                new File(durableDirectory),
+                this.getBatchSize(),
+                this.getLimit(),
                 this.getPollWait(),
                 this.getPollTimeUnit(),
-                this.getBatchSize(),
-                this.getQueueClass(),
-                this.isCheckIfBusy(),
-                this.getSize(),
-                this.getCheckEvery(),
-                this.isTryTransfer(),
-                this.getUnableToEnqueueHandler(),
-                this.getLimit());
+                this.getSegmentSize(),
+                this.getFsyncPolicy(),
+                this.getFsyncIntervalMS());
+    }
+
+    private <T> Queue<T> buildLaneQueue(final Function<QueueBuilder, Queue<T>> laneFactory) {
+        final List<Queue<T>> laneQueues = new ArrayList<>(lanes);
+        for (int lane = 0; lane < lanes; lane++) {
+            final QueueBuilder laneBuilder;
+            try {
+                laneBuilder = (QueueBuilder) this.clone();
+            } catch (CloneNotSupportedException ex) {
+                throw new IllegalStateException(ex);
+            }
+            laneBuilder.setLanes(1).setName(getName() + "|lane" + lane);
+            if (statsPrefix != null) {
+                laneBuilder.setStatsPrefix(statsPrefix + "|lane" + lane);
+            }
+            if (durableDirectory != null) {
+                laneBuilder.setDurableDirectory(new File(durableDirectory, "lane" + lane).getPath());
+            }
+            laneQueues.add(laneFactory.apply(laneBuilder));
+        }
+        return new LaneQueue<>(this.getName(),
+                laneQueues,
+                this.getLaneWeights(),
+                this.getDefaultLane(),
+                this.getLaneSelector(),
+                this.getPollWait(),
+                this.getPollTimeUnit(),
+                this.getLimit(),
+                this.getQueueScheduler());
     }
 
 }
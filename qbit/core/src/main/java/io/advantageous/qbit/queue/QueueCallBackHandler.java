@@ -88,4 +88,10 @@ public interface QueueCallBackHandler {
     default void queueStartBatch() {
     }
 
+    /**
+     * Callback for when a request was dropped without being handled because its deadline had passed.
+     */
+    default void expiredDropped() {
+    }
+
 }
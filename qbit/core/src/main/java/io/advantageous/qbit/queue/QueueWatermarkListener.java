@@ -0,0 +1,28 @@
+package io.advantageous.qbit.queue;
+
+/**
+ * Notified when a queue crosses its high or low watermark.
+ * <p>
+ * The high watermark callback runs on the producer thread that filled the queue and the low watermark callback
+ * runs on the consumer thread that drained it, so neither should block.
+ */
+public interface QueueWatermarkListener {
+
+    /**
+     * The queue reached its high watermark and is now saturated.
+     *
+     * @param queueName name of the queue
+     * @param depth     number of items in the queue
+     */
+    default void highWatermark(String queueName, int depth) {
+    }
+
+    /**
+     * The queue drained down to its low watermark and can take more items.
+     *
+     * @param queueName name of the queue
+     * @param depth     number of items in the queue
+     */
+    default void lowWatermark(String queueName, int depth) {
+    }
+}
@@ -77,5 +77,32 @@ public interface SendQueue<T> extends Output, Startable, Stoppable {
         return "NO OP";
     }
 
+    /**
+     * How many more items can be sent before the queue reaches its high watermark.
+     * Queues without watermarks always have credits.
+     *
+     * @return available credits
+     */
+    default int availableCredits() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return false while the queue is saturated
+     */
+    default boolean isWritable() {
+        return true;
+    }
+
+    /**
+     * Runs the runnable once the queue is writable again, right away if it is writable now.
+     * The runnable may run on the consumer thread so it should not block.
+     *
+     * @param runnable called once writable
+     */
+    default void onWritable(final Runnable runnable) {
+        runnable.run();
+    }
+
 
 }
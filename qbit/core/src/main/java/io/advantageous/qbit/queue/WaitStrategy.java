@@ -0,0 +1,98 @@
+package io.advantageous.qbit.queue;
+
+import io.advantageous.qbit.queue.impl.wait.BlockingWaitStrategy;
+import io.advantageous.qbit.queue.impl.wait.BusySpinWaitStrategy;
+import io.advantageous.qbit.queue.impl.wait.SpinThenYieldWaitStrategy;
+import io.advantageous.qbit.queue.impl.wait.SpinYieldParkWaitStrategy;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides how a receive queue waits for the next item once it has found the queue empty.
+ * <p>
+ * This is what <code>ReceiveQueue.pollWait()</code> uses. The strategy must return the next item, or null if no
+ * item showed up within the wait time. A null return is what makes the queue manager call <code>idle()</code>,
+ * so the listener callbacks fire the same way no matter which strategy is used.
+ * <p>
+ * Blocking is the default and is cheap on CPU. The spinning strategies trade CPU for wake up latency.
+ * <p>
+ * A QueueBuilder hands the same instance to every queue it builds so strategies must not keep per call state.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Wait for the next item.
+     *
+     * @param queue    the underlying queue
+     * @param waitTime max time to wait
+     * @param timeUnit time unit of wait time
+     * @return the next item or null if none arrived before the wait time elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    Object waitForItem(BlockingQueue<Object> queue, long waitTime, TimeUnit timeUnit) throws InterruptedException;
+
+
+    /**
+     * Parks in the queue's own timed poll. This is the default and what QBit always did.
+     *
+     * @return blocking wait strategy
+     */
+    static WaitStrategy blocking() {
+        return new BlockingWaitStrategy();
+    }
+
+    /**
+     * Polls in a tight loop. Lowest latency, burns a core per queue.
+     *
+     * @return busy spin wait strategy
+     */
+    static WaitStrategy busySpin() {
+        return new BusySpinWaitStrategy();
+    }
+
+    /**
+     * Spins for a number of polls and then yields between polls.
+     *
+     * @param spins number of polls before yielding
+     * @return spin then yield wait strategy
+     */
+    static WaitStrategy spinThenYield(final int spins) {
+        return new SpinThenYieldWaitStrategy(spins);
+    }
+
+    /**
+     * Spins, then yields, then parks with an exponential backoff.
+     *
+     * @param spins        number of polls before yielding
+     * @param yields       number of yields before parking
+     * @param minParkNanos first park time
+     * @param maxParkNanos max park time, the backoff doubles up to this
+     * @return spin yield park wait strategy
+     */
+    static WaitStrategy spinYieldPark(final int spins, final int yields,
+                                      final long minParkNanos, final long maxParkNanos) {
+        return new SpinYieldParkWaitStrategy(spins, yields, minParkNanos, maxParkNanos);
+    }
+
+    /**
+     * Looks up a strategy by name so it can be picked with a property.
+     *
+     * @param name blocking, busySpin, spinThenYield or spinYieldPark
+     * @return wait strategy with default settings
+     */
+    static WaitStrategy waitStrategy(final String name) {
+        switch (name) {
+            case "blocking":
+                return blocking();
+            case "busySpin":
+                return busySpin();
+            case "spinThenYield":
+                return spinThenYield(SpinThenYieldWaitStrategy.DEFAULT_SPINS);
+            case "spinYieldPark":
+                return new SpinYieldParkWaitStrategy();
+            default:
+                throw new IllegalArgumentException("Unknown wait strategy " + name);
+        }
+    }
+}
@@ -28,49 +28,153 @@ package io.advantageous.qbit.queue.impl;
 import io.advantageous.qbit.concurrent.PeriodicScheduler;
 import io.advantageous.qbit.queue.SendQueue;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Supplier;
 
 /**
  * A queue sender that will periodically flush itself.
+ * <p>
+ * Built with a send queue supplier, every producer thread gets its own send queue (and batch) the first time it
+ * sends. The periodic flusher steals the buffers: it takes ownership of each producer's send queue with a CAS,
+ * flushes it if it has unflushed items and hands it back. {@link #flushSends()} steals the buffers the same way, so a
+ * flush from any thread pushes what every producer sent. A producer only ever does an uncontended CAS on its own
+ * buffer, and if it catches a flusher in the middle of a flush it spins briefly instead of parking.
+ * Items sent by one thread keep their order, and nothing sits unflushed for longer than the flush interval.
+ * <p>
+ * Built with a single send queue, all producers share that one buffer and take turns with the same CAS.
  *
  * @author rhightower
  *         on 2/24/15.
  */
 public class AutoFlushingSendQueue<T> implements SendQueue<T> {
 
-    private final SendQueue<T> sendQueue;
-    private final ReentrantLock lock = new ReentrantLock();
+    private final Supplier<SendQueue<T>> sendQueueSupplier;
+    private final Buffer<T> sharedBuffer;
+    private final ThreadLocal<Buffer<T>> threadBuffer;
+    private final List<Buffer<T>> buffers = new CopyOnWriteArrayList<>();
 
     private PeriodicScheduler periodicScheduler;
-    private ScheduledFuture scheduledFuture;
+    private ScheduledFuture<?> scheduledFuture;
 
     public AutoFlushingSendQueue(final SendQueue<T> sendQueue,
                                  final PeriodicScheduler periodicScheduler,
                                  int interval,
                                  TimeUnit timeUnit) {
-        this.sendQueue = sendQueue;
+        this.sendQueueSupplier = null;
+        this.sharedBuffer = new Buffer<>(sendQueue, null);
+        this.threadBuffer = null;
+        this.buffers.add(sharedBuffer);
 
         this.periodicScheduler = periodicScheduler;
 
-        this.scheduledFuture = periodicScheduler.repeat(() -> flushSends(), interval, timeUnit);
+        this.scheduledFuture = periodicScheduler.repeat(this::flushAll, interval, timeUnit);
     }
 
+    /**
+     * @param sendQueueSupplier creates the send queue of each producer thread
+     */
+    public AutoFlushingSendQueue(final Supplier<SendQueue<T>> sendQueueSupplier,
+                                 final PeriodicScheduler periodicScheduler,
+                                 int interval,
+                                 TimeUnit timeUnit) {
+        this.sendQueueSupplier = sendQueueSupplier;
+        this.sharedBuffer = null;
+        this.threadBuffer = new ThreadLocal<>();
+
+        this.periodicScheduler = periodicScheduler;
+
+        this.scheduledFuture = periodicScheduler.repeat(this::flushAll, interval, timeUnit);
+    }
+
+    private Buffer<T> buffer() {
+        if (sharedBuffer != null) {
+            return sharedBuffer;
+        }
+        Buffer<T> buffer = threadBuffer.get();
+        if (buffer == null || buffer.retired) {
+            buffer = new Buffer<>(sendQueueSupplier.get(), Thread.currentThread());
+            threadBuffer.set(buffer);
+            buffers.add(buffer);
+        }
+        return buffer;
+    }
+
+    private Buffer<T> acquireBuffer() {
+        while (true) {
+            final Buffer<T> buffer = buffer().acquire();
+            if (!buffer.retired) {
+                return buffer;
+            }
+            buffer.release();
+        }
+    }
+
+    /**
+     * Run by the periodic scheduler. A buffer a producer is using is left for the next run.
+     * Buffers of threads that died are flushed one last time and dropped.
+     */
+    private void flushAll() {
+        for (Buffer<T> buffer : buffers) {
+            if (buffer.owner != null && !buffer.owner.isAlive()) {
+                retire(buffer);
+            } else if (buffer.dirty && buffer.tryAcquire()) {
+                try {
+                    buffer.flush();
+                } finally {
+                    buffer.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Flushes the buffer and stops handing it out. A producer that still holds it gets a new buffer on its next send.
+     */
+    private void retire(final Buffer<T> buffer) {
+        buffer.acquire();
+        try {
+            buffer.retired = true;
+            if (buffer.dirty) {
+                buffer.flush();
+            }
+        } finally {
+            buffer.release();
+        }
+        buffers.remove(buffer);
+    }
+
+    /**
+     * Stops the periodic flush, flushes every buffer and drops the per thread buffers.
+     */
     @Override
     public void stop() {
         scheduledFuture.cancel(true);
+        if (threadBuffer == null) {
+            flushSends();
+            return;
+        }
+        for (Buffer<T> buffer : buffers) {
+            retire(buffer);
+        }
+        threadBuffer.remove();
     }
 
     @Override
     public boolean send(T item) {
 
+        final Buffer<T> buffer = acquireBuffer();
         try {
-            lock.lock();
-            return sendQueue.send(item);
+            final boolean sent = buffer.sendQueue.send(item);
+            buffer.dirty = true;
+            return sent;
         } finally {
-            lock.unlock();
+            buffer.release();
         }
 
     }
@@ -78,72 +182,151 @@ public class AutoFlushingSendQueue<T> implements SendQueue<T> {
     @Override
     public void sendAndFlush(T item) {
 
+        final Buffer<T> buffer = acquireBuffer();
         try {
-            lock.lock();
-            sendQueue.sendAndFlush(item);
+            buffer.sendQueue.sendAndFlush(item);
+            buffer.dirty = false;
         } finally {
-            lock.unlock();
+            buffer.release();
         }
     }
 
     @Override
     public int size() {
-        return sendQueue.size();
+        int size = 0;
+        for (Buffer<T> buffer : buffers) {
+            size += buffer.sendQueue.size();
+        }
+        return size;
     }
 
     @SafeVarargs
     @Override
     public final void sendMany(T... items) {
 
+        final Buffer<T> buffer = acquireBuffer();
         try {
-            lock.lock();
-            sendQueue.sendMany(items);
+            buffer.sendQueue.sendBatch(Arrays.asList(items));
+            buffer.dirty = true;
         } finally {
-            lock.unlock();
+            buffer.release();
         }
     }
 
     @Override
     public void sendBatch(Collection<T> items) {
 
+        final Buffer<T> buffer = acquireBuffer();
         try {
-            lock.lock();
-            sendQueue.sendBatch(items);
+            buffer.sendQueue.sendBatch(items);
+            buffer.dirty = true;
         } finally {
-            lock.unlock();
+            buffer.release();
         }
     }
 
     @Override
     public void sendBatch(Iterable<T> items) {
 
+        final Buffer<T> buffer = acquireBuffer();
         try {
-            lock.lock();
-            sendQueue.sendBatch(items);
+            buffer.sendQueue.sendBatch(items);
+            buffer.dirty = true;
         } finally {
-            lock.unlock();
+            buffer.release();
         }
     }
 
     @Override
     public boolean shouldBatch() {
-        return sendQueue.shouldBatch();
+        return buffer().sendQueue.shouldBatch();
     }
 
+    /**
+     * Flushes what every producer sent, waiting for a producer that is in the middle of a send.
+     */
     @Override
     public void flushSends() {
 
-
-        try {
-            lock.lock();
-            sendQueue.flushSends();
-        } finally {
-            lock.unlock();
+        for (Buffer<T> buffer : buffers) {
+            if (buffer.dirty) {
+                buffer.acquire();
+                try {
+                    buffer.flush();
+                } finally {
+                    buffer.release();
+                }
+            }
         }
     }
 
     @Override
     public String name() {
-        return sendQueue.name();
+        return buffer().sendQueue.name();
+    }
+
+    @Override
+    public int availableCredits() {
+        return buffer().sendQueue.availableCredits();
+    }
+
+    @Override
+    public boolean isWritable() {
+        return buffer().sendQueue.isWritable();
+    }
+
+    @Override
+    public void onWritable(final Runnable runnable) {
+        buffer().sendQueue.onWritable(runnable);
+    }
+
+    int buffers() {
+        return buffers.size();
+    }
+
+    /**
+     * A send queue plus the flag that hands it back and forth between its producer and the flusher.
+     */
+    private static final class Buffer<T> {
+
+        private static final int FREE = 0;
+        private static final int TAKEN = 1;
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<Buffer> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Buffer.class, "state");
+
+        final SendQueue<T> sendQueue;
+        final Thread owner;
+        private volatile int state;
+        /* Set after a send that may have left items in the send queue's batch. */
+        volatile boolean dirty;
+        /* Set once the buffer is dropped from the list the flushers walk. */
+        volatile boolean retired;
+
+        Buffer(final SendQueue<T> sendQueue, final Thread owner) {
+            this.sendQueue = sendQueue;
+            this.owner = owner;
+        }
+
+        boolean tryAcquire() {
+            return STATE.compareAndSet(this, FREE, TAKEN);
+        }
+
+        Buffer<T> acquire() {
+            while (!tryAcquire()) {
+                /* Only held for one send or flush at a time. */
+                Thread.yield();
+            }
+            return this;
+        }
+
+        void release() {
+            state = FREE;
+        }
+
+        void flush() {
+            dirty = false;
+            sendQueue.flushSends();
+        }
     }
-}
\ No newline at end of file
+}
@@ -24,6 +24,7 @@ import io.advantageous.qbit.queue.*;
 import io.advantageous.qbit.queue.impl.sender.BasicBlockingQueueSender;
 import io.advantageous.qbit.queue.impl.sender.BasicSendQueueWithTransferQueue;
 import io.advantageous.qbit.queue.impl.sender.BasicSendQueueWithTryTransfer;
+import io.advantageous.qbit.queue.impl.sender.BatchArrayPool;
 import io.advantageous.qbit.queue.impl.sender.NoBatchSendQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,6 +56,8 @@ public class BasicQueue<T> implements Queue<T> {
     private final TimeUnit pollTimeTimeUnit;
     private final AtomicBoolean stop = new AtomicBoolean(true);
     private final Supplier<SendQueue<T>> sendQueueSupplier;
+    private final SharedQueueScheduler queueScheduler;
+    private final QueueFeatures features;
     private ReceiveQueueManager<T> receiveQueueManager;
 
 
@@ -69,6 +72,34 @@ public class BasicQueue<T> implements Queue<T> {
                       final boolean tryTransfer,
                       final UnableToEnqueueHandler unableToEnqueueHandler,
                       final int limit) {
+        this(name, waitTime, timeUnit, batchSize, queueClass, checkIfBusy, size, checkEvery, tryTransfer,
+                unableToEnqueueHandler, limit, null);
+    }
+
+    /**
+     * Creates a queue with every setting of the builder, including wait strategy, batch recycling, shared
+     * scheduling, adaptive batching, watermarks and stats.
+     *
+     * @param builder queue builder
+     */
+    public BasicQueue(final QueueBuilder builder) {
+        this(builder.getName(), builder.getPollWait(), builder.getPollTimeUnit(), builder.getBatchSize(),
+                builder.getQueueClass(), builder.isCheckIfBusy(), builder.getSize(), builder.getCheckEvery(),
+                builder.isTryTransfer(), builder.getUnableToEnqueueHandler(), builder.getLimit(), builder);
+    }
+
+    private BasicQueue(final String name,
+                       final int waitTime,
+                       final TimeUnit timeUnit,
+                       final int batchSize,
+                       @SuppressWarnings("rawtypes") final Class<? extends BlockingQueue> queueClass,
+                       final boolean checkIfBusy,
+                       final int size,
+                       final int checkEvery,
+                       final boolean tryTransfer,
+                       final UnableToEnqueueHandler unableToEnqueueHandler,
+                       final int limit,
+                       final QueueBuilder builder) {
 
         logger.debug("Queue created {} {} limit {} size {} checkEvery {} tryTransfer {} waitTime {} limit {}",
                 name, queueClass, batchSize, size, checkEvery, tryTransfer, waitTime, limit);
@@ -79,6 +110,7 @@ public class BasicQueue<T> implements Queue<T> {
         this.pollTimeTimeUnit = timeUnit;
         this.batchSize = batchSize;
         this.limit = limit;
+        this.queueScheduler = builder == null ? null : builder.getQueueScheduler();
 
         if (size == -1) {
 
@@ -99,32 +131,61 @@ public class BasicQueue<T> implements Queue<T> {
             }
         }
 
+        this.features = builder == null ? QueueFeatures.NONE : features(name, batchSize, queue, builder);
+
 
         if (this.batchSize == 1) {
 
-            sendQueueSupplier = () -> new NoBatchSendQueue<>(queue, this, name);
+            sendQueueSupplier = () -> new NoBatchSendQueue<>(queue, this, name, features);
 
         } else if (queue instanceof LinkedTransferQueue) {
 
             if (tryTransfer) {
                 sendQueueSupplier = () -> new BasicSendQueueWithTryTransfer<>(name, batchSize, (TransferQueue<Object>) queue,
-                        checkEvery, BasicQueue.this);
+                        checkEvery, BasicQueue.this, features);
             } else {
                 sendQueueSupplier = () -> new BasicSendQueueWithTransferQueue<>(name, batchSize, ((TransferQueue<Object>) queue),
-                        checkEvery, BasicQueue.this);
+                        checkEvery, BasicQueue.this, features);
             }
         } else {
             sendQueueSupplier = () -> new BasicBlockingQueueSender<>(name, batchSize, queue,
-                    checkIfBusy, unableToEnqueueHandler, BasicQueue.this);
+                    checkIfBusy, unableToEnqueueHandler, BasicQueue.this, features);
         }
 
 
         logger.info("Queue done creating {} limit {} checkEvery {} tryTransfer {}" +
-                        "pollTimeWait/polltime {}",
+                        "pollTimeWait/polltime {} features {}",
                 this.name, this.batchSize, checkEvery, tryTransfer,
-                this.pollTimeWait);
+                this.pollTimeWait, features);
+
+
+    }
+
+    private static QueueFeatures features(final String name, final int batchSize,
+                                          final BlockingQueue<Object> queue, final QueueBuilder builder) {
+
+        /* Recycling batch arrays only makes sense when there is batching. */
+        final BatchArrayPool batchArrayPool = builder.getBatchPoolSize() > 0 && batchSize > 1 ?
+                new BatchArrayPool(batchSize, builder.getBatchPoolSize()) : null;
+
+        final QueueWatermarks watermarks = builder.getHighWatermark() > 0 ?
+                new QueueWatermarks(name, builder.getHighWatermark(), builder.getLowWatermark()) : null;
+
+        QueueInstrumentation instrumentation = null;
+        if (builder.getStatsCollector() != null) {
+            final String prefix = builder.getStatsPrefix() == null ? "queue." + name : builder.getStatsPrefix();
+            instrumentation = new QueueInstrumentation(prefix, builder.getStatsCollector(),
+                    builder.getStatsFlushSeconds() * 1000L, builder.getStatsSampleEvery());
+        }
+
+        /* Without batching there is no batch size to adapt. */
+        final boolean adaptiveBatching = builder.isAdaptiveBatching() && batchSize > 1;
 
+        /* A listener on a shared scheduler parks when the queue is empty, the send queues wake it. */
+        final ConsumerWakeup consumerWakeup = builder.getQueueScheduler() != null ? new ConsumerWakeup(queue::isEmpty) : null;
 
+        return new QueueFeatures(builder.getWaitStrategy(), batchArrayPool, adaptiveBatching,
+                watermarks, instrumentation, consumerWakeup);
     }
 
 
@@ -137,7 +198,7 @@ public class BasicQueue<T> implements Queue<T> {
     @Override
     public ReceiveQueue<T> receiveQueue() {
         if (debug) logger.debug("ReceiveQueue requested for {}", name);
-        return new BasicReceiveQueue<>(queue, pollTimeWait, pollTimeTimeUnit, limit);
+        return new BasicReceiveQueue<>(queue, pollTimeWait, pollTimeTimeUnit, limit, features);
     }
 
     /**
@@ -155,10 +216,15 @@ public class BasicQueue<T> implements Queue<T> {
 
     @Override
     public void startListener(final ReceiveQueueListener<T> listener) {
-        this.receiveQueueManager = new BasicReceiveQueueManager<>(name);
+        this.receiveQueueManager = queueScheduler == null ? new BasicReceiveQueueManager<>(name) :
+                queueScheduler.createReceiveQueueManager(name, pollTimeWait, pollTimeTimeUnit,
+                        features.consumerWakeup());
         stop.set(false);
         logger.info("Starting queue listener for  {} {}", name, listener);
-        this.receiveQueueManager.addQueueToManage(name, this.receiveQueue(), listener, limit);
+        this.receiveQueueManager.addQueueToManage(name, this.receiveQueue(),
+                features.instrumentation() == null ? listener :
+                        new InstrumentedReceiveQueueListener<>(listener, features.instrumentation()),
+                limit);
         this.receiveQueueManager.start();
     }
 
@@ -172,6 +238,13 @@ public class BasicQueue<T> implements Queue<T> {
 
         if (queue != null) {
             queue.clear();
+            /* What was counted in went away with the items. */
+            if (features.watermarks() != null) {
+                features.watermarks().reset();
+            }
+            if (features.drainSignal() != null) {
+                features.drainSignal().cleared();
+            }
         }
     }
 
@@ -196,4 +269,31 @@ public class BasicQueue<T> implements Queue<T> {
     public String name() {
         return name;
     }
+
+    @Override
+    public boolean isSaturated() {
+        return features.watermarks() != null && features.watermarks().isSaturated();
+    }
+
+    @Override
+    public void onWritable(final Runnable runnable) {
+        if (features.watermarks() == null) {
+            runnable.run();
+        } else {
+            features.watermarks().onWritable(runnable);
+        }
+    }
+
+    @Override
+    public boolean addWatermarkListener(final QueueWatermarkListener listener) {
+        if (features.watermarks() == null) {
+            return false;
+        }
+        features.watermarks().addListener(listener);
+        return true;
+    }
+
+    QueueFeatures features() {
+        return features;
+    }
 }
@@ -19,6 +19,8 @@
 package io.advantageous.qbit.queue.impl;
 
 import io.advantageous.qbit.queue.ReceiveQueue;
+import io.advantageous.qbit.queue.WaitStrategy;
+import io.advantageous.qbit.queue.impl.sender.BatchArrayPool;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -39,14 +41,33 @@ class BasicReceiveQueue<T> implements ReceiveQueue<T> {
     private final TimeUnit timeUnit;
     private final int batchSize;
     private final BlockingQueue<Object> queue;
+    private final WaitStrategy waitStrategy;
+    private final QueueWatermarks watermarks;
+    private final QueueInstrumentation instrumentation;
+    private final DrainSignal drainSignal;
     private Object[] lastQueue = null;
     private int lastQueueIndex;
+    private int lastQueueLength;
+    private BatchArrayPool lastQueuePool;
 
     public BasicReceiveQueue(BlockingQueue<Object> queue, long waitTime, TimeUnit timeUnit, int batchSize) {
+        this(queue, waitTime, timeUnit, batchSize, QueueFeatures.NONE);
+    }
+
+    /**
+     * @param features wait strategy, watermarks to count items out of, instrumentation to record probes with, and
+     *                 the drain signal to publish to send queues that batch adaptively
+     */
+    public BasicReceiveQueue(BlockingQueue<Object> queue, long waitTime, TimeUnit timeUnit, int batchSize,
+                             QueueFeatures features) {
         this.queue = queue;
         this.waitTime = waitTime;
         this.timeUnit = timeUnit;
         this.batchSize = batchSize;
+        this.waitStrategy = features.waitStrategy();
+        this.watermarks = features.watermarks();
+        this.instrumentation = features.instrumentation();
+        this.drainSignal = features.drainSignal();
     }
 
     @Override
@@ -54,9 +75,11 @@ class BasicReceiveQueue<T> implements ReceiveQueue<T> {
         if (lastQueue != null) {
             return getItemFromLocalQueue();
         }
+        if (drainSignal != null) {
+            drainSignal.waiting();
+        }
         try {
-            Object o = queue.poll(waitTime, timeUnit);
-            return extractItem(o);
+            return extractItem(waitStrategy.waitForItem(queue, waitTime, timeUnit));
         } catch (InterruptedException e) {
             Thread.interrupted();
             return null;
@@ -66,8 +89,23 @@ class BasicReceiveQueue<T> implements ReceiveQueue<T> {
 
     private T getItemFromLocalQueue() {
         @SuppressWarnings("unchecked") T item = (T) lastQueue[lastQueueIndex];
+        if (lastQueuePool != null) {
+            /* Pooled arrays are cleaned by the reader so they go back to the pool ready to use. */
+            lastQueue[lastQueueIndex] = null;
+        }
         lastQueueIndex++;
-        if (lastQueueIndex == lastQueue.length) {
+        if (lastQueueIndex == lastQueueLength ||
+                (lastQueuePool != null && lastQueue[lastQueueIndex] == null)) {
+            if (lastQueuePool != null) {
+                lastQueuePool.release(lastQueue);
+                lastQueuePool = null;
+            }
+            if (watermarks != null) {
+                watermarks.removed(lastQueueIndex);
+            }
+            if (instrumentation != null) {
+                instrumentation.dequeued(lastQueueIndex);
+            }
             lastQueueIndex = 0;
             lastQueue = null;
         }
@@ -82,8 +120,7 @@ class BasicReceiveQueue<T> implements ReceiveQueue<T> {
         if (lastQueue != null) {
             return getItemFromLocalQueue();
         }
-        Object o = queue.poll();
-        return extractItem(o);
+        return extractItem(queue.poll());
 
     }
 
@@ -94,9 +131,11 @@ class BasicReceiveQueue<T> implements ReceiveQueue<T> {
             return getItemFromLocalQueue();
         }
 
+        if (drainSignal != null) {
+            drainSignal.waiting();
+        }
         try {
-            Object o = queue.take();
-            return extractItem(o);
+            return extractItem(queue.take());
         } catch (InterruptedException e) {
             Thread.interrupted();
             return null;
@@ -104,10 +143,36 @@ class BasicReceiveQueue<T> implements ReceiveQueue<T> {
     }
 
     private T extractItem(Object o) {
+        if (drainSignal != null) {
+            if (o == null) {
+                drainSignal.waiting();
+            } else {
+                drainSignal.took();
+            }
+        }
         if (o instanceof Object[]) {
             lastQueue = (Object[]) o;
+            lastQueuePool = BatchArrayPool.owner(lastQueue);
+            if (lastQueuePool != null) {
+                lastQueueLength = BatchArrayPool.capacity(lastQueue);
+                final Object stamp = BatchArrayPool.takeStamp(lastQueue);
+                if (stamp != null && instrumentation != null) {
+                    instrumentation.probeReceived(stamp);
+                }
+            } else if (instrumentation != null && instrumentation.probeReceived(lastQueue[lastQueue.length - 1])) {
+                /* A sampled batch that was copied carries its probe in the last slot. */
+                lastQueueLength = lastQueue.length - 1;
+            } else {
+                lastQueueLength = lastQueue.length;
+            }
             return getItemFromLocalQueue();
         } else {
+            if (o != null && watermarks != null) {
+                watermarks.removed(1);
+            }
+            if (o != null && instrumentation != null) {
+                instrumentation.dequeued(1);
+            }
             //noinspection unchecked
             return (T) o;
         }
@@ -0,0 +1,92 @@
+package io.advantageous.qbit.queue.impl;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Lets a queue listener on a {@link SharedQueueScheduler} park while its queue is empty, and has the send queues
+ * wake it with the next hand off, so an idle queue is not polled at all.
+ * <p>
+ * The consumer raises the parked flag and then looks at the queue, a send queue hands off and then looks at the
+ * flag. Whoever takes the flag down schedules the consumer, so it is scheduled exactly once and no hand off is
+ * missed. The flag is only read on the send path while the consumer is busy.
+ * <p>
+ * The lanes of a {@link LaneQueue} forward their hand offs to the wakeup of the lane queue, which has the listener.
+ */
+public final class ConsumerWakeup {
+
+    private final AtomicBoolean parked = new AtomicBoolean();
+    private final BooleanSupplier empty;
+    private volatile Runnable consumer;
+    private volatile ConsumerWakeup forwardTo;
+
+    /**
+     * @param empty true if nothing is left in the queue for the consumer
+     */
+    ConsumerWakeup(final BooleanSupplier empty) {
+        this.empty = empty;
+    }
+
+    /**
+     * @param consumer what to run when the parked consumer is woken
+     */
+    void register(final Runnable consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * @param wakeup wakeup of the queue that drains this one, it gets the hand offs from now on
+     */
+    void forwardTo(final ConsumerWakeup wakeup) {
+        this.forwardTo = wakeup;
+    }
+
+    /**
+     * Called by the consumer when it has drained the queue.
+     *
+     * @return true if parked, false if items came in meanwhile and the consumer should keep going
+     */
+    boolean park() {
+        parked.set(true);
+        if (empty.getAsBoolean()) {
+            return true;
+        }
+        /* If a send queue took the flag down first, it has already scheduled the consumer. */
+        return !parked.compareAndSet(true, false);
+    }
+
+    /**
+     * Takes the parked flag down without a hand off, for idle checks and stop.
+     *
+     * @return true if the consumer was parked and the caller must now run it
+     */
+    boolean unpark() {
+        return parked.get() && parked.compareAndSet(true, false);
+    }
+
+    /**
+     * Called by a send queue after each hand off it puts in the queue.
+     */
+    public void handedOff() {
+        final ConsumerWakeup wakeup = forwardTo;
+        if (wakeup != null) {
+            wakeup.handedOff();
+        } else if (unpark()) {
+            consumer.run();
+        }
+    }
+
+    /**
+     * @return true if the consumer is parked waiting for a hand off
+     */
+    public boolean parked() {
+        return parked.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ConsumerWakeup{" +
+                "parked=" + parked.get() +
+                '}';
+    }
+}
@@ -0,0 +1,86 @@
+package io.advantageous.qbit.queue.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * What the consumer of a queue publishes for adaptive batching, so send queues never have to lock the queue
+ * to ask how it is doing.
+ * <p>
+ * The consumer raises a flag when it goes back to the queue for more, and counts each hand off it takes.
+ * Send queues count each hand off they make. The difference is the depth of the queue in hand offs.
+ * The flag is only written when it changes, so a busy queue does not bounce its cache line on every send.
+ */
+public final class DrainSignal {
+
+    private final AtomicLong handedOff = new AtomicLong();
+    private final AtomicLong drained = new AtomicLong();
+    /* A new queue has nothing for the consumer, even before it first asks. */
+    private volatile boolean consumerWaiting = true;
+
+    /**
+     * Called by the consumer when it has nothing left and asks the queue for more.
+     */
+    void waiting() {
+        if (!consumerWaiting) {
+            consumerWaiting = true;
+        }
+    }
+
+    /**
+     * Called by the consumer for each hand off it takes from the queue.
+     */
+    void took() {
+        drained.incrementAndGet();
+        if (consumerWaiting) {
+            consumerWaiting = false;
+        }
+    }
+
+    /**
+     * Called when the queue is cleared, everything handed off so far is gone.
+     */
+    void cleared() {
+        drained.set(handedOff.get());
+        consumerWaiting = true;
+    }
+
+    /**
+     * Called by a send queue for each hand off it puts in the queue.
+     */
+    public void handedOff() {
+        handedOff.incrementAndGet();
+        if (consumerWaiting) {
+            consumerWaiting = false;
+        }
+    }
+
+    /**
+     * @return true if the consumer is waiting for items and nothing has been handed off since
+     */
+    public boolean consumerWaiting() {
+        return consumerWaiting;
+    }
+
+    /**
+     * @return hand offs taken by the consumer so far
+     */
+    public long drained() {
+        return drained.get();
+    }
+
+    /**
+     * @return hand offs in the queue that the consumer has not taken yet
+     */
+    public long depth() {
+        return Math.max(0, handedOff.get() - drained.get());
+    }
+
+    @Override
+    public String toString() {
+        return "DrainSignal{" +
+                "depth=" + depth() +
+                ", drained=" + drained() +
+                ", consumerWaiting=" + consumerWaiting +
+                '}';
+    }
+}
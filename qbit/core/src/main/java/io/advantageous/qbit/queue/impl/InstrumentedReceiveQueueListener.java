@@ -0,0 +1,62 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.ReceiveQueueListener;
+
+/**
+ * Passes every callback on to the real listener and flushes queue stats when the listener reaches a limit,
+ * runs empty or goes idle, which is when the listener thread has a moment to spare.
+ */
+class InstrumentedReceiveQueueListener<T> implements ReceiveQueueListener<T> {
+
+    private final ReceiveQueueListener<T> listener;
+    private final QueueInstrumentation instrumentation;
+
+    InstrumentedReceiveQueueListener(final ReceiveQueueListener<T> listener,
+                                     final QueueInstrumentation instrumentation) {
+        this.listener = listener;
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public void receive(final T item) {
+        listener.receive(item);
+    }
+
+    @Override
+    public void empty() {
+        listener.empty();
+        instrumentation.flushIfNeeded();
+    }
+
+    @Override
+    public void limit() {
+        listener.limit();
+        instrumentation.flushIfNeeded();
+    }
+
+    @Override
+    public void shutdown() {
+        listener.shutdown();
+    }
+
+    @Override
+    public void idle() {
+        listener.idle();
+        instrumentation.flushIfNeeded();
+    }
+
+    @Override
+    public void startBatch() {
+        listener.startBatch();
+    }
+
+    @Override
+    public void init() {
+        listener.init();
+    }
+
+    @Override
+    public String toString() {
+        return listener.toString();
+    }
+}
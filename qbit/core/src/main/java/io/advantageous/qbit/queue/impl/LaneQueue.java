@@ -0,0 +1,221 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.LaneSelector;
+import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.QueueWatermarkListener;
+import io.advantageous.qbit.queue.ReceiveQueue;
+import io.advantageous.qbit.queue.ReceiveQueueListener;
+import io.advantageous.qbit.queue.ReceiveQueueManager;
+import io.advantageous.qbit.queue.SendQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A queue made of several lanes that are drained by one listener.
+ * <p>
+ * Send queues route each item to a lane picked by the {@link LaneSelector}. The receive queue drains the lanes
+ * either by strict priority, lane 0 first, or by weighted round robin when lane weights are given.
+ * Lanes are checked again before every item, so a high priority item only waits behind the item being processed
+ * and not behind a backlog of bulk items. There is still only one listener so a service stays single threaded.
+ * <p>
+ * Back pressure and watermarks come from the default lane, which is where ordinary traffic goes.
+ */
+public class LaneQueue<T> implements Queue<T> {
+
+    private final Logger logger = LoggerFactory.getLogger(LaneQueue.class);
+    private final String name;
+    private final Queue<T>[] lanes;
+    private final int[] weights;
+    private final int defaultLane;
+    private final LaneSelector laneSelector;
+    private final long pollWaitNanos;
+    private final int limit;
+    private final SharedQueueScheduler queueScheduler;
+    private final ConsumerWakeup consumerWakeup;
+    private final AtomicBoolean stop = new AtomicBoolean(true);
+    /* The receiver thread parked in pollWait, send queues unpark it. */
+    private volatile Thread waiter;
+    private ReceiveQueueManager<T> receiveQueueManager;
+
+    /**
+     * @param lanes          lane queues, lane 0 has the highest priority
+     * @param weights        items taken from each lane per round, null for strict priority
+     * @param defaultLane    lane for items the selector does not place
+     * @param laneSelector   picks the lane of an item, null sends everything to the default lane
+     * @param queueScheduler if not null, the listener runs on this shared scheduler
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public LaneQueue(final String name,
+                     final List<Queue<T>> lanes,
+                     final int[] weights,
+                     final int defaultLane,
+                     final LaneSelector laneSelector,
+                     final int pollWait,
+                     final TimeUnit pollTimeUnit,
+                     final int limit,
+                     final SharedQueueScheduler queueScheduler) {
+        if (lanes.isEmpty()) {
+            throw new IllegalArgumentException("Lane queue needs at least one lane " + name);
+        }
+        if (weights != null && weights.length != lanes.size()) {
+            throw new IllegalArgumentException("Need one weight per lane, " + lanes.size() + " lanes, "
+                    + weights.length + " weights " + name);
+        }
+        if (defaultLane < 0 || defaultLane >= lanes.size()) {
+            throw new IllegalArgumentException("Default lane " + defaultLane + " out of range " + name);
+        }
+        this.name = name;
+        this.lanes = lanes.toArray(new Queue[lanes.size()]);
+        this.weights = weights;
+        this.defaultLane = defaultLane;
+        this.laneSelector = laneSelector;
+        this.pollWaitNanos = pollTimeUnit.toNanos(pollWait);
+        this.limit = limit;
+        this.queueScheduler = queueScheduler;
+        this.consumerWakeup = queueScheduler == null ? null : new ConsumerWakeup(this::lanesEmpty);
+        if (consumerWakeup != null) {
+            /* The lanes have no listener of their own, their hand offs wake the one of the lane queue. */
+            for (Queue<T> lane : this.lanes) {
+                if (lane instanceof BasicQueue && ((BasicQueue<T>) lane).features().consumerWakeup() != null) {
+                    ((BasicQueue<T>) lane).features().consumerWakeup().forwardTo(consumerWakeup);
+                }
+            }
+        }
+    }
+
+    private boolean lanesEmpty() {
+        for (Queue<T> lane : lanes) {
+            if (lane.size() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int laneOf(final T item) {
+        if (laneSelector == null) {
+            return defaultLane;
+        }
+        final int lane = laneSelector.lane(item);
+        return lane < 0 || lane >= lanes.length ? defaultLane : lane;
+    }
+
+    void wakeReceiver() {
+        final Thread thread = waiter;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Set before the receiver checks the lanes one last time and parks, cleared once it is done waiting.
+     */
+    void waiter(final Thread thread) {
+        waiter = thread;
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ReceiveQueue<T> receiveQueue() {
+        final ReceiveQueue<T>[] receiveQueues = new ReceiveQueue[lanes.length];
+        for (int index = 0; index < lanes.length; index++) {
+            receiveQueues[index] = lanes[index].receiveQueue();
+        }
+        return new LaneReceiveQueue<>(this, receiveQueues, weights, pollWaitNanos, limit);
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public SendQueue<T> sendQueue() {
+        final SendQueue<T>[] sendQueues = new SendQueue[lanes.length];
+        for (int index = 0; index < lanes.length; index++) {
+            sendQueues[index] = lanes[index].sendQueue();
+        }
+        return new LaneSendQueue<>(this, sendQueues, defaultLane);
+    }
+
+    @Override
+    public void startListener(final ReceiveQueueListener<T> listener) {
+        this.receiveQueueManager = queueScheduler == null ? new BasicReceiveQueueManager<>(name) :
+                queueScheduler.createReceiveQueueManager(name, pollWaitNanos, TimeUnit.NANOSECONDS, consumerWakeup);
+        stop.set(false);
+        logger.info("Starting queue listener for  {} {} with {} lanes", name, listener, lanes.length);
+        /* The lanes are drained here rather than by their own listeners, so their stats are flushed from here. */
+        ReceiveQueueListener<T> laneListener = listener;
+        for (Queue<T> lane : lanes) {
+            if (lane instanceof BasicQueue && ((BasicQueue<T>) lane).features().instrumentation() != null) {
+                laneListener = new InstrumentedReceiveQueueListener<>(laneListener,
+                        ((BasicQueue<T>) lane).features().instrumentation());
+            }
+        }
+        this.receiveQueueManager.addQueueToManage(name, this.receiveQueue(), laneListener, limit);
+        this.receiveQueueManager.start();
+    }
+
+    @Override
+    public void stop() {
+        logger.info("Stopping queue  {}", name);
+        stop.set(true);
+        if (receiveQueueManager != null) {
+            receiveQueueManager.stop();
+        }
+        for (Queue<T> lane : lanes) {
+            lane.stop();
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Queue<T> lane : lanes) {
+            size += lane.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean started() {
+        return !stop.get();
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public boolean isSaturated() {
+        return lanes[defaultLane].isSaturated();
+    }
+
+    @Override
+    public void onWritable(final Runnable runnable) {
+        lanes[defaultLane].onWritable(runnable);
+    }
+
+    @Override
+    public boolean addWatermarkListener(final QueueWatermarkListener listener) {
+        return lanes[defaultLane].addWatermarkListener(listener);
+    }
+
+    public int lanes() {
+        return lanes.length;
+    }
+
+    public Queue<T> lane(final int lane) {
+        return lanes[lane];
+    }
+
+    @Override
+    public String toString() {
+        return "LaneQueue{" +
+                "name='" + name + '\'' +
+                ", lanes=" + lanes.length +
+                '}';
+    }
+}
@@ -0,0 +1,128 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.ReceiveQueue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drains the lanes of a {@link LaneQueue}, by strict priority or by weighted round robin.
+ * Not thread safe, it belongs to the one listener of the queue.
+ */
+class LaneReceiveQueue<T> implements ReceiveQueue<T> {
+
+    private final LaneQueue<T> laneQueue;
+    private final ReceiveQueue<T>[] lanes;
+    private final int[] weights;
+    private final int[] credits;
+    private final long pollWaitNanos;
+    private final int batchSize;
+    private int currentLane;
+    private boolean interrupted;
+
+    LaneReceiveQueue(final LaneQueue<T> laneQueue,
+                     final ReceiveQueue<T>[] lanes,
+                     final int[] weights,
+                     final long pollWaitNanos,
+                     final int batchSize) {
+        this.laneQueue = laneQueue;
+        this.lanes = lanes;
+        this.weights = weights;
+        this.credits = weights == null ? null : weights.clone();
+        this.pollWaitNanos = pollWaitNanos;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public T poll() {
+        return weights == null ? pollByPriority() : pollByWeight();
+    }
+
+    private T pollByPriority() {
+        for (ReceiveQueue<T> lane : lanes) {
+            final T item = lane.poll();
+            if (item != null) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Takes up to weight items from a lane before moving on. An empty lane gives up the rest of its turn.
+     */
+    private T pollByWeight() {
+        for (int tries = 0; tries <= lanes.length; tries++) {
+            if (credits[currentLane] > 0) {
+                final T item = lanes[currentLane].poll();
+                if (item != null) {
+                    credits[currentLane]--;
+                    return item;
+                }
+            }
+            currentLane = (currentLane + 1) % lanes.length;
+            credits[currentLane] = weights[currentLane];
+        }
+        return null;
+    }
+
+    @Override
+    public T pollWait() {
+        T item = poll();
+        if (item != null) {
+            return item;
+        }
+        final long deadline = System.nanoTime() + pollWaitNanos;
+        laneQueue.waiter(Thread.currentThread());
+        try {
+            while (true) {
+                item = poll();
+                if (item != null) {
+                    return item;
+                }
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    interrupted = true;
+                    return null;
+                }
+            }
+        } finally {
+            laneQueue.waiter(null);
+        }
+    }
+
+    @Override
+    public T take() {
+        interrupted = false;
+        T item = pollWait();
+        while (item == null && !interrupted) {
+            item = pollWait();
+        }
+        return item;
+    }
+
+    @Override
+    public Iterable<T> readBatch(final int max) {
+        T item = poll();
+        if (item == null) {
+            return Collections.emptyList();
+        }
+        final List<T> batch = new ArrayList<>();
+        batch.add(item);
+        while (batch.size() < max && (item = poll()) != null) {
+            batch.add(item);
+        }
+        return batch;
+    }
+
+    @Override
+    public Iterable<T> readBatch() {
+        return readBatch(batchSize);
+    }
+}
@@ -0,0 +1,82 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.SendQueue;
+
+/**
+ * Routes each item to the send queue of its lane. Not thread safe, use one per thread.
+ */
+class LaneSendQueue<T> implements SendQueue<T> {
+
+    private final LaneQueue<T> laneQueue;
+    private final SendQueue<T>[] sendQueues;
+    private final int defaultLane;
+
+    LaneSendQueue(final LaneQueue<T> laneQueue, final SendQueue<T>[] sendQueues, final int defaultLane) {
+        this.laneQueue = laneQueue;
+        this.sendQueues = sendQueues;
+        this.defaultLane = defaultLane;
+    }
+
+    @Override
+    public boolean send(final T item) {
+        final boolean sent = sendQueues[laneQueue.laneOf(item)].send(item);
+        /* The lane may have flushed a full batch. */
+        laneQueue.wakeReceiver();
+        return sent;
+    }
+
+    @Override
+    public void sendAndFlush(final T item) {
+        sendQueues[laneQueue.laneOf(item)].sendAndFlush(item);
+        laneQueue.wakeReceiver();
+    }
+
+    @Override
+    public boolean shouldBatch() {
+        return sendQueues[defaultLane].shouldBatch();
+    }
+
+    @Override
+    public void flushSends() {
+        for (SendQueue<T> sendQueue : sendQueues) {
+            sendQueue.flushSends();
+        }
+        laneQueue.wakeReceiver();
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (SendQueue<T> sendQueue : sendQueues) {
+            size += sendQueue.size();
+        }
+        return size;
+    }
+
+    @Override
+    public String name() {
+        return laneQueue.name();
+    }
+
+    @Override
+    public int availableCredits() {
+        return sendQueues[defaultLane].availableCredits();
+    }
+
+    @Override
+    public boolean isWritable() {
+        return sendQueues[defaultLane].isWritable();
+    }
+
+    @Override
+    public void onWritable(final Runnable runnable) {
+        sendQueues[defaultLane].onWritable(runnable);
+    }
+
+    @Override
+    public void stop() {
+        for (SendQueue<T> sendQueue : sendQueues) {
+            sendQueue.stop();
+        }
+    }
+}
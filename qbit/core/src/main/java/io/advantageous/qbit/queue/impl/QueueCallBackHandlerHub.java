@@ -98,4 +98,13 @@ public class QueueCallBackHandlerHub implements QueueCallBackHandler {
         }
 
     }
+
+    @Override
+    public void expiredDropped() {
+
+        for (int index = 0; index < callBackHandlers.length; index++) {
+            callBackHandlers[index].expiredDropped();
+        }
+
+    }
 }
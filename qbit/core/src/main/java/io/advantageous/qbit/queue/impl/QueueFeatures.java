@@ -0,0 +1,104 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.WaitStrategy;
+import io.advantageous.qbit.queue.impl.sender.AdaptiveBatchSize;
+import io.advantageous.qbit.queue.impl.sender.BatchArrayPool;
+
+/**
+ * The optional parts a BasicQueue shares between its send queues and receive queues.
+ * <p>
+ * A part that is null, or false, is turned off. {@link #NONE} has every part turned off and blocking waits,
+ * which is how the queues behave when they are created without features.
+ */
+public final class QueueFeatures {
+
+    public static final QueueFeatures NONE = new QueueFeatures(WaitStrategy.blocking(), null, false, null, null, null);
+
+    private final WaitStrategy waitStrategy;
+    private final BatchArrayPool batchArrayPool;
+    private final boolean adaptiveBatching;
+    private final DrainSignal drainSignal;
+    private final QueueWatermarks watermarks;
+    private final QueueInstrumentation instrumentation;
+    private final ConsumerWakeup consumerWakeup;
+
+    /**
+     * @param waitStrategy     how a receive queue waits for items
+     * @param batchArrayPool   if not null, batches are handed off in pooled arrays the receive queue gives back
+     * @param adaptiveBatching true to let each send queue size its batches to how well the consumer keeps up,
+     *                         the consumer then publishes a {@link DrainSignal}
+     * @param watermarks       if not null, items are counted in and out so the queue can report saturation
+     * @param instrumentation  if not null, queue stats are collected and time in queue is sampled
+     * @param consumerWakeup   if not null, the listener runs on a shared scheduler and send queues wake it
+     */
+    QueueFeatures(final WaitStrategy waitStrategy,
+                  final BatchArrayPool batchArrayPool,
+                  final boolean adaptiveBatching,
+                  final QueueWatermarks watermarks,
+                  final QueueInstrumentation instrumentation,
+                  final ConsumerWakeup consumerWakeup) {
+        this.waitStrategy = waitStrategy == null ? WaitStrategy.blocking() : waitStrategy;
+        this.batchArrayPool = batchArrayPool;
+        this.adaptiveBatching = adaptiveBatching;
+        this.drainSignal = adaptiveBatching ? new DrainSignal() : null;
+        this.watermarks = watermarks;
+        this.instrumentation = instrumentation;
+        this.consumerWakeup = consumerWakeup;
+    }
+
+    public WaitStrategy waitStrategy() {
+        return waitStrategy;
+    }
+
+    public BatchArrayPool batchArrayPool() {
+        return batchArrayPool;
+    }
+
+    public boolean adaptiveBatching() {
+        return adaptiveBatching;
+    }
+
+    /**
+     * @return what the consumer publishes about how it keeps up, null if adaptive batching is off
+     */
+    public DrainSignal drainSignal() {
+        return drainSignal;
+    }
+
+    /**
+     * Each send queue adapts on its own, so each one gets its own tracker.
+     *
+     * @param batchSize configured batch size, the ceiling
+     * @return a new tracker, or null if adaptive batching is off
+     */
+    public AdaptiveBatchSize newAdaptiveBatchSize(final int batchSize) {
+        return adaptiveBatching ? new AdaptiveBatchSize(batchSize) : null;
+    }
+
+    public QueueWatermarks watermarks() {
+        return watermarks;
+    }
+
+    public QueueInstrumentation instrumentation() {
+        return instrumentation;
+    }
+
+    /**
+     * @return what send queues signal after a hand off, null if the listener has its own thread
+     */
+    public ConsumerWakeup consumerWakeup() {
+        return consumerWakeup;
+    }
+
+    @Override
+    public String toString() {
+        return "QueueFeatures{" +
+                "waitStrategy=" + waitStrategy +
+                ", batchArrayPool=" + batchArrayPool +
+                ", adaptiveBatching=" + adaptiveBatching +
+                ", watermarks=" + watermarks +
+                ", instrumentation=" + instrumentation +
+                ", consumerWakeup=" + consumerWakeup +
+                '}';
+    }
+}
@@ -0,0 +1,182 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.service.stats.StatsCollector;
+import io.advantageous.qbit.util.Timer;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in stats for one BasicQueue, published through a {@link StatsCollector}.
+ * <p>
+ * Send queues count items in once per hand off and the receive queue counts them out once per batch,
+ * so the cost is a couple of adds per batch, not per item.
+ * Time in queue is sampled: every sampleEvery hand offs a send queue stamps the batch it hands off with a timing
+ * probe, and the receive queue records how long the batch waited. The probe rides in a spare slot of the batch,
+ * so it never takes room in the queue or shows up in its size.
+ * <p>
+ * #### Keys
+ * ```
+ * ${prefix}.enqueued          items handed to the queue since the last flush
+ * ${prefix}.dequeued          items read from the queue since the last flush
+ * ${prefix}.enqueueRate       items per second handed to the queue
+ * ${prefix}.dequeueRate       items per second read from the queue
+ * ${prefix}.depth             items in the queue
+ * ${prefix}.batchSize.${max}  batches of up to max items since the last flush, max is a power of two
+ * ${prefix}.timeInQueue       sampled time in queue in nanoseconds
+ * ```
+ * Stats are flushed by the queue's listener thread when it hits its limit, runs empty or goes idle.
+ */
+public class QueueInstrumentation {
+
+    static final int BUCKETS = 16;
+
+    private final String prefix;
+    private final StatsCollector statsCollector;
+    private final long flushIntervalMS;
+    private final int sampleEvery;
+    private final Timer timer = Timer.timer();
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dequeued = new LongAdder();
+    private final AtomicLongArray batchSizes = new AtomicLongArray(BUCKETS);
+    private final String enqueuedKey;
+    private final String dequeuedKey;
+    private final String enqueueRateKey;
+    private final String dequeueRateKey;
+    private final String depthKey;
+    private final String timeInQueueKey;
+    private final String[] batchSizeKeys = new String[BUCKETS];
+
+    /* Only touched by the listener thread. */
+    private final long[] lastBatchSizes = new long[BUCKETS];
+    private long lastFlush;
+    private long lastEnqueued;
+    private long lastDequeued;
+
+    /**
+     * @param prefix          prefix for the stat keys
+     * @param statsCollector  where the stats go
+     * @param flushIntervalMS how often to flush stats
+     * @param sampleEvery     sample time in queue every this many hand offs per send queue, zero turns it off
+     */
+    public QueueInstrumentation(final String prefix,
+                                final StatsCollector statsCollector,
+                                final long flushIntervalMS,
+                                final int sampleEvery) {
+        this.prefix = prefix;
+        this.statsCollector = statsCollector;
+        this.flushIntervalMS = flushIntervalMS;
+        this.sampleEvery = sampleEvery;
+        this.enqueuedKey = prefix + ".enqueued";
+        this.dequeuedKey = prefix + ".dequeued";
+        this.enqueueRateKey = prefix + ".enqueueRate";
+        this.dequeueRateKey = prefix + ".dequeueRate";
+        this.depthKey = prefix + ".depth";
+        this.timeInQueueKey = prefix + ".timeInQueue";
+        for (int index = 0; index < BUCKETS; index++) {
+            batchSizeKeys[index] = prefix + ".batchSize." + (1 << index);
+        }
+        this.lastFlush = timer.now();
+    }
+
+    /**
+     * Bucket for a batch size, bucket n holds batches of more than 2^(n-1) and up to 2^n items.
+     */
+    static int bucket(final int batchSize) {
+        if (batchSize <= 1) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, 32 - Integer.numberOfLeadingZeros(batchSize - 1));
+    }
+
+    public void enqueued(final int count) {
+        enqueued.add(count);
+    }
+
+    public void dequeued(final int batchSize) {
+        dequeued.add(batchSize);
+        batchSizes.incrementAndGet(bucket(batchSize));
+    }
+
+    public int sampleEvery() {
+        return sampleEvery;
+    }
+
+    /**
+     * @return a probe stamped with the current time, carried in a spare slot of the batch it times
+     */
+    public Object newProbe() {
+        return new QueueTimingProbe(System.nanoTime());
+    }
+
+    /**
+     * Records the time in queue if the item is a probe.
+     *
+     * @param item slot of a batch that may hold a probe
+     * @return true if it was a probe and is not an item
+     */
+    public boolean probeReceived(final Object item) {
+        if (item instanceof QueueTimingProbe) {
+            final long duration = System.nanoTime() - ((QueueTimingProbe) item).enqueuedNanos;
+            statsCollector.recordTiming(timeInQueueKey, duration);
+            return true;
+        }
+        return false;
+    }
+
+    public long depth() {
+        return Math.max(0, enqueued.sum() - dequeued.sum());
+    }
+
+    /**
+     * Called by the listener thread, sends the stats if the flush interval has passed.
+     */
+    public void flushIfNeeded() {
+        final long now = timer.now();
+        final long duration = now - lastFlush;
+        if (duration < flushIntervalMS) {
+            return;
+        }
+        lastFlush = now;
+
+        final long totalEnqueued = enqueued.sum();
+        final long totalDequeued = dequeued.sum();
+        final long enqueuedCount = totalEnqueued - lastEnqueued;
+        final long dequeuedCount = totalDequeued - lastDequeued;
+        lastEnqueued = totalEnqueued;
+        lastDequeued = totalDequeued;
+
+        if (enqueuedCount > 0) {
+            statsCollector.recordCount(enqueuedKey, enqueuedCount);
+        }
+        if (dequeuedCount > 0) {
+            statsCollector.recordCount(dequeuedKey, dequeuedCount);
+        }
+        final long durationMS = Math.max(1, duration);
+        statsCollector.recordLevel(enqueueRateKey, enqueuedCount * 1000 / durationMS);
+        statsCollector.recordLevel(dequeueRateKey, dequeuedCount * 1000 / durationMS);
+        statsCollector.recordLevel(depthKey, Math.max(0, totalEnqueued - totalDequeued));
+
+        for (int index = 0; index < BUCKETS; index++) {
+            final long count = batchSizes.get(index);
+            if (count != lastBatchSizes[index]) {
+                statsCollector.recordCount(batchSizeKeys[index], count - lastBatchSizes[index]);
+                lastBatchSizes[index] = count;
+            }
+        }
+
+        statsCollector.clientProxyFlush();
+    }
+
+    public String prefix() {
+        return prefix;
+    }
+
+    @Override
+    public String toString() {
+        return "QueueInstrumentation{" +
+                "prefix='" + prefix + '\'' +
+                ", sampleEvery=" + sampleEvery +
+                '}';
+    }
+}
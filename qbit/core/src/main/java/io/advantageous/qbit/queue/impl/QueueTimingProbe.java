@@ -0,0 +1,14 @@
+package io.advantageous.qbit.queue.impl;
+
+/**
+ * Time stamp a send queue puts in a spare slot of a sampled batch.
+ * The receive queue takes it out and records how long the batch sat in the queue.
+ */
+final class QueueTimingProbe {
+
+    final long enqueuedNanos;
+
+    QueueTimingProbe(final long enqueuedNanos) {
+        this.enqueuedNanos = enqueuedNanos;
+    }
+}
@@ -0,0 +1,181 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.BackPressure;
+import io.advantageous.qbit.queue.QueueWatermarkListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks how many items are in a queue and whether it is past its high watermark.
+ * <p>
+ * Send queues count items in when a batch is handed off and the receive queue counts them out once it is done
+ * with a batch, so the depth is in items, not batches, and is only touched once per batch.
+ * Items still sitting in a send queue's local batch are not counted.
+ * <p>
+ * The queue becomes saturated when the depth reaches the high watermark and writable again when it drops to
+ * the low watermark. The gap keeps it from flapping.
+ */
+public class QueueWatermarks implements BackPressure {
+
+    private final Logger logger = LoggerFactory.getLogger(QueueWatermarks.class);
+    private final String name;
+    private final int highWatermark;
+    private final int lowWatermark;
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean saturated = new AtomicBoolean();
+    private final List<QueueWatermarkListener> listeners = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<Runnable> writableCallbacks = new ConcurrentLinkedQueue<>();
+
+    public QueueWatermarks(final String name, final int highWatermark, final int lowWatermark) {
+        if (highWatermark < 1) {
+            throw new IllegalArgumentException("High watermark must be at least 1 " + highWatermark);
+        }
+        if (lowWatermark < 0 || lowWatermark >= highWatermark) {
+            throw new IllegalArgumentException("Low watermark " + lowWatermark
+                    + " must be between 0 and high watermark " + highWatermark);
+        }
+        this.name = name;
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+    }
+
+    /**
+     * Called by a send queue before it hands off items.
+     *
+     * @param count number of items
+     */
+    public void added(final int count) {
+        if (depth.addAndGet(count) >= highWatermark) {
+            checkHigh();
+        }
+    }
+
+    /**
+     * Called by the receive queue once it is done with items, or by a send queue whose hand off failed.
+     *
+     * @param count number of items
+     */
+    public void removed(final int count) {
+        if (depth.addAndGet(-count) <= lowWatermark) {
+            checkLow();
+        }
+    }
+
+    private void checkHigh() {
+        if (!saturated.get() && saturated.compareAndSet(false, true)) {
+            final int currentDepth = depth.get();
+            for (QueueWatermarkListener listener : listeners) {
+                notify(listener, true, currentDepth);
+            }
+            /* The consumer may have drained the queue before we flipped the flag, so it would not flip it back. */
+            if (depth.get() <= lowWatermark) {
+                checkLow();
+            }
+        }
+    }
+
+    private void checkLow() {
+        if (saturated.get() && saturated.compareAndSet(true, false)) {
+            final int currentDepth = depth.get();
+            for (QueueWatermarkListener listener : listeners) {
+                notify(listener, false, currentDepth);
+            }
+            runWritableCallbacks();
+            if (depth.get() >= highWatermark) {
+                checkHigh();
+            }
+        }
+    }
+
+    private void notify(final QueueWatermarkListener listener, final boolean high, final int currentDepth) {
+        try {
+            if (high) {
+                listener.highWatermark(name, currentDepth);
+            } else {
+                listener.lowWatermark(name, currentDepth);
+            }
+        } catch (Exception ex) {
+            logger.error("Watermark listener failed for queue " + name, ex);
+        }
+    }
+
+    private void runWritableCallbacks() {
+        Runnable runnable = writableCallbacks.poll();
+        while (runnable != null) {
+            try {
+                runnable.run();
+            } catch (Exception ex) {
+                logger.error("Writable callback failed for queue " + name, ex);
+            }
+            runnable = writableCallbacks.poll();
+        }
+    }
+
+    @Override
+    public boolean isSaturated() {
+        return saturated.get();
+    }
+
+    @Override
+    public void onWritable(final Runnable runnable) {
+        if (!saturated.get()) {
+            runnable.run();
+            return;
+        }
+        writableCallbacks.add(runnable);
+        /* It may have drained while we were adding. */
+        if (!saturated.get()) {
+            runWritableCallbacks();
+        }
+    }
+
+    /**
+     * Forgets the items counted in, for when the queue is cleared.
+     * If it was saturated it becomes writable, so listeners and held callbacks are not left waiting for items that
+     * will never be counted out.
+     */
+    public void reset() {
+        depth.set(0);
+        checkLow();
+    }
+
+    public void addListener(final QueueWatermarkListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @return how many more items can be sent before the high watermark is reached
+     */
+    public int availableCredits() {
+        return Math.max(0, highWatermark - depth.get());
+    }
+
+    public int depth() {
+        return depth.get();
+    }
+
+    public int highWatermark() {
+        return highWatermark;
+    }
+
+    public int lowWatermark() {
+        return lowWatermark;
+    }
+
+    @Override
+    public String toString() {
+        return "QueueWatermarks{" +
+                "name='" + name + '\'' +
+                ", depth=" + depth.get() +
+                ", high=" + highWatermark +
+                ", low=" + lowWatermark +
+                ", saturated=" + saturated.get() +
+                '}';
+    }
+}
@@ -0,0 +1,359 @@
+package io.advantageous.qbit.queue.impl;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Preallocated, lock-free, bounded ring buffer used as the backing queue of a {@link BasicQueue}.
+ * <p>
+ * Many producers (send queues) claim slots with a CAS on the tail sequence and publish them with an ordered
+ * store on the slot sequence, so there is no lock and no per-item node allocation.
+ * It is tuned for a single consumer (the queue listener). The consumer side still claims with a CAS so
+ * that a {@code clear()} from another thread during {@code stop()} cannot corrupt the buffer.
+ * <p>
+ * The head and tail sequences are padded onto their own cache lines so producers and the consumer do not
+ * false share. Slots normally hold the {@code Object[]} batches produced by the send queues.
+ * <p>
+ * A consumer that waits in {@link #poll(long, TimeUnit)} or {@link #take()} parks and is unparked by the next
+ * producer that publishes. Producers that find the buffer full fail fast in {@link #offer(Object)} which lets the
+ * {@link io.advantageous.qbit.queue.UnableToEnqueueHandler} decide what to do.
+ *
+ * @param <E> element type
+ */
+public class RingBufferBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    /**
+     * Used when the queue is created reflectively without a size.
+     */
+    public static final int DEFAULT_CAPACITY = 1024 * 16;
+
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final int capacity;
+    private final int mask;
+    private final Object[] slots;
+    private final AtomicLongArray slotSequences;
+    private final Sequence head = new Sequence(0);
+    private final Sequence tail = new Sequence(0);
+    private volatile Thread waitingConsumer;
+
+
+    public RingBufferBlockingQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RingBufferBlockingQueue(final int requestedCapacity) {
+        if (requestedCapacity < 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be positive " + requestedCapacity);
+        }
+        this.capacity = roundToPowerOfTwo(requestedCapacity);
+        this.mask = capacity - 1;
+        this.slots = new Object[capacity];
+        this.slotSequences = new AtomicLongArray(capacity);
+        for (int index = 0; index < capacity; index++) {
+            slotSequences.lazySet(index, index);
+        }
+    }
+
+    private static int roundToPowerOfTwo(final int value) {
+        if (value > (1 << 30)) {
+            throw new IllegalArgumentException("Ring buffer capacity is too large " + value);
+        }
+        return 1 << (32 - Integer.numberOfLeadingZeros(value - 1));
+    }
+
+    @Override
+    public boolean offer(final E item) {
+        if (item == null) {
+            throw new NullPointerException("Ring buffer does not accept null items");
+        }
+
+        long position;
+        int slot;
+        while (true) {
+            position = tail.get();
+            slot = (int) position & mask;
+            final long difference = slotSequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                /* The consumer has not freed this slot yet so the buffer is full. */
+                return false;
+            }
+        }
+
+        slots[slot] = item;
+        /* Full volatile store so the read of waitingConsumer below can not be reordered before the publish. */
+        slotSequences.set(slot, position + 1);
+
+        final Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    @Override
+    public E poll() {
+
+        long position;
+        int slot;
+        while (true) {
+            position = head.get();
+            slot = (int) position & mask;
+            final long difference = slotSequences.get(slot) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                /* Nothing published at the head yet. */
+                return null;
+            }
+        }
+
+        @SuppressWarnings("unchecked") final E item = (E) slots[slot];
+        slots[slot] = null;
+        slotSequences.lazySet(slot, position + capacity);
+        return item;
+    }
+
+    @Override
+    public E poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+
+        E item = poll();
+        if (item != null) {
+            return item;
+        }
+
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        final Thread currentThread = Thread.currentThread();
+
+        try {
+            while (true) {
+                waitingConsumer = currentThread;
+
+                /* Check again after advertising ourselves so a publish in between is not missed. */
+                item = poll();
+                if (item != null) {
+                    return item;
+                }
+
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+
+                item = poll();
+                if (item != null) {
+                    return item;
+                }
+            }
+        } finally {
+            waitingConsumer = null;
+        }
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+
+        E item = poll();
+        if (item != null) {
+            return item;
+        }
+
+        final Thread currentThread = Thread.currentThread();
+        try {
+            while (true) {
+                waitingConsumer = currentThread;
+                item = poll();
+                if (item != null) {
+                    return item;
+                }
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waitingConsumer = null;
+        }
+    }
+
+    @Override
+    public void put(final E item) throws InterruptedException {
+        while (!offer(item)) {
+            LockSupport.parkNanos(this, FULL_PARK_NANOS);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    @Override
+    public boolean offer(final E item, final long timeout, final TimeUnit unit) throws InterruptedException {
+        if (offer(item)) {
+            return true;
+        }
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!offer(item)) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(this, Math.min(remaining, FULL_PARK_NANOS));
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public E peek() {
+        final long position = head.get();
+        final int slot = (int) position & mask;
+        if (slotSequences.get(slot) != position + 1) {
+            return null;
+        }
+        @SuppressWarnings("unchecked") final E item = (E) slots[slot];
+        /* The slot may have been consumed between the two reads. */
+        return head.get() == position ? item : null;
+    }
+
+    @Override
+    public int size() {
+        /* Read head first so a concurrent consumer can only make the answer smaller, never negative. */
+        final long headPosition = head.get();
+        final long size = tail.get() - headPosition;
+        if (size < 0) {
+            return 0;
+        }
+        return size > capacity ? capacity : (int) size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int drainTo(final Collection<? super E> collection) {
+        return drainTo(collection, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(final Collection<? super E> collection, final int maxElements) {
+        if (collection == this) {
+            throw new IllegalArgumentException("Can't drain a queue into itself");
+        }
+        int count = 0;
+        E item;
+        while (count < maxElements && (item = poll()) != null) {
+            collection.add(item);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Weakly consistent snapshot of the published items. Does not support remove.
+     *
+     * @return iterator
+     */
+    @Override
+    public Iterator<E> iterator() {
+        final long headPosition = head.get();
+        final long tailPosition = tail.get();
+        final List<E> snapshot = new ArrayList<>();
+        for (long position = headPosition; position < tailPosition; position++) {
+            final int slot = (int) position & mask;
+            if (slotSequences.get(slot) != position + 1) {
+                break;
+            }
+            @SuppressWarnings("unchecked") final E item = (E) slots[slot];
+            if (item != null) {
+                snapshot.add(item);
+            }
+        }
+        final Iterator<E> iterator = snapshot.iterator();
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return iterator.next();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "RingBufferBlockingQueue{" +
+                "capacity=" + capacity +
+                ", size=" + size() +
+                '}';
+    }
+
+    /**
+     * Cache line padding to the left of the sequence value.
+     */
+    @SuppressWarnings("unused")
+    static class LeftPadding {
+        protected long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    static class SequenceValue extends LeftPadding {
+        protected volatile long value;
+    }
+
+    /**
+     * A padded sequence (cursor) so the head and the tail each sit on their own cache line.
+     */
+    @SuppressWarnings("unused")
+    static final class Sequence extends SequenceValue {
+
+        private static final AtomicLongFieldUpdater<SequenceValue> VALUE =
+                AtomicLongFieldUpdater.newUpdater(SequenceValue.class, "value");
+
+        protected long p9, p10, p11, p12, p13, p14, p15;
+
+        Sequence(final long initialValue) {
+            this.value = initialValue;
+        }
+
+        long get() {
+            return value;
+        }
+
+        boolean compareAndSet(final long expected, final long update) {
+            return VALUE.compareAndSet(this, expected, update);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.ReceiveQueueManager;
+import io.advantageous.qbit.service.Stoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multiplexes many queue listeners onto a fixed pool of worker threads (M:N scheduling).
+ * <p>
+ * By default every queue gets its own "QueueListener|name" thread. A queue built with a SharedQueueScheduler
+ * instead gets a {@link SharedReceiveQueueManager} which runs its listener as a task on this pool.
+ * A queue is only ever processed by one worker at a time, and a worker gives up a queue after one batch (limit)
+ * so busy queues take turns. A queue that runs dry parks until a send queue hands it something, see
+ * {@link ConsumerWakeup}, so an idle queue costs neither a thread nor polls. It is only checked again once its
+ * poll wait time passes, to call idle on the listener.
+ * <p>
+ * The default scheduler is sized to the number of cores and uses daemon threads.
+ */
+public class SharedQueueScheduler implements Stoppable {
+
+    private static volatile SharedQueueScheduler sharedQueueScheduler;
+
+    private final Logger logger = LoggerFactory.getLogger(SharedQueueScheduler.class);
+    private final ScheduledThreadPoolExecutor executor;
+    private final String name;
+
+    public SharedQueueScheduler(final String name, final int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Need at least one worker " + workers);
+        }
+        this.name = name;
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(workers, runnable -> {
+            final Thread thread = new Thread(runnable);
+            thread.setName("QueueScheduler|" + name + "|" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+        logger.info("Shared queue scheduler {} started with {} workers", name, workers);
+    }
+
+    /**
+     * The process wide scheduler, created on first use with one worker per core.
+     *
+     * @return shared queue scheduler
+     */
+    public static SharedQueueScheduler sharedQueueScheduler() {
+        SharedQueueScheduler scheduler = sharedQueueScheduler;
+        if (scheduler == null) {
+            synchronized (SharedQueueScheduler.class) {
+                scheduler = sharedQueueScheduler;
+                if (scheduler == null) {
+                    scheduler = new SharedQueueScheduler("shared", Runtime.getRuntime().availableProcessors());
+                    sharedQueueScheduler = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * Creates a queue manager whose listener runs on this scheduler.
+     *
+     * @param name     queue name
+     * @param waitTime how long a queue must stay empty before idle is called
+     * @param timeUnit time unit for wait time
+     * @param wakeup   signaled by the send queues of the queue, see {@link QueueFeatures#consumerWakeup()}
+     * @param <T>      item type
+     * @return queue manager
+     */
+    public <T> ReceiveQueueManager<T> createReceiveQueueManager(final String name,
+                                                                final long waitTime,
+                                                                final TimeUnit timeUnit,
+                                                                final ConsumerWakeup wakeup) {
+        return new SharedReceiveQueueManager<>(name, this, timeUnit.toNanos(waitTime), wakeup);
+    }
+
+    void execute(final Runnable runnable) {
+        executor.execute(runnable);
+    }
+
+    ScheduledFuture<?> schedule(final Runnable runnable, final long delayNanos) {
+        return executor.schedule(runnable, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public int workers() {
+        return executor.getCorePoolSize();
+    }
+
+    @Override
+    public void stop() {
+        logger.info("Stopping shared queue scheduler {}", name);
+        executor.shutdown();
+        synchronized (SharedQueueScheduler.class) {
+            if (sharedQueueScheduler == this) {
+                sharedQueueScheduler = null;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SharedQueueScheduler{" +
+                "name='" + name + '\'' +
+                ", workers=" + workers() +
+                '}';
+    }
+}
@@ -0,0 +1,224 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.ReceiveQueue;
+import io.advantageous.qbit.queue.ReceiveQueueListener;
+import io.advantageous.qbit.queue.ReceiveQueueManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a queue listener as a task on a {@link SharedQueueScheduler} instead of on its own thread.
+ * <p>
+ * Each run drains up to limit items and then hands the worker back to the pool, so the task is only ever
+ * scheduled once and the queue is processed by at most one thread at a time.
+ * Once the queue runs dry the task parks on the {@link ConsumerWakeup} of the queue, and the next hand off from a
+ * send queue schedules it again.
+ * The listener sees the same callbacks as with {@link BasicReceiveQueueManager}: init once, startBatch before the
+ * first item of a batch, limit every limit items, empty when the queue runs dry, idle each time the queue stays
+ * empty for the poll wait time, and shutdown once stopped.
+ */
+public class SharedReceiveQueueManager<T> implements ReceiveQueueManager<T>, Runnable {
+
+
+    private final Logger logger = LoggerFactory.getLogger(SharedReceiveQueueManager.class);
+    private final boolean debug = logger.isDebugEnabled();
+    private final String name;
+    private final SharedQueueScheduler scheduler;
+    private final long waitTimeNanos;
+    private final ConsumerWakeup wakeup;
+    private final AtomicBoolean stop = new AtomicBoolean();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicReference<ScheduledFuture<?>> idleTimer = new AtomicReference<>();
+    private final Runnable idleCheck;
+    private ReceiveQueue<T> inputQueue;
+    private ReceiveQueueListener<T> listener;
+    private int limit;
+
+    /* Only touched by the task, the scheduler hand off makes them visible to the next worker. */
+    private boolean initialized;
+    private boolean inBatch;
+    private long lastActivityTime;
+
+    public SharedReceiveQueueManager(final String name,
+                                     final SharedQueueScheduler scheduler,
+                                     final long waitTimeNanos,
+                                     final ConsumerWakeup wakeup) {
+        this.name = name;
+        this.scheduler = scheduler;
+        this.waitTimeNanos = waitTimeNanos;
+        this.wakeup = wakeup;
+        this.idleCheck = () -> {
+            if (wakeup.unpark()) {
+                run();
+            }
+        };
+    }
+
+    @Override
+    public void addQueueToManage(final String name,
+                                 final ReceiveQueue<T> inputQueue,
+                                 final ReceiveQueueListener<T> listener,
+                                 final int batchSize) {
+        this.inputQueue = inputQueue;
+        this.listener = listener;
+        this.limit = batchSize;
+    }
+
+    @Override
+    public void start() {
+        if (inputQueue == null) {
+            return;
+        }
+        if (!started.compareAndSet(false, true)) {
+            logger.warn("SharedReceiveQueueManager {} already started", name);
+            return;
+        }
+        wakeup.register(this::submit);
+        submit();
+    }
+
+    @Override
+    public void stop() {
+        stop.set(true);
+        /* A parked listener has no run coming, so give it one to shut down in. */
+        if (wakeup.unpark()) {
+            submit();
+        }
+    }
+
+    @Override
+    public void run() {
+
+        if (stop.get()) {
+            cancelIdleTimer();
+            listener.shutdown();
+            return;
+        }
+
+        try {
+            if (!initialized) {
+                initialized = true;
+                lastActivityTime = System.nanoTime();
+                listener.init();
+            }
+
+            if (drain()) {
+                /* Hit the limit, go to the back of the line so other queues get a turn. */
+                submit();
+                return;
+            }
+        } catch (Exception ex) {
+            logger.error("Problem running: QueueListener|" + name, ex);
+        }
+        park();
+    }
+
+    /**
+     * Park until a send queue hands off something, or the poll wait time passes and idle is due.
+     * Once parked another worker may already be running this task, so only the atomics are touched after that.
+     */
+    private void park() {
+        final long idleDueNanos = Math.max(0, waitTimeNanos - (System.nanoTime() - lastActivityTime));
+
+        if (!wakeup.park()) {
+            /* Items came in while parking. */
+            submit();
+            return;
+        }
+
+        try {
+            final ScheduledFuture<?> previous = idleTimer.getAndSet(scheduler.schedule(idleCheck, idleDueNanos));
+            if (previous != null) {
+                previous.cancel(false);
+            }
+        } catch (RejectedExecutionException ex) {
+            if (wakeup.unpark()) {
+                schedulerGone();
+            }
+            return;
+        }
+
+        if (stop.get() && wakeup.unpark()) {
+            submit();
+        }
+    }
+
+    private void cancelIdleTimer() {
+        final ScheduledFuture<?> timer = idleTimer.getAndSet(null);
+        if (timer != null) {
+            timer.cancel(false);
+        }
+    }
+
+    /**
+     * Drain one batch.
+     *
+     * @return true if the limit was reached and there may be more items
+     */
+    private boolean drain() {
+
+        T item = inputQueue.poll();
+
+        if (item == null) {
+            if (System.nanoTime() - lastActivityTime >= waitTimeNanos) {
+                lastActivityTime = System.nanoTime();
+                listener.idle();
+            }
+            return false;
+        }
+
+        if (!inBatch) {
+            inBatch = true;
+            listener.startBatch();
+        }
+
+        int count = 0;
+        while (item != null) {
+            listener.receive(item);
+            count++;
+            if (count >= limit) {
+                if (debug) {
+                    logger.debug("SharedReceiveQueueManager {} limit reached batch size = {}", name, limit);
+                }
+                listener.limit();
+                return true;
+            }
+            item = inputQueue.poll();
+        }
+
+        inBatch = false;
+        listener.empty();
+        lastActivityTime = System.nanoTime();
+        return false;
+    }
+
+    private void submit() {
+        try {
+            scheduler.execute(this);
+        } catch (RejectedExecutionException ex) {
+            schedulerGone();
+        }
+    }
+
+    private void schedulerGone() {
+        if (!stop.get()) {
+            logger.warn("SharedReceiveQueueManager {} scheduler was shut down, stopping queue listener", name);
+        }
+        stop.set(true);
+        listener.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return "SharedReceiveQueueManager{" +
+                "name='" + name + '\'' +
+                ", scheduler=" + scheduler +
+                ", wakeup=" + wakeup +
+                '}';
+    }
+}
@@ -0,0 +1,553 @@
+package io.advantageous.qbit.queue.impl.durable;
+
+import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.ReceiveQueue;
+import io.advantageous.qbit.queue.ReceiveQueueListener;
+import io.advantageous.qbit.queue.ReceiveQueueManager;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.queue.impl.BasicReceiveQueueManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * A queue of strings that survives restarts, backed by append only memory mapped segment files.
+ * <p>
+ * Each record is <code>[int record size][int crc32][utf8 bytes]</code>. When a record does not fit in what is left
+ * of a segment an end of segment marker is written and the writer rolls to a new segment.
+ * A position in the queue is <code>segment id * segment size + offset</code>.
+ * <p>
+ * Send queues append a whole batch under one lock and then publish the new write position, so readers only ever see
+ * complete records. The consumer offset lives in its own small mapped file and is committed each time the next item
+ * is read, so an item that was handed to the listener when the process died is delivered again (at least once).
+ * Segments that are completely behind the consumer offset are deleted.
+ * <p>
+ * On start up the consumer offset is read back and the last segment is scanned up to the first torn or corrupt
+ * record to find where to append.
+ * <p>
+ * The {@link FsyncPolicy} decides when segments and the consumer offset are forced to disk. With BATCH the offset is
+ * forced each time the reader catches up with the writer.
+ */
+public class DurableQueue implements Queue<String> {
+
+    static final int HEADER_SIZE = 8;
+    static final int END_OF_SEGMENT = -1;
+    static final String OFFSET_FILE = "consumer.offset";
+
+    /* Room that is always left at the end of a segment for the end of segment marker. */
+    private static final int MARKER_SIZE = 4;
+    private static final byte[] ZEROS = new byte[4096];
+
+    private final Logger logger = LoggerFactory.getLogger(DurableQueue.class);
+    private final String name;
+    private final File directory;
+    private final int batchSize;
+    private final int limit;
+    private final long pollWaitNanos;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMS;
+    private final Map<Long, DurableSegment> segments = new ConcurrentHashMap<>();
+    private final AtomicBoolean stop = new AtomicBoolean(true);
+    /* Set under both locks once the segments are unmapped, after that nothing may touch them. */
+    private volatile boolean closed;
+    private final AtomicLong count = new AtomicLong();
+
+    /* Writer state, guarded by writeLock. */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final CRC32 checksum = new CRC32();
+    private DurableSegment writeSegment;
+    private ByteBuffer writeBuffer;
+    private int writeOffset;
+    private long lastSegmentForce;
+
+    /* Position up to which records are complete, written after the bytes so readers see whole records. */
+    private volatile long writePosition;
+
+    /* Reader state, guarded by readLock. */
+    private final ReentrantLock readLock = new ReentrantLock();
+    private final Condition notEmpty = readLock.newCondition();
+    private final MappedByteBuffer offsetBuffer;
+    private volatile int waitingReaders;
+    private DurableSegment readSegment;
+    private ByteBuffer readBuffer;
+    private long readPosition;
+    private long committedPosition;
+    private long oldestSegmentId;
+    private long lastOffsetForce;
+    private boolean offsetDirty;
+
+    private ReceiveQueueManager<String> receiveQueueManager;
+
+    public DurableQueue(final String name,
+                        final File directory,
+                        final int batchSize,
+                        final int limit,
+                        final int pollWait,
+                        final TimeUnit pollTimeUnit,
+                        final int segmentSize,
+                        final FsyncPolicy fsyncPolicy,
+                        final long fsyncIntervalMS) {
+
+        if (segmentSize < HEADER_SIZE + MARKER_SIZE + 1) {
+            throw new IllegalArgumentException("Segment size is too small " + segmentSize);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("Unable to create queue directory " + directory);
+        }
+
+        this.name = name;
+        this.directory = directory;
+        this.batchSize = batchSize;
+        this.limit = limit;
+        this.pollWaitNanos = pollTimeUnit.toNanos(pollWait);
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalMS = fsyncIntervalMS;
+        this.offsetBuffer = mapOffsetFile(new File(directory, OFFSET_FILE));
+
+        recover();
+
+        logger.info("Durable queue {} opened in {}, {} unread items", name, directory, count.get());
+    }
+
+    public DurableQueue(final String name, final File directory) {
+        this(name, directory, 1000, 1000, 50, TimeUnit.MILLISECONDS, 64 * 1024 * 1024, FsyncPolicy.INTERVAL, 1000);
+    }
+
+    private static MappedByteBuffer mapOffsetFile(final File file) {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to open consumer offset " + file, ex);
+        }
+    }
+
+    private void recover() {
+        final long[] ids = segmentIds();
+
+        if (ids.length == 0) {
+            writeSegment = openSegment(0);
+            writeOffset = 0;
+        } else {
+            for (long id : ids) {
+                segments.put(id, DurableSegment.open(directory, id, segmentSize));
+            }
+            writeSegment = segments.get(ids[ids.length - 1]);
+            writeOffset = scanForEnd(writeSegment);
+            if (writeOffset == END_OF_SEGMENT) {
+                /* Died between writing the end of segment marker and the first record of the next segment. */
+                writeSegment = openSegment(writeSegment.id + 1);
+                writeOffset = 0;
+            }
+        }
+
+        writeBuffer = writeSegment.buffer.duplicate();
+        writePosition = position(writeSegment.id, writeOffset);
+
+        oldestSegmentId = ids.length == 0 ? 0 : ids[0];
+        final long firstPosition = position(oldestSegmentId, 0);
+        long offset = offsetBuffer.getLong(0);
+        if (offset < firstPosition) {
+            offset = firstPosition;
+        } else if (offset > writePosition) {
+            offset = writePosition;
+        }
+        readPosition = offset;
+        committedPosition = offset;
+
+        count.set(countRecords(readPosition, writePosition));
+    }
+
+    private long[] segmentIds() {
+        final File[] files = directory.listFiles((dir, fileName) -> fileName.endsWith(DurableSegment.SUFFIX));
+        if (files == null) {
+            return new long[0];
+        }
+        final long[] ids = new long[files.length];
+        for (int index = 0; index < files.length; index++) {
+            final String fileName = files[index].getName();
+            ids[index] = Long.parseLong(fileName.substring(0, fileName.length() - DurableSegment.SUFFIX.length()));
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Finds the end of the valid records in a segment and clears whatever is after it.
+     * Records are checked in place one at a time, so recovery does not need a segment sized buffer.
+     *
+     * @return offset to append at, or END_OF_SEGMENT if the segment was already closed
+     */
+    private int scanForEnd(final DurableSegment segment) {
+        final ByteBuffer buffer = segment.buffer.duplicate();
+        int offset = 0;
+        while (offset + HEADER_SIZE <= segmentSize - MARKER_SIZE) {
+            final int recordSize = buffer.getInt(offset);
+            if (recordSize == END_OF_SEGMENT) {
+                return END_OF_SEGMENT;
+            }
+            if (recordSize < HEADER_SIZE || offset + recordSize > segmentSize - MARKER_SIZE) {
+                break;
+            }
+            buffer.limit(offset + recordSize).position(offset + HEADER_SIZE);
+            checksum.reset();
+            checksum.update(buffer);
+            buffer.limit(segmentSize);
+            if ((int) checksum.getValue() != buffer.getInt(offset + 4)) {
+                logger.warn("Durable queue {} found a torn record in {} at {}", name, segment.file, offset);
+                break;
+            }
+            offset += recordSize;
+        }
+
+        /* Wipe the tail so a stale record after a torn one can never look valid after the next restart. */
+        buffer.position(offset);
+        while (buffer.hasRemaining()) {
+            buffer.put(ZEROS, 0, Math.min(ZEROS.length, buffer.remaining()));
+        }
+        return offset;
+    }
+
+    private long countRecords(final long from, final long to) {
+        long records = 0;
+        long position = from;
+        while (position < to) {
+            final long segmentId = position / segmentSize;
+            final int offset = (int) (position - segmentId * segmentSize);
+            final int recordSize = segments.get(segmentId).buffer.getInt(offset);
+            if (recordSize == END_OF_SEGMENT) {
+                position = position(segmentId + 1, 0);
+            } else {
+                position += recordSize;
+                records++;
+            }
+        }
+        return records;
+    }
+
+    private DurableSegment openSegment(final long id) {
+        final DurableSegment segment = DurableSegment.open(directory, id, segmentSize);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private long position(final long segmentId, final int offset) {
+        return segmentId * segmentSize + offset;
+    }
+
+    /**
+     * Appends items and makes them visible to readers in one step.
+     *
+     * @param items  array of strings
+     * @param length number of items to append from the start of the array
+     */
+    void append(final Object[] items, final int length) {
+        writeLock.lock();
+        int written = 0;
+        try {
+            checkOpen();
+            for (; written < length; written++) {
+                write((String) items[written]);
+            }
+        } finally {
+            if (written > 0) {
+                writePosition = position(writeSegment.id, writeOffset);
+                count.addAndGet(written);
+                forceSegmentIfNeeded();
+            }
+            writeLock.unlock();
+        }
+
+        if (waitingReaders > 0) {
+            readLock.lock();
+            try {
+                notEmpty.signalAll();
+            } finally {
+                readLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return true once the queue is stopped and its segments are unmapped
+     */
+    boolean closed() {
+        return closed;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Durable queue " + name + " is stopped");
+        }
+    }
+
+    private void write(final String item) {
+        final byte[] bytes = item.getBytes(StandardCharsets.UTF_8);
+        final int recordSize = HEADER_SIZE + bytes.length;
+        if (recordSize > segmentSize - MARKER_SIZE) {
+            throw new IllegalArgumentException("Item of " + bytes.length + " bytes does not fit in a segment of "
+                    + segmentSize + " bytes, queue " + name);
+        }
+        if (writeOffset + recordSize > segmentSize - MARKER_SIZE) {
+            roll();
+        }
+        checksum.reset();
+        checksum.update(bytes, 0, bytes.length);
+        writeBuffer.position(writeOffset + HEADER_SIZE);
+        writeBuffer.put(bytes);
+        writeBuffer.putInt(writeOffset + 4, (int) checksum.getValue());
+        writeBuffer.putInt(writeOffset, recordSize);
+        writeOffset += recordSize;
+    }
+
+    private void roll() {
+        /* Open the next segment first so a reader that sees the marker always finds it. */
+        final DurableSegment next = openSegment(writeSegment.id + 1);
+        writeBuffer.putInt(writeOffset, END_OF_SEGMENT);
+        if (fsyncPolicy != FsyncPolicy.OS) {
+            writeSegment.force();
+        }
+        writeSegment = next;
+        writeBuffer = next.buffer.duplicate();
+        writeOffset = 0;
+    }
+
+    private void forceSegmentIfNeeded() {
+        switch (fsyncPolicy) {
+            case BATCH:
+                writeSegment.force();
+                break;
+            case INTERVAL:
+                final long now = System.currentTimeMillis();
+                if (now - lastSegmentForce >= fsyncIntervalMS) {
+                    lastSegmentForce = now;
+                    writeSegment.force();
+                }
+                break;
+            default:
+        }
+    }
+
+    /**
+     * Reads the next item and commits everything read before it.
+     *
+     * @return next item or null if the queue is empty
+     */
+    String read() {
+        readLock.lock();
+        try {
+            return readRecord();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the next item, waiting for one to be appended if the queue is empty.
+     *
+     * @param waitNanos max time to wait
+     * @return next item or null if none was appended in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    String read(final long waitNanos) throws InterruptedException {
+        readLock.lock();
+        try {
+            String item = readRecord();
+            if (item != null) {
+                return item;
+            }
+            long nanos = waitNanos;
+            /* Announce the wait before checking again so the writer can not miss us. */
+            waitingReaders++;
+            try {
+                item = readRecord();
+                while (item == null && nanos > 0 && !closed) {
+                    nanos = notEmpty.awaitNanos(nanos);
+                    item = readRecord();
+                }
+            } finally {
+                waitingReaders--;
+            }
+            return item;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private String readRecord() {
+        if (closed) {
+            return null;
+        }
+        commit(readPosition);
+
+        while (readPosition < writePosition) {
+            final long segmentId = readPosition / segmentSize;
+            final int offset = (int) (readPosition - segmentId * segmentSize);
+            if (readSegment == null || readSegment.id != segmentId) {
+                readSegment = segments.get(segmentId);
+                readBuffer = readSegment.buffer.duplicate();
+            }
+            final int recordSize = readBuffer.getInt(offset);
+            if (recordSize == END_OF_SEGMENT) {
+                readPosition = position(segmentId + 1, 0);
+                continue;
+            }
+            final byte[] bytes = new byte[recordSize - HEADER_SIZE];
+            readBuffer.position(offset + HEADER_SIZE);
+            readBuffer.get(bytes);
+            readPosition += recordSize;
+            count.decrementAndGet();
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        if (fsyncPolicy == FsyncPolicy.BATCH) {
+            forceOffset();
+        }
+        return null;
+    }
+
+    private void commit(final long position) {
+        if (position != committedPosition) {
+            offsetBuffer.putLong(0, position);
+            committedPosition = position;
+            offsetDirty = true;
+            deleteConsumedSegments(position / segmentSize);
+            if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+                final long now = System.currentTimeMillis();
+                if (now - lastOffsetForce >= fsyncIntervalMS) {
+                    lastOffsetForce = now;
+                    forceOffset();
+                }
+            }
+        }
+    }
+
+    private void forceOffset() {
+        if (offsetDirty) {
+            offsetDirty = false;
+            offsetBuffer.force();
+        }
+    }
+
+    private void deleteConsumedSegments(final long currentSegmentId) {
+        if (oldestSegmentId >= currentSegmentId) {
+            return;
+        }
+        /* The offset must be on disk before the segments it points past go away. */
+        forceOffset();
+        for (; oldestSegmentId < currentSegmentId; oldestSegmentId++) {
+            final DurableSegment segment = segments.remove(oldestSegmentId);
+            if (segment != null) {
+                if (segment == readSegment) {
+                    readSegment = null;
+                    readBuffer = null;
+                }
+                segment.close();
+                segment.delete();
+            }
+        }
+    }
+
+    @Override
+    public ReceiveQueue<String> receiveQueue() {
+        return new DurableReceiveQueue(this, pollWaitNanos, limit);
+    }
+
+    @Override
+    public SendQueue<String> sendQueue() {
+        return new DurableSendQueue(this, batchSize);
+    }
+
+    @Override
+    public void startListener(final ReceiveQueueListener<String> listener) {
+        this.receiveQueueManager = new BasicReceiveQueueManager<>(name);
+        stop.set(false);
+        logger.info("Starting queue listener for  {} {}", name, listener);
+        this.receiveQueueManager.addQueueToManage(name, this.receiveQueue(), listener, limit);
+        this.receiveQueueManager.start();
+    }
+
+    /**
+     * Stops the listener, forces the segments and consumer offset to disk and unmaps them.
+     * Unread items stay on disk for the next queue opened on the directory. Sending after stop is an error.
+     */
+    @Override
+    public void stop() {
+        logger.info("Stopping durable queue {}", name);
+        stop.set(true);
+        if (receiveQueueManager != null) {
+            receiveQueueManager.stop();
+        }
+
+        writeLock.lock();
+        readLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            if (fsyncPolicy != FsyncPolicy.OS) {
+                writeSegment.force();
+                forceOffset();
+            }
+            closed = true;
+            readSegment = null;
+            readBuffer = null;
+            writeBuffer = null;
+            for (DurableSegment segment : segments.values()) {
+                segment.close();
+            }
+            segments.clear();
+            DurableSegment.unmap(offsetBuffer);
+            /* Wake readers parked in read so they see the queue is closed. */
+            notEmpty.signalAll();
+        } finally {
+            readLock.unlock();
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, count.get());
+    }
+
+    @Override
+    public boolean started() {
+        return !stop.get();
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    public File directory() {
+        return directory;
+    }
+
+    @Override
+    public String toString() {
+        return "DurableQueue{" +
+                "name='" + name + '\'' +
+                ", directory=" + directory +
+                ", fsyncPolicy=" + fsyncPolicy +
+                '}';
+    }
+}
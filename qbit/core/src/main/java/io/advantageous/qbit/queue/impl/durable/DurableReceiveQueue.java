@@ -0,0 +1,72 @@
+package io.advantageous.qbit.queue.impl.durable;
+
+import io.advantageous.qbit.queue.ReceiveQueue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads from a durable queue. Reading an item commits the consumer offset of the items read before it.
+ */
+class DurableReceiveQueue implements ReceiveQueue<String> {
+
+    private final DurableQueue queue;
+    private final long pollWaitNanos;
+    private final int batchSize;
+
+    DurableReceiveQueue(final DurableQueue queue, final long pollWaitNanos, final int batchSize) {
+        this.queue = queue;
+        this.pollWaitNanos = pollWaitNanos;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public String pollWait() {
+        try {
+            return queue.read(pollWaitNanos);
+        } catch (InterruptedException e) {
+            Thread.interrupted();
+            return null;
+        }
+    }
+
+    @Override
+    public String poll() {
+        return queue.read();
+    }
+
+    @Override
+    public String take() {
+        try {
+            String item = queue.read(TimeUnit.SECONDS.toNanos(1));
+            while (item == null && !queue.closed()) {
+                item = queue.read(TimeUnit.SECONDS.toNanos(1));
+            }
+            return item;
+        } catch (InterruptedException e) {
+            Thread.interrupted();
+            return null;
+        }
+    }
+
+    @Override
+    public Iterable<String> readBatch(final int max) {
+        String item = poll();
+        if (item == null) {
+            return Collections.emptyList();
+        }
+        final List<String> batch = new ArrayList<>();
+        batch.add(item);
+        while (batch.size() < max && (item = poll()) != null) {
+            batch.add(item);
+        }
+        return batch;
+    }
+
+    @Override
+    public Iterable<String> readBatch() {
+        return readBatch(batchSize);
+    }
+}
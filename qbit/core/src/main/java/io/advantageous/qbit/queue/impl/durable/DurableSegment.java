@@ -0,0 +1,101 @@
+package io.advantageous.qbit.queue.impl.durable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * One fixed size, memory mapped segment file of a durable queue.
+ */
+final class DurableSegment {
+
+    static final String SUFFIX = ".segment";
+
+    final long id;
+    final File file;
+    final MappedByteBuffer buffer;
+
+    private DurableSegment(final long id, final File file, final MappedByteBuffer buffer) {
+        this.id = id;
+        this.file = file;
+        this.buffer = buffer;
+    }
+
+    static File segmentFile(final File directory, final long id) {
+        return new File(directory, String.format("%020d", id) + SUFFIX);
+    }
+
+    static DurableSegment open(final File directory, final long id, final int segmentSize) {
+        final File file = segmentFile(directory, id);
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            if (randomAccessFile.length() != segmentSize) {
+                randomAccessFile.setLength(segmentSize);
+            }
+            /* The mapping stays valid after the file is closed. */
+            final MappedByteBuffer buffer = randomAccessFile.getChannel()
+                    .map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            return new DurableSegment(id, file, buffer);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to open queue segment " + file, ex);
+        }
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Unmaps the segment. The buffer must not be touched afterwards.
+     */
+    void close() {
+        unmap(buffer);
+    }
+
+    /**
+     * Releases a mapping now instead of whenever the buffer is garbage collected, which can keep the file and its
+     * address space around long after the queue is done with it.
+     */
+    static void unmap(final MappedByteBuffer buffer) {
+        try {
+            /* Java 9 and later. */
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (NoSuchMethodException noInvokeCleaner) {
+            try {
+                /* Java 8. */
+                final Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                final Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            } catch (ReflectiveOperationException | RuntimeException ex) {
+                /* Left to the garbage collector. */
+            }
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            /* Left to the garbage collector. */
+        }
+    }
+
+    void delete() {
+        if (!file.delete() && file.exists()) {
+            throw new IllegalStateException("Unable to delete queue segment " + file);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DurableSegment{" +
+                "id=" + id +
+                ", file=" + file +
+                '}';
+    }
+}
@@ -0,0 +1,85 @@
+package io.advantageous.qbit.queue.impl.durable;
+
+import io.advantageous.qbit.queue.SendQueue;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Collects items locally and appends them to the durable queue as one batch.
+ * Like the other send queues this is not thread safe, use one per thread.
+ */
+class DurableSendQueue implements SendQueue<String> {
+
+    private final DurableQueue queue;
+    private final Object[] batch;
+    private int index;
+
+    DurableSendQueue(final DurableQueue queue, final int batchSize) {
+        this.queue = queue;
+        this.batch = new Object[Math.max(1, batchSize)];
+    }
+
+    @Override
+    public boolean send(final String item) {
+        batch[index++] = item;
+        if (index == batch.length) {
+            flushSends();
+        }
+        return true;
+    }
+
+    @Override
+    public void sendAndFlush(final String item) {
+        send(item);
+        flushSends();
+    }
+
+    @Override
+    public void sendMany(final String... items) {
+        for (String item : items) {
+            send(item);
+        }
+        flushSends();
+    }
+
+    @Override
+    public void sendBatch(final Collection<String> items) {
+        sendBatch((Iterable<String>) items);
+    }
+
+    @Override
+    public void sendBatch(final Iterable<String> items) {
+        for (String item : items) {
+            send(item);
+        }
+        flushSends();
+    }
+
+    @Override
+    public void flushSends() {
+        if (index > 0) {
+            try {
+                queue.append(batch, index);
+            } finally {
+                Arrays.fill(batch, 0, index, null);
+                index = 0;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return index;
+    }
+
+    @Override
+    public String name() {
+        return queue.name();
+    }
+
+    @Override
+    public void stop() {
+        flushSends();
+    }
+}
@@ -0,0 +1,23 @@
+package io.advantageous.qbit.queue.impl.durable;
+
+/**
+ * When a durable queue forces its memory mapped segments and consumer offset to disk.
+ */
+public enum FsyncPolicy {
+
+    /**
+     * Never force, the OS writes dirty pages back on its own schedule.
+     * Survives a process crash but not a power loss.
+     */
+    OS,
+
+    /**
+     * Force after every appended batch. Safest and slowest.
+     */
+    BATCH,
+
+    /**
+     * Force at most once per fsync interval.
+     */
+    INTERVAL
+}
@@ -3,6 +3,11 @@ package io.advantageous.qbit.queue.impl.sender;
 import io.advantageous.boon.core.Sys;
 import io.advantageous.qbit.queue.Queue;
 import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.queue.impl.ConsumerWakeup;
+import io.advantageous.qbit.queue.impl.DrainSignal;
+import io.advantageous.qbit.queue.impl.QueueFeatures;
+import io.advantageous.qbit.queue.impl.QueueInstrumentation;
+import io.advantageous.qbit.queue.impl.QueueWatermarks;
 import org.slf4j.Logger;
 
 import java.util.Arrays;
@@ -25,16 +30,41 @@ public abstract class AbstractBasicSendQueue<T> implements SendQueue<T> {
     protected int checkEveryStarted = 0;
     protected int index;
     protected Object[] queueLocal;
+    private final BatchArrayPool batchArrayPool;
+    private final AdaptiveBatchSize adaptiveBatchSize;
+    private final DrainSignal drainSignal;
+    private final QueueWatermarks watermarks;
+    private final QueueInstrumentation instrumentation;
+    private final ConsumerWakeup consumerWakeup;
+    private int handOffsSinceSample;
 
     public AbstractBasicSendQueue(final BlockingQueue<Object> queue, Queue<T> owner,
                                   final int batchSize,
                                   final String name,
                                   final Logger logger) {
+        this(queue, owner, batchSize, name, logger, QueueFeatures.NONE);
+    }
+
+    /**
+     * @param features batch array pool, adaptive batching, watermarks, instrumentation and consumer wakeup of the
+     *                 owning queue
+     */
+    public AbstractBasicSendQueue(final BlockingQueue<Object> queue, Queue<T> owner,
+                                  final int batchSize,
+                                  final String name,
+                                  final Logger logger,
+                                  final QueueFeatures features) {
         this.queue = queue;
         this.owner = owner;
         this.batchSize = batchSize;
         this.name = name;
-        this.queueLocal = new Object[batchSize];
+        this.batchArrayPool = features.batchArrayPool();
+        this.adaptiveBatchSize = features.newAdaptiveBatchSize(batchSize);
+        this.drainSignal = features.drainSignal();
+        this.watermarks = features.watermarks();
+        this.instrumentation = features.instrumentation();
+        this.consumerWakeup = features.consumerWakeup();
+        this.queueLocal = batchArrayPool == null ? new Object[batchSize] : batchArrayPool.acquire();
         this.logger = logger;
 
     }
@@ -47,6 +77,15 @@ public abstract class AbstractBasicSendQueue<T> implements SendQueue<T> {
         return true;
     }
 
+    /**
+     * The number of items to collect before flushing.
+     *
+     * @return batch size, or the current adaptive batch size if adaptive batching is on
+     */
+    protected final int batchLimit() {
+        return adaptiveBatchSize == null ? batchSize : adaptiveBatchSize.batchSize();
+    }
+
 
     @Override
     public final boolean send(T item) {
@@ -54,6 +93,10 @@ public abstract class AbstractBasicSendQueue<T> implements SendQueue<T> {
         boolean ableToSend = flushIfOverBatch();
         queueLocal[index] = item;
         index++;
+        if (drainSignal != null && drainSignal.consumerWaiting()) {
+            /* The consumer has nothing to do, so don't make it wait for the rest of the batch. */
+            return sendLocalQueue() && ableToSend;
+        }
         return ableToSend;
     }
 
@@ -92,7 +135,7 @@ public abstract class AbstractBasicSendQueue<T> implements SendQueue<T> {
     public final void sendMany(T... items) {
         checkStarted();
         flushSends();
-        sendArray(items);
+        sendCounted(items, items.length);
     }
 
 
@@ -101,7 +144,7 @@ public abstract class AbstractBasicSendQueue<T> implements SendQueue<T> {
         checkStarted();
         flushSends();
         final Object[] array = objectArrayFromIterable(items);
-        sendArray(array);
+        sendCounted(array, array.length);
     }
 
     @Override
@@ -109,7 +152,7 @@ public abstract class AbstractBasicSendQueue<T> implements SendQueue<T> {
         checkStarted();
         flushSends();
         final Object[] array = objectArrayFromCollection(items);
-        sendArray(array);
+        sendCounted(array, array.length);
 
     }
 
@@ -130,6 +173,74 @@ public abstract class AbstractBasicSendQueue<T> implements SendQueue<T> {
         return queue.size();
     }
 
+    @Override
+    public int availableCredits() {
+        return watermarks == null ? Integer.MAX_VALUE : Math.max(0, watermarks.availableCredits() - index);
+    }
+
+    @Override
+    public boolean isWritable() {
+        return watermarks == null || !watermarks.isSaturated();
+    }
+
+    @Override
+    public void onWritable(final Runnable runnable) {
+        if (watermarks == null) {
+            runnable.run();
+        } else {
+            watermarks.onWritable(runnable);
+        }
+    }
+
+    /**
+     * Counts the items in before handing them off so the consumer can never count them out first.
+     */
+    private boolean sendCounted(final Object[] array, final int count) {
+        if (watermarks == null && instrumentation == null) {
+            return handedOff(sendArray(array));
+        }
+        if (watermarks != null) {
+            watermarks.added(count);
+        }
+        boolean sent = false;
+        try {
+            sent = sendArray(array);
+        } finally {
+            /* Not enqueued, whether the unable to enqueue handler said so or threw. */
+            if (!sent && watermarks != null) {
+                watermarks.removed(count);
+            }
+        }
+        if (sent && instrumentation != null) {
+            instrumentation.enqueued(count);
+        }
+        return handedOff(sent);
+    }
+
+    private boolean handedOff(final boolean sent) {
+        if (sent) {
+            if (drainSignal != null) {
+                drainSignal.handedOff();
+            }
+            if (consumerWakeup != null) {
+                consumerWakeup.handedOff();
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * @return true if the batch about to be handed off should carry a timing probe
+     */
+    private boolean sampleDue() {
+        if (instrumentation == null || instrumentation.sampleEvery() <= 0
+                || ++handOffsSinceSample < instrumentation.sampleEvery()) {
+            return false;
+        }
+        handOffsSinceSample = 0;
+        return true;
+    }
+
     @Override
     public final void flushSends() {
         sendLocalQueue();
@@ -137,11 +248,27 @@ public abstract class AbstractBasicSendQueue<T> implements SendQueue<T> {
 
     protected final boolean sendLocalQueue() {
 
+        if (adaptiveBatchSize != null && index > 0) {
+            adaptiveBatchSize.flushed(drainSignal.depth(), drainSignal.drained());
+        }
+
+        if (batchArrayPool != null) {
+            return sendPooledLocalQueue();
+        }
+
         if (index > 0) {
             boolean ableToSend;
 
-            final Object[] copy = fastObjectArraySlice(queueLocal, 0, index);
-            ableToSend = sendArray(copy);
+            final Object[] copy;
+            if (sampleDue()) {
+                /* The probe rides in a slot behind the items, so it takes no room in the queue. */
+                copy = new Object[index + 1];
+                System.arraycopy(queueLocal, 0, copy, 0, index);
+                copy[index] = instrumentation.newProbe();
+            } else {
+                copy = fastObjectArraySlice(queueLocal, 0, index);
+            }
+            ableToSend = sendCounted(copy, index);
             Arrays.fill(queueLocal, null);
             index = 0;
             return ableToSend;
@@ -149,4 +276,31 @@ public abstract class AbstractBasicSendQueue<T> implements SendQueue<T> {
             return true;
         }
     }
+
+    /**
+     * Hands the local array itself to the queue and takes a fresh one from the pool, so nothing is copied.
+     * The receive queue gives the array back to the pool once it has drained it.
+     */
+    private boolean sendPooledLocalQueue() {
+
+        if (index > 0) {
+            final Object[] batch = queueLocal;
+            if (sampleDue()) {
+                BatchArrayPool.stamp(batch, instrumentation.newProbe());
+            }
+            if (sendCounted(batch, index)) {
+                queueLocal = batchArrayPool.acquire();
+                index = 0;
+                return true;
+            } else {
+                /* Not enqueued, so the array is still ours. Drop the items like the copying mode does. */
+                Arrays.fill(batch, 0, index, null);
+                BatchArrayPool.stamp(batch, null);
+                index = 0;
+                return false;
+            }
+        } else {
+            return true;
+        }
+    }
 }
@@ -0,0 +1,74 @@
+package io.advantageous.qbit.queue.impl.sender;
+
+/**
+ * Tracks the effective batch size of one send queue when adaptive batching is on.
+ * <p>
+ * The configured batch size is the ceiling. The send queue reports on each flush the depth of the queue and
+ * how much the consumer has drained in total, both from the {@link io.advantageous.qbit.queue.impl.DrainSignal}.
+ * If the queue is empty the consumer is keeping up and the batch size is halved so items get out sooner.
+ * If the consumer drained at least as much since the last flush as is still waiting, it is keeping pace and the
+ * batch size holds. If the backlog outgrew the drain for several flushes in a row, the consumer is falling behind
+ * and the batch size is doubled so there are fewer, larger hand offs.
+ * <p>
+ * Like the send queue that owns it, this is not thread safe.
+ */
+public final class AdaptiveBatchSize {
+
+    /**
+     * Number of flushes in a row that must find a backlog before the batch size grows.
+     */
+    public static final int GROW_AFTER = 2;
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private int batchSize;
+    private int backlogCount;
+    private long lastDrained;
+
+    public AdaptiveBatchSize(final int minBatchSize, final int maxBatchSize) {
+        this.minBatchSize = Math.max(1, minBatchSize);
+        this.maxBatchSize = Math.max(this.minBatchSize, maxBatchSize);
+        this.batchSize = this.minBatchSize;
+    }
+
+    public AdaptiveBatchSize(final int maxBatchSize) {
+        this(1, maxBatchSize);
+    }
+
+    /**
+     * Called on each flush, before the batch is handed off.
+     *
+     * @param depth   hand offs in the queue the consumer has not taken yet
+     * @param drained hand offs the consumer has taken so far
+     */
+    public void flushed(final long depth, final long drained) {
+        final long drainedSinceFlush = drained - lastDrained;
+        lastDrained = drained;
+        if (depth == 0) {
+            backlogCount = 0;
+            batchSize = Math.max(minBatchSize, batchSize >> 1);
+        } else if (depth <= drainedSinceFlush) {
+            backlogCount = 0;
+        } else if (++backlogCount >= GROW_AFTER) {
+            backlogCount = 0;
+            batchSize = Math.min(maxBatchSize, batchSize << 1);
+        }
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    public int maxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveBatchSize{" +
+                "batchSize=" + batchSize +
+                ", min=" + minBatchSize +
+                ", max=" + maxBatchSize +
+                '}';
+    }
+}
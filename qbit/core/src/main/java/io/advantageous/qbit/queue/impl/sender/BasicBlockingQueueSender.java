@@ -1,6 +1,7 @@
 package io.advantageous.qbit.queue.impl.sender;
 
 import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.impl.QueueFeatures;
 import io.advantageous.qbit.queue.UnableToEnqueueHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,10 +22,19 @@ public class BasicBlockingQueueSender<T> extends AbstractBasicSendQueue<T> {
             final boolean checkBusy,
             final UnableToEnqueueHandler unableToEnqueueHandler,
             final Queue<T> owner) {
+        this(name, batchSize, queue, checkBusy, unableToEnqueueHandler, owner, QueueFeatures.NONE);
+    }
 
-        super(queue, owner, batchSize, name + "| BQ SEND QUEUE", LoggerFactory.getLogger(BasicBlockingQueueSender.class));
-
-
+    public BasicBlockingQueueSender(
+            final String name,
+            final int batchSize,
+            final BlockingQueue<Object> queue,
+            final boolean checkBusy,
+            final UnableToEnqueueHandler unableToEnqueueHandler,
+            final Queue<T> owner,
+            final QueueFeatures features) {
+        super(queue, owner, batchSize, name + "| BQ SEND QUEUE", LoggerFactory.getLogger(BasicBlockingQueueSender.class),
+                features);
         this.unableToEnqueueHandler = unableToEnqueueHandler;
         if (queue instanceof TransferQueue && checkBusy) {
             throw new IllegalStateException("Should never pass transfer queue");
@@ -33,7 +43,7 @@ public class BasicBlockingQueueSender<T> extends AbstractBasicSendQueue<T> {
 
 
     protected final boolean flushIfOverBatch() {
-        return index < batchSize || sendLocalQueue();
+        return index < batchLimit() || sendLocalQueue();
     }
 
 
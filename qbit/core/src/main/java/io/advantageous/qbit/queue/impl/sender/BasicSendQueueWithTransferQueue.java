@@ -18,6 +18,7 @@
 package io.advantageous.qbit.queue.impl.sender;
 
 import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.impl.QueueFeatures;
 import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.TransferQueue;
@@ -44,10 +45,18 @@ public class BasicSendQueueWithTransferQueue<T> extends AbstractBasicSendQueue<T
             final TransferQueue<Object> queue,
             final int checkBusyEvery,
             final Queue<T> owner) {
+        this(name, batchSize, queue, checkBusyEvery, owner, QueueFeatures.NONE);
+    }
 
-        super(queue, owner, batchSize, name + "| TQ SEND QUEUE", LoggerFactory.getLogger(BasicSendQueueWithTransferQueue.class));
-
-
+    public BasicSendQueueWithTransferQueue(
+            final String name,
+            final int batchSize,
+            final TransferQueue<Object> queue,
+            final int checkBusyEvery,
+            final Queue<T> owner,
+            final QueueFeatures features) {
+        super(queue, owner, batchSize, name + "| TQ SEND QUEUE", LoggerFactory.getLogger(BasicSendQueueWithTransferQueue.class),
+                features);
         this.queue = queue;
         this.checkBusyEvery = checkBusyEvery;
     }
@@ -59,7 +68,7 @@ public class BasicSendQueueWithTransferQueue<T> extends AbstractBasicSendQueue<T
 
     protected final boolean flushIfOverBatch() {
 
-        if (index >= batchSize) {
+        if (index >= batchLimit()) {
             return sendLocalQueue();
         }
         checkEveryCount++;
@@ -19,6 +19,7 @@
 package io.advantageous.qbit.queue.impl.sender;
 
 import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.impl.QueueFeatures;
 import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.TransferQueue;
@@ -45,10 +46,18 @@ public class BasicSendQueueWithTryTransfer<T> extends AbstractBasicSendQueue<T>
             final TransferQueue<Object> queue,
             final int checkBusyEvery,
             final Queue<T> owner) {
+        this(name, batchSize, queue, checkBusyEvery, owner, QueueFeatures.NONE);
+    }
 
-        super(queue, owner, batchSize, name + "| TQT SEND QUEUE", LoggerFactory.getLogger(BasicSendQueueWithTryTransfer.class));
-
-
+    public BasicSendQueueWithTryTransfer(
+            final String name,
+            final int batchSize,
+            final TransferQueue<Object> queue,
+            final int checkBusyEvery,
+            final Queue<T> owner,
+            final QueueFeatures features) {
+        super(queue, owner, batchSize, name + "| TQT SEND QUEUE", LoggerFactory.getLogger(BasicSendQueueWithTryTransfer.class),
+                features);
         this.queue = queue;
         this.checkBusyEvery = checkBusyEvery;
     }
@@ -60,7 +69,7 @@ public class BasicSendQueueWithTryTransfer<T> extends AbstractBasicSendQueue<T>
 
     protected final boolean flushIfOverBatch() {
 
-        if (index >= batchSize) {
+        if (index >= batchLimit()) {
             return sendLocalQueue();
         }
 
@@ -0,0 +1,111 @@
+package io.advantageous.qbit.queue.impl.sender;
+
+import io.advantageous.qbit.queue.impl.RingBufferBlockingQueue;
+
+/**
+ * Bounded pool of batch arrays shared by the send queues and the receive queue of one BasicQueue.
+ * <p>
+ * A pooled array has two extra slots at the end. The last one holds the pool that owns it, the one before it is a
+ * spare slot the send queue can stamp a batch with, for example a timing probe.
+ * The items run from index 0 up to the first null or up to the spare slot.
+ * This way the receive queue can tell a pooled batch from a plain <code>Object[]</code> sent by
+ * <code>sendMany</code> or <code>sendBatch</code> and give it back once it has been drained.
+ * <p>
+ * The receive queue nulls out each slot as it reads it, so a released array is already clean when a send
+ * queue acquires it again. If the pool is empty a new array is allocated. If the pool is full the released
+ * array is dropped and left to the GC.
+ */
+public final class BatchArrayPool {
+
+    private final int batchSize;
+    private final RingBufferBlockingQueue<Object[]> freeArrays;
+
+    public BatchArrayPool(final int batchSize, final int poolSize) {
+        this.batchSize = batchSize;
+        this.freeArrays = new RingBufferBlockingQueue<>(poolSize);
+    }
+
+    /**
+     * Returns the pool that owns the array or null if the array was not handed out by a pool.
+     *
+     * @param array batch array
+     * @return owning pool or null
+     */
+    public static BatchArrayPool owner(final Object[] array) {
+        if (array.length == 0) {
+            return null;
+        }
+        final Object last = array[array.length - 1];
+        return last instanceof BatchArrayPool ? (BatchArrayPool) last : null;
+    }
+
+    /**
+     * Puts a stamp in the spare slot of a pooled array.
+     *
+     * @param array pooled batch array
+     * @param stamp stamp, null clears the slot
+     */
+    public static void stamp(final Object[] array, final Object stamp) {
+        array[array.length - 2] = stamp;
+    }
+
+    /**
+     * Takes the stamp out of the spare slot of a pooled array and clears the slot.
+     *
+     * @param array pooled batch array
+     * @return stamp or null
+     */
+    public static Object takeStamp(final Object[] array) {
+        final Object stamp = array[array.length - 2];
+        array[array.length - 2] = null;
+        return stamp;
+    }
+
+    /**
+     * @param array pooled batch array
+     * @return the number of item slots of a pooled array
+     */
+    public static int capacity(final Object[] array) {
+        return array.length - 2;
+    }
+
+    /**
+     * Get a clean array that can hold batchSize items.
+     *
+     * @return batch array
+     */
+    public Object[] acquire() {
+        final Object[] array = freeArrays.poll();
+        if (array != null) {
+            return array;
+        }
+        final Object[] newArray = new Object[batchSize + 2];
+        newArray[batchSize + 1] = this;
+        return newArray;
+    }
+
+    /**
+     * Give a drained array back to the pool.
+     *
+     * @param array batch array whose item and spare slots are all null
+     */
+    public void release(final Object[] array) {
+        freeArrays.offer(array);
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    public int available() {
+        return freeArrays.size();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchArrayPool{" +
+                "batchSize=" + batchSize +
+                ", available=" + freeArrays.size() +
+                '}';
+    }
+}
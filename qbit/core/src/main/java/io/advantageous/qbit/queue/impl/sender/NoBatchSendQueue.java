@@ -3,6 +3,10 @@ package io.advantageous.qbit.queue.impl.sender;
 import io.advantageous.boon.core.Sys;
 import io.advantageous.qbit.queue.Queue;
 import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.queue.impl.ConsumerWakeup;
+import io.advantageous.qbit.queue.impl.QueueFeatures;
+import io.advantageous.qbit.queue.impl.QueueInstrumentation;
+import io.advantageous.qbit.queue.impl.QueueWatermarks;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,13 +27,31 @@ public class NoBatchSendQueue<T> implements SendQueue<T> {
     private final int checkQueueSizeWarnIfOver = Sys.sysProp("QBIT_CHECK_QUEUE_SIZE_WARN_IF_OVER", 10);
     protected int checkEveryStarted = 0;
     protected int index;
+    private final QueueWatermarks watermarks;
+    private final QueueInstrumentation instrumentation;
+    private final ConsumerWakeup consumerWakeup;
+    private int sendsSinceSample;
 
     public NoBatchSendQueue(final BlockingQueue<Object> queue,
                             final Queue<T> owner,
                             final String name) {
+        this(queue, owner, name, QueueFeatures.NONE);
+    }
+
+    /**
+     * @param features only the watermarks, instrumentation and consumer wakeup apply, there is no batch to pool
+     *                 or adapt
+     */
+    public NoBatchSendQueue(final BlockingQueue<Object> queue,
+                            final Queue<T> owner,
+                            final String name,
+                            final QueueFeatures features) {
         this.queue = queue;
         this.owner = owner;
         this.name = name;
+        this.watermarks = features.watermarks();
+        this.instrumentation = features.instrumentation();
+        this.consumerWakeup = features.consumerWakeup();
 
     }
 
@@ -42,7 +64,41 @@ public class NoBatchSendQueue<T> implements SendQueue<T> {
     @Override
     public final boolean send(T item) {
         checkStarted();
-        return queue.offer(item);
+        if (watermarks == null && instrumentation == null) {
+            return handedOff(queue.offer(item));
+        }
+        if (watermarks != null) {
+            watermarks.added(1);
+        }
+        if (queue.offer(sampleDue() ? new Object[]{item, instrumentation.newProbe()} : item)) {
+            if (instrumentation != null) {
+                instrumentation.enqueued(1);
+            }
+            return handedOff(true);
+        }
+        if (watermarks != null) {
+            watermarks.removed(1);
+        }
+        return false;
+    }
+
+    private boolean handedOff(final boolean sent) {
+        if (sent && consumerWakeup != null) {
+            consumerWakeup.handedOff();
+        }
+        return sent;
+    }
+
+    /**
+     * A sampled item is sent as a batch of one that carries the timing probe in its last slot.
+     */
+    private boolean sampleDue() {
+        if (instrumentation == null || instrumentation.sampleEvery() <= 0
+                || ++sendsSinceSample < instrumentation.sampleEvery()) {
+            return false;
+        }
+        sendsSinceSample = 0;
+        return true;
     }
 
 
@@ -122,4 +178,23 @@ public class NoBatchSendQueue<T> implements SendQueue<T> {
     public final void flushSends() {
     }
 
+    @Override
+    public int availableCredits() {
+        return watermarks == null ? Integer.MAX_VALUE : watermarks.availableCredits();
+    }
+
+    @Override
+    public boolean isWritable() {
+        return watermarks == null || !watermarks.isSaturated();
+    }
+
+    @Override
+    public void onWritable(final Runnable runnable) {
+        if (watermarks == null) {
+            runnable.run();
+        } else {
+            watermarks.onWritable(runnable);
+        }
+    }
+
 }
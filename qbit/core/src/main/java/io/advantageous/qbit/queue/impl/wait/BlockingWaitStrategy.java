@@ -0,0 +1,23 @@
+package io.advantageous.qbit.queue.impl.wait;
+
+import io.advantageous.qbit.queue.WaitStrategy;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waits in the queue's own timed poll.
+ */
+public class BlockingWaitStrategy implements WaitStrategy {
+
+    @Override
+    public Object waitForItem(final BlockingQueue<Object> queue, final long waitTime, final TimeUnit timeUnit)
+            throws InterruptedException {
+        return queue.poll(waitTime, timeUnit);
+    }
+
+    @Override
+    public String toString() {
+        return "BlockingWaitStrategy";
+    }
+}
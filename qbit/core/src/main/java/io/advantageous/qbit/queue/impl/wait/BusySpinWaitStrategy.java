@@ -0,0 +1,35 @@
+package io.advantageous.qbit.queue.impl.wait;
+
+import io.advantageous.qbit.queue.WaitStrategy;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls in a tight loop until an item shows up or the wait time is up.
+ */
+public class BusySpinWaitStrategy implements WaitStrategy {
+
+    @Override
+    public Object waitForItem(final BlockingQueue<Object> queue, final long waitTime, final TimeUnit timeUnit)
+            throws InterruptedException {
+
+        final long deadline = System.nanoTime() + timeUnit.toNanos(waitTime);
+        Object item;
+        do {
+            item = queue.poll();
+            if (item != null) {
+                return item;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        } while (System.nanoTime() - deadline < 0);
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "BusySpinWaitStrategy";
+    }
+}
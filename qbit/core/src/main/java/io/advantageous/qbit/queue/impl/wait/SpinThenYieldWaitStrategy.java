@@ -0,0 +1,51 @@
+package io.advantageous.qbit.queue.impl.wait;
+
+import io.advantageous.qbit.queue.WaitStrategy;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spins for a number of polls, then yields the CPU between polls until the wait time is up.
+ */
+public class SpinThenYieldWaitStrategy implements WaitStrategy {
+
+    public static final int DEFAULT_SPINS = 100;
+
+    private final int spins;
+
+    public SpinThenYieldWaitStrategy(final int spins) {
+        this.spins = spins;
+    }
+
+    @Override
+    public Object waitForItem(final BlockingQueue<Object> queue, final long waitTime, final TimeUnit timeUnit)
+            throws InterruptedException {
+
+        final long deadline = System.nanoTime() + timeUnit.toNanos(waitTime);
+        int count = 0;
+        Object item;
+        do {
+            item = queue.poll();
+            if (item != null) {
+                return item;
+            }
+            if (count < spins) {
+                count++;
+            } else {
+                Thread.yield();
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } while (System.nanoTime() - deadline < 0);
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "SpinThenYieldWaitStrategy{" +
+                "spins=" + spins +
+                '}';
+    }
+}
@@ -0,0 +1,80 @@
+package io.advantageous.qbit.queue.impl.wait;
+
+import io.advantageous.qbit.queue.WaitStrategy;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spins, then yields, then parks.
+ * The park time starts at minParkNanos and doubles each time up to maxParkNanos.
+ * It never parks past the end of the wait time.
+ */
+public class SpinYieldParkWaitStrategy implements WaitStrategy {
+
+    private final int spins;
+    private final int yields;
+    private final long minParkNanos;
+    private final long maxParkNanos;
+
+    public SpinYieldParkWaitStrategy(final int spins, final int yields,
+                                     final long minParkNanos, final long maxParkNanos) {
+        if (minParkNanos < 1 || maxParkNanos < minParkNanos) {
+            throw new IllegalArgumentException("minParkNanos must be positive and not more than maxParkNanos");
+        }
+        this.spins = spins;
+        this.yields = yields;
+        this.minParkNanos = minParkNanos;
+        this.maxParkNanos = maxParkNanos;
+    }
+
+    public SpinYieldParkWaitStrategy() {
+        this(100, 10, TimeUnit.MICROSECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    @Override
+    public Object waitForItem(final BlockingQueue<Object> queue, final long waitTime, final TimeUnit timeUnit)
+            throws InterruptedException {
+
+        final long deadline = System.nanoTime() + timeUnit.toNanos(waitTime);
+        int count = 0;
+        long parkNanos = minParkNanos;
+        Object item;
+        while (true) {
+            item = queue.poll();
+            if (item != null) {
+                return item;
+            }
+
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+
+            if (count < spins) {
+                count++;
+            } else if (count < spins + yields) {
+                count++;
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(this, Math.min(parkNanos, remaining));
+                parkNanos = Math.min(parkNanos << 1, maxParkNanos);
+            }
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SpinYieldParkWaitStrategy{" +
+                "spins=" + spins +
+                ", yields=" + yields +
+                ", minParkNanos=" + minParkNanos +
+                ", maxParkNanos=" + maxParkNanos +
+                '}';
+    }
+}
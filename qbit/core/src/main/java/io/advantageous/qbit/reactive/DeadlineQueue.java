@@ -0,0 +1,117 @@
+package io.advantageous.qbit.reactive;
+
+import java.util.Arrays;
+
+/**
+ * Binary min heap of entries ordered by deadline, used by the {@link Reactor} so each process call only
+ * touches the entries that are due. Entries remember their heap position, so removal is O(log n) without a search.
+ * <p>
+ * Not thread safe, only used from the reactor's thread.
+ */
+final class DeadlineQueue<E extends DeadlineQueue.Entry> {
+
+    private Entry[] heap = new Entry[16];
+    private int size;
+
+    /**
+     * Heap entry, the deadline must not change while the entry is queued.
+     */
+    abstract static class Entry {
+        long deadline;
+        int heapIndex = -1;
+
+        boolean isQueued() {
+            return heapIndex != -1;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(final E entry, final long deadline) {
+        if (entry.isQueued()) {
+            remove(entry);
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        entry.deadline = deadline;
+        entry.heapIndex = size;
+        heap[size++] = entry;
+        siftUp(entry.heapIndex);
+    }
+
+    /**
+     * Removes and returns the entry with the earliest deadline if it is before {@code now}.
+     *
+     * @param now current time
+     * @return due entry or null
+     */
+    @SuppressWarnings("unchecked")
+    E pollDue(final long now) {
+        if (size == 0 || heap[0].deadline >= now) {
+            return null;
+        }
+        final E entry = (E) heap[0];
+        remove(entry);
+        return entry;
+    }
+
+    void remove(final E entry) {
+        final int index = entry.heapIndex;
+        if (index == -1) {
+            return;
+        }
+        entry.heapIndex = -1;
+        size--;
+        if (index == size) {
+            heap[size] = null;
+            return;
+        }
+        final Entry last = heap[size];
+        heap[size] = null;
+        heap[index] = last;
+        last.heapIndex = index;
+        siftDown(index);
+        if (last.heapIndex == index) {
+            siftUp(index);
+        }
+    }
+
+    private void siftUp(int index) {
+        final Entry entry = heap[index];
+        while (index > 0) {
+            final int parent = (index - 1) >>> 1;
+            final Entry parentEntry = heap[parent];
+            if (parentEntry.deadline <= entry.deadline) {
+                break;
+            }
+            heap[index] = parentEntry;
+            parentEntry.heapIndex = index;
+            index = parent;
+        }
+        heap[index] = entry;
+        entry.heapIndex = index;
+    }
+
+    private void siftDown(int index) {
+        final Entry entry = heap[index];
+        final int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            final int right = child + 1;
+            if (right < size && heap[right].deadline < heap[child].deadline) {
+                child = right;
+            }
+            if (entry.deadline <= heap[child].deadline) {
+                break;
+            }
+            heap[index] = heap[child];
+            heap[index].heapIndex = index;
+            index = child;
+        }
+        heap[index] = entry;
+        entry.heapIndex = index;
+    }
+}
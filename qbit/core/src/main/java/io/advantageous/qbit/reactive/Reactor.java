@@ -8,21 +8,24 @@ import io.advantageous.qbit.util.Timer;
 import org.slf4j.Logger;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 /**
  * You could use a reactor per service.
  * Reactor ensures that callbacks execute on thread of caller not callee for thread safety.
  * <p>
+ * Timeouts and tasks are kept in deadline heaps, and callbacks built by the reactor signal when they are done,
+ * so process only touches what is due or completed. Callbacks added with {@link #addCallback(AsyncFutureCallback)}
+ * and coordinators can only be polled, so those are still checked on every process.
+ * <p>
  * Right now we don't use QBit queues, but we could. We need a way to flush the queues async.
  * Reactor. We could get a lot perf from refactoring this to use QBit queues instead of BlockingQueue.
  * created by rhightower on 3/22/15.
@@ -33,7 +36,10 @@ public class Reactor {
     /* The queues could benefit from being QBit queues. */
 
     /* Future can come back on another thread so it has to be handled by thread safe queue. */
-    private final BlockingQueue<AsyncFutureCallback<?>> futureQueue = new LinkedTransferQueue<>();
+    private final BlockingQueue<FutureEntry> futureQueue = new LinkedTransferQueue<>();
+
+    /* Callbacks signal completion from whatever thread completed them. */
+    private final BlockingQueue<FutureEntry> completedFutureQueue = new LinkedTransferQueue<>();
 
     /* Future can come back on another thread so it has to be handled by thread safe queue. */
     private final BlockingQueue<AsyncFutureCallback<?>> removeFutureQueue = new LinkedTransferQueue<>();
@@ -48,15 +54,26 @@ public class Reactor {
 
 
     /**
-     * List of futures that we are managing.
+     * Futures that we are managing.
+     */
+    private final Map<AsyncFutureCallback<?>, FutureEntry> futures = new IdentityHashMap<>();
+
+    /**
+     * Futures that do not signal completion and have to be polled.
      */
-    private final Set<AsyncFutureCallback<?>> futureList = new HashSet<>();
+    private final List<FutureEntry> polledFutures = new ArrayList<>();
+
+    private final DeadlineQueue<FutureEntry> futureTimeouts = new DeadlineQueue<>();
 
 
     /**
-     * List of coordinators that we are managing.
+     * Coordinators that we are managing.
      */
-    private final Set<CallbackCoordinator> coordinatorList = new HashSet<>();
+    private final Map<CallbackCoordinator, CoordinatorEntry> coordinators = new IdentityHashMap<>();
+
+    private final List<CoordinatorEntry> coordinatorList = new ArrayList<>();
+
+    private final DeadlineQueue<CoordinatorEntry> coordinatorTimeouts = new DeadlineQueue<>();
 
 
     /**
@@ -75,12 +92,15 @@ public class Reactor {
     private long currentTime;
 
     /**
-     * Keeps list of repeating tasks.
+     * Repeating tasks by next run time.
      */
-    private List<RepeatingTask> repeatingTasks = new ArrayList<>(1);
+    private final DeadlineQueue<RepeatingTask> repeatingTasks = new DeadlineQueue<>();
 
 
-    private List<FireOnceTask> fireOnceAfterTasks = new ArrayList<>(1);
+    /**
+     * One shot tasks by run time.
+     */
+    private final DeadlineQueue<FireOnceTask> fireOnceAfterTasks = new DeadlineQueue<>();
 
 
     /**
@@ -120,7 +140,7 @@ public class Reactor {
      */
     public void addRepeatingTask(final long repeatEvery, final TimeUnit timeUnit, final Runnable task) {
 
-        repeatingTasks.add(new RepeatingTask(task, timeUnit, repeatEvery));
+        addRepeatingTask(new RepeatingTask(task, timeUnit, repeatEvery));
     }
 
 
@@ -133,7 +153,7 @@ public class Reactor {
      */
     public void addOneShotAfterTask(final long fireAfter, final TimeUnit timeUnit, final Runnable task) {
 
-        fireOnceAfterTasks.add(new FireOnceTask(task, timeUnit, fireAfter));
+        addFireOnceTask(new FireOnceTask(task, timeUnit, fireAfter));
     }
 
 
@@ -144,7 +164,7 @@ public class Reactor {
      */
     public void addOneShotTask(final Runnable task) {
 
-        fireOnceAfterTasks.add(new FireOnceTask(task, TimeUnit.MILLISECONDS, 0));
+        addFireOnceTask(new FireOnceTask(task, TimeUnit.MILLISECONDS, 0));
     }
 
     /**
@@ -155,7 +175,15 @@ public class Reactor {
      */
     public void addRepeatingTask(final Duration repeatEvery, final Runnable task) {
 
-        repeatingTasks.add(new RepeatingTask(task, repeatEvery.getTimeUnit(), repeatEvery.getDuration()));
+        addRepeatingTask(new RepeatingTask(task, repeatEvery.getTimeUnit(), repeatEvery.getDuration()));
+    }
+
+    private void addRepeatingTask(final RepeatingTask repeatingTask) {
+        repeatingTasks.add(repeatingTask, repeatingTask.lastTimeInvoked + repeatingTask.repeatEveryMS);
+    }
+
+    private void addFireOnceTask(final FireOnceTask fireOnceTask) {
+        fireOnceAfterTasks.add(fireOnceTask, fireOnceTask.created + fireOnceTask.fireAfterMS);
     }
 
     /**
@@ -183,26 +211,25 @@ public class Reactor {
 
     public void processRepeatingTasks() {
 
-        /* Run repeating tasks if needed. */
-        repeatingTasks.forEach(repeatingTask -> {
-            if (currentTime - repeatingTask.lastTimeInvoked > repeatingTask.repeatEveryMS) {
-                repeatingTask.lastTimeInvoked = currentTime;
-                repeatingTask.task.run();
-            }
-        });
+        /* Run repeating tasks that are due, they go back in the heap before running so a task can not run twice. */
+        RepeatingTask repeatingTask = repeatingTasks.pollDue(currentTime);
+        while (repeatingTask != null) {
+            repeatingTask.lastTimeInvoked = currentTime;
+            addRepeatingTask(repeatingTask);
+            repeatingTask.task.run();
+            repeatingTask = repeatingTasks.pollDue(currentTime);
+        }
     }
 
 
     public void processFireOnceTasks() {
 
-        /* Run repeating tasks if needed. */
-        final List<FireOnceTask> fireOnceTasks = fireOnceAfterTasks.stream()
-                .filter(fireOnceTask -> currentTime - fireOnceTask.created > fireOnceTask.fireAfterMS)
-                .collect(Collectors.toList());
-
-        fireOnceTasks.forEach(fireOnceTask -> fireOnceTask.task.run());
-
-        fireOnceAfterTasks.removeAll(fireOnceTasks);
+        /* Run one shot tasks that are due. Tasks they add are created now, so they are not due yet. */
+        FireOnceTask fireOnceTask = fireOnceAfterTasks.pollDue(currentTime);
+        while (fireOnceTask != null) {
+            fireOnceTask.task.run();
+            fireOnceTask = fireOnceAfterTasks.pollDue(currentTime);
+        }
 
     }
 
@@ -211,26 +238,32 @@ public class Reactor {
 
         CallbackCoordinator callable = coordinatorQueue.poll();
         while (callable != null) {
-            coordinatorList.add(callable);
+            manageCoordinator(callable);
             callable = coordinatorQueue.poll();
         }
 
         callable = removeCoordinatorQueue.poll();
         while (callable != null) {
-            coordinatorList.remove(callable);
-            callable = coordinatorQueue.poll();
+            final CoordinatorEntry coordinatorEntry = coordinators.get(callable);
+            if (coordinatorEntry != null) {
+                unmanageCoordinator(coordinatorEntry);
+            }
+            callable = removeCoordinatorQueue.poll();
         }
 
-        AsyncFutureCallback<?> futureCallback = futureQueue.poll();
-        while (futureCallback != null) {
-            futureList.add(futureCallback);
-            futureCallback = futureQueue.poll();
+        FutureEntry futureEntry = futureQueue.poll();
+        while (futureEntry != null) {
+            manageFuture(futureEntry);
+            futureEntry = futureQueue.poll();
         }
 
-        futureCallback = removeFutureQueue.poll();
+        AsyncFutureCallback<?> futureCallback = removeFutureQueue.poll();
         while (futureCallback != null) {
-            futureList.remove(futureCallback);
-            futureCallback = futureQueue.poll();
+            futureEntry = futures.get(futureCallback);
+            if (futureEntry != null) {
+                unmanageFuture(futureEntry);
+            }
+            futureCallback = removeFutureQueue.poll();
         }
 
 
@@ -316,14 +349,16 @@ public class Reactor {
 
         final AtomicReference<AsyncFutureCallback<T>> ref = new AtomicReference<>();
 
+        final FutureEntry futureEntry = new FutureEntry(true);
         final AsyncFutureCallbackImpl<T> asyncFutureCallback =
                 AsyncFutureCallbackImpl.callback(callback, currentTime,
                         timeUnit.toMillis(timeoutDuration),
                         createOnFinished(ref)
-                        , onTimeout, onError);
+                        , onTimeout, onError, () -> completedFutureQueue.offer(futureEntry));
 
         ref.set(asyncFutureCallback);
-        addCallback(asyncFutureCallback);
+        futureEntry.callback = asyncFutureCallback;
+        futureQueue.add(futureEntry);
         return asyncFutureCallback;
 
     }
@@ -348,14 +383,16 @@ public class Reactor {
 
         final AtomicReference<AsyncFutureCallback<T>> ref = new AtomicReference<>();
 
+        final FutureEntry futureEntry = new FutureEntry(true);
         final AsyncFutureBlockOnGetCallbackImpl<T> asyncFutureCallback =
                 AsyncFutureBlockOnGetCallbackImpl.callback(callback, currentTime,
                         timeUnit.toMillis(timeoutDuration),
                         createOnFinished(ref)
-                        , onTimeout, onError);
+                        , onTimeout, onError, () -> completedFutureQueue.offer(futureEntry));
 
         ref.set(asyncFutureCallback);
-        addCallback(asyncFutureCallback);
+        futureEntry.callback = asyncFutureCallback;
+        futureQueue.add(futureEntry);
         return asyncFutureCallback;
 
     }
@@ -367,7 +404,9 @@ public class Reactor {
      * @param <T>                 T
      */
     public <T> void addCallback(final AsyncFutureCallback<T> asyncFutureCallback) {
-        futureQueue.add(asyncFutureCallback);
+        final FutureEntry futureEntry = new FutureEntry(false);
+        futureEntry.callback = asyncFutureCallback;
+        futureQueue.add(futureEntry);
     }
 
     private <T> Runnable createOnFinished(final AtomicReference<AsyncFutureCallback<T>> ref) {
@@ -542,48 +581,151 @@ public class Reactor {
         return wrapper;
     }
 
+    private void manageFuture(final FutureEntry futureEntry) {
+        if (futureEntry.state != FutureEntry.NEW) {
+            return;
+        }
+        if (futures.containsKey(futureEntry.callback)) {
+            futureEntry.state = FutureEntry.RETIRED;
+            return;
+        }
+        futureEntry.state = FutureEntry.MANAGED;
+        futures.put(futureEntry.callback, futureEntry);
+        if (futureEntry.signalsCompletion) {
+            scheduleTimeout(futureEntry);
+        } else {
+            futureEntry.listIndex = polledFutures.size();
+            polledFutures.add(futureEntry);
+        }
+    }
+
+    private void unmanageFuture(final FutureEntry futureEntry) {
+        if (futureEntry.state != FutureEntry.MANAGED) {
+            return;
+        }
+        futureEntry.state = FutureEntry.RETIRED;
+        futures.remove(futureEntry.callback);
+        futureTimeouts.remove(futureEntry);
+        if (!futureEntry.signalsCompletion) {
+            removeFromList(polledFutures, futureEntry.listIndex);
+        }
+    }
+
+    private void scheduleTimeout(final FutureEntry futureEntry) {
+        final long deadline = deadline(futureEntry.callback.startTime(), futureEntry.callback.timeOutDuration());
+        if (deadline != -1) {
+            futureTimeouts.add(futureEntry, Math.max(deadline, currentTime));
+        }
+    }
+
+    private static long deadline(final long startTime, final long timeOutDuration) {
+        if (startTime == -1 || timeOutDuration == -1) {
+            return -1;
+        }
+        final long deadline = startTime + timeOutDuration;
+        return deadline < startTime ? Long.MAX_VALUE : deadline;
+    }
+
     /**
-     * Monitors timeouts. If the callback timed-out trigger it, and then remove callback from the list.
+     * Swap remove from a managed list, the entry moved into the hole gets its new index.
+     */
+    private static <E extends ListEntry> void removeFromList(final List<E> list, final int index) {
+        final E last = list.remove(list.size() - 1);
+        if (index < list.size()) {
+            list.set(index, last);
+            last.listIndex = index;
+        }
+    }
+
+    /**
+     * Runs callbacks that signalled completion and times out the ones that are due.
+     * Callbacks that can not signal completion are polled.
      */
     private void monitorCallBacks() {
 
-        if (futureList.size() > 0) {
+        FutureEntry futureEntry = completedFutureQueue.poll();
+        while (futureEntry != null) {
+            /* Callbacks run here can create and complete new callbacks before those were drained. */
+            manageFuture(futureEntry);
+            if (futureEntry.state == FutureEntry.MANAGED) {
+                unmanageFuture(futureEntry);
+                futureEntry.callback.run();
+            }
+            futureEntry = completedFutureQueue.poll();
+        }
 
-            final List<AsyncFutureCallback<?>> removeList = new ArrayList<>(futureList.size());
-            long now = currentTime;
-            for (AsyncFutureCallback<?> callback : futureList) {
-                if (callback.isDone()) {
-                    callback.run();
-                    removeList.add(callback);
-                } else {
-                    if (callback.checkTimeOut(now)) {
-                        removeList.add(callback);
-                    }
-                }
+        final long now = currentTime;
+        for (int index = polledFutures.size() - 1; index >= 0; index--) {
+            futureEntry = polledFutures.get(index);
+            final AsyncFutureCallback<?> callback = futureEntry.callback;
+            if (callback.isDone()) {
+                callback.run();
+                unmanageFuture(futureEntry);
+            } else if (callback.checkTimeOut(now)) {
+                unmanageFuture(futureEntry);
+            }
+        }
+
+        futureEntry = futureTimeouts.pollDue(now);
+        while (futureEntry != null) {
+            if (futureEntry.callback.checkTimeOut(now)) {
+                unmanageFuture(futureEntry);
+            } else {
+                scheduleTimeout(futureEntry);
             }
-            futureList.removeAll(removeList);
+            futureEntry = futureTimeouts.pollDue(now);
+        }
+    }
+
+    private void manageCoordinator(final CallbackCoordinator coordinator) {
+        if (coordinators.containsKey(coordinator)) {
+            return;
+        }
+        final CoordinatorEntry coordinatorEntry = new CoordinatorEntry(coordinator);
+        coordinators.put(coordinator, coordinatorEntry);
+        coordinatorEntry.listIndex = coordinatorList.size();
+        coordinatorList.add(coordinatorEntry);
+        scheduleTimeout(coordinatorEntry);
+    }
+
+    private void unmanageCoordinator(final CoordinatorEntry coordinatorEntry) {
+        if (coordinators.remove(coordinatorEntry.coordinator) == null) {
+            return;
+        }
+        coordinatorTimeouts.remove(coordinatorEntry);
+        removeFromList(coordinatorList, coordinatorEntry.listIndex);
+    }
+
+    private void scheduleTimeout(final CoordinatorEntry coordinatorEntry) {
+        final long deadline = deadline(coordinatorEntry.coordinator.startTime(),
+                coordinatorEntry.coordinator.timeOutDuration());
+        if (deadline != -1) {
+            coordinatorTimeouts.add(coordinatorEntry, Math.max(deadline, currentTime));
         }
     }
 
     /**
      * Monitors Callback Coordinators.
-     * Trigger timeouts if needed and remove coordinators from list that timed out.
+     * Completion is polled since a coordinator decides that itself, timeouts only touch coordinators that are due.
      */
     private void monitorCallbackCoordinators() {
 
+        for (int index = coordinatorList.size() - 1; index >= 0; index--) {
+            final CoordinatorEntry coordinatorEntry = coordinatorList.get(index);
+            if (coordinatorEntry.coordinator.checkComplete()) {
+                unmanageCoordinator(coordinatorEntry);
+                coordinatorEntry.coordinator.finished();
+            }
+        }
 
-        if (coordinatorList.size() > 0) {
-            final List<CallbackCoordinator> removeList = new ArrayList<>(coordinatorList.size());
-
-            for (CallbackCoordinator callable : coordinatorList) {
-                if (callable.checkComplete()) {
-                    callable.finished();
-                    removeList.add(callable);
-                } else if (callable.timedOut(currentTime)) {
-                    removeList.add(callable);
-                }
+        CoordinatorEntry coordinatorEntry = coordinatorTimeouts.pollDue(currentTime);
+        while (coordinatorEntry != null) {
+            if (coordinatorEntry.coordinator.timedOut(currentTime)) {
+                unmanageCoordinator(coordinatorEntry);
+            } else {
+                scheduleTimeout(coordinatorEntry);
             }
-            coordinatorList.removeAll(removeList);
+            coordinatorEntry = coordinatorTimeouts.pollDue(currentTime);
         }
 
     }
@@ -741,10 +883,48 @@ public class Reactor {
                 .build();
     }
 
+    /**
+     * Entry that also sits in an array list, so it can be swap removed without a search.
+     */
+    abstract static class ListEntry extends DeadlineQueue.Entry {
+        int listIndex = -1;
+    }
+
+    /**
+     * A managed callback.
+     */
+    static final class FutureEntry extends ListEntry {
+        static final int NEW = 0;
+        static final int MANAGED = 1;
+        static final int RETIRED = 2;
+
+        /**
+         * True for callbacks built by this reactor, they signal completion instead of being polled.
+         */
+        private final boolean signalsCompletion;
+        private AsyncFutureCallback<?> callback;
+        private int state = NEW;
+
+        FutureEntry(final boolean signalsCompletion) {
+            this.signalsCompletion = signalsCompletion;
+        }
+    }
+
+    /**
+     * A managed coordinator.
+     */
+    static final class CoordinatorEntry extends ListEntry {
+        private final CallbackCoordinator coordinator;
+
+        CoordinatorEntry(final CallbackCoordinator coordinator) {
+            this.coordinator = coordinator;
+        }
+    }
+
     /**
      * A repeating task.
      */
-    class RepeatingTask {
+    class RepeatingTask extends DeadlineQueue.Entry {
         private final Runnable task;
         private final long repeatEveryMS;
         private long lastTimeInvoked;
@@ -760,7 +940,7 @@ public class Reactor {
     /**
      * Fire once task.
      */
-    class FireOnceTask {
+    class FireOnceTask extends DeadlineQueue.Entry {
         private final Runnable task;
         private final long fireAfterMS;
         private final long created;
@@ -20,6 +20,10 @@ public class AsyncFutureBlockOnGetCallbackImpl<T> implements AsyncFutureCallback
     private final long startTime;
     private final long maxExecutionTime;
     private final Runnable onFinished;
+    /**
+     * Signalled once when the callback is done, so the reactor does not have to poll isDone.
+     */
+    private final Runnable onCompleted;
     private final Consumer<Throwable> onError;
     private final AtomicReference<T> value = new AtomicReference<>();
     private final AtomicReference<Throwable> error = new AtomicReference<>();
@@ -34,6 +38,16 @@ public class AsyncFutureBlockOnGetCallbackImpl<T> implements AsyncFutureCallback
                                              final Runnable onFinished,
                                              final Runnable onTimeout,
                                              final Consumer<Throwable> onError) {
+        this(callback, startTime, maxExecutionDuration, onFinished, onTimeout, onError, null);
+    }
+
+    public AsyncFutureBlockOnGetCallbackImpl(final Callback<T> callback,
+                                             final long startTime,
+                                             final long maxExecutionDuration,
+                                             final Runnable onFinished,
+                                             final Runnable onTimeout,
+                                             final Consumer<Throwable> onError,
+                                             final Runnable onCompleted) {
         this.callback = callback;
         this.startTime = startTime;
         this.maxExecutionTime = maxExecutionDuration;
@@ -42,6 +56,7 @@ public class AsyncFutureBlockOnGetCallbackImpl<T> implements AsyncFutureCallback
         } : onFinished;
 
         this.onTimeout = onTimeout;
+        this.onCompleted = onCompleted;
 
     }
 
@@ -54,6 +69,17 @@ public class AsyncFutureBlockOnGetCallbackImpl<T> implements AsyncFutureCallback
         return new AsyncFutureBlockOnGetCallbackImpl<>(callback, startTime, maxExecutionTime, onFinished, onTimeout, onError);
     }
 
+    public static <T> AsyncFutureBlockOnGetCallbackImpl<T> callback(final Callback<T> callback,
+                                                                    final long startTime,
+                                                                    final long maxExecutionTime,
+                                                                    final Runnable onFinished,
+                                                                    final Runnable onTimeout,
+                                                                    final Consumer<Throwable> onError,
+                                                                    final Runnable onCompleted) {
+        return new AsyncFutureBlockOnGetCallbackImpl<>(callback, startTime, maxExecutionTime, onFinished, onTimeout, onError,
+                onCompleted);
+    }
+
     @Override
     public void finished() {
         onFinished.run();
@@ -90,7 +116,7 @@ public class AsyncFutureBlockOnGetCallbackImpl<T> implements AsyncFutureCallback
     @Override
     public void accept(final T t) {
         value.set(t);
-        done.set(true);
+        completed();
         latch.countDown();
     }
 
@@ -98,7 +124,7 @@ public class AsyncFutureBlockOnGetCallbackImpl<T> implements AsyncFutureCallback
     public void onError(final Throwable error) {
 
         this.error.set(error);
-        done.set(true);
+        completed();
         latch.countDown();
 
     }
@@ -137,11 +163,17 @@ public class AsyncFutureBlockOnGetCallbackImpl<T> implements AsyncFutureCallback
     @Override
     public boolean cancel(boolean mayInterruptIfRunning) {
         cancelled.set(true);
-        done.set(true);
+        completed();
         latch.countDown();
         return true;
     }
 
+    private void completed() {
+        if (!done.getAndSet(true) && onCompleted != null) {
+            onCompleted.run();
+        }
+    }
+
     @Override
     public boolean isCancelled() {
         return cancelled.get();
@@ -23,6 +23,10 @@ public class AsyncFutureCallbackImpl<T> implements AsyncFutureCallback<T> {
     private final long startTime;
     private final long maxExecutionTime;
     private final Runnable onFinished;
+    /**
+     * Signalled once when the callback is done, so the reactor does not have to poll isDone.
+     */
+    private final Runnable onCompleted;
     private final Consumer<Throwable> onError;
     private final AtomicReference<T> value = new AtomicReference<>();
     private final AtomicReference<Throwable> error = new AtomicReference<>();
@@ -36,6 +40,16 @@ public class AsyncFutureCallbackImpl<T> implements AsyncFutureCallback<T> {
                                    final Runnable onFinished,
                                    final Runnable onTimeout,
                                    final Consumer<Throwable> onError) {
+        this(callback, startTime, maxExecutionDuration, onFinished, onTimeout, onError, null);
+    }
+
+    public AsyncFutureCallbackImpl(final Callback<T> callback,
+                                   final long startTime,
+                                   final long maxExecutionDuration,
+                                   final Runnable onFinished,
+                                   final Runnable onTimeout,
+                                   final Consumer<Throwable> onError,
+                                   final Runnable onCompleted) {
         this.callback = callback;
         this.startTime = startTime;
         this.maxExecutionTime = maxExecutionDuration;
@@ -44,6 +58,7 @@ public class AsyncFutureCallbackImpl<T> implements AsyncFutureCallback<T> {
         } : onFinished;
 
         this.onTimeout = onTimeout;
+        this.onCompleted = onCompleted;
 
     }
 
@@ -56,6 +71,17 @@ public class AsyncFutureCallbackImpl<T> implements AsyncFutureCallback<T> {
         return new AsyncFutureCallbackImpl<>(callback, startTime, maxExecutionTime, onFinished, onTimeout, onError);
     }
 
+    public static <T> AsyncFutureCallbackImpl<T> callback(final Callback<T> callback,
+                                                          final long startTime,
+                                                          final long maxExecutionTime,
+                                                          final Runnable onFinished,
+                                                          final Runnable onTimeout,
+                                                          final Consumer<Throwable> onError,
+                                                          final Runnable onCompleted) {
+        return new AsyncFutureCallbackImpl<>(callback, startTime, maxExecutionTime, onFinished, onTimeout, onError,
+                onCompleted);
+    }
+
     @Override
     public void finished() {
         onFinished.run();
@@ -92,14 +118,14 @@ public class AsyncFutureCallbackImpl<T> implements AsyncFutureCallback<T> {
     @Override
     public void accept(final T t) {
         value.set(t);
-        done.set(true);
+        completed();
     }
 
     @Override
     public void onError(final Throwable error) {
 
         this.error.set(error);
-        done.set(true);
+        completed();
 
     }
 
@@ -136,10 +162,16 @@ public class AsyncFutureCallbackImpl<T> implements AsyncFutureCallback<T> {
     @Override
     public boolean cancel(boolean mayInterruptIfRunning) {
         cancelled.set(true);
-        done.set(true);
+        completed();
         return true;
     }
 
+    private void completed() {
+        if (!done.getAndSet(true) && onCompleted != null) {
+            onCompleted.run();
+        }
+    }
+
     @Override
     public boolean isCancelled() {
         return cancelled.get();
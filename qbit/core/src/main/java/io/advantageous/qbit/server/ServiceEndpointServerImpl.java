@@ -168,6 +168,7 @@ public class ServiceEndpointServerImpl implements ServiceEndpointServer {
         httpServer.setHttpRequestConsumer(httpRequestServerHandler::handleRestCall);
         httpServer.setWebSocketMessageConsumer(webSocketHandler::handleWebSocketCall);
         httpServer.setWebSocketCloseConsumer(webSocketHandler::handleWebSocketClose);
+        httpServer.setBackPressure(serviceBundle);
 
         if (endpoint != null && endpoint.getTimeToLive() > 0) {
             handleServiceDiscoveryCheckIn();
@@ -19,6 +19,7 @@
 package io.advantageous.qbit.server;
 
 import io.advantageous.boon.core.Lists;
+import io.advantageous.boon.core.Sys;
 import io.advantageous.qbit.GlobalConstants;
 import io.advantageous.qbit.QBit;
 import io.advantageous.qbit.http.server.websocket.WebSocketMessage;
@@ -28,6 +29,7 @@ import io.advantageous.qbit.message.Request;
 import io.advantageous.qbit.message.Response;
 import io.advantageous.qbit.message.impl.MethodCallImpl;
 import io.advantageous.qbit.message.impl.ResponseImpl;
+import io.advantageous.qbit.queue.BackPressure;
 import io.advantageous.qbit.queue.SendQueue;
 import io.advantageous.qbit.service.ServiceBundle;
 import io.advantageous.qbit.spi.ProtocolEncoder;
@@ -68,9 +70,11 @@ public class WebSocketServiceServerHandler {
     private final Logger logger = LoggerFactory.getLogger(WebSocketServiceServerHandler.class);
     private final boolean debug = GlobalConstants.DEBUG || logger.isDebugEnabled();
     private final SendQueue<MethodCall<Object>> methodCallSendQueue;
+    private final BackPressure backPressure;
     private final Map<String, WebSocketDelegate> webSocketDelegateMap = new ConcurrentHashMap<>(100);
     private final ExecutorService protocolParserThreadPool;
     private final ExecutorService protocolEncoderThreadPool;
+    private final int maxHeldMessages;
     protected volatile long flushResponseLastTimestamp = 0;
 
 
@@ -80,10 +84,27 @@ public class WebSocketServiceServerHandler {
             final int parseWorkersCount,
             final int encodeWorkersCount,
             final long flushResponseInterval) {
+        this(protocolBatchSize, serviceBundle, parseWorkersCount, encodeWorkersCount, flushResponseInterval,
+                Sys.sysProp("QBIT_WEBSOCKET_MAX_HELD_MESSAGES", 1_000));
+    }
+
+    /**
+     * @param maxHeldMessages messages held per connection while the service bundle is saturated, past that they
+     *                        are rejected
+     */
+    public WebSocketServiceServerHandler(
+            final int protocolBatchSize,
+            final ServiceBundle serviceBundle,
+            final int parseWorkersCount,
+            final int encodeWorkersCount,
+            final long flushResponseInterval,
+            final int maxHeldMessages) {
         this.protocolBatchSize = protocolBatchSize;
         this.flushResponseInterval = flushResponseInterval;
+        this.maxHeldMessages = maxHeldMessages;
 
         this.methodCallSendQueue = serviceBundle.methodSendQueue();
+        this.backPressure = serviceBundle;
 
         final AtomicInteger threadId = new AtomicInteger();
         protocolParserThreadPool = Executors.newFixedThreadPool(parseWorkersCount, r -> {
@@ -130,7 +151,7 @@ public class WebSocketServiceServerHandler {
         }
 
 
-        protocolParserThreadPool.execute(() -> {
+        final Runnable parseAndSend = () -> {
 
             try {
                 final List<MethodCall<Object>> methodCallListToBeParsedFromBody =
@@ -144,8 +165,46 @@ public class WebSocketServiceServerHandler {
                 logger.error("", ex);
             }
 
+        };
+
+        if (backPressure.isSaturated()) {
+            holdUntilWritable(webSocketDelegate, webSocketMessage, parseAndSend);
+        } else {
+            protocolParserThreadPool.execute(parseAndSend);
+        }
+
+    }
+
+    /**
+     * Holds the message until the service queues drain instead of piling more onto them.
+     * The transport pauses the socket while the bundle is saturated, so only what was already in flight is held,
+     * and past maxHeldMessages per connection the message is rejected.
+     */
+    private void holdUntilWritable(final WebSocketDelegate webSocketDelegate,
+                                   final WebSocketMessage webSocketMessage,
+                                   final Runnable parseAndSend) {
+        if (webSocketDelegate.heldMessages.incrementAndGet() > maxHeldMessages) {
+            webSocketDelegate.heldMessages.decrementAndGet();
+            logger.warn("WebSocket message rejected, {} messages already held for {}", maxHeldMessages,
+                    webSocketMessage.getRemoteAddress());
+            sendSystemError(webSocketMessage, "SERVICE SATURATED");
+            return;
+        }
+        if (debug) logger.debug("WebSocket message held, service bundle saturated {}", webSocketMessage.getRemoteAddress());
+        backPressure.onWritable(() -> {
+            webSocketDelegate.heldMessages.decrementAndGet();
+            /* Nobody is left to answer if the socket closed while the message was held. */
+            if (webSocketDelegateMap.get(webSocketMessage.getRemoteAddress()) == webSocketDelegate) {
+                protocolParserThreadPool.execute(parseAndSend);
+            }
         });
+    }
 
+    private void sendSystemError(final WebSocketMessage webSocketMessage, final String error) {
+        final Response<Object> response = ResponseImpl.response(-1, Timer.timer().now(), "SYSTEM", "ERROR",
+                error, webSocketMessage, true);
+        final WebSocketSender sender = webSocketMessage.getSender();
+        sender.sendText(encoderRef.get().encodeResponses("SYSTEM", Lists.list(response)));
     }
 
     public void handleResponseFromServiceBundleToWebSocketSender(
@@ -187,13 +246,7 @@ public class WebSocketServiceServerHandler {
         if (methodCalls == null || methodCalls.size() == 0) {
 
             if (originatingRequest instanceof WebSocketMessage) {
-                WebSocketMessage webSocketMessage = ((WebSocketMessage) originatingRequest);
-
-                final Response<Object> response = ResponseImpl.response(-1, Timer.timer().now(), "SYSTEM", "ERROR",
-                        "CAN'T HANDLE CALL", originatingRequest, true);
-                final WebSocketSender sender = webSocketMessage.getSender();
-                sender.sendText(encoderRef.get().encodeResponses("SYSTEM", Lists.list(response)));
-
+                sendSystemError((WebSocketMessage) originatingRequest, "CAN'T HANDLE CALL");
             }
 
             return Collections.emptyList();
@@ -249,6 +302,9 @@ public class WebSocketServiceServerHandler {
 
         volatile long lastSend;
 
+        /* Messages waiting for the service bundle to drain. */
+        final AtomicInteger heldMessages = new AtomicInteger();
+
         private WebSocketDelegate(int requestBatchSize, WebSocketMessage serverWebSocket) {
             this.requestBatchSize = requestBatchSize;
             outputMessages = new ArrayBlockingQueue<>(requestBatchSize);
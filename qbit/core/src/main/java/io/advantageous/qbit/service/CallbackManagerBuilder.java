@@ -3,6 +3,7 @@ package io.advantageous.qbit.service;
 import io.advantageous.qbit.config.PropertyResolver;
 import io.advantageous.qbit.service.impl.CallbackManager;
 import io.advantageous.qbit.service.impl.CallbackManagerWithTimeout;
+import io.advantageous.qbit.service.impl.CallbackManagerWithTimingWheel;
 import io.advantageous.qbit.util.Timer;
 
 import java.util.Properties;
@@ -15,6 +16,8 @@ public class CallbackManagerBuilder {
     private boolean handleTimeouts = false;
     private long timeOutMS = 30_000;
     private long checkInterval = 5_000;
+    private boolean timingWheel = false;
+    private long wheelTickMS = 100;
     private Timer timer;
 
 
@@ -22,6 +25,8 @@ public class CallbackManagerBuilder {
         handleTimeouts = propertyResolver.getBooleanProperty("handleTimeouts", handleTimeouts);
         timeOutMS = propertyResolver.getLongProperty("timeOutMS", timeOutMS);
         checkInterval = propertyResolver.getLongProperty("checkInterval", checkInterval);
+        timingWheel = propertyResolver.getBooleanProperty("timingWheel", timingWheel);
+        wheelTickMS = propertyResolver.getLongProperty("wheelTickMS", wheelTickMS);
     }
 
     public CallbackManagerBuilder() {
@@ -72,6 +77,37 @@ public class CallbackManagerBuilder {
         return this;
     }
 
+    public boolean isTimingWheel() {
+        return timingWheel;
+    }
+
+    /**
+     * Keep outstanding callbacks in a primitive keyed table with a hashed timing wheel for timeouts instead of a
+     * map of handler keys that is copied and scanned every check interval. Worth it with many calls in flight.
+     *
+     * @param timingWheel true to build a {@link CallbackManagerWithTimingWheel}
+     * @return this
+     */
+    public CallbackManagerBuilder setTimingWheel(boolean timingWheel) {
+        this.timingWheel = timingWheel;
+        return this;
+    }
+
+    public long getWheelTickMS() {
+        return wheelTickMS;
+    }
+
+    /**
+     * Resolution of the timing wheel, timeouts fire up to one tick late.
+     *
+     * @param wheelTickMS tick duration in milliseconds
+     * @return this
+     */
+    public CallbackManagerBuilder setWheelTickMS(long wheelTickMS) {
+        this.wheelTickMS = wheelTickMS;
+        return this;
+    }
+
     public Timer getTimer() {
         if (timer == null) {
             timer = Timer.timer();
@@ -86,6 +122,10 @@ public class CallbackManagerBuilder {
 
 
     public CallbackManager build() {
+        if (isTimingWheel()) {
+            return new CallbackManagerWithTimingWheel(getTimer(), getName(), isHandleTimeouts(), getTimeOutMS(),
+                    getCheckInterval(), getWheelTickMS());
+        }
         return new CallbackManagerWithTimeout(getTimer(), getName(), isHandleTimeouts(), getTimeOutMS(), getCheckInterval());
     }
 }
@@ -33,6 +33,10 @@ public class Protocol {
     public static final String OBJECT_NAME_KEY = "objectName";
     public static final String ADDRESS_KEY = "addressOfService";
     public static final String RETURN_ADDRESS_KEY = "addressOfReturn";
+    /**
+     * Header with the milliseconds a caller still waits for the answer to a call.
+     */
+    public static final String TIMEOUT_HEADER = "X-QBit-Timeout-MS";
     public static final int PROTOCOL_MARKER = 0x1c;
     public static final int PROTOCOL_MESSAGE_SEPARATOR = 0x1f;
     public static final int PROTOCOL_SEPARATOR = 0x1d;
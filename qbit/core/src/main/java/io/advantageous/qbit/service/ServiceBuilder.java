@@ -88,6 +88,7 @@ public class ServiceBuilder {
     private EventManager eventManager;
     private BeforeMethodSent beforeMethodSent;
     private boolean joinEventManager = true;
+    private boolean pooledMessages;
 
 
     public static ServiceBuilder serviceBuilder() {
@@ -474,6 +475,11 @@ public class ServiceBuilder {
                     statsConfig.sampleEvery, serviceQueueSizer));
         }
 
+        final ServiceResultCache resultCache = statsConfig == null
+                ? ServiceResultCache.resultCache(this.getServiceObject(), getTimer())
+                : ServiceResultCache.resultCache(this.getServiceObject(), getTimer(), statsConfig.serviceName,
+                statsConfig.statsCollector, statsConfig.flushTimeSeconds);
+
         ServiceQueue serviceQueue = new ServiceQueueImpl(this.getRootAddress(),
                 this.getServiceAddress(),
                 this.getServiceObject(),
@@ -492,7 +498,9 @@ public class ServiceBuilder {
                 getCallbackManager(),
                 getBeforeMethodSent(),
                 getEventManager(),
-                isJoinEventManager()
+                isJoinEventManager(),
+                isPooledMessages(),
+                resultCache
         );
 
         if (serviceQueueSizer != null) {
@@ -565,6 +573,22 @@ public class ServiceBuilder {
         return this;
     }
 
+    public boolean isPooledMessages() {
+        return pooledMessages;
+    }
+
+    /**
+     * Local proxies of the service send recycled method calls and the service answers them with recycled responses.
+     * Callbacks must not hold on to the messages. Set QBIT_POOL_DEBUG to detect use after release.
+     *
+     * @param pooledMessages true to recycle in JVM messages
+     * @return this, fluent
+     */
+    public ServiceBuilder setPooledMessages(boolean pooledMessages) {
+        this.pooledMessages = pooledMessages;
+        return this;
+    }
+
     private static class StatsConfig {
         final String serviceName;
         final StatsCollector statsCollector;
@@ -20,6 +20,7 @@ package io.advantageous.qbit.service;
 
 import io.advantageous.qbit.message.MethodCall;
 import io.advantageous.qbit.message.Response;
+import io.advantageous.qbit.queue.BackPressure;
 import io.advantageous.qbit.queue.Queue;
 import io.advantageous.qbit.queue.QueueCallBackHandler;
 import io.advantageous.qbit.queue.ReceiveQueueListener;
@@ -41,7 +42,7 @@ import java.util.function.Supplier;
  *
  * @author rhightower
  */
-public interface ServiceBundle extends EndPoint, Startable {
+public interface ServiceBundle extends EndPoint, Startable, BackPressure {
 
     String address();
 
@@ -224,6 +225,26 @@ public interface ServiceBundle extends EndPoint, Startable {
      */
     <T> T createLocalProxy(Class<T> serviceInterface, String serviceName);
 
+    /**
+     * True if the bundle's call queue or any of its service request queues is past its high watermark.
+     *
+     * @return saturated
+     */
+    @Override
+    default boolean isSaturated() {
+        return false;
+    }
+
+    /**
+     * Runs the runnable once none of the bundle's queues are saturated.
+     *
+     * @param runnable called once writable
+     */
+    @Override
+    default void onWritable(final Runnable runnable) {
+        runnable.run();
+    }
+
     /**
      * Used to create a proxy that only sends and has no returns
      *
@@ -236,4 +257,26 @@ public interface ServiceBundle extends EndPoint, Startable {
         return createLocalProxy(serviceInterface, myService);
     }
 
+    /**
+     * Resolves a service name or address to the compact id carried by {@link MethodCall#serviceId()}.
+     * Ids are only meaningful to the bundle that handed them out.
+     *
+     * @param serviceAddress service name or address
+     * @return service id, or -1 if calls have to be addressed by name
+     */
+    default int serviceId(String serviceAddress) {
+        return -1;
+    }
+
+    /**
+     * Resolves a method of a service in this bundle to the id carried by {@link MethodCall#methodId()}.
+     *
+     * @param serviceId  id from {@link #serviceId(String)}
+     * @param methodName method name
+     * @return method id, or -1 if the method has to be addressed by name
+     */
+    default int methodId(int serviceId, String methodName) {
+        return -1;
+    }
+
 }
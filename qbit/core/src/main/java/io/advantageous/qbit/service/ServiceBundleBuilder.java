@@ -84,9 +84,14 @@ public class ServiceBundleBuilder {
      */
     private Transformer<Request, Object> argTransformer = ServiceConstants.NO_OP_ARG_TRANSFORM;
     private Timer timer;
+    /**
+     * Callers enqueue on the service queues from their own thread, skipping the bundle's call queue.
+     */
+    private boolean directRouting;
 
     public ServiceBundleBuilder(PropertyResolver propertyResolver) {
         this.invokeDynamic = propertyResolver.getBooleanProperty("invokeDynamic", true);
+        this.directRouting = propertyResolver.getBooleanProperty("directRouting", false);
         this.statsFlushRateSeconds = propertyResolver.getIntegerProperty("statsFlushRateSeconds", 5);
         this.checkTimingEveryXCalls = propertyResolver.getIntegerProperty("checkTimingEveryXCalls", 10000);
 
@@ -303,6 +308,15 @@ public class ServiceBundleBuilder {
     }
 
 
+    public boolean isDirectRouting() {
+        return directRouting;
+    }
+
+    public ServiceBundleBuilder setDirectRouting(boolean directRouting) {
+        this.directRouting = directRouting;
+        return this;
+    }
+
     public ServiceBundle build() {
 
 
@@ -326,7 +340,8 @@ public class ServiceBundleBuilder {
                 getEventManager(),
                 getBeforeMethodSent(),
                 getBeforeMethodCallOnServiceQueue(),
-                getAfterMethodCallOnServiceQueue());
+                getAfterMethodCallOnServiceQueue(),
+                isDirectRouting());
 
 
         if (serviceBundle != null && qBitSystemManager != null) {
@@ -70,4 +70,21 @@ public interface ServiceMethodHandler extends ReceiveQueueListener<MethodCall<Ob
     default boolean couldHaveCallback(final String name) {
         return false;
     }
+
+    /**
+     * Resolves a method name to the compact id carried by {@link MethodCall#methodId()}.
+     *
+     * @param name method name
+     * @return method id, or -1 if calls to this method have to be addressed by name
+     */
+    default int methodId(final String name) {
+        return -1;
+    }
+
+    /**
+     * Handles the calls collected for {@link io.advantageous.qbit.annotation.Batch} methods, called when a batch
+     * of method calls ends.
+     */
+    default void flushBatches() {
+    }
 }
@@ -147,4 +147,14 @@ public interface ServiceQueue extends Stoppable, ServiceFlushable, Startable {
     Queue<MethodCall<Object>> requestQueue();
 
     Queue<Response<Object>> responseQueue();
+
+    /**
+     * Resolves a method name of the service to the compact id carried by {@link MethodCall#methodId()}.
+     *
+     * @param methodName method name
+     * @return method id, or -1 if the method has to be addressed by name
+     */
+    default int methodId(final String methodName) {
+        return -1;
+    }
 }
@@ -0,0 +1,108 @@
+package io.advantageous.qbit.service.dispatchers;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Shard rule that places every worker on a hash ring with virtual nodes.
+ * Adding or removing a worker only moves the keys that land next to that worker's nodes,
+ * where {@code hashCode() % numWorkers} remaps almost every key.
+ */
+public class ConsistentHashShardRule implements ShardRule {
+
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    private final Function<Object[], Object> shardKey;
+    private final int virtualNodes;
+
+    /**
+     * Sorted ring, the ring position is in the high 32 bits and the worker index in the low 32 bits.
+     */
+    private final long[] ring;
+    private final int workerCount;
+
+    /**
+     * Ring of workers 0 to n - 1, used until the rule is bound to worker ids.
+     */
+    private volatile ConsistentHashShardRule defaultRule;
+
+    public ConsistentHashShardRule(final Function<Object[], Object> shardKey) {
+        this(shardKey, DEFAULT_VIRTUAL_NODES);
+    }
+
+    public ConsistentHashShardRule(final Function<Object[], Object> shardKey, final int virtualNodes) {
+        this(shardKey, virtualNodes, new int[0]);
+    }
+
+    private ConsistentHashShardRule(final Function<Object[], Object> shardKey,
+                                    final int virtualNodes,
+                                    final int[] workerIds) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        this.shardKey = shardKey;
+        this.virtualNodes = virtualNodes;
+        this.workerCount = workerIds.length;
+        this.ring = buildRing(workerIds, virtualNodes);
+    }
+
+    private static long[] buildRing(final int[] workerIds, final int virtualNodes) {
+        final long[] ring = new long[workerIds.length * virtualNodes];
+        int slot = 0;
+        for (int index = 0; index < workerIds.length; index++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                final int position = mix(((long) workerIds[index] << 32) | node);
+                ring[slot++] = ((long) position << 32) | index;
+            }
+        }
+        Arrays.sort(ring);
+        return ring;
+    }
+
+    /**
+     * Murmur3 finalizer, spreads sequential ids and poor hash codes over the ring.
+     */
+    private static int mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return (int) value;
+    }
+
+    @Override
+    public int shard(final String methodName, final Object[] methodArgs, final int numWorkers) {
+        if (numWorkers != workerCount) {
+            return defaultRule(numWorkers).shard(methodName, methodArgs, numWorkers);
+        }
+        final Object key = shardKey.apply(methodArgs);
+        final long position = (long) mix(key == null ? 0 : key.hashCode()) << 32;
+        int slot = Arrays.binarySearch(ring, position);
+        if (slot < 0) {
+            slot = -(slot + 1);
+            if (slot == ring.length) {
+                slot = 0;
+            }
+        }
+        return (int) ring[slot];
+    }
+
+    @Override
+    public ConsistentHashShardRule withWorkers(final int[] workerIds) {
+        return new ConsistentHashShardRule(shardKey, virtualNodes, workerIds.clone());
+    }
+
+    private ConsistentHashShardRule defaultRule(final int numWorkers) {
+        ConsistentHashShardRule rule = defaultRule;
+        if (rule == null || rule.workerCount != numWorkers) {
+            final int[] workerIds = new int[numWorkers];
+            for (int index = 0; index < numWorkers; index++) {
+                workerIds[index] = index;
+            }
+            rule = withWorkers(workerIds);
+            defaultRule = rule;
+        }
+        return rule;
+    }
+}
@@ -0,0 +1,304 @@
+package io.advantageous.qbit.service.dispatchers;
+
+import io.advantageous.qbit.QBit;
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.message.impl.DrainMarker;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.service.ServiceQueue;
+import io.advantageous.qbit.service.stats.StatsCollector;
+import io.advantageous.qbit.util.Timer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Round robin workers that grow and shrink between a min and max worker count.
+ * <p>
+ * Every scale interval the pool samples one {@link ScalingSignal}. It adds a worker after the signal stayed above
+ * the scale up threshold for {@code scaleUpSamples} samples in a row and removes one after it stayed below the
+ * lower scale down threshold for {@code scaleDownSamples} samples, the gap between the thresholds and the sample
+ * counts keep the pool from flapping. Changes are applied on the dispatching thread with the next call or flush.
+ * Removed workers finish the calls already sent to them before they are stopped.
+ * <p>
+ * #### Stats
+ * ```
+ * ${statsKey}.workers    current worker count
+ * ${statsKey}.scaleUp    worker added
+ * ${statsKey}.scaleDown  worker removed
+ * ```
+ */
+public class ElasticServiceWorkers extends ServiceWorkers {
+
+    /**
+     * What drives scaling, thresholds are in the unit of the signal.
+     */
+    public enum ScalingSignal {
+        /**
+         * Average batches waiting per worker queue.
+         */
+        QUEUE_DEPTH,
+        /**
+         * Longest time in milliseconds a probe sent to a worker waited in its queue.
+         */
+        TIME_IN_QUEUE,
+        /**
+         * Process CPU utilization in percent.
+         */
+        CPU
+    }
+
+    private final Supplier<ServiceQueue> workerSupplier;
+    private final int minWorkers;
+    private final int maxWorkers;
+    private final ScalingSignal scalingSignal;
+    private final double scaleUpThreshold;
+    private final double scaleDownThreshold;
+    private final int scaleUpSamples;
+    private final int scaleDownSamples;
+    private final int scaleIntervalMS;
+    private final Timer timer;
+    private final StatsCollector statsCollector;
+    private final String statsKey;
+
+    /**
+     * Workers to add or remove, set by the scaler and applied on the dispatching thread.
+     */
+    private final AtomicInteger pendingChange = new AtomicInteger();
+    private final List<Worker> retiring = new CopyOnWriteArrayList<>();
+    private volatile Worker[] workers = new Worker[0];
+    private int overloadedSamples;
+    private int underloadedSamples;
+    private ScheduledFuture<?> scaler;
+
+    public ElasticServiceWorkers(final int flushInterval,
+                                 final TimeUnit timeUnit,
+                                 final Supplier<ServiceQueue> workerSupplier,
+                                 final int minWorkers,
+                                 final int maxWorkers,
+                                 final ScalingSignal scalingSignal,
+                                 final double scaleUpThreshold,
+                                 final double scaleDownThreshold,
+                                 final int scaleUpSamples,
+                                 final int scaleDownSamples,
+                                 final int scaleIntervalMS,
+                                 final Timer timer,
+                                 final StatsCollector statsCollector,
+                                 final String statsKey) {
+        super(flushInterval, timeUnit);
+        if (minWorkers < 1 || maxWorkers < minWorkers) {
+            throw new IllegalArgumentException("Need 1 <= minWorkers <= maxWorkers");
+        }
+        if (scaleDownThreshold >= scaleUpThreshold) {
+            throw new IllegalArgumentException("scaleDownThreshold must be below scaleUpThreshold");
+        }
+        this.workerSupplier = workerSupplier;
+        this.minWorkers = minWorkers;
+        this.maxWorkers = maxWorkers;
+        this.scalingSignal = scalingSignal;
+        this.scaleUpThreshold = scaleUpThreshold;
+        this.scaleDownThreshold = scaleDownThreshold;
+        this.scaleUpSamples = scaleUpSamples;
+        this.scaleDownSamples = scaleDownSamples;
+        this.scaleIntervalMS = scaleIntervalMS;
+        this.timer = timer;
+        this.statsCollector = statsCollector;
+        this.statsKey = statsKey;
+    }
+
+    private static double cpuUtilization() {
+        final OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+        if (operatingSystem instanceof com.sun.management.OperatingSystemMXBean) {
+            final double load = ((com.sun.management.OperatingSystemMXBean) operatingSystem).getProcessCpuLoad();
+            if (load >= 0) {
+                return load * 100;
+            }
+        }
+        return Math.max(0, operatingSystem.getSystemLoadAverage()) * 100 / operatingSystem.getAvailableProcessors();
+    }
+
+    public int workerCount() {
+        return workers.length;
+    }
+
+    @Override
+    public ServiceWorkers startServiceWorkers() {
+        while (serviceQueues.size() < minWorkers) {
+            addService(workerSupplier.get());
+        }
+        super.startServiceWorkers();
+
+        final Worker[] workers = new Worker[serviceQueues.size()];
+        for (int index = 0; index < workers.length; index++) {
+            workers[index] = new Worker(serviceQueues.get(index), sendQueues.get(index));
+        }
+        useWorkers(workers);
+        scaler = QBit.factory().periodicScheduler().repeat(this::sample, scaleIntervalMS, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    @Override
+    public void accept(final MethodCall<Object> methodCall) {
+        if (pendingChange.get() != 0) {
+            applyChange();
+        }
+        final Worker[] workers = this.workers;
+        workers[(index.getAndIncrement() & Integer.MAX_VALUE) % workers.length].sendQueue.send(methodCall);
+    }
+
+    @Override
+    public void flush() {
+        if (pendingChange.get() != 0) {
+            applyChange();
+        }
+        super.flush();
+    }
+
+    @Override
+    public void stop() {
+        if (scaler != null) {
+            scaler.cancel(false);
+        }
+        super.stop();
+        retiring.forEach(Worker::stop);
+        retiring.clear();
+    }
+
+    private synchronized void applyChange() {
+        int change = pendingChange.getAndSet(0);
+        final List<Worker> list = new ArrayList<>();
+        Collections.addAll(list, workers);
+
+        for (; change > 0 && list.size() < maxWorkers; change--) {
+            final ServiceQueue serviceQueue = workerSupplier.get();
+            if (startServices) {
+                serviceQueue.start();
+                serviceQueue.startCallBackHandler();
+            }
+            list.add(new Worker(serviceQueue, createSendQueue(serviceQueue)));
+        }
+        for (; change < 0 && list.size() > minWorkers; change++) {
+            final Worker worker = list.remove(list.size() - 1);
+            worker.sendQueue.sendAndFlush(new DrainMarker(() -> worker.drained = true));
+            retiring.add(worker);
+        }
+        useWorkers(list.toArray(new Worker[list.size()]));
+    }
+
+    private void useWorkers(final Worker[] workers) {
+        final List<ServiceQueue> queues = new ArrayList<>(workers.length);
+        sendQueues.clear();
+        for (Worker worker : workers) {
+            queues.add(worker.serviceQueue);
+            sendQueues.add(worker.sendQueue);
+        }
+        serviceQueues = Collections.unmodifiableList(queues);
+        this.workers = workers;
+    }
+
+    /**
+     * Samples the scaling signal, runs on the scaler thread.
+     */
+    synchronized void sample() {
+        for (Worker worker : retiring) {
+            if (worker.drained) {
+                worker.stop();
+                retiring.remove(worker);
+            }
+        }
+
+        final Worker[] workers = this.workers;
+        final double load = load(workers);
+        statsCollector.recordLevel(statsKey + ".workers", workers.length);
+
+        if (pendingChange.get() != 0) {
+            return;
+        }
+        if (load > scaleUpThreshold) {
+            underloadedSamples = 0;
+            if (++overloadedSamples >= scaleUpSamples && workers.length < maxWorkers) {
+                overloadedSamples = 0;
+                pendingChange.incrementAndGet();
+                statsCollector.increment(statsKey + ".scaleUp");
+            }
+        } else if (load < scaleDownThreshold) {
+            overloadedSamples = 0;
+            if (++underloadedSamples >= scaleDownSamples && workers.length > minWorkers) {
+                underloadedSamples = 0;
+                pendingChange.decrementAndGet();
+                statsCollector.increment(statsKey + ".scaleDown");
+            }
+        } else {
+            overloadedSamples = 0;
+            underloadedSamples = 0;
+        }
+    }
+
+    private double load(final Worker[] workers) {
+        switch (scalingSignal) {
+            case QUEUE_DEPTH:
+                double depth = 0;
+                for (Worker worker : workers) {
+                    depth += worker.sendQueue.size();
+                }
+                return depth / workers.length;
+            case TIME_IN_QUEUE:
+                final long now = timer.now();
+                long timeInQueue = 0;
+                for (Worker worker : workers) {
+                    timeInQueue = Math.max(timeInQueue, worker.probe(now));
+                }
+                return timeInQueue;
+            default:
+                return cpuUtilization();
+        }
+    }
+
+    private final class Worker {
+        private final ServiceQueue serviceQueue;
+        private final SendQueue<MethodCall<Object>> sendQueue;
+        /**
+         * Used by the scaler thread to send time in queue probes.
+         */
+        private SendQueue<MethodCall<Object>> probeQueue;
+        private volatile long probeSentAt = -1;
+        private volatile long timeInQueue;
+        private volatile boolean drained;
+
+        private Worker(final ServiceQueue serviceQueue, final SendQueue<MethodCall<Object>> sendQueue) {
+            this.serviceQueue = serviceQueue;
+            this.sendQueue = sendQueue;
+        }
+
+        /**
+         * @return time the last probe waited, or the current probe if it waited longer, then sends the next probe
+         */
+        private long probe(final long now) {
+            final long sentAt = probeSentAt;
+            if (sentAt != -1) {
+                return Math.max(timeInQueue, now - sentAt);
+            }
+            if (probeQueue == null) {
+                probeQueue = serviceQueue.requests();
+            }
+            probeSentAt = now;
+            probeQueue.sendAndFlush(new DrainMarker(() -> {
+                timeInQueue = timer.now() - now;
+                probeSentAt = -1;
+            }));
+            return timeInQueue;
+        }
+
+        private void stop() {
+            sendQueue.stop();
+            serviceQueue.stop();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.advantageous.qbit.service.dispatchers;
+
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.queue.SendQueue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches each call to the worker with the fewest batches waiting in its request queue.
+ * Ties go round robin, so evenly loaded workers are used in turn.
+ */
+public class LeastQueueDepthServiceDispatcher extends ServiceWorkers {
+
+
+    public LeastQueueDepthServiceDispatcher(int flushInterval, TimeUnit timeUnit) {
+        super(flushInterval, timeUnit);
+    }
+
+    public LeastQueueDepthServiceDispatcher() {
+
+        super();
+    }
+
+    @Override
+    public void accept(final MethodCall<Object> methodCall) {
+
+        final int size = sendQueues.size();
+        final int start = (index.getAndIncrement() & Integer.MAX_VALUE) % size;
+
+        SendQueue<MethodCall<Object>> leastLoaded = sendQueues.get(start);
+        int leastDepth = leastLoaded.size();
+
+        for (int offset = 1; offset < size && leastDepth > 0; offset++) {
+            final SendQueue<MethodCall<Object>> sendQueue = sendQueues.get((start + offset) % size);
+            final int depth = sendQueue.size();
+            if (depth < leastDepth) {
+                leastLoaded = sendQueue;
+                leastDepth = depth;
+            }
+        }
+        leastLoaded.send(methodCall);
+    }
+}
@@ -0,0 +1,43 @@
+package io.advantageous.qbit.service.dispatchers;
+
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.queue.SendQueue;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches each call to the less backed up of two randomly picked workers.
+ * Only two queue depths are read per call, which keeps the cost flat for large pools.
+ */
+public class PowerOfTwoChoicesServiceDispatcher extends ServiceWorkers {
+
+
+    public PowerOfTwoChoicesServiceDispatcher(int flushInterval, TimeUnit timeUnit) {
+        super(flushInterval, timeUnit);
+    }
+
+    public PowerOfTwoChoicesServiceDispatcher() {
+
+        super();
+    }
+
+    @Override
+    public void accept(final MethodCall<Object> methodCall) {
+
+        final int size = sendQueues.size();
+        if (size == 1) {
+            sendQueues.get(0).send(methodCall);
+            return;
+        }
+
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int first = random.nextInt(size);
+        final int second = (first + 1 + random.nextInt(size - 1)) % size;
+
+        final SendQueue<MethodCall<Object>> firstQueue = sendQueues.get(first);
+        final SendQueue<MethodCall<Object>> secondQueue = sendQueues.get(second);
+
+        (secondQueue.size() < firstQueue.size() ? secondQueue : firstQueue).send(methodCall);
+    }
+}
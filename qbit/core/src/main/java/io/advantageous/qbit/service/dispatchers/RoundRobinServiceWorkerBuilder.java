@@ -2,6 +2,9 @@ package io.advantageous.qbit.service.dispatchers;
 
 import io.advantageous.qbit.service.ServiceBuilder;
 import io.advantageous.qbit.service.ServiceQueue;
+import io.advantageous.qbit.service.dispatchers.ElasticServiceWorkers.ScalingSignal;
+import io.advantageous.qbit.service.stats.StatsCollector;
+import io.advantageous.qbit.util.Timer;
 
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
@@ -16,6 +19,21 @@ public class RoundRobinServiceWorkerBuilder {
     private TimeUnit timeUnit = TimeUnit.MILLISECONDS;
     private Supplier<Object> serviceObjectSupplier;
 
+    /**
+     * Setting max workers turns on the elastic pool, which starts with min workers.
+     */
+    private int minWorkers = -1;
+    private int maxWorkers = -1;
+    private ScalingSignal scalingSignal = ScalingSignal.QUEUE_DEPTH;
+    private double scaleUpThreshold = -1;
+    private double scaleDownThreshold = -1;
+    private int scaleUpSamples = 3;
+    private int scaleDownSamples = 10;
+    private int scaleIntervalMS = 100;
+    private Timer timer;
+    private StatsCollector statsCollector;
+    private String statsKey = "serviceWorkers";
+
     public static RoundRobinServiceWorkerBuilder roundRobinServiceWorkerBuilder() {
         return new RoundRobinServiceWorkerBuilder();
     }
@@ -41,6 +59,153 @@ public class RoundRobinServiceWorkerBuilder {
         return this;
     }
 
+    public boolean isElastic() {
+        return maxWorkers > 0;
+    }
+
+    public int getMinWorkers() {
+        if (minWorkers == -1) {
+            minWorkers = 1;
+        }
+        return minWorkers;
+    }
+
+    public RoundRobinServiceWorkerBuilder setMinWorkers(int minWorkers) {
+        this.minWorkers = minWorkers;
+        return this;
+    }
+
+    public int getMaxWorkers() {
+        return maxWorkers;
+    }
+
+    public RoundRobinServiceWorkerBuilder setMaxWorkers(int maxWorkers) {
+        this.maxWorkers = maxWorkers;
+        return this;
+    }
+
+    public ScalingSignal getScalingSignal() {
+        return scalingSignal;
+    }
+
+    public RoundRobinServiceWorkerBuilder setScalingSignal(ScalingSignal scalingSignal) {
+        this.scalingSignal = scalingSignal;
+        return this;
+    }
+
+    /**
+     * Defaults to 2 batches per worker, 50 ms in queue or 75 percent CPU.
+     *
+     * @return threshold above which the pool grows
+     */
+    public double getScaleUpThreshold() {
+        if (scaleUpThreshold == -1) {
+            switch (getScalingSignal()) {
+                case QUEUE_DEPTH:
+                    scaleUpThreshold = 2;
+                    break;
+                case TIME_IN_QUEUE:
+                    scaleUpThreshold = 50;
+                    break;
+                default:
+                    scaleUpThreshold = 75;
+            }
+        }
+        return scaleUpThreshold;
+    }
+
+    public RoundRobinServiceWorkerBuilder setScaleUpThreshold(double scaleUpThreshold) {
+        this.scaleUpThreshold = scaleUpThreshold;
+        return this;
+    }
+
+    /**
+     * Defaults to a quarter of a batch per worker, 5 ms in queue or 25 percent CPU.
+     *
+     * @return threshold below which the pool shrinks
+     */
+    public double getScaleDownThreshold() {
+        if (scaleDownThreshold == -1) {
+            switch (getScalingSignal()) {
+                case QUEUE_DEPTH:
+                    scaleDownThreshold = 0.25;
+                    break;
+                case TIME_IN_QUEUE:
+                    scaleDownThreshold = 5;
+                    break;
+                default:
+                    scaleDownThreshold = 25;
+            }
+        }
+        return scaleDownThreshold;
+    }
+
+    public RoundRobinServiceWorkerBuilder setScaleDownThreshold(double scaleDownThreshold) {
+        this.scaleDownThreshold = scaleDownThreshold;
+        return this;
+    }
+
+    public int getScaleUpSamples() {
+        return scaleUpSamples;
+    }
+
+    public RoundRobinServiceWorkerBuilder setScaleUpSamples(int scaleUpSamples) {
+        this.scaleUpSamples = scaleUpSamples;
+        return this;
+    }
+
+    public int getScaleDownSamples() {
+        return scaleDownSamples;
+    }
+
+    public RoundRobinServiceWorkerBuilder setScaleDownSamples(int scaleDownSamples) {
+        this.scaleDownSamples = scaleDownSamples;
+        return this;
+    }
+
+    public int getScaleIntervalMS() {
+        return scaleIntervalMS;
+    }
+
+    public RoundRobinServiceWorkerBuilder setScaleIntervalMS(int scaleIntervalMS) {
+        this.scaleIntervalMS = scaleIntervalMS;
+        return this;
+    }
+
+    public Timer getTimer() {
+        if (timer == null) {
+            timer = Timer.timer();
+        }
+        return timer;
+    }
+
+    public RoundRobinServiceWorkerBuilder setTimer(Timer timer) {
+        this.timer = timer;
+        return this;
+    }
+
+    public StatsCollector getStatsCollector() {
+        if (statsCollector == null) {
+            statsCollector = new StatsCollector() {
+            };
+        }
+        return statsCollector;
+    }
+
+    public RoundRobinServiceWorkerBuilder setStatsCollector(StatsCollector statsCollector) {
+        this.statsCollector = statsCollector;
+        return this;
+    }
+
+    public String getStatsKey() {
+        return statsKey;
+    }
+
+    public RoundRobinServiceWorkerBuilder setStatsKey(String statsKey) {
+        this.statsKey = statsKey;
+        return this;
+    }
+
     public ServiceBuilder getServiceBuilder() {
         if (serviceBuilder == null) {
             serviceBuilder = ServiceBuilder.serviceBuilder();
@@ -60,7 +225,12 @@ public class RoundRobinServiceWorkerBuilder {
     public ServiceWorkers getServiceDispatcher() {
         if (serviceDispatcher == null) {
 
-            if (flushInterval == -1) {
+            if (isElastic()) {
+                serviceDispatcher = new ElasticServiceWorkers(flushInterval == -1 ? 50 : flushInterval, timeUnit,
+                        this::createWorker, getMinWorkers(), getMaxWorkers(), getScalingSignal(),
+                        getScaleUpThreshold(), getScaleDownThreshold(), getScaleUpSamples(), getScaleDownSamples(),
+                        getScaleIntervalMS(), getTimer(), getStatsCollector(), getStatsKey());
+            } else if (flushInterval == -1) {
                 serviceDispatcher = ServiceWorkers.workers();
             } else {
                 serviceDispatcher = ServiceWorkers.workers(flushInterval, timeUnit);
@@ -98,15 +268,19 @@ public class RoundRobinServiceWorkerBuilder {
             throw new IllegalStateException("serviceObjectSupplier must be set");
         }
 
-        for (int index = 0; index < getWorkerCount(); index++) {
-
-            final ServiceBuilder serviceBuilder = getServiceBuilder();
-            final ServiceQueue serviceQueue = serviceBuilder
-                    .setServiceObject(getServiceObjectSupplier().get()).build();
-            getServiceDispatcher().addServices(serviceQueue);
+        if (isElastic()) {
+            return getServiceDispatcher();
+        }
 
+        for (int index = 0; index < getWorkerCount(); index++) {
+            getServiceDispatcher().addServices(createWorker());
         }
         return getServiceDispatcher();
 
     }
+
+    private ServiceQueue createWorker() {
+        final ServiceBuilder serviceBuilder = getServiceBuilder();
+        return serviceBuilder.setServiceObject(getServiceObjectSupplier().get()).build();
+    }
 }
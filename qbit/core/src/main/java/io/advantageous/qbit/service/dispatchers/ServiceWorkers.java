@@ -114,6 +114,30 @@ public class ServiceWorkers implements ServiceMethodDispatcher {
         return new RoundRobinServiceDispatcher();
     }
 
+    public static LeastQueueDepthServiceDispatcher leastQueueDepthWorkers(int flushInterval, TimeUnit timeUnit) {
+        return new LeastQueueDepthServiceDispatcher(flushInterval, timeUnit);
+    }
+
+    public static LeastQueueDepthServiceDispatcher leastQueueDepthWorkers() {
+        return new LeastQueueDepthServiceDispatcher();
+    }
+
+    public static PowerOfTwoChoicesServiceDispatcher powerOfTwoChoicesWorkers(int flushInterval, TimeUnit timeUnit) {
+        return new PowerOfTwoChoicesServiceDispatcher(flushInterval, timeUnit);
+    }
+
+    public static PowerOfTwoChoicesServiceDispatcher powerOfTwoChoicesWorkers() {
+        return new PowerOfTwoChoicesServiceDispatcher();
+    }
+
+    public static WorkStealingServiceDispatcher workStealingWorkers(int flushInterval, TimeUnit timeUnit) {
+        return new WorkStealingServiceDispatcher(flushInterval, timeUnit);
+    }
+
+    public static WorkStealingServiceDispatcher workStealingWorkers() {
+        return new WorkStealingServiceDispatcher();
+    }
+
     public static ShardedMethodDispatcher shardedWorkers(final ShardRule shardRule) {
         return new ShardedMethodDispatcher(shardRule);
     }
@@ -162,6 +186,21 @@ public class ServiceWorkers implements ServiceMethodDispatcher {
         });
     }
 
+    /**
+     * Shards on an argument with consistent hashing, so workers can be added or removed with
+     * {@link ShardedMethodDispatcher#addWorker(ServiceQueue)} without remapping most keys.
+     *
+     * @param argumentIndex index of the argument to shard on
+     * @return sharded dispatcher
+     */
+    public static ShardedMethodDispatcher consistentShardOnArgumentWorkers(final int argumentIndex) {
+        return new ShardedMethodDispatcher(new ConsistentHashShardRule(methodArgs -> methodArgs[argumentIndex]));
+    }
+
+    public static ShardedMethodDispatcher consistentShardOnBeanPath(final String beanPath) {
+        return new ShardedMethodDispatcher(new ConsistentHashShardRule(methodArgs -> BeanUtils.idx(methodArgs, beanPath)));
+    }
+
     public static ShardedMethodDispatcher shardOnBeanPath(final String beanPath) {
         return new ShardedMethodDispatcher((methodName, methodArgs, numWorkers) -> {
             //noinspection UnnecessaryLocalVariable
@@ -200,18 +239,22 @@ public class ServiceWorkers implements ServiceMethodDispatcher {
         }
 
         for (ServiceQueue serviceQueue : serviceQueues) {
-            if (flushInterval > 0) {
-                SendQueue<MethodCall<Object>> methodCallSendQueue = serviceQueue.requestsWithAutoFlush(flushInterval, timeUnit);
-                methodCallSendQueue.start();
-                sendQueues.add(methodCallSendQueue);
-            } else {
-                sendQueues.add(serviceQueue.requests());
-            }
+            sendQueues.add(createSendQueue(serviceQueue));
         }
 
         return this;
     }
 
+    protected SendQueue<MethodCall<Object>> createSendQueue(final ServiceQueue serviceQueue) {
+        if (flushInterval > 0) {
+            SendQueue<MethodCall<Object>> methodCallSendQueue = serviceQueue.requestsWithAutoFlush(flushInterval, timeUnit);
+            methodCallSendQueue.start();
+            return methodCallSendQueue;
+        } else {
+            return serviceQueue.requests();
+        }
+    }
+
     public void accept(MethodCall<Object> methodCall) {
 
 
@@ -65,4 +65,16 @@ public interface ShardRule {
 
 
     int shard(String methodName, Object[] methodArgs, int numWorkers);
+
+    /**
+     * Binds the rule to the current workers when workers are added or removed at runtime.
+     * Workers keep their id while they live, the worker at {@code workerIds[index]} is the one
+     * {@link #shard} means when it returns {@code index}.
+     *
+     * @param workerIds ids of the current workers
+     * @return rule for these workers, rules that only look at the worker count return themselves
+     */
+    default ShardRule withWorkers(final int[] workerIds) {
+        return this;
+    }
 }
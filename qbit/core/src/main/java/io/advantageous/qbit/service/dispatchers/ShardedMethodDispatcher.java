@@ -26,12 +26,23 @@
 package io.advantageous.qbit.service.dispatchers;
 
 import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.message.impl.DrainMarker;
 import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.service.ServiceQueue;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A sharded method dispatcher.
+ * <p>
+ * Workers can be added and removed while running. The change is applied on the dispatching thread with the next
+ * call or flush. Calls whose key moved to another worker are held back until every call sent to the old worker
+ * before the change has been handled, so calls for one key stay in order.
  *
  * @author rhightower
  *         on 2/18/15.
@@ -41,6 +52,20 @@ public class ShardedMethodDispatcher extends ServiceWorkers {
 
     private final ShardRule shardRule;
 
+    private final ConcurrentLinkedQueue<WorkerChange> workerChanges = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger workerCount = new AtomicInteger();
+    private volatile boolean started;
+    private int nextWorkerId;
+
+    private ShardRule currentRule;
+    private Shard[] currentShards;
+
+    /**
+     * Rule and workers from before the last change, kept until the old workers drained.
+     */
+    private volatile ShardRule previousRule;
+    private Shard[] previousShards;
+
 
     public ShardedMethodDispatcher(final ShardRule shardRule) {
 
@@ -52,16 +77,252 @@ public class ShardedMethodDispatcher extends ServiceWorkers {
         this.shardRule = shardRule;
     }
 
+    private static int index(final int shard) {
+        return shard >= 0 ? shard : shard * -1;
+    }
+
+    @Override
+    public ServiceWorkers addService(final ServiceQueue serviceQueue) {
+        if (started) {
+            addWorker(serviceQueue);
+        } else {
+            workerCount.incrementAndGet();
+            super.addService(serviceQueue);
+        }
+        return this;
+    }
+
+    /**
+     * Adds a worker, if the dispatcher is running the worker is started and takes over its keys once they drained.
+     *
+     * @param serviceQueue worker
+     */
+    public void addWorker(final ServiceQueue serviceQueue) {
+        if (!started) {
+            addService(serviceQueue);
+            return;
+        }
+        workerCount.incrementAndGet();
+        workerChanges.add(new WorkerChange(serviceQueue, true));
+    }
+
+    /**
+     * Removes a running worker. The worker is stopped after the calls already sent to it have been handled.
+     *
+     * @param serviceQueue worker
+     */
+    public void removeWorker(final ServiceQueue serviceQueue) {
+        if (!started) {
+            throw new IllegalStateException("Workers can only be removed after the dispatcher started");
+        }
+        if (workerCount.decrementAndGet() < 1) {
+            workerCount.incrementAndGet();
+            throw new IllegalStateException("Can not remove the last worker");
+        }
+        workerChanges.add(new WorkerChange(serviceQueue, false));
+    }
+
+    /**
+     * @return true while worker changes are pending or moved keys are draining on their old workers
+     */
+    public boolean resizing() {
+        return previousRule != null || !workerChanges.isEmpty();
+    }
+
+    @Override
+    public ServiceWorkers startServiceWorkers() {
+        super.startServiceWorkers();
+
+        final Shard[] shards = new Shard[serviceQueues.size()];
+        for (int index = 0; index < shards.length; index++) {
+            shards[index] = new Shard(nextWorkerId++, serviceQueues.get(index), sendQueues.get(index));
+        }
+        useShards(shards);
+        started = true;
+        return this;
+    }
+
     @Override
     public void accept(final MethodCall<Object> methodCall) {
 
+        if (resizing()) {
+            resizeAndAccept(methodCall);
+            return;
+        }
+
+        final Shard[] shards = currentShards;
+        final int shard = currentRule.shard(methodCall.name(), methodCall.args(), shards.length);
+        shards[index(shard)].sendQueue.send(methodCall);
+    }
+
+    @Override
+    public void flush() {
+        if (resizing()) {
+            resizeAndAccept(null);
+        }
+        super.flush();
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        final Shard[] shards = previousShards;
+        if (shards != null) {
+            for (Shard shard : shards) {
+                if (shard.removed) {
+                    shard.stop();
+                }
+            }
+        }
+    }
+
+    private synchronized void resizeAndAccept(final MethodCall<Object> methodCall) {
+        if (previousRule != null) {
+            drainPreviousShards();
+        }
+        if (previousRule == null && !workerChanges.isEmpty()) {
+            applyWorkerChanges();
+        }
+        if (methodCall != null) {
+            route(methodCall);
+        }
+    }
+
+    private void route(final MethodCall<Object> methodCall) {
         final Object[] args = methodCall.args();
-        final int shard = shardRule.shard(methodCall.name(), args, serviceQueues.size());
+        final Shard shard = currentShards[index(currentRule.shard(methodCall.name(), args, currentShards.length))];
+
+        if (previousRule != null) {
+            final Shard oldShard =
+                    previousShards[index(previousRule.shard(methodCall.name(), args, previousShards.length))];
+            if (oldShard != shard && oldShard.draining) {
+                oldShard.movedCalls.add(methodCall);
+                return;
+            }
+        }
+        shard.sendQueue.send(methodCall);
+    }
+
+    /**
+     * Sends the held back calls of every old worker that drained to the new owners of their keys.
+     */
+    private void drainPreviousShards() {
+        boolean draining = false;
+        for (Shard shard : previousShards) {
+            if (!shard.draining) {
+                continue;
+            }
+            if (!shard.drained) {
+                draining = true;
+                continue;
+            }
+            shard.draining = false;
+            for (MethodCall<Object> methodCall : shard.movedCalls) {
+                currentShards[index(currentRule.shard(methodCall.name(), methodCall.args(), currentShards.length))]
+                        .sendQueue.send(methodCall);
+            }
+            shard.movedCalls.clear();
+            if (shard.removed) {
+                shard.stop();
+            }
+        }
+        if (!draining) {
+            previousRule = null;
+            previousShards = null;
+        }
+    }
+
+    private void applyWorkerChanges() {
+        final List<Shard> shards = new ArrayList<>();
+        Collections.addAll(shards, currentShards);
+
+        WorkerChange change = workerChanges.poll();
+        while (change != null) {
+            if (change.add) {
+                if (startServices) {
+                    change.serviceQueue.start();
+                    change.serviceQueue.startCallBackHandler();
+                }
+                shards.add(new Shard(nextWorkerId++, change.serviceQueue, createSendQueue(change.serviceQueue)));
+            } else {
+                for (int index = 0; index < shards.size(); index++) {
+                    if (shards.get(index).serviceQueue == change.serviceQueue) {
+                        shards.remove(index).removed = true;
+                        break;
+                    }
+                }
+            }
+            change = workerChanges.poll();
+        }
+
+        previousShards = currentShards;
+        for (Shard shard : previousShards) {
+            shard.startDraining();
+        }
+        useShards(shards.toArray(new Shard[shards.size()]));
+        previousRule = currentRule;
+        currentRule = shardRule.withWorkers(workerIds(currentShards));
+    }
+
+    private void useShards(final Shard[] shards) {
+        final List<ServiceQueue> queues = new ArrayList<>(shards.length);
+        sendQueues.clear();
+        for (Shard shard : shards) {
+            queues.add(shard.serviceQueue);
+            sendQueues.add(shard.sendQueue);
+        }
+        serviceQueues = Collections.unmodifiableList(queues);
+        currentShards = shards;
+        if (currentRule == null) {
+            currentRule = shardRule.withWorkers(workerIds(shards));
+        }
+    }
+
+    private static int[] workerIds(final Shard[] shards) {
+        final int[] workerIds = new int[shards.length];
+        for (int index = 0; index < shards.length; index++) {
+            workerIds[index] = shards[index].id;
+        }
+        return workerIds;
+    }
+
+    private static final class WorkerChange {
+        private final ServiceQueue serviceQueue;
+        private final boolean add;
+
+        private WorkerChange(final ServiceQueue serviceQueue, final boolean add) {
+            this.serviceQueue = serviceQueue;
+            this.add = add;
+        }
+    }
+
+    private static final class Shard {
+        private final int id;
+        private final ServiceQueue serviceQueue;
+        private final SendQueue<MethodCall<Object>> sendQueue;
+        private final List<MethodCall<Object>> movedCalls = new ArrayList<>();
+        /**
+         * Set by the worker's thread when the drain marker comes up.
+         */
+        private volatile boolean drained;
+        private boolean draining;
+        private boolean removed;
 
-        final int index = shard >= 0 ? shard : shard * -1;
+        private Shard(final int id, final ServiceQueue serviceQueue, final SendQueue<MethodCall<Object>> sendQueue) {
+            this.id = id;
+            this.serviceQueue = serviceQueue;
+            this.sendQueue = sendQueue;
+        }
 
-        final SendQueue<MethodCall<Object>> methodCallSendQueue = sendQueues.get(index);
+        private void startDraining() {
+            drained = false;
+            draining = true;
+            sendQueue.sendAndFlush(new DrainMarker(() -> drained = true));
+        }
 
-        methodCallSendQueue.send(methodCall);
+        private void stop() {
+            sendQueue.stop();
+            serviceQueue.stop();
+        }
     }
 }
@@ -14,6 +14,10 @@ public class ShardedServiceWorkerBuilder {
      * Shard rule by default.
      */
     private ShardRule shardRule;
+    /**
+     * Use a consistent hash of the first argument as the default shard rule, so workers can be added and removed.
+     */
+    private boolean consistentHashing;
     private ServiceBuilder serviceBuilder;
     private ServiceWorkers serviceDispatcher;
     private int workerCount = -1;
@@ -47,6 +51,9 @@ public class ShardedServiceWorkerBuilder {
     }
 
     public ShardRule getShardRule() {
+        if (shardRule == null && isConsistentHashing()) {
+            shardRule = new ConsistentHashShardRule(methodArgs -> methodArgs[0]);
+        }
         if (shardRule == null) {
             final int workerCount = this.getWorkerCount();
             shardRule = (methodName, methodArgs, numWorkers) -> methodArgs[0].hashCode() % workerCount;
@@ -59,6 +66,15 @@ public class ShardedServiceWorkerBuilder {
         return this;
     }
 
+    public boolean isConsistentHashing() {
+        return consistentHashing;
+    }
+
+    public ShardedServiceWorkerBuilder setConsistentHashing(boolean consistentHashing) {
+        this.consistentHashing = consistentHashing;
+        return this;
+    }
+
     public ServiceBuilder getServiceBuilder() {
         if (serviceBuilder == null) {
             serviceBuilder = ServiceBuilder.serviceBuilder();
@@ -0,0 +1,139 @@
+package io.advantageous.qbit.service.dispatchers;
+
+import io.advantageous.qbit.QBit;
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.queue.SendQueue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches calls round robin, but a worker only gets {@code maxQueueDepth} batches queued.
+ * Calls beyond that wait in the worker's backlog. Idle workers take from their own backlog first,
+ * then steal from the back of the largest sibling backlog, so a stalled worker does not hold up work
+ * that an idle worker could do.
+ * <p>
+ * Only for workers that can handle any call, calls are not kept in order.
+ */
+public class WorkStealingServiceDispatcher extends ServiceWorkers {
+
+    public static final int DEFAULT_MAX_QUEUE_DEPTH = 2;
+    public static final int DEFAULT_STEAL_BATCH = 100;
+
+    private final int balanceInterval;
+    private final TimeUnit timeUnit;
+    private final int maxQueueDepth;
+    private final int stealBatch;
+    private final List<ArrayDeque<MethodCall<Object>>> backlogs = new ArrayList<>();
+    private ScheduledFuture<?> balancer;
+
+
+    public WorkStealingServiceDispatcher(int flushInterval, TimeUnit timeUnit) {
+        this(flushInterval, timeUnit, DEFAULT_MAX_QUEUE_DEPTH, DEFAULT_STEAL_BATCH);
+    }
+
+    public WorkStealingServiceDispatcher(int flushInterval, TimeUnit timeUnit, int maxQueueDepth, int stealBatch) {
+        super(flushInterval, timeUnit);
+        this.balanceInterval = flushInterval > 0 ? flushInterval : 50;
+        this.timeUnit = flushInterval > 0 ? timeUnit : TimeUnit.MILLISECONDS;
+        this.maxQueueDepth = maxQueueDepth;
+        this.stealBatch = stealBatch;
+    }
+
+    public WorkStealingServiceDispatcher() {
+        this(50, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized ServiceWorkers startServiceWorkers() {
+        super.startServiceWorkers();
+        for (int worker = 0; worker < sendQueues.size(); worker++) {
+            backlogs.add(new ArrayDeque<>());
+        }
+        balancer = QBit.factory().periodicScheduler().repeat(this::balance, balanceInterval, timeUnit);
+        return this;
+    }
+
+    @Override
+    public synchronized void accept(final MethodCall<Object> methodCall) {
+
+        final int worker = (index.getAndIncrement() & Integer.MAX_VALUE) % sendQueues.size();
+        final ArrayDeque<MethodCall<Object>> backlog = backlogs.get(worker);
+        final SendQueue<MethodCall<Object>> sendQueue = sendQueues.get(worker);
+
+        if (backlog.isEmpty() && sendQueue.size() < maxQueueDepth) {
+            sendQueue.send(methodCall);
+        } else {
+            backlog.addLast(methodCall);
+        }
+    }
+
+    /**
+     * @return calls waiting in the backlogs
+     */
+    public synchronized int backlogSize() {
+        int size = 0;
+        for (ArrayDeque<MethodCall<Object>> backlog : backlogs) {
+            size += backlog.size();
+        }
+        return size;
+    }
+
+    /**
+     * Hands backlog calls to idle workers, stealing from the largest sibling backlog when their own is empty.
+     */
+    synchronized void balance() {
+        for (int worker = 0; worker < backlogs.size(); worker++) {
+            final SendQueue<MethodCall<Object>> sendQueue = sendQueues.get(worker);
+            if (sendQueue.size() > 0) {
+                continue;
+            }
+            final ArrayDeque<MethodCall<Object>> backlog = backlogs.get(worker);
+            if (!backlog.isEmpty()) {
+                for (int count = 0; count < stealBatch && !backlog.isEmpty(); count++) {
+                    sendQueue.send(backlog.pollFirst());
+                }
+            } else {
+                steal(sendQueue);
+            }
+            sendQueue.flushSends();
+        }
+    }
+
+    private void steal(final SendQueue<MethodCall<Object>> thief) {
+        ArrayDeque<MethodCall<Object>> victim = null;
+        for (ArrayDeque<MethodCall<Object>> backlog : backlogs) {
+            if (victim == null || backlog.size() > victim.size()) {
+                victim = backlog;
+            }
+        }
+        if (victim == null || victim.isEmpty()) {
+            return;
+        }
+        final int count = Math.min(stealBatch, (victim.size() + 1) / 2);
+        @SuppressWarnings({"unchecked", "rawtypes"}) final MethodCall<Object>[] stolen = new MethodCall[count];
+        for (int index = count - 1; index >= 0; index--) {
+            stolen[index] = victim.pollLast();
+        }
+        for (MethodCall<Object> methodCall : stolen) {
+            thief.send(methodCall);
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        balance();
+        super.flush();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (balancer != null) {
+            balancer.cancel(false);
+        }
+        super.stop();
+    }
+}
@@ -52,11 +52,19 @@ import io.advantageous.boon.core.reflection.ClassMeta;
 import io.advantageous.qbit.Factory;
 import io.advantageous.qbit.GlobalConstants;
 import io.advantageous.qbit.boon.service.impl.BoonInvocationHandlerForSendQueue;
+import io.advantageous.qbit.boon.service.impl.SendQueueProxyDispatcher;
 import io.advantageous.qbit.client.BeforeMethodSent;
 import io.advantageous.qbit.client.ClientProxy;
+import io.advantageous.qbit.client.proxy.GeneratedProxies;
 import io.advantageous.qbit.concurrent.PeriodicScheduler;
 import io.advantageous.qbit.events.EventManager;
+import io.advantageous.qbit.http.HttpStatus;
+import io.advantageous.qbit.http.HttpStatusCodeException;
 import io.advantageous.qbit.message.*;
+import io.advantageous.qbit.message.impl.DrainMarker;
+import io.advantageous.qbit.message.impl.MessagePool;
+import io.advantageous.qbit.message.impl.ResponseImpl;
+import io.advantageous.qbit.reactive.Callback;
 import io.advantageous.qbit.queue.*;
 import io.advantageous.qbit.service.*;
 import io.advantageous.qbit.system.QBitSystemManager;
@@ -71,7 +79,9 @@ import org.slf4j.LoggerFactory;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -107,6 +117,18 @@ public class BaseServiceQueueImpl implements ServiceQueue {
     private final AfterMethodCall afterMethodCallAfterTransform;
     private final CallbackManager callbackManager;
     private final QueueCallBackHandler queueCallBackHandler;
+    /**
+     * Local proxies send recycled method calls, see {@link MessagePool}.
+     */
+    private final boolean pooledMessages;
+    /**
+     * Answers repeated calls to cacheable methods, null when the service has none.
+     */
+    private final ServiceResultCache resultCache;
+    /**
+     * Deadline of the call the service is handling, so calls it makes while handling it get the same deadline.
+     */
+    private long callDeadline;
     protected volatile long lastResponseFlushTime = Timer.timer().now();
     private Transformer<Request, Object> requestObjectTransformer = ServiceConstants.NO_OP_ARG_TRANSFORM;
     private Transformer<Response<Object>, Response> responseObjectTransformer = new NoOpResponseTransformer();
@@ -131,7 +153,62 @@ public class BaseServiceQueueImpl implements ServiceQueue {
                                 final BeforeMethodSent beforeMethodSent,
                                 final EventManager eventManager,
                                 final boolean joinEventManager) {
+        this(rootAddress, serviceAddress, service, requestQueueBuilder, responseQueueBuilder, serviceMethodHandler,
+                responseQueue, async, handleCallbacks, systemManager, beforeMethodCall, beforeMethodCallAfterTransform,
+                afterMethodCall, afterMethodCallAfterTransform, queueCallBackHandler, callbackManager, beforeMethodSent,
+                eventManager, joinEventManager, false);
+    }
+
+    public BaseServiceQueueImpl(final String rootAddress,
+                                final String serviceAddress,
+                                final Object service,
+                                final QueueBuilder requestQueueBuilder,
+                                final QueueBuilder responseQueueBuilder,
+                                final ServiceMethodHandler serviceMethodHandler,
+                                final Queue<Response<Object>> responseQueue,
+                                final boolean async,
+                                final boolean handleCallbacks,
+                                final QBitSystemManager systemManager,
+                                final BeforeMethodCall beforeMethodCall,
+                                final BeforeMethodCall beforeMethodCallAfterTransform,
+                                final AfterMethodCall afterMethodCall,
+                                final AfterMethodCall afterMethodCallAfterTransform,
+                                final QueueCallBackHandler queueCallBackHandler,
+                                final CallbackManager callbackManager,
+                                final BeforeMethodSent beforeMethodSent,
+                                final EventManager eventManager,
+                                final boolean joinEventManager,
+                                final boolean pooledMessages) {
+        this(rootAddress, serviceAddress, service, requestQueueBuilder, responseQueueBuilder, serviceMethodHandler,
+                responseQueue, async, handleCallbacks, systemManager, beforeMethodCall, beforeMethodCallAfterTransform,
+                afterMethodCall, afterMethodCallAfterTransform, queueCallBackHandler, callbackManager, beforeMethodSent,
+                eventManager, joinEventManager, pooledMessages, null);
+    }
+
+    public BaseServiceQueueImpl(final String rootAddress,
+                                final String serviceAddress,
+                                final Object service,
+                                final QueueBuilder requestQueueBuilder,
+                                final QueueBuilder responseQueueBuilder,
+                                final ServiceMethodHandler serviceMethodHandler,
+                                final Queue<Response<Object>> responseQueue,
+                                final boolean async,
+                                final boolean handleCallbacks,
+                                final QBitSystemManager systemManager,
+                                final BeforeMethodCall beforeMethodCall,
+                                final BeforeMethodCall beforeMethodCallAfterTransform,
+                                final AfterMethodCall afterMethodCall,
+                                final AfterMethodCall afterMethodCallAfterTransform,
+                                final QueueCallBackHandler queueCallBackHandler,
+                                final CallbackManager callbackManager,
+                                final BeforeMethodSent beforeMethodSent,
+                                final EventManager eventManager,
+                                final boolean joinEventManager,
+                                final boolean pooledMessages,
+                                final ServiceResultCache resultCache) {
 
+        this.pooledMessages = pooledMessages;
+        this.resultCache = resultCache;
         this.eventManager = Optional.ofNullable(eventManager);
 
         this.joinEventManager = joinEventManager;
@@ -181,11 +258,16 @@ public class BaseServiceQueueImpl implements ServiceQueue {
         }
 
 
-        this.responseSendQueue = this.responseQueue.sendQueueWithAutoFlush(100, TimeUnit.MILLISECONDS);
+        final SendQueue<Response<Object>> responseSendQueue =
+                this.responseQueue.sendQueueWithAutoFlush(100, TimeUnit.MILLISECONDS);
+        this.responseSendQueue = resultCache == null ? responseSendQueue
+                : resultCache.responseSendQueue(responseSendQueue);
         this.service = service;
         this.serviceMethodHandler = serviceMethodHandler;
-        this.serviceMethodHandler.init(service, rootAddress, serviceAddress, responseSendQueue);
-        this.eventQueue = this.requestQueueBuilder.setName("Event Queue" + serviceMethodHandler.address()).build();
+        this.serviceMethodHandler.init(service, rootAddress, serviceAddress, this.responseSendQueue);
+        /* Events do not use request lanes. */
+        this.eventQueue = BeanUtils.copy(this.requestQueueBuilder).setLanes(1)
+                .setName("Event Queue" + serviceMethodHandler.address()).build();
         this.handleCallbacks = handleCallbacks;
         this.requestQueue = initRequestQueue(serviceMethodHandler, async);
         this.systemManager = systemManager;
@@ -205,6 +287,14 @@ public class BaseServiceQueueImpl implements ServiceQueue {
         return serviceThreadLocal.get();
     }
 
+    /**
+     * @return deadline of the call the service of this thread is handling, 0 if it has none
+     */
+    public static long currentDeadline() {
+        final ServiceQueue serviceQueue = serviceThreadLocal.get();
+        return serviceQueue instanceof BaseServiceQueueImpl ? ((BaseServiceQueueImpl) serviceQueue).callDeadline : 0;
+    }
+
     /**
      * This method is where all of the action is.
      *
@@ -213,6 +303,10 @@ public class BaseServiceQueueImpl implements ServiceQueue {
      */
     private boolean doHandleMethodCall(MethodCall<Object> methodCall,
                                        final ServiceMethodHandler serviceMethodHandler) {
+        if (methodCall instanceof DrainMarker) {
+            ((DrainMarker) methodCall).reached();
+            return false;
+        }
         if (debug) {
             logger.debug("ServiceImpl::doHandleMethodCall() METHOD CALL" + methodCall);
         }
@@ -222,6 +316,20 @@ public class BaseServiceQueueImpl implements ServiceQueue {
                 callbackManager.registerCallbacks(methodCall);
             }
         }
+        final long deadline = methodCall.deadline();
+        if (deadline != 0 && Timer.timer().now() > deadline) {
+            /* The caller gave up on the answer, running the call would be wasted work. */
+            if (debug) logger.debug("ServiceImpl::doHandleMethodCall() dropped expired call {}", methodCall);
+            queueCallBackHandler.expiredDropped();
+            if (expectsResponse(methodCall)) {
+                /* Fail fast instead of leaving the caller to its own timeout. */
+                responseSendQueue.send(ResponseImpl.error(methodCall, new HttpStatusCodeException(HttpStatus.TIMED_OUT,
+                        "Method call " + methodCall.name() + " expired before it ran")));
+            } else {
+                MessagePool.release(methodCall);
+            }
+            return false;
+        }
         //inputQueueListener.receive(methodCall);
         final boolean continueFlag[] = new boolean[1];
         methodCall = beforeMethodProcessing(methodCall, continueFlag);
@@ -229,8 +337,21 @@ public class BaseServiceQueueImpl implements ServiceQueue {
             if (debug) logger.debug("ServiceImpl::doHandleMethodCall() before handling stopped processing");
             return false;
         }
-        Response<Object> response = serviceMethodHandler.receiveMethodCall(methodCall);
-        if (response != ServiceConstants.VOID) {
+        Response<Object> response = resultCache == null ? null : resultCache.lookup(methodCall);
+        if (response == null) {
+            callDeadline = deadline;
+            try {
+                response = serviceMethodHandler.receiveMethodCall(methodCall);
+            } finally {
+                callDeadline = 0;
+            }
+        }
+        if (response == ServiceConstants.VOID) {
+            /* No response will reference the call, unless the service answers through a callback later. */
+            if (!methodCall.hasCallback() && !serviceMethodHandler.couldHaveCallback(methodCall.name())) {
+                MessagePool.release(methodCall);
+            }
+        } else {
 
             if (!afterMethodCall.after(methodCall, response)) {
                 return false;
@@ -261,6 +382,24 @@ public class BaseServiceQueueImpl implements ServiceQueue {
         return false;
     }
 
+    /**
+     * @param methodCall method call
+     * @return true if the caller waits for a response: the call has a callback or came from a remote request
+     */
+    private static boolean expectsResponse(final MethodCall<Object> methodCall) {
+        if (methodCall.hasCallback() || methodCall.originatingRequest() != null) {
+            return true;
+        }
+        final Object body = methodCall.body();
+        if (body instanceof Object[]) {
+            return Arrays.stream((Object[]) body).anyMatch(arg -> arg instanceof Callback);
+        }
+        if (body instanceof List) {
+            return ((List<?>) body).stream().anyMatch(arg -> arg instanceof Callback);
+        }
+        return body instanceof Callback;
+    }
+
     @Override
     public void start() {
 
@@ -289,9 +428,17 @@ public class BaseServiceQueueImpl implements ServiceQueue {
         return this.responseQueue;
     }
 
+    @Override
+    public int methodId(final String methodName) {
+        return serviceMethodHandler.methodId(methodName);
+    }
+
     protected Queue<MethodCall<Object>> initRequestQueue(final ServiceMethodHandler serviceMethodHandler, boolean async) {
         Queue<MethodCall<Object>> requestQueue;
         if (async) {
+            if (this.requestQueueBuilder.getLanes() > 1 && this.requestQueueBuilder.getLaneSelector() == null) {
+                this.requestQueueBuilder.setLaneSelector(new RequestLaneSelector(service));
+            }
             requestQueue = this.requestQueueBuilder.setName("Send Queue  " + serviceMethodHandler.address()).build();
         } else {
             requestQueue = new Queue<MethodCall<Object>>() {
@@ -307,13 +454,16 @@ public class BaseServiceQueueImpl implements ServiceQueue {
                         @Override
                         public boolean send(MethodCall<Object> item) {
 
-                            return doHandleMethodCall(item, serviceMethodHandler);
+                            final boolean result = doHandleMethodCall(item, serviceMethodHandler);
+                            serviceMethodHandler.flushBatches();
+                            return result;
                         }
 
                         @Override
                         public void sendAndFlush(MethodCall<Object> item) {
 
                             doHandleMethodCall(item, serviceMethodHandler);
+                            serviceMethodHandler.flushBatches();
                         }
 
                         @SafeVarargs
@@ -324,6 +474,7 @@ public class BaseServiceQueueImpl implements ServiceQueue {
 
                                 doHandleMethodCall(item, serviceMethodHandler);
                             }
+                            serviceMethodHandler.flushBatches();
                         }
 
                         @Override
@@ -333,6 +484,7 @@ public class BaseServiceQueueImpl implements ServiceQueue {
 
                                 doHandleMethodCall(item, serviceMethodHandler);
                             }
+                            serviceMethodHandler.flushBatches();
 
                         }
 
@@ -343,6 +495,7 @@ public class BaseServiceQueueImpl implements ServiceQueue {
 
                                 doHandleMethodCall(item, serviceMethodHandler);
                             }
+                            serviceMethodHandler.flushBatches();
 
                         }
 
@@ -443,6 +596,8 @@ public class BaseServiceQueueImpl implements ServiceQueue {
 
             @Override
             public void receive(MethodCall<Object> methodCall) {
+                /* With a shared queue scheduler a batch can resume on a different worker thread. */
+                serviceThreadLocal.set(BaseServiceQueueImpl.this);
                 queueCallBackHandler.beforeReceiveCalled();
                 doHandleMethodCall(methodCall, serviceMethodHandler);
                 queueCallBackHandler.afterReceiveCalled();
@@ -503,6 +658,9 @@ public class BaseServiceQueueImpl implements ServiceQueue {
                 manageResponseQueue();
                 handleCallBacks(responseReceiveQueue);
                 handleEvents(eventReceiveQueue, serviceMethodHandler);
+                if (resultCache != null) {
+                    resultCache.endBatch();
+                }
             }
 
         });
@@ -512,6 +670,9 @@ public class BaseServiceQueueImpl implements ServiceQueue {
     /* Handles the event processing. */
         Event<Object> event = eventReceiveQueue.poll();
         while (event != null) {
+            if (resultCache != null) {
+                resultCache.evictOn(event.channel());
+            }
             serviceMethodHandler.handleEvent(event);
             event = eventReceiveQueue.poll();
         }
@@ -528,6 +689,7 @@ public class BaseServiceQueueImpl implements ServiceQueue {
             Response<Object> response = responseReceiveQueue.poll();
             while (response != null) {
                 callbackManager.handleResponse(response);
+                MessagePool.release(response);
                 response = responseReceiveQueue.poll();
             }
         }
@@ -714,8 +876,14 @@ public class BaseServiceQueueImpl implements ServiceQueue {
         if (!started.get()) {
             logger.debug("ServiceQueue::create(...), A proxy is being asked for a service that is not started ", name());
         }
-        final InvocationHandler invocationHandler = new BoonInvocationHandlerForSendQueue(methodCallSendQueue,
-                serviceInterface, serviceInterface.getSimpleName(), beforeMethodSent);
+        final SendQueueProxyDispatcher dispatcher = new SendQueueProxyDispatcher(methodCallSendQueue,
+                serviceInterface, serviceInterface.getSimpleName(), beforeMethodSent, serviceMethodHandler::methodId,
+                pooledMessages);
+        final T generatedProxy = GeneratedProxies.createProxy(serviceInterface, false, dispatcher);
+        if (generatedProxy != null) {
+            return generatedProxy;
+        }
+        final InvocationHandler invocationHandler = new BoonInvocationHandlerForSendQueue(dispatcher, serviceInterface);
         final Object o = Proxy.newProxyInstance(serviceInterface.getClassLoader(),
                 new Class[]{serviceInterface, ClientProxy.class}, invocationHandler
         );
@@ -0,0 +1,57 @@
+package io.advantageous.qbit.service.impl;
+
+import io.advantageous.qbit.message.Request;
+
+/**
+ * Identifies a method call by its message id, timestamp and return address instead of by the call object,
+ * which may be pooled and reused for another call once it is released.
+ */
+public final class CallKey {
+
+    private final long messageId;
+    private final long timestamp;
+    private final String returnAddress;
+
+    private CallKey(final long messageId, final long timestamp, final String returnAddress) {
+        this.messageId = messageId;
+        this.timestamp = timestamp;
+        this.returnAddress = returnAddress;
+    }
+
+    /**
+     * @param request request, a method call or the request of a response
+     * @return key of the request, null for a null request
+     */
+    public static CallKey callKey(final Request<?> request) {
+        return request == null ? null : new CallKey(request.id(), request.timestamp(), request.returnAddress());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        CallKey that = (CallKey) o;
+
+        if (messageId != that.messageId) return false;
+        if (timestamp != that.timestamp) return false;
+        return !(returnAddress != null ? !returnAddress.equals(that.returnAddress) : that.returnAddress != null);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (messageId ^ (messageId >>> 32));
+        result = 31 * result + (int) (timestamp ^ (timestamp >>> 32));
+        result = 31 * result + (returnAddress != null ? returnAddress.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CallKey{" +
+                "messageId=" + messageId +
+                ", timestamp=" + timestamp +
+                ", returnAddress='" + returnAddress + '\'' +
+                '}';
+    }
+}
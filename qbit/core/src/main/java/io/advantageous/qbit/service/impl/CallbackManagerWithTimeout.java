@@ -20,6 +20,7 @@ package io.advantageous.qbit.service.impl;
 
 import io.advantageous.qbit.message.MethodCall;
 import io.advantageous.qbit.message.Response;
+import io.advantageous.qbit.message.impl.MessagePool;
 import io.advantageous.qbit.queue.Queue;
 import io.advantageous.qbit.reactive.Callback;
 import io.advantageous.qbit.util.Timer;
@@ -101,8 +102,10 @@ public class CallbackManagerWithTimeout implements CallbackManager {
     @Override
     public void startReturnHandlerProcessor(final Queue<Response<Object>> responseQueue) {
 
-        //noinspection Convert2MethodRef
-        responseQueue.startListener(response -> handleResponse(response));
+        responseQueue.startListener(response -> {
+            handleResponse(response);
+            MessagePool.release(response);
+        });
     }
 
     @Override
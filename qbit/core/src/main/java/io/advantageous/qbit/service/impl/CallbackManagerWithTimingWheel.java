@@ -0,0 +1,366 @@
+package io.advantageous.qbit.service.impl;
+
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.message.Response;
+import io.advantageous.qbit.message.impl.MessagePool;
+import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+/**
+ * Maps incoming call returns to client callback objects without allocating per call.
+ * <p>
+ * Outstanding callbacks live in parallel arrays, found through an open addressing table keyed by a long
+ * correlation key mixed from the message id, timestamp and addresses. A hit is checked against the stored
+ * fields, so two calls with the same key never get each other's response. Timeouts are kept in a hashed
+ * timing wheel: each tick only visits the entries whose deadline falls into that tick's slot, so register,
+ * complete and expire are O(1) and nothing is copied or scanned as a whole.
+ * <p>
+ * Calls are registered from the request thread and completed from the response thread, so the arrays are
+ * guarded by a lock. Callbacks are always invoked outside the lock.
+ */
+public class CallbackManagerWithTimingWheel implements CallbackManager {
+
+    private static final int WHEEL_SIZE = 512;
+    private static final int EMPTY = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(CallbackManagerWithTimingWheel.class);
+    private final boolean debug = logger.isDebugEnabled();
+    private final String name;
+    private final boolean handleTimeouts;
+    private final long timeOutMS;
+    private final long checkInterval;
+    private final long tickMS;
+    private final Timer timer;
+    private final Object lock = new Object();
+
+    /**
+     * Open addressing table, holds entry index + 1, zero is an empty slot.
+     */
+    private int[] table;
+    private int tableMask;
+
+    /* Entries, indexed by entry index. */
+    private long[] keys;
+    private long[] messageIds;
+    private long[] timestamps;
+    private long[] deadlines;
+    private String[] returnAddresses;
+    private String[] addresses;
+    private Callback<Object>[] callbacks;
+    /**
+     * Next entry in the same wheel slot, or next free entry.
+     */
+    private int[] next;
+    private int[] previous;
+    private int[] slots;
+
+    private final int[] wheel = new int[WHEEL_SIZE];
+    private int freeList = EMPTY;
+    private int size;
+    private long currentTick;
+    private long lastCheckTime;
+
+    /**
+     * Reused between process calls so expiring does not allocate.
+     */
+    private Callback<Object>[] expired;
+
+    public CallbackManagerWithTimingWheel(final Timer timer, final String name,
+                                          final boolean handleTimeouts,
+                                          final long timeOutMS, final long checkInterval, final long tickMS) {
+        this.timer = timer;
+        this.name = name;
+        this.handleTimeouts = handleTimeouts;
+        this.timeOutMS = timeOutMS;
+        this.checkInterval = checkInterval > 0 ? checkInterval : 5_000;
+        this.tickMS = tickMS > 0 ? tickMS : 100;
+        this.lastCheckTime = timer.now();
+        this.currentTick = lastCheckTime / this.tickMS;
+        Arrays.fill(wheel, EMPTY);
+        allocate(INITIAL_CAPACITY);
+        this.expired = newCallbacks(64);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Callback<Object>[] newCallbacks(final int length) {
+        return new Callback[length];
+    }
+
+    private static long correlationKey(final String returnAddress, final String address,
+                                       final long messageId, final long timestamp) {
+        long key = messageId * 0x9E3779B97F4A7C15L + timestamp;
+        key = key * 31 + (returnAddress != null ? returnAddress.hashCode() : 0);
+        key = key * 31 + (address != null ? address.hashCode() : 0);
+        return key;
+    }
+
+    private static int spread(final long key) {
+        final long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    @Override
+    public void registerCallbacks(final MethodCall<Object> methodCall) {
+        final String returnAddress = methodCall.returnAddress();
+        final String address = methodCall.address();
+        final long messageId = methodCall.id();
+        final long timestamp = methodCall.timestamp();
+        final long key = correlationKey(returnAddress, address, messageId, timestamp);
+        /* Without handleTimeouts entries only expire once too many build up, as with CallbackManagerWithTimeout. */
+        final long deadline = timestamp + (handleTimeouts ? timeOutMS : 60_000);
+
+        synchronized (lock) {
+            final int existing = find(key, returnAddress, address, messageId, timestamp);
+            if (existing != EMPTY) {
+                if (debug) {
+                    logger.debug("DUPLICATE HANDLERS {} {}", returnAddress, messageId);
+                }
+                remove(existing);
+            }
+            if (freeList == EMPTY) {
+                allocate(keys.length * 2);
+            }
+            final int entry = freeList;
+            freeList = next[entry];
+
+            keys[entry] = key;
+            messageIds[entry] = messageId;
+            timestamps[entry] = timestamp;
+            deadlines[entry] = deadline;
+            returnAddresses[entry] = returnAddress;
+            addresses[entry] = address;
+            callbacks[entry] = methodCall.callback();
+            insert(entry);
+            schedule(entry);
+            size++;
+        }
+    }
+
+    @Override
+    public void startReturnHandlerProcessor(final Queue<Response<Object>> responseQueue) {
+
+        responseQueue.startListener(response -> {
+            handleResponse(response);
+            MessagePool.release(response);
+        });
+    }
+
+    @Override
+    public void handleResponse(final Response<Object> response) {
+        final String returnAddress = response.returnAddress();
+        final String address = response.address();
+        final long messageId = response.id();
+        final long timestamp = response.timestamp();
+        final long key = correlationKey(returnAddress, address, messageId, timestamp);
+
+        final Callback<Object> handler;
+        synchronized (lock) {
+            final int entry = find(key, returnAddress, address, messageId, timestamp);
+            handler = entry == EMPTY ? null : callbacks[entry];
+            if (entry != EMPTY) {
+                remove(entry);
+            }
+        }
+
+        if (handler == null) {
+            if (response.request().hasCallback()) {
+                logger.error("Could not find handler for return address {} address {} message id {}",
+                        returnAddress, address, messageId);
+            }
+            return;
+        }
+
+        if (response.wasErrors()) {
+            if (debug) {
+                logger.debug("Service threw an exception address {} return address {} message id {} response error {}",
+                        address, returnAddress, messageId, response.body());
+            }
+            if (response.body() instanceof Throwable) {
+                handler.onError(((Throwable) response.body()));
+            } else {
+                handler.onError(new Exception(response.body().toString()));
+            }
+        } else {
+            handler.accept(response.body());
+        }
+    }
+
+    /**
+     * Advances the wheel to the current time and times out every callback whose deadline has passed.
+     *
+     * @param currentTime current time, or 0 to read the timer
+     */
+    @Override
+    public void process(final long currentTime) {
+        final long now = currentTime != 0 ? currentTime : timer.now();
+        final long nowTick = now / tickMS;
+
+        int expiredCount = 0;
+        synchronized (lock) {
+            if (nowTick <= currentTick) {
+                return;
+            }
+            final boolean expire = handleTimeouts || size > 32_000;
+            if (!handleTimeouts && now - lastCheckTime > checkInterval) {
+                lastCheckTime = now;
+                if (size > 8_000 && debug) {
+                    logger.debug("Issue with handlers growing too large size {} service name {}", size, name);
+                }
+                if (size > 32_000) {
+                    logger.error("Issue with handlers growing very large size {} service name {}", size, name);
+                }
+            }
+
+            /* One turn of the wheel visits every slot, there is no point going around twice. */
+            final long firstTick = Math.max(currentTick + 1, nowTick - WHEEL_SIZE + 1);
+            for (long tick = firstTick; expire && tick <= nowTick; tick++) {
+                int entry = wheel[(int) (tick & (WHEEL_SIZE - 1))];
+                while (entry != EMPTY) {
+                    final int nextEntry = next[entry];
+                    if (deadlines[entry] <= now) {
+                        if (expiredCount == expired.length) {
+                            expired = Arrays.copyOf(expired, expiredCount * 2);
+                        }
+                        expired[expiredCount++] = callbacks[entry];
+                        if (debug) {
+                            logger.debug("{} Call has timed out {} {}", name, returnAddresses[entry], messageIds[entry]);
+                        }
+                        remove(entry);
+                    }
+                    entry = nextEntry;
+                }
+            }
+            if (expire) {
+                currentTick = nowTick;
+            }
+        }
+
+        for (int index = 0; index < expiredCount; index++) {
+            final Callback<Object> callback = expired[index];
+            expired[index] = null;
+            callback.onTimeout();
+        }
+    }
+
+    public int outstandingCallbacksCount() {
+        synchronized (lock) {
+            return size;
+        }
+    }
+
+    private int find(final long key, final String returnAddress, final String address,
+                     final long messageId, final long timestamp) {
+        int index = spread(key) & tableMask;
+        int slot;
+        while ((slot = table[index]) != 0) {
+            final int entry = slot - 1;
+            if (keys[entry] == key && messageIds[entry] == messageId && timestamps[entry] == timestamp
+                    && equal(returnAddresses[entry], returnAddress) && equal(addresses[entry], address)) {
+                return entry;
+            }
+            index = (index + 1) & tableMask;
+        }
+        return EMPTY;
+    }
+
+    private static boolean equal(final String a, final String b) {
+        return a == b || (a != null && a.equals(b));
+    }
+
+    private void insert(final int entry) {
+        int index = spread(keys[entry]) & tableMask;
+        while (table[index] != 0) {
+            index = (index + 1) & tableMask;
+        }
+        table[index] = entry + 1;
+    }
+
+    /**
+     * Removes the entry from the table, the wheel and hands it back to the free list.
+     */
+    private void remove(final int entry) {
+        int index = spread(keys[entry]) & tableMask;
+        while (table[index] != entry + 1) {
+            index = (index + 1) & tableMask;
+        }
+        /* Backward shift deletion keeps probe chains intact without tombstones. */
+        int gap = index;
+        int probe = (gap + 1) & tableMask;
+        while (table[probe] != 0) {
+            final int home = spread(keys[table[probe] - 1]) & tableMask;
+            if (((probe - home) & tableMask) >= ((probe - gap) & tableMask)) {
+                table[gap] = table[probe];
+                gap = probe;
+            }
+            probe = (probe + 1) & tableMask;
+        }
+        table[gap] = 0;
+
+        unschedule(entry);
+        callbacks[entry] = null;
+        returnAddresses[entry] = null;
+        addresses[entry] = null;
+        next[entry] = freeList;
+        freeList = entry;
+        size--;
+    }
+
+    private void schedule(final int entry) {
+        /* Deadlines that already passed go into the next slot the wheel visits. */
+        final long tick = Math.max(deadlines[entry] / tickMS, currentTick + 1);
+        final int slot = (int) (tick & (WHEEL_SIZE - 1));
+        slots[entry] = slot;
+        previous[entry] = EMPTY;
+        next[entry] = wheel[slot];
+        if (wheel[slot] != EMPTY) {
+            previous[wheel[slot]] = entry;
+        }
+        wheel[slot] = entry;
+    }
+
+    private void unschedule(final int entry) {
+        if (previous[entry] != EMPTY) {
+            next[previous[entry]] = next[entry];
+        } else {
+            wheel[slots[entry]] = next[entry];
+        }
+        if (next[entry] != EMPTY) {
+            previous[next[entry]] = previous[entry];
+        }
+    }
+
+    /**
+     * Grows the entry arrays and rebuilds the table, only done when every entry is in use.
+     */
+    private void allocate(final int capacity) {
+        final int oldCapacity = keys == null ? 0 : keys.length;
+        keys = keys == null ? new long[capacity] : Arrays.copyOf(keys, capacity);
+        messageIds = messageIds == null ? new long[capacity] : Arrays.copyOf(messageIds, capacity);
+        timestamps = timestamps == null ? new long[capacity] : Arrays.copyOf(timestamps, capacity);
+        deadlines = deadlines == null ? new long[capacity] : Arrays.copyOf(deadlines, capacity);
+        returnAddresses = returnAddresses == null ? new String[capacity] : Arrays.copyOf(returnAddresses, capacity);
+        addresses = addresses == null ? new String[capacity] : Arrays.copyOf(addresses, capacity);
+        callbacks = callbacks == null ? newCallbacks(capacity) : Arrays.copyOf(callbacks, capacity);
+        next = next == null ? new int[capacity] : Arrays.copyOf(next, capacity);
+        previous = previous == null ? new int[capacity] : Arrays.copyOf(previous, capacity);
+        slots = slots == null ? new int[capacity] : Arrays.copyOf(slots, capacity);
+
+        for (int entry = capacity - 1; entry >= oldCapacity; entry--) {
+            next[entry] = freeList;
+            freeList = entry;
+        }
+
+        /* Keep the table at most half full. */
+        table = new int[capacity * 2];
+        tableMask = table.length - 1;
+        for (int entry = 0; entry < oldCapacity; entry++) {
+            insert(entry);
+        }
+    }
+}
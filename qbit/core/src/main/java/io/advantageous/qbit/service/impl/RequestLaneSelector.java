@@ -0,0 +1,58 @@
+package io.advantageous.qbit.service.impl;
+
+import io.advantageous.boon.core.reflection.AnnotationData;
+import io.advantageous.boon.core.reflection.ClassMeta;
+import io.advantageous.boon.core.reflection.MethodAccess;
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.queue.LaneSelector;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Picks the request lane of a method call.
+ * <p>
+ * A {@value #LANE_HEADER} header on the call wins, otherwise the lane comes from the
+ * {@link io.advantageous.qbit.annotation.Lane} annotation on the service method.
+ * Calls without either go to the default lane.
+ */
+public class RequestLaneSelector implements LaneSelector {
+
+    public static final String LANE_HEADER = "X-QBit-Lane";
+    public static final String LANE_ANNOTATION_NAME = "Lane";
+
+    private final Map<String, Integer> methodLanes = new HashMap<>();
+
+    public RequestLaneSelector(final Object service) {
+
+        @SuppressWarnings("unchecked")
+        final ClassMeta<Class<?>> classMeta = (ClassMeta<Class<?>>) ClassMeta.classMeta(service.getClass());
+
+        for (MethodAccess methodAccess : classMeta.methods()) {
+            final AnnotationData annotation = methodAccess.annotation(LANE_ANNOTATION_NAME);
+            if (annotation != null) {
+                methodLanes.put(methodAccess.name(), ((Number) annotation.getValues().get("value")).intValue());
+            }
+        }
+    }
+
+    @Override
+    public int lane(final Object item) {
+        if (!(item instanceof MethodCall)) {
+            return DEFAULT_LANE;
+        }
+        final MethodCall<?> methodCall = (MethodCall<?>) item;
+        if (methodCall.hasHeaders()) {
+            final String lane = methodCall.headers().get(LANE_HEADER);
+            if (lane != null) {
+                try {
+                    return Integer.parseInt(lane);
+                } catch (NumberFormatException ex) {
+                    return DEFAULT_LANE;
+                }
+            }
+        }
+        final Integer lane = methodLanes.get(methodCall.name());
+        return lane == null ? DEFAULT_LANE : lane;
+    }
+}
@@ -31,6 +31,7 @@ import io.advantageous.qbit.message.MethodCall;
 import io.advantageous.qbit.message.MethodCallBuilder;
 import io.advantageous.qbit.message.Request;
 import io.advantageous.qbit.message.Response;
+import io.advantageous.qbit.message.impl.MessagePool;
 import io.advantageous.qbit.message.impl.ResponseImpl;
 import io.advantageous.qbit.queue.Queue;
 import io.advantageous.qbit.queue.*;
@@ -46,6 +47,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -57,6 +59,11 @@ import static java.util.Arrays.stream;
  *
  * NOTE NOTE NOTE NOTE.
  * NOTE if you want to debug why a method is not getting called but a break point on {@code doCall}.
+ * <p>
+ * With direct routing, calls to service queues skip the call queue. The calling thread registers callbacks,
+ * runs the before call interceptors and enqueues on the service queue itself, so interceptors have to be
+ * thread safe. The destination is resolved before the interceptors run. Calls to other consumers, like
+ * service workers, still go through the call queue. Direct routing needs each service in its own thread.
  */
 public class ServiceBundleImpl implements ServiceBundle {
 
@@ -74,6 +81,11 @@ public class ServiceBundleImpl implements ServiceBundle {
      * Keep track of servicesToStop to forwardEvent queue mappings.
      *///SendQueue<MethodCall<Object>>
     private final Map<String, Consumer<MethodCall<Object>>> serviceMapping = new ConcurrentHashMap<>();
+    /**
+     * Service consumers by service id, so calls that carry a {@link MethodCall#serviceId()} skip the name lookup.
+     */
+    private volatile Consumer<MethodCall<Object>>[] servicesById = newServiceTable(0);
+    private final Map<Consumer<MethodCall<Object>>, Integer> serviceIds = new IdentityHashMap<>();
     /**
      * Keep a list of current servicesToStop that we are routing to.
      */
@@ -84,6 +96,10 @@ public class ServiceBundleImpl implements ServiceBundle {
      * Keep a list of current forwardEvent queue.
      */
     private final Set<SendQueue<MethodCall<Object>>> sendQueues = new ConcurrentHashSet<>(10);
+    /**
+     * The call queue and the service request queues, checked for back pressure.
+     */
+    private final List<Queue<MethodCall<Object>>> backPressureQueues = new CopyOnWriteArrayList<>();
     /**
      * Method queue for receiving method calls.
      */
@@ -145,6 +161,8 @@ public class ServiceBundleImpl implements ServiceBundle {
     private final EventManager eventManager;
     private final BeforeMethodCall beforeMethodCallOnServiceQueue;
     private final AfterMethodCall afterMethodCallOnServiceQueue;
+    private final boolean directRouting;
+    private final List<QueueDispatch> directDispatches = new CopyOnWriteArrayList<>();
 
     public ServiceBundleImpl(final String address,
                              final QueueBuilder requestQueueBuilder,
@@ -166,7 +184,37 @@ public class ServiceBundleImpl implements ServiceBundle {
                              final BeforeMethodSent beforeMethodSent,
                              final BeforeMethodCall beforeMethodCallOnServiceQueue,
                              final AfterMethodCall afterMethodCallOnServiceQueue) {
+        this(address, requestQueueBuilder, responseQueueBuilder, webResponseQueueBuilder, factory, asyncCalls,
+                beforeMethodCall, beforeMethodCallAfterTransform, argTransformer, invokeDynamic, systemManager,
+                healthService, statsCollector, timer, sampleStatFlushRate, checkTimingEveryXCalls, callbackManager,
+                eventManager, beforeMethodSent, beforeMethodCallOnServiceQueue, afterMethodCallOnServiceQueue, false);
+    }
 
+    @SuppressWarnings("rawtypes")
+    public ServiceBundleImpl(final String address,
+                             final QueueBuilder requestQueueBuilder,
+                             final QueueBuilder responseQueueBuilder,
+                             final QueueBuilder webResponseQueueBuilder,
+                             final Factory factory, final boolean asyncCalls,
+                             final BeforeMethodCall beforeMethodCall,
+                             final BeforeMethodCall beforeMethodCallAfterTransform,
+                             final Transformer<Request, Object> argTransformer,
+                             final boolean invokeDynamic,
+                             final QBitSystemManager systemManager,
+                             final HealthServiceAsync healthService,
+                             final StatsCollector statsCollector,
+                             final Timer timer,
+                             final int sampleStatFlushRate,
+                             final int checkTimingEveryXCalls,
+                             final CallbackManager callbackManager,
+                             final EventManager eventManager,
+                             final BeforeMethodSent beforeMethodSent,
+                             final BeforeMethodCall beforeMethodCallOnServiceQueue,
+                             final AfterMethodCall afterMethodCallOnServiceQueue,
+                             final boolean directRouting) {
+
+        /* Without a thread per service the callers would run the service concurrently. */
+        this.directRouting = directRouting && asyncCalls;
         this.beforeMethodCallOnServiceQueue = beforeMethodCallOnServiceQueue;
         this.afterMethodCallOnServiceQueue = afterMethodCallOnServiceQueue;
 
@@ -197,6 +245,7 @@ public class ServiceBundleImpl implements ServiceBundle {
         this.responseQueue = responseQueueBuilder.setName("Response Queue " + address).build();
         this.webResponseQueue = webResponseQueueBuilder.setName("Web Response Queue " + address).build();
         this.methodSendQueue = methodQueue.sendQueueWithAutoFlush(10, TimeUnit.SECONDS);
+        this.backPressureQueues.add(methodQueue);
         this.eventManager = eventManager;
     }
 
@@ -207,6 +256,17 @@ public class ServiceBundleImpl implements ServiceBundle {
      * @param methodCall method call
      */
     private void doCall(MethodCall<Object> methodCall) {
+        doCall(methodCall, null);
+    }
+
+    /**
+     * Handles calling a method
+     *
+     * @param methodCall     method call
+     * @param directRequests send queue of the resolved service when called directly from the caller's thread,
+     *                       null when the service is looked up after the interceptors ran
+     */
+    private void doCall(MethodCall<Object> methodCall, final SendQueue<MethodCall<Object>> directRequests) {
         if (debug) {
             logger.debug(ServiceBundleImpl.class.getName(), "::doCall() ",
                     methodCall.name(),
@@ -226,6 +286,8 @@ public class ServiceBundleImpl implements ServiceBundle {
                     logger.debug(ServiceBundleImpl.class.getName() + "::doCall() " +
                             "Flag from before call handling does not want to continue");
                 }
+            } else if (directRequests != null) {
+                directRequests.send(methodCall);
             } else {
                 final Consumer<MethodCall<Object>> methodDispatcher = getMethodDispatcher(methodCall);
                 methodDispatcher.accept(methodCall);
@@ -373,6 +435,7 @@ public class ServiceBundleImpl implements ServiceBundle {
         if (address != null && !address.isEmpty()) {
             serviceMapping.put(address, methodCallConsumer);
             serviceMapping.put(address.toLowerCase(), methodCallConsumer);
+            registerServiceId(methodCallConsumer);
 
             if (methodCallConsumer instanceof ServiceFlushable) {
                 this.servicesToFlush.add((ServiceFlushable) methodCallConsumer);
@@ -402,7 +465,11 @@ public class ServiceBundleImpl implements ServiceBundle {
         servicesToFlush.add(serviceQueue);
 
 
-        QueueDispatch dispatch = new QueueDispatch(serviceQueue);
+        QueueDispatch dispatch = new QueueDispatch(serviceQueue, directRouting);
+        registerServiceId(dispatch);
+        if (directRouting) {
+            directDispatches.add(dispatch);
+        }
 
         /** Add the client given the address if we have an address. */
         if (serviceAddress != null && !serviceAddress.isEmpty()) {
@@ -422,6 +489,7 @@ public class ServiceBundleImpl implements ServiceBundle {
 
         /** Add the request queue to our set of request queues. */
         sendQueues.add(dispatch.requests);
+        backPressureQueues.add(serviceQueue.requestQueue());
 
         /** Generate a list of end point addresses based on the client bundle root address. */
         final Collection<String> addresses = serviceQueue.addresses(this.rootAddress);
@@ -464,6 +532,13 @@ public class ServiceBundleImpl implements ServiceBundle {
                     methodCall.address() +
                     "\n" + methodCall);
         }
+        if (directRouting) {
+            final Consumer<MethodCall<Object>> methodDispatcher = lookupMethodDispatcher(methodCall);
+            if (methodDispatcher instanceof QueueDispatch) {
+                doCall(methodCall, ((QueueDispatch) methodDispatcher).directRequests);
+                return;
+            }
+        }
         methodSendQueue.send(methodCall);
     }
 
@@ -472,6 +547,12 @@ public class ServiceBundleImpl implements ServiceBundle {
         if (debug) {
             logger.debug("ServiceBundleImpl::call()- methodCalls: \n" + methodCalls);
         }
+        if (directRouting) {
+            for (MethodCall<Object> methodCall : methodCalls) {
+                call(methodCall);
+            }
+            return;
+        }
         methodSendQueue.sendBatch(methodCalls);
     }
 
@@ -522,22 +603,42 @@ public class ServiceBundleImpl implements ServiceBundle {
         return methodCall;
     }
 
-    private Consumer<MethodCall<Object>> getMethodDispatcher(MethodCall<Object> methodCall) {
-        Consumer<MethodCall<Object>> methodCallConsumer = null;
-
-        boolean hasAddress = !Str.isEmpty(methodCall.address());
-
-        boolean hasMethodName = !Str.isEmpty(methodCall.name());
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Consumer<MethodCall<Object>>[] newServiceTable(final int size) {
+        return new Consumer[size];
+    }
 
-        boolean hasObjectName = !Str.isEmpty(methodCall.objectName());
+    private synchronized void registerServiceId(final Consumer<MethodCall<Object>> methodCallConsumer) {
+        if (serviceIds.containsKey(methodCallConsumer)) {
+            return;
+        }
+        final Consumer<MethodCall<Object>>[] services = Arrays.copyOf(servicesById, servicesById.length + 1);
+        services[services.length - 1] = methodCallConsumer;
+        serviceIds.put(methodCallConsumer, services.length - 1);
+        servicesById = services;
+    }
 
-        if (hasMethodName && hasObjectName) {
-            methodCallConsumer = serviceMapping.get(methodCall.objectName());
+    @Override
+    public synchronized int serviceId(final String serviceAddress) {
+        final Consumer<MethodCall<Object>> methodCallConsumer = serviceMapping.get(serviceAddress);
+        if (methodCallConsumer == null) {
+            return -1;
         }
+        final Integer id = serviceIds.get(methodCallConsumer);
+        return id == null ? -1 : id;
+    }
 
-        if (hasAddress && methodCallConsumer == null) {
-            methodCallConsumer = getMethodDispatchByAddress(methodCall);
+    @Override
+    public int methodId(final int serviceId, final String methodName) {
+        final Consumer<MethodCall<Object>>[] services = servicesById;
+        if (serviceId < 0 || serviceId >= services.length || !(services[serviceId] instanceof QueueDispatch)) {
+            return -1;
         }
+        return ((QueueDispatch) services[serviceId]).serviceQueue.methodId(methodName);
+    }
+
+    private Consumer<MethodCall<Object>> getMethodDispatcher(MethodCall<Object> methodCall) {
+        final Consumer<MethodCall<Object>> methodCallConsumer = lookupMethodDispatcher(methodCall);
 
         if (methodCallConsumer == null) {
             logger.error("No service at method address " + methodCall.address()
@@ -556,6 +657,31 @@ public class ServiceBundleImpl implements ServiceBundle {
         return methodCallConsumer;
     }
 
+    private Consumer<MethodCall<Object>> lookupMethodDispatcher(MethodCall<Object> methodCall) {
+        final int serviceId = methodCall.serviceId();
+        final Consumer<MethodCall<Object>>[] services = servicesById;
+        if (serviceId >= 0 && serviceId < services.length) {
+            return services[serviceId];
+        }
+
+        Consumer<MethodCall<Object>> methodCallConsumer = null;
+
+        boolean hasAddress = !Str.isEmpty(methodCall.address());
+
+        boolean hasMethodName = !Str.isEmpty(methodCall.name());
+
+        boolean hasObjectName = !Str.isEmpty(methodCall.objectName());
+
+        if (hasMethodName && hasObjectName) {
+            methodCallConsumer = serviceMapping.get(methodCall.objectName());
+        }
+
+        if (hasAddress && methodCallConsumer == null) {
+            methodCallConsumer = getMethodDispatchByAddress(methodCall);
+        }
+        return methodCallConsumer;
+    }
+
     private Consumer<MethodCall<Object>> getMethodDispatchByAddress(final MethodCall<Object> methodCall) {
         Consumer<MethodCall<Object>> methodConsumerByAddress;
         final String callAddress = methodCall.address();
@@ -599,6 +725,28 @@ public class ServiceBundleImpl implements ServiceBundle {
         return MethodCallBuilder.transformed(methodCall, arg);
     }
 
+    @Override
+    public boolean isSaturated() {
+        for (Queue<MethodCall<Object>> queue : backPressureQueues) {
+            if (queue.isSaturated()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void onWritable(final Runnable runnable) {
+        for (Queue<MethodCall<Object>> queue : backPressureQueues) {
+            if (queue.isSaturated()) {
+                /* Wait for this one, then check the rest again. */
+                queue.onWritable(() -> onWritable(runnable));
+                return;
+            }
+        }
+        runnable.run();
+    }
+
     /**
      * Flush the sends.
      */
@@ -606,6 +754,9 @@ public class ServiceBundleImpl implements ServiceBundle {
     public void flushSends() {
 
         this.methodSendQueue.flushSends();
+        for (QueueDispatch dispatch : directDispatches) {
+            dispatch.directRequests.flushSends();
+        }
     }
 
     /**
@@ -617,6 +768,9 @@ public class ServiceBundleImpl implements ServiceBundle {
             logger.debug(ServiceBundleImpl.class.getName(), "::stop()");
         }
         methodQueue.stop();
+        for (QueueDispatch dispatch : directDispatches) {
+            dispatch.directRequests.stop();
+        }
         for (Stoppable service : servicesToStop) {
             service.stop();
         }
@@ -672,6 +826,7 @@ public class ServiceBundleImpl implements ServiceBundle {
 
                 if (originatingRequest == null) {
                     callbackManager.handleResponse(response);
+                    MessagePool.release(response);
                 } else if (originatingRequest instanceof HttpRequest || originatingRequest instanceof WebSocketMessage) {
                     webResponseSendQueue.send(response);
                 } else {
@@ -773,12 +928,17 @@ public class ServiceBundleImpl implements ServiceBundle {
 
         final ServiceQueue serviceQueue;
         final SendQueue<MethodCall<Object>> requests;
+        /**
+         * Send queue with a buffer per calling thread, used with direct routing.
+         * Flushing it from any thread, as the bundle's flushSends does, pushes what every caller buffered.
+         */
+        final SendQueue<MethodCall<Object>> directRequests;
 
-        QueueDispatch(ServiceQueue serviceQueue) {
+        QueueDispatch(ServiceQueue serviceQueue, boolean directRouting) {
             this.serviceQueue = serviceQueue;
             /* Create an forwardEvent queue for this client. which we access from a single thread. */
             requests = serviceQueue.requests();
-
+            directRequests = directRouting ? serviceQueue.requestsWithAutoFlush(50, TimeUnit.MILLISECONDS) : null;
 
         }
 
@@ -52,10 +52,65 @@ public class ServiceQueueImpl extends BaseServiceQueueImpl {
                             final BeforeMethodSent beforeMethodSent,
                             final EventManager eventManager,
                             final boolean joinEventManager) {
+        this(rootAddress, serviceAddress, service, requestQueueBuilder, responseQueueBuilder,
+                serviceMethodHandler, responseQueue,
+                async, handleCallbacks, systemManager, beforeMethodCall, beforeMethodCallAfterTransform,
+                afterMethodCall, afterMethodCallAfterTransform, handler, callbackManager, beforeMethodSent, eventManager,
+                joinEventManager, false);
+    }
+
+    public ServiceQueueImpl(final String rootAddress,
+                            final String serviceAddress,
+                            final Object service,
+                            final QueueBuilder requestQueueBuilder,
+                            final QueueBuilder responseQueueBuilder,
+                            final ServiceMethodHandler serviceMethodHandler,
+                            final Queue<Response<Object>> responseQueue,
+                            final boolean async,
+                            final boolean handleCallbacks,
+                            final QBitSystemManager systemManager,
+                            final BeforeMethodCall beforeMethodCall,
+                            final BeforeMethodCall beforeMethodCallAfterTransform,
+                            final AfterMethodCall afterMethodCall,
+                            final AfterMethodCall afterMethodCallAfterTransform,
+                            final QueueCallBackHandler handler,
+                            final CallbackManager callbackManager,
+                            final BeforeMethodSent beforeMethodSent,
+                            final EventManager eventManager,
+                            final boolean joinEventManager,
+                            final boolean pooledMessages) {
+        this(rootAddress, serviceAddress, service, requestQueueBuilder, responseQueueBuilder,
+                serviceMethodHandler, responseQueue,
+                async, handleCallbacks, systemManager, beforeMethodCall, beforeMethodCallAfterTransform,
+                afterMethodCall, afterMethodCallAfterTransform, handler, callbackManager, beforeMethodSent, eventManager,
+                joinEventManager, pooledMessages, null);
+    }
+
+    public ServiceQueueImpl(final String rootAddress,
+                            final String serviceAddress,
+                            final Object service,
+                            final QueueBuilder requestQueueBuilder,
+                            final QueueBuilder responseQueueBuilder,
+                            final ServiceMethodHandler serviceMethodHandler,
+                            final Queue<Response<Object>> responseQueue,
+                            final boolean async,
+                            final boolean handleCallbacks,
+                            final QBitSystemManager systemManager,
+                            final BeforeMethodCall beforeMethodCall,
+                            final BeforeMethodCall beforeMethodCallAfterTransform,
+                            final AfterMethodCall afterMethodCall,
+                            final AfterMethodCall afterMethodCallAfterTransform,
+                            final QueueCallBackHandler handler,
+                            final CallbackManager callbackManager,
+                            final BeforeMethodSent beforeMethodSent,
+                            final EventManager eventManager,
+                            final boolean joinEventManager,
+                            final boolean pooledMessages,
+                            final ServiceResultCache resultCache) {
         super(rootAddress, serviceAddress, service, requestQueueBuilder, responseQueueBuilder,
                 serviceMethodHandler, responseQueue,
                 async, handleCallbacks, systemManager, beforeMethodCall, beforeMethodCallAfterTransform,
                 afterMethodCall, afterMethodCallAfterTransform, handler, callbackManager, beforeMethodSent, eventManager,
-                joinEventManager);
+                joinEventManager, pooledMessages, resultCache);
     }
 }
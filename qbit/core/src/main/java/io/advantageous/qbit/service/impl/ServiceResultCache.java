@@ -0,0 +1,401 @@
+package io.advantageous.qbit.service.impl;
+
+import io.advantageous.boon.core.reflection.AnnotationData;
+import io.advantageous.boon.core.reflection.ClassMeta;
+import io.advantageous.boon.core.reflection.MethodAccess;
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.message.Response;
+import io.advantageous.qbit.message.impl.ResponseImpl;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.service.stats.StatsCollector;
+import io.advantageous.qbit.util.Timer;
+
+import java.lang.reflect.Method;
+import java.util.*;
+
+import static io.advantageous.qbit.annotation.AnnotationUtils.getListenAnnotation;
+
+/**
+ * Keeps the results of {@link io.advantageous.qbit.annotation.Cacheable} service methods and answers repeated
+ * calls from them, so they never reach the service.
+ * <p>
+ * Lookups run on the service queue thread. Results are stored as their responses go to the response send queue,
+ * which for asynchronous methods can be any thread.
+ * <p>
+ * #### Keys
+ * ```java
+ * serviceName + ".cache." + methodName + ".hit";
+ * serviceName + ".cache." + methodName + ".miss";
+ * serviceName + ".cache." + methodName + ".evict";
+ * ```
+ * The `evict` count covers results dropped for size, age and {@link io.advantageous.qbit.annotation.CacheEvict}.
+ */
+public final class ServiceResultCache {
+
+    private final Timer timer;
+    private final Map<String, MethodCache> cachedMethods;
+    /* Cached methods a CacheEvict method or event channel clears. */
+    private final Map<String, List<MethodCache>> evictMethods;
+    private final Map<String, List<MethodCache>> evictChannels;
+    /* Misses waiting for their response, guarded by itself. Calls may be pooled and reused, so they are keyed by
+       what identifies the call rather than by the call object. */
+    private final Map<CallKey, Pending> pending = new HashMap<>();
+    private final StatsCollector statsCollector;
+    private final long flushStatsInterval;
+    private long lastFlush;
+
+    private ServiceResultCache(final Timer timer,
+                               final Map<String, MethodCache> cachedMethods,
+                               final Map<String, List<MethodCache>> evictMethods,
+                               final Map<String, List<MethodCache>> evictChannels,
+                               final StatsCollector statsCollector,
+                               final int flushTimeSeconds) {
+        this.timer = timer;
+        this.cachedMethods = cachedMethods;
+        this.evictMethods = evictMethods;
+        this.evictChannels = evictChannels;
+        this.statsCollector = statsCollector;
+        this.flushStatsInterval = flushTimeSeconds * 1_000L;
+        this.lastFlush = timer.now();
+    }
+
+    public static ServiceResultCache resultCache(final Object service, final Timer timer) {
+        return resultCache(service, timer, null, null, 0);
+    }
+
+    /**
+     * Reads the cache settings from the annotations of the service.
+     *
+     * @param service          service object
+     * @param timer            timer used to age results
+     * @param serviceName      prefix of the stat keys
+     * @param statsCollector   stats collector, null to not collect stats
+     * @param flushTimeSeconds how often stats are sent
+     * @return result cache, null if the service has no cacheable methods
+     */
+    public static ServiceResultCache resultCache(final Object service,
+                                                 final Timer timer,
+                                                 final String serviceName,
+                                                 final StatsCollector statsCollector,
+                                                 final int flushTimeSeconds) {
+        if (service == null) {
+            return null;
+        }
+        final ClassMeta<?> classMeta = ClassMeta.classMeta(service.getClass());
+
+        final Map<String, MethodCache> cachedMethods = new HashMap<>();
+        for (MethodAccess methodAccess : classMeta.methods()) {
+            final AnnotationData cacheable = methodAccess.annotation("Cacheable");
+            if (cacheable != null) {
+                cachedMethods.put(methodAccess.name(), new MethodCache(methodAccess, cacheable, serviceName));
+            }
+        }
+        if (cachedMethods.isEmpty()) {
+            return null;
+        }
+
+        final Map<String, List<MethodCache>> evictMethods = new HashMap<>();
+        final Map<String, List<MethodCache>> evictChannels = new HashMap<>();
+        for (MethodAccess methodAccess : classMeta.methods()) {
+            final AnnotationData cacheEvict = methodAccess.annotation("CacheEvict");
+            if (cacheEvict == null) {
+                continue;
+            }
+            final List<MethodCache> evicted = new ArrayList<>();
+            final Object names = cacheEvict.getValues().get("value");
+            if (names instanceof String[] && ((String[]) names).length > 0) {
+                for (String name : (String[]) names) {
+                    final MethodCache methodCache = cachedMethods.get(name);
+                    if (methodCache == null) {
+                        throw new IllegalStateException("CacheEvict method " + methodAccess.name()
+                                + " names " + name + " which is not a Cacheable method");
+                    }
+                    evicted.add(methodCache);
+                }
+            } else {
+                evicted.addAll(cachedMethods.values());
+            }
+            evictMethods.put(methodAccess.name(), evicted);
+            final AnnotationData listen = getListenAnnotation(methodAccess);
+            if (listen != null) {
+                evictChannels.put(listen.getValues().get("value").toString(), evicted);
+            }
+        }
+        return new ServiceResultCache(timer, cachedMethods, evictMethods, evictChannels, statsCollector,
+                flushTimeSeconds);
+    }
+
+    /**
+     * Answers the call from a kept result, or drops the results a CacheEvict call makes stale.
+     *
+     * @param methodCall method call
+     * @return response from a kept result, null if the service has to handle the call
+     */
+    Response<Object> lookup(final MethodCall<Object> methodCall) {
+        final String name = methodCall.name();
+        final MethodCache methodCache = cachedMethods.get(name);
+        if (methodCache == null) {
+            final List<MethodCache> evicted = evictMethods.get(name);
+            if (evicted != null) {
+                evicted.forEach(MethodCache::clear);
+            }
+            return null;
+        }
+        final List<Object> key = key(methodCall);
+        final Entry entry = methodCache.get(key, timer.now());
+        if (entry != null) {
+            return ResponseImpl.response(methodCall, entry.value);
+        }
+        synchronized (pending) {
+            pending.put(CallKey.callKey(methodCall), new Pending(methodCache, key, methodCache.generation(), timer.now()));
+        }
+        return null;
+    }
+
+    /**
+     * Drops the results an event channel makes stale.
+     *
+     * @param channel event channel
+     */
+    void evictOn(final String channel) {
+        final List<MethodCache> evicted = evictChannels.get(channel);
+        if (evicted != null) {
+            evicted.forEach(MethodCache::clear);
+        }
+    }
+
+    /**
+     * Forgets misses that never got a response and sends stats when they are due.
+     */
+    void endBatch() {
+        final long now = timer.now();
+        synchronized (pending) {
+            if (!pending.isEmpty()) {
+                /* A result that comes back after its ttl would be stale at once. */
+                pending.values().removeIf(p -> now - p.startTime > p.methodCache.pendingTimeoutMS);
+            }
+        }
+        if (statsCollector != null && now - lastFlush > flushStatsInterval) {
+            lastFlush = now;
+            cachedMethods.values().forEach(methodCache -> methodCache.sendStats(statsCollector));
+            statsCollector.clientProxyFlush();
+        }
+    }
+
+    /**
+     * @param responseSendQueue queue the responses of the service go to
+     * @return queue that keeps the results of cacheable calls before passing their responses on
+     */
+    SendQueue<Response<Object>> responseSendQueue(final SendQueue<Response<Object>> responseSendQueue) {
+        return new SendQueue<Response<Object>>() {
+            @Override
+            public boolean send(final Response<Object> response) {
+                store(response);
+                return responseSendQueue.send(response);
+            }
+
+            @Override
+            public void flushSends() {
+                responseSendQueue.flushSends();
+            }
+
+            @Override
+            public int size() {
+                return responseSendQueue.size();
+            }
+
+            @Override
+            public boolean shouldBatch() {
+                return responseSendQueue.shouldBatch();
+            }
+
+            @Override
+            public String name() {
+                return responseSendQueue.name();
+            }
+
+            @Override
+            public void start() {
+                responseSendQueue.start();
+            }
+
+            @Override
+            public void stop() {
+                responseSendQueue.stop();
+            }
+        };
+    }
+
+    private void store(final Response<Object> response) {
+        final Pending miss;
+        synchronized (pending) {
+            if (pending.isEmpty() || response.request() == null) {
+                return;
+            }
+            miss = pending.remove(CallKey.callKey(response.request()));
+        }
+        if (miss != null && !response.wasErrors()) {
+            miss.methodCache.put(miss.key, response.body(), miss.generation, timer.now());
+        }
+    }
+
+    private static List<Object> key(final MethodCall<Object> methodCall) {
+        if (methodCall.body() == null) {
+            return Collections.emptyList();
+        }
+        final Object[] args = methodCall.args();
+        final List<Object> key = new ArrayList<>(args.length);
+        for (Object arg : args) {
+            if (!(arg instanceof Callback)) {
+                key.add(arg);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Kept results of one method, guarded by this.
+     */
+    private static final class MethodCache {
+
+        private final long ttlMS;
+        private final long pendingTimeoutMS;
+        private final int maxEntries;
+        private final boolean leastFrequentlyUsed;
+        private final Map<List<Object>, Entry> entries;
+        private final String hitKey;
+        private final String missKey;
+        private final String evictKey;
+        /* Bumped by every eviction, so a result started before it is not kept. */
+        private long generation;
+        private int hits;
+        private int misses;
+        private int evictions;
+
+        private MethodCache(final MethodAccess methodAccess, final AnnotationData cacheable, final String serviceName) {
+            final Method method = methodAccess.method();
+            if (method.getReturnType() == void.class
+                    && !Arrays.asList(method.getParameterTypes()).contains(Callback.class)) {
+                throw new IllegalStateException("Cacheable method " + methodAccess.name()
+                        + " must return a value, return a promise or take a callback");
+            }
+            final Map<String, Object> values = cacheable.getValues();
+            this.ttlMS = longValue(values.get("ttlMS"), 0);
+            this.pendingTimeoutMS = ttlMS > 0 ? ttlMS : 30_000;
+            this.maxEntries = (int) longValue(values.get("maxEntries"), 1_000);
+            this.leastFrequentlyUsed = "LFU".equals(String.valueOf(values.get("eviction")));
+            this.entries = leastFrequentlyUsed ? new HashMap<>() : new LinkedHashMap<List<Object>, Entry>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<List<Object>, Entry> eldest) {
+                    if (size() > maxEntries) {
+                        evictions++;
+                        return true;
+                    }
+                    return false;
+                }
+            };
+            final String prefix = serviceName + ".cache." + methodAccess.name();
+            this.hitKey = prefix + ".hit";
+            this.missKey = prefix + ".miss";
+            this.evictKey = prefix + ".evict";
+        }
+
+        private static long longValue(final Object value, final long defaultValue) {
+            return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+        }
+
+        private synchronized Entry get(final List<Object> key, final long now) {
+            final Entry entry = entries.get(key);
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            if (ttlMS > 0 && now - entry.time > ttlMS) {
+                entries.remove(key);
+                evictions++;
+                misses++;
+                return null;
+            }
+            entry.uses++;
+            hits++;
+            return entry;
+        }
+
+        private synchronized void put(final List<Object> key, final Object value, final long generation, final long now) {
+            if (generation != this.generation) {
+                return;
+            }
+            if (leastFrequentlyUsed && entries.size() >= maxEntries && !entries.containsKey(key)) {
+                /* A scan, but only once the method is full and only on a miss. */
+                List<Object> leastUsed = null;
+                long fewestUses = Long.MAX_VALUE;
+                for (Map.Entry<List<Object>, Entry> entry : entries.entrySet()) {
+                    if (entry.getValue().uses < fewestUses) {
+                        fewestUses = entry.getValue().uses;
+                        leastUsed = entry.getKey();
+                    }
+                }
+                entries.remove(leastUsed);
+                evictions++;
+            }
+            entries.put(key, new Entry(value, now));
+        }
+
+        private synchronized long generation() {
+            return generation;
+        }
+
+        private synchronized void clear() {
+            generation++;
+            evictions += entries.size();
+            entries.clear();
+        }
+
+        private synchronized void sendStats(final StatsCollector statsCollector) {
+            /* We are only sending the counts if they are not 0. */
+            if (hits > 0) {
+                statsCollector.recordCount(hitKey, hits);
+            }
+            if (misses > 0) {
+                statsCollector.recordCount(missKey, misses);
+            }
+            if (evictions > 0) {
+                statsCollector.recordCount(evictKey, evictions);
+            }
+            hits = 0;
+            misses = 0;
+            evictions = 0;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long time;
+        private long uses;
+
+        private Entry(final Object value, final long time) {
+            this.value = value;
+            this.time = time;
+        }
+    }
+
+    private static final class Pending {
+
+        private final MethodCache methodCache;
+        private final List<Object> key;
+        private final long generation;
+        private final long startTime;
+
+        private Pending(final MethodCache methodCache, final List<Object> key, final long generation,
+                        final long startTime) {
+            this.methodCache = methodCache;
+            this.key = key;
+            this.generation = generation;
+            this.startTime = startTime;
+        }
+    }
+}
@@ -44,6 +44,7 @@ import java.util.concurrent.TimeUnit;
  * receiveTimeKey = serviceName + ".callTimeSample";
  * this.queueRequestSizeKey =  serviceName + ".queueRequestSize";
  * this.queueResponseSizeKey =  serviceName + ".queueResponseSize";
+ * expiredDropCountKey = serviceName + ".expiredDropCount";
  * ```
  * <p>
  * The `${serviceName}.startBatchCount` tracks how many times a batch has been sent.
@@ -58,6 +59,9 @@ import java.util.concurrent.TimeUnit;
  * <p>
  * The `${serviceName}.queueResponseSize` keeps track of how large the response queue is getting.
  * This is an indication that responses are not getting drained.
+ * <p>
+ * The `${serviceName}.expiredDropCount` is how many calls were dropped because their caller had stopped waiting.
+ * If this rises the service is not keeping up with its callers.
  */
 public class ServiceStatsListener implements QueueCallBackHandler {
 
@@ -73,11 +77,13 @@ public class ServiceStatsListener implements QueueCallBackHandler {
     private final String queueResponseSizeKey;
     private final String receiveCountKey;
     private final String receiveTimeKey;
+    private final String expiredDropCountKey;
     private long now;
     private long lastFlush;
     private long lastSizeCheck;
     private int startBatchCount;
     private int receiveCount;
+    private int expiredDropCount;
 
     private long sampleUntilCount;
 
@@ -110,6 +116,7 @@ public class ServiceStatsListener implements QueueCallBackHandler {
         startBatchCountKey = serviceName + ".startBatchCount";
         receiveCountKey = serviceName + ".receiveCount";
         receiveTimeKey = serviceName + ".callTimeSample";
+        expiredDropCountKey = serviceName + ".expiredDropCount";
         this.queueRequestSizeKey = serviceName + ".queueRequestSize";
         this.queueResponseSizeKey = serviceName + ".queueResponseSize";
         this.sampleEvery = sampleEvery == 0 ? -1 : sampleEvery;
@@ -164,6 +171,11 @@ public class ServiceStatsListener implements QueueCallBackHandler {
     }
 
 
+    @Override
+    public void expiredDropped() {
+        expiredDropCount++;
+    }
+
     @Override
     public void queueLimit() {
         sendStats();
@@ -253,6 +265,11 @@ public class ServiceStatsListener implements QueueCallBackHandler {
             }
             receiveCount = 0;
 
+            if (expiredDropCount > 0) {
+                statsCollector.recordCount(expiredDropCountKey, expiredDropCount);
+            }
+            expiredDropCount = 0;
+
             statsCollector.clientProxyFlush();
         }
 
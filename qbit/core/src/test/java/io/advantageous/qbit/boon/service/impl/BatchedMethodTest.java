@@ -0,0 +1,168 @@
+package io.advantageous.qbit.boon.service.impl;
+
+import io.advantageous.qbit.annotation.Batch;
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.reactive.CallbackBuilder;
+import io.advantageous.qbit.service.ServiceBuilder;
+import io.advantageous.qbit.service.ServiceProxyUtils;
+import io.advantageous.qbit.service.ServiceQueue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BatchedMethodTest {
+
+    private StoreService storeService;
+    private ServiceQueue serviceQueue;
+    private Store store;
+
+    @Before
+    public void setup() {
+        storeService = new StoreService();
+        serviceQueue = ServiceBuilder.serviceBuilder().setServiceObject(storeService).buildAndStartAll();
+        store = serviceQueue.createProxy(Store.class);
+    }
+
+    @After
+    public void tearDown() {
+        serviceQueue.stop();
+    }
+
+    @Test
+    public void testEachCallbackCompleted() throws Exception {
+        final int callCount = 1_000;
+        final CountDownLatch countDownLatch = new CountDownLatch(callCount);
+        final AtomicInteger wrong = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+
+        for (int index = 0; index < callCount; index++) {
+            final int key = index;
+            final CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder();
+            callbackBuilder.setCallback(Integer.class, value -> {
+                if (value != key * 10) {
+                    wrong.incrementAndGet();
+                }
+                countDownLatch.countDown();
+            });
+            callbackBuilder.setOnError(error -> {
+                errors.incrementAndGet();
+                countDownLatch.countDown();
+            });
+            store.save(callbackBuilder.build(), key, "value" + key);
+        }
+        ServiceProxyUtils.flushServiceProxy(store);
+
+        assertTrue(countDownLatch.await(20, TimeUnit.SECONDS));
+        assertEquals(0, wrong.get());
+        /* Every seventh key is rejected by the service. */
+        assertEquals(143, errors.get());
+        assertEquals(callCount, storeService.saved.size());
+        assertTrue(storeService.batchCount.get() < callCount);
+        assertEquals("value5", storeService.saved.get(5));
+    }
+
+    @Test
+    public void testBatchRunsBeforeLaterCalls() throws Exception {
+        final CountDownLatch countDownLatch = new CountDownLatch(2);
+        final List<Integer> counts = new CopyOnWriteArrayList<>();
+        store.save(ignore -> {
+        }, 1, "value1");
+        store.save(ignore -> {
+        }, 2, "value2");
+        store.count(count -> {
+            counts.add(count);
+            countDownLatch.countDown();
+        });
+        store.save(ignore -> {
+        }, 3, "value3");
+        store.count(count -> {
+            counts.add(count);
+            countDownLatch.countDown();
+        });
+        ServiceProxyUtils.flushServiceProxy(store);
+
+        assertTrue(countDownLatch.await(20, TimeUnit.SECONDS));
+        assertEquals("[2, 3]", counts.toString());
+    }
+
+    @Test
+    public void testVoidBatchMethod() throws Exception {
+        final CountDownLatch countDownLatch = new CountDownLatch(3);
+        store.delete(ignore -> countDownLatch.countDown(), 1);
+        store.delete(ignore -> countDownLatch.countDown(), 2);
+        store.delete(ignore -> countDownLatch.countDown(), 3);
+        store.delete(4);
+        ServiceProxyUtils.flushServiceProxy(store);
+
+        assertTrue(countDownLatch.await(20, TimeUnit.SECONDS));
+        assertEquals(4, storeService.deleted.get());
+    }
+
+    @Test
+    public void testFailedBatch() throws Exception {
+        final CountDownLatch countDownLatch = new CountDownLatch(2);
+        final CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder();
+        callbackBuilder.setCallback(Object.class, ignore -> {
+        });
+        callbackBuilder.setOnError(error -> countDownLatch.countDown());
+        store.delete(callbackBuilder.build(), -1);
+        store.delete(callbackBuilder.build(), 1);
+        ServiceProxyUtils.flushServiceProxy(store);
+
+        assertTrue(countDownLatch.await(20, TimeUnit.SECONDS));
+    }
+
+    public interface Store {
+
+        void save(Callback<Integer> callback, int key, String value);
+
+        void delete(Callback<Object> callback, int key);
+
+        void delete(int key);
+
+        void count(Callback<Integer> callback);
+    }
+
+    public static class StoreService {
+
+        private final List<String> saved = new CopyOnWriteArrayList<>();
+        private final AtomicInteger batchCount = new AtomicInteger();
+        private final AtomicInteger deleted = new AtomicInteger();
+
+        @Batch
+        public List<Object> save(final List<Object[]> calls) {
+            batchCount.incrementAndGet();
+            final List<Object> results = new ArrayList<>(calls.size());
+            for (Object[] call : calls) {
+                final int key = (Integer) call[0];
+                saved.add((String) call[1]);
+                results.add(key % 7 == 0 ? new IllegalArgumentException("rejected " + key) : key * 10);
+            }
+            return results;
+        }
+
+        @Batch
+        public void delete(final List<Object[]> calls) {
+            for (Object[] call : calls) {
+                if ((Integer) call[0] < 0) {
+                    throw new IllegalArgumentException("negative key");
+                }
+            }
+            deleted.addAndGet(calls.size());
+        }
+
+        public int count() {
+            return saved.size();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package io.advantageous.qbit.boon.service.impl;
+
+import io.advantageous.qbit.annotation.Coalesce;
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.service.ServiceBuilder;
+import io.advantageous.qbit.service.ServiceProxyUtils;
+import io.advantageous.qbit.service.ServiceQueue;
+import io.advantageous.qbit.test.TimedTesting;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CallCoalescerTest extends TimedTesting {
+
+    private UserService userService;
+    private ServiceQueue serviceQueue;
+    private Users users;
+
+    @Before
+    public void setup() {
+        userService = new UserService();
+        serviceQueue = ServiceBuilder.serviceBuilder().setServiceObject(userService).buildAndStartAll();
+        users = serviceQueue.createProxy(Users.class);
+    }
+
+    @After
+    public void tearDown() {
+        serviceQueue.stop();
+    }
+
+    @Test
+    public void testIdenticalCallsInBatchShareResult() throws Exception {
+        final int callCount = 100;
+        final CountDownLatch countDownLatch = new CountDownLatch(callCount * 2);
+        final AtomicInteger wrong = new AtomicInteger();
+        for (int index = 0; index < callCount; index++) {
+            users.name(name -> {
+                if (!"user1".equals(name)) {
+                    wrong.incrementAndGet();
+                }
+                countDownLatch.countDown();
+            }, 1);
+            users.name(name -> {
+                if (!"user2".equals(name)) {
+                    wrong.incrementAndGet();
+                }
+                countDownLatch.countDown();
+            }, 2);
+        }
+        ServiceProxyUtils.flushServiceProxy(users);
+
+        assertTrue(countDownLatch.await(20, TimeUnit.SECONDS));
+        assertEquals(0, wrong.get());
+        assertTrue(userService.nameCalls.get() >= 2);
+        assertTrue(userService.nameCalls.get() < callCount);
+    }
+
+    @Test
+    public void testCallsWaitForRunningCall() throws Exception {
+        final int callCount = 10;
+        final CountDownLatch countDownLatch = new CountDownLatch(callCount);
+        final AtomicInteger wrong = new AtomicInteger();
+        for (int index = 0; index < callCount; index++) {
+            /* Only the first argument is part of the key. */
+            users.load(user -> {
+                if (!"loaded 7".equals(user)) {
+                    wrong.incrementAndGet();
+                }
+                countDownLatch.countDown();
+            }, 7, index);
+            ServiceProxyUtils.flushServiceProxy(users);
+        }
+
+        waitForTrigger(5, o -> userService.pendingLoads.size() == 1 && serviceQueue.requestQueue().size() == 0);
+        Thread.sleep(100);
+        assertEquals(1, userService.pendingLoads.size());
+
+        users.finishLoads();
+        ServiceProxyUtils.flushServiceProxy(users);
+
+        assertTrue(countDownLatch.await(20, TimeUnit.SECONDS));
+        assertEquals(0, wrong.get());
+        assertEquals(1, userService.loadCalls.get());
+    }
+
+    @Test
+    public void testPooledCallsWaitForRunningCall() throws Exception {
+        final UserService pooledService = new UserService();
+        final ServiceQueue pooledQueue = ServiceBuilder.serviceBuilder().setServiceObject(pooledService)
+                .setPooledMessages(true).buildAndStartAll();
+        final Users pooledUsers = pooledQueue.createProxy(Users.class);
+        try {
+            final int rounds = 3;
+            final int callCount = 5;
+            final AtomicInteger wrong = new AtomicInteger();
+            /* Calls of one round are released and reused in the next, they must still get their own answer. */
+            for (int round = 0; round < rounds; round++) {
+                final String expected = "loaded " + round;
+                final CountDownLatch countDownLatch = new CountDownLatch(callCount);
+                for (int index = 0; index < callCount; index++) {
+                    pooledUsers.load(user -> {
+                        if (!expected.equals(user)) {
+                            wrong.incrementAndGet();
+                        }
+                        countDownLatch.countDown();
+                    }, round, index);
+                    ServiceProxyUtils.flushServiceProxy(pooledUsers);
+                }
+
+                waitForTrigger(5, o -> pooledService.pendingLoads.size() == 1 && pooledQueue.requestQueue().size() == 0);
+                Thread.sleep(50);
+                assertEquals(1, pooledService.pendingLoads.size());
+                pooledUsers.finishLoads();
+                ServiceProxyUtils.flushServiceProxy(pooledUsers);
+
+                assertTrue(countDownLatch.await(20, TimeUnit.SECONDS));
+            }
+            assertEquals(0, wrong.get());
+            assertEquals(rounds, pooledService.loadCalls.get());
+        } finally {
+            pooledQueue.stop();
+        }
+    }
+
+    public interface Users {
+
+        void name(Callback<String> callback, int id);
+
+        void load(Callback<String> callback, int id, int attempt);
+
+        void finishLoads();
+    }
+
+    public static class UserService {
+
+        private final AtomicInteger nameCalls = new AtomicInteger();
+        private final AtomicInteger loadCalls = new AtomicInteger();
+        private final List<Runnable> pendingLoads = new CopyOnWriteArrayList<>();
+
+        @Coalesce
+        public String name(final int id) {
+            nameCalls.incrementAndGet();
+            return "user" + id;
+        }
+
+        @Coalesce(keyArgs = 0)
+        public void load(final Callback<String> callback, final int id, final int attempt) {
+            loadCalls.incrementAndGet();
+            pendingLoads.add(() -> callback.accept("loaded " + id));
+        }
+
+        public void finishLoads() {
+            pendingLoads.forEach(Runnable::run);
+            pendingLoads.clear();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.advantageous.qbit.boon.service.impl;
+
+import io.advantageous.boon.core.reflection.ClassMeta;
+import io.advantageous.boon.core.reflection.MethodAccess;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ServiceMethodInvokerTest {
+
+    private static ServiceMethodInvoker invoker(final Class<?> cls, final String name, final boolean invokeDynamic) {
+        final MethodAccess methodAccess = ClassMeta.classMeta(cls).method(name);
+        return new ServiceMethodInvoker(0, methodAccess, invokeDynamic);
+    }
+
+    @Test
+    public void testPublicServiceUsesGeneratedInvoker() throws Exception {
+        final PublicService service = new PublicService();
+        assertNotNull(MethodInvokers.create(PublicService.class.getMethod("add", int.class, long.class)));
+
+        assertEquals(3L, invoker(PublicService.class, "add", false).invoke(service, new Object[]{1, 2L}, false));
+        assertEquals(4L, invoker(PublicService.class, "add", true).invoke(service, new Object[]{2, 2L}, true));
+
+        assertNull(invoker(PublicService.class, "record", false).invoke(service, new Object[]{"a"}, false));
+        assertEquals("a", service.last);
+    }
+
+    @Test
+    public void testNonPublicServiceUsesMethodHandle() {
+        final HiddenService service = new HiddenService();
+        final ServiceMethodInvoker invoker = invoker(HiddenService.class, "concat", false);
+        assertEquals("a1b2c3d4e5", invoker.invoke(service, new Object[]{"a1", "b2", "c3", "d4", "e5"}, false));
+    }
+
+    @Test
+    public void testMismatchedArgumentsAreCoercedByBoon() {
+        final PublicService service = new PublicService();
+        assertEquals(3L, invoker(PublicService.class, "add", true).invoke(service, new Object[]{"1", 2}, true));
+    }
+
+    @Test
+    public void testTypedListIsCoercedWhenDynamic() {
+        final PublicService service = new PublicService();
+        final List<Object> values = new ArrayList<>();
+        values.add("1");
+        values.add(2);
+        assertEquals(3, invoker(PublicService.class, "total", true).invoke(service, new Object[]{values}, true));
+    }
+
+    @Test
+    public void testCheckedExceptionIsWrapped() {
+        try {
+            invoker(PublicService.class, "fail", false).invoke(new PublicService(), new Object[0], false);
+            fail();
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getCause() instanceof InvocationTargetException);
+            assertTrue(((InvocationTargetException) ex.getCause()).getTargetException() instanceof IOException);
+        }
+    }
+
+    public static class PublicService {
+        String last;
+
+        public long add(final int a, final long b) {
+            return a + b;
+        }
+
+        public void record(final String value) {
+            last = value;
+        }
+
+        public int total(final List<Integer> values) {
+            int total = 0;
+            for (Integer value : values) {
+                total += value;
+            }
+            return total;
+        }
+
+        public void fail() throws IOException {
+            throw new IOException("fail");
+        }
+    }
+
+    static class HiddenService {
+        String concat(final String a, final String b, final String c, final String d, final String e) {
+            return a + b + c + d + e;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package io.advantageous.qbit.boon.spi;
 
 import io.advantageous.boon.core.Lists;
 import io.advantageous.qbit.message.*;
+import io.advantageous.qbit.util.MultiMap;
+import io.advantageous.qbit.util.Timer;
 import org.junit.Test;
 
 import java.util.List;
@@ -48,6 +50,28 @@ public class BoonProtocolEncoderTest {
 
     }
 
+    @Test
+    public void methodCallDeadline() throws Exception {
+
+        final String returnAddress = UUID.randomUUID().toString();
+        final long now = Timer.timer().now();
+        MethodCall<Object> methodCall = MethodCallBuilder.methodCallBuilder()
+                .setName("trade")
+                .setAddress("/foo/bar/service/trade")
+                .setReturnAddress(returnAddress)
+                .setHeaders(MultiMap.<String, String>multiMap().add("user", "rick"))
+                .setBody(new Trade()).setId(3L)
+                .setDeadline(now + 5_000).build();
+
+        String string = boonProtocolEncoder.encodeMethodCalls(returnAddress, Lists.list(methodCall));
+        MethodCall<Object> afterParse = (MethodCall<Object>) boonProtocolParser.parse("/foo/bar/service/trade", string).get(0);
+
+        /* Sent as the time left, so the deadline moves by however long the trip took. */
+        assertTrue(afterParse.deadline() >= now + 4_000);
+        assertTrue(afterParse.deadline() <= Timer.timer().now() + 5_000);
+        assertEquals("rick", afterParse.headers().get("user"));
+    }
+
     @Test
     public void response() throws Exception {
 
@@ -0,0 +1,124 @@
+package io.advantageous.qbit.client.proxy;
+
+import io.advantageous.qbit.annotation.Service;
+import io.advantageous.qbit.client.ClientProxy;
+import io.advantageous.qbit.client.RemoteTCPClientProxy;
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.service.ServiceBundle;
+import io.advantageous.qbit.service.ServiceBundleBuilder;
+import io.advantageous.qbit.service.ServiceBuilder;
+import io.advantageous.qbit.service.ServiceQueue;
+import io.advantageous.reakt.promise.Promise;
+import io.advantageous.qbit.test.TimedTesting;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.advantageous.boon.core.IO.puts;
+import static org.junit.Assert.*;
+
+public class GeneratedProxyTest extends TimedTesting {
+
+    private ServiceQueue serviceQueue;
+    private TodoService todoService;
+
+    @Before
+    public void setup() {
+        todoService = new TodoService();
+        serviceQueue = ServiceBuilder.serviceBuilder().setServiceObject(todoService).buildAndStartAll();
+    }
+
+    @After
+    public void tearDown() {
+        serviceQueue.stop();
+    }
+
+    @Test
+    public void testServiceQueueUsesGeneratedProxy() {
+        final TodoClient client = serviceQueue.createProxy(TodoClient.class);
+        assertFalse(Proxy.isProxyClass(client.getClass()));
+        assertEquals(GeneratedProxies.proxyClassName(TodoClient.class, GeneratedProxies.PROXY_SUFFIX),
+                client.getClass().getName());
+        assertTrue(client instanceof ClientProxy);
+        assertFalse(client instanceof RemoteTCPClientProxy);
+        puts(client);
+
+        callTodoClient(client);
+    }
+
+    @Test
+    public void testServiceBundleUsesGeneratedProxy() {
+        final ServiceBundle serviceBundle = ServiceBundleBuilder.serviceBundleBuilder().build();
+        serviceBundle.addServiceObject("todo", todoService);
+        serviceBundle.startServiceBundle();
+        try {
+            final TodoClient client = serviceBundle.createLocalProxy(TodoClient.class, "todo");
+            assertFalse(Proxy.isProxyClass(client.getClass()));
+            assertTrue(client.toString().contains("Local Proxy"));
+            callTodoClient(client);
+        } finally {
+            serviceBundle.stop();
+        }
+    }
+
+    @Test
+    public void testInterfaceWithoutAnnotationUsesReflectiveProxy() {
+        final PlainClient client = serviceQueue.createProxy(PlainClient.class);
+        assertTrue(Proxy.isProxyClass(client.getClass()));
+        assertNull(GeneratedProxies.createProxy(PlainClient.class, false, null));
+    }
+
+    private void callTodoClient(final TodoClient client) {
+        client.record("one");
+
+        final AtomicReference<Boolean> added = new AtomicReference<>();
+        client.add(added::set, "two");
+
+        final AtomicReference<Integer> count = new AtomicReference<>();
+        client.count().then(count::set).invoke();
+
+        client.flush();
+
+        waitForTrigger(5, o -> added.get() != null && count.get() != null);
+        assertTrue(added.get());
+        assertEquals(2, count.get().intValue());
+    }
+
+    @Service
+    public interface TodoClient {
+
+        void record(String item);
+
+        void add(Callback<Boolean> callback, String item);
+
+        Promise<Integer> count();
+
+        void flush();
+    }
+
+    public interface PlainClient {
+        void record(String item);
+    }
+
+    public static class TodoService {
+
+        private final List<String> items = new ArrayList<>();
+
+        public void record(final String item) {
+            items.add(item);
+        }
+
+        public void add(final Callback<Boolean> callback, final String item) {
+            callback.accept(items.add(item));
+        }
+
+        public int count() {
+            return items.size();
+        }
+    }
+}
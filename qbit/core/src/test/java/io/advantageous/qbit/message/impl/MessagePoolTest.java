@@ -0,0 +1,121 @@
+package io.advantageous.qbit.message.impl;
+
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.message.Response;
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.service.ServiceBuilder;
+import io.advantageous.qbit.service.ServiceProxyUtils;
+import io.advantageous.qbit.service.ServiceQueue;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class MessagePoolTest {
+
+    private static MethodCall<Object> methodCall(final long id) {
+        return MessagePool.methodCall("add", "client", 1L, id, new Object[]{1}, -1);
+    }
+
+    @Test
+    public void testReleasedMessagesAreReused() {
+        final MethodCall<Object> methodCall = methodCall(1);
+        final Response<Object> response = ResponseImpl.response(methodCall, "ONE");
+        assertTrue(response instanceof PooledResponse);
+        assertSame(methodCall, response.request());
+        assertEquals(1, response.id());
+        assertEquals("add", response.address());
+        assertEquals("client", response.returnAddress());
+
+        MessagePool.release(response);
+
+        final MethodCall<Object> next = methodCall(2);
+        assertSame(methodCall, next);
+        assertEquals(2, next.id());
+        assertSame(response, ResponseImpl.response(next, "TWO"));
+    }
+
+    @Test
+    public void testReleaseFromAnotherThread() throws Exception {
+        final MethodCall<Object> methodCall = methodCall(1);
+        final Response<Object> response = ResponseImpl.error(methodCall, new IllegalStateException("boom"));
+        assertTrue(response.wasErrors());
+
+        final Thread thread = new Thread(() -> MessagePool.release(response));
+        thread.start();
+        thread.join();
+
+        assertSame(methodCall, methodCall(2));
+    }
+
+    @Test
+    public void testSecondResponseIsNotPooled() {
+        final MethodCall<Object> methodCall = methodCall(1);
+        final Response<Object> first = ResponseImpl.response(methodCall, "ONE");
+        final Response<Object> second = ResponseImpl.response(methodCall, "AGAIN");
+        assertTrue(first instanceof PooledResponse);
+        assertTrue(second instanceof ResponseImpl);
+        MessagePool.release(second);
+        MessagePool.release(first);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDoubleRelease() {
+        final MethodCall<Object> methodCall = methodCall(1);
+        MessagePool.release(methodCall);
+        MessagePool.release(methodCall);
+    }
+
+    @Test
+    public void testPooledServiceQueue() throws Exception {
+        final AdderService adderService = new AdderService();
+        final ServiceQueue serviceQueue = ServiceBuilder.serviceBuilder().setServiceObject(adderService)
+                .setPooledMessages(true).buildAndStartAll();
+        try {
+            final Adder adder = serviceQueue.createProxy(Adder.class);
+            final int callCount = 10_000;
+            final CountDownLatch countDownLatch = new CountDownLatch(callCount);
+            final AtomicInteger wrong = new AtomicInteger();
+            for (int index = 0; index < callCount; index++) {
+                final int expected = index + 1;
+                adder.record(index);
+                adder.increment(index, value -> {
+                    if (value != expected) {
+                        wrong.incrementAndGet();
+                    }
+                    countDownLatch.countDown();
+                });
+            }
+            ServiceProxyUtils.flushServiceProxy(adder);
+
+            assertTrue(countDownLatch.await(20, TimeUnit.SECONDS));
+            assertEquals(0, wrong.get());
+            assertEquals(callCount, adderService.recorded);
+        } finally {
+            serviceQueue.stop();
+        }
+    }
+
+    public interface Adder {
+
+        void increment(int value, Callback<Integer> callback);
+
+        void record(int value);
+    }
+
+    public static class AdderService {
+
+        private volatile int recorded;
+
+        public int increment(final int value) {
+            return value + 1;
+        }
+
+        public void record(final int value) {
+            recorded++;
+        }
+    }
+}
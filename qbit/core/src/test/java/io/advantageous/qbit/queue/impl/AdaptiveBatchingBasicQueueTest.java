@@ -0,0 +1,143 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.QueueBuilder;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.queue.impl.sender.AdaptiveBatchSize;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveBatchingBasicQueueTest extends BasicSendReceiveTest {
+
+
+    @Before
+    public void setup() {
+
+        final QueueBuilder queueBuilder = QueueBuilder.queueBuilder();
+
+        queue = queueBuilder.setArrayBlockingQueue().setBatchSize(50)
+                .setAdaptiveBatching(true)
+                .setCheckEvery(5).setCheckIfBusy(true)
+                .setName("Queue test").setPollTimeUnit(TimeUnit.MILLISECONDS)
+                .setPollWait(50).build();
+
+        receiveQueue = queue.receiveQueue();
+        sendQueue = queue.sendQueue();
+    }
+
+
+    @Test
+    public void idleConsumerGetsItemWithoutFlush() throws Exception {
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        queue.startListener(item -> latch.countDown());
+
+        /* No flushSends, the idle consumer should get it anyway. */
+        sendQueue.send("hi");
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        queue.stop();
+    }
+
+    @Test
+    public void transferQueueSendsEverything() throws Exception {
+
+        final QueueBuilder queueBuilder = QueueBuilder.queueBuilder().setBatchSize(100)
+                .setAdaptiveBatching(true).setName("adaptive transfer");
+        queueBuilder.setQueueClass(LinkedTransferQueue.class);
+        queue = queueBuilder.build();
+
+        final int amount = 100_000;
+        final AtomicLong count = new AtomicLong();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        queue.startListener(item -> {
+            if (count.incrementAndGet() == amount) {
+                latch.countDown();
+            }
+        });
+
+        final SendQueue<String> transferSendQueue = queue.sendQueue();
+        for (int index = 0; index < amount; index++) {
+            transferSendQueue.send("" + index);
+        }
+        transferSendQueue.flushSends();
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(amount, count.get());
+        queue.stop();
+    }
+
+    @Test
+    public void batchSizeGrowsAndShrinks() {
+
+        final AdaptiveBatchSize adaptiveBatchSize = new AdaptiveBatchSize(64);
+        assertEquals(1, adaptiveBatchSize.batchSize());
+
+        /* The backlog outgrows the drain. */
+        for (int index = 0; index < 100; index++) {
+            adaptiveBatchSize.flushed(10, 0);
+        }
+        assertEquals(64, adaptiveBatchSize.batchSize());
+
+        adaptiveBatchSize.flushed(0, 0);
+        assertEquals(32, adaptiveBatchSize.batchSize());
+
+        /* One backlog is not enough to grow. */
+        adaptiveBatchSize.flushed(10, 0);
+        assertEquals(32, adaptiveBatchSize.batchSize());
+        adaptiveBatchSize.flushed(10, 0);
+        assertEquals(64, adaptiveBatchSize.batchSize());
+
+        for (int index = 0; index < 100; index++) {
+            adaptiveBatchSize.flushed(0, 0);
+        }
+        assertEquals(1, adaptiveBatchSize.batchSize());
+    }
+
+    @Test
+    public void batchSizeHoldsWhileTheConsumerKeepsPace() {
+
+        final AdaptiveBatchSize adaptiveBatchSize = new AdaptiveBatchSize(64);
+        adaptiveBatchSize.flushed(10, 0);
+        adaptiveBatchSize.flushed(10, 0);
+        assertEquals(2, adaptiveBatchSize.batchSize());
+
+        /* Never empty, but each flush finds the consumer drained more than is waiting. */
+        long drained = 0;
+        for (int index = 0; index < 100; index++) {
+            drained += 10;
+            adaptiveBatchSize.flushed(5, drained);
+        }
+        assertEquals(2, adaptiveBatchSize.batchSize());
+    }
+
+    @Test
+    public void consumerPublishesDrainSignal() {
+
+        final DrainSignal drainSignal = new DrainSignal();
+        assertTrue(drainSignal.consumerWaiting());
+
+        drainSignal.handedOff();
+        drainSignal.handedOff();
+        assertFalse(drainSignal.consumerWaiting());
+        assertEquals(2, drainSignal.depth());
+
+        drainSignal.took();
+        assertEquals(1, drainSignal.depth());
+        assertEquals(1, drainSignal.drained());
+
+        drainSignal.took();
+        drainSignal.waiting();
+        assertTrue(drainSignal.consumerWaiting());
+        assertEquals(0, drainSignal.depth());
+    }
+}
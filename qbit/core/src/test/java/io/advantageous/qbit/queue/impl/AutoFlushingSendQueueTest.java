@@ -0,0 +1,148 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.QueueBuilder;
+import io.advantageous.qbit.queue.ReceiveQueue;
+import io.advantageous.qbit.queue.SendQueue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AutoFlushingSendQueueTest {
+
+    private Queue<Integer> queue;
+
+    @Before
+    public void setUp() {
+        queue = QueueBuilder.queueBuilder().setName("autoFlush").setBatchSize(1000).build();
+    }
+
+    @After
+    public void tearDown() {
+        queue.stop();
+    }
+
+    private List<Integer> drain(final ReceiveQueue<Integer> receiveQueue, final int expected) {
+        final List<Integer> items = new ArrayList<>();
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (items.size() < expected && System.currentTimeMillis() < deadline) {
+            final Integer item = receiveQueue.pollWait();
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    @Test
+    public void producersAreFlushedByTheScheduler() throws Exception {
+        final SendQueue<Integer> sendQueue = queue.sendQueueWithAutoFlush(10, TimeUnit.MILLISECONDS);
+
+        final List<Thread> producers = new ArrayList<>();
+        for (int producer = 0; producer < 4; producer++) {
+            final int base = producer * 1000;
+            final Thread thread = new Thread(() -> {
+                /* Never flushes and never fills a batch. */
+                for (int index = 0; index < 100; index++) {
+                    sendQueue.send(base + index);
+                }
+            });
+            producers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : producers) {
+            thread.join();
+        }
+
+        final List<Integer> items = drain(queue.receiveQueue(), 400);
+        assertEquals(400, items.size());
+
+        /* Each producer has its own buffer so its items keep their order. */
+        for (int producer = 0; producer < 4; producer++) {
+            int last = -1;
+            for (Integer item : items) {
+                if (item / 1000 == producer) {
+                    assertTrue(item > last);
+                    last = item;
+                }
+            }
+            assertEquals(producer * 1000 + 99, last);
+        }
+
+        /* The buffers of the finished producers are dropped once they are flushed. */
+        Thread.sleep(100);
+        assertEquals(0, ((AutoFlushingSendQueue<Integer>) sendQueue).buffers());
+        sendQueue.stop();
+    }
+
+    @Test
+    public void flushSendsFlushesTheCallingThread() {
+        final SendQueue<Integer> sendQueue = queue.sendQueueWithAutoFlush(1, TimeUnit.HOURS);
+        sendQueue.send(1);
+        sendQueue.send(2);
+        assertNull(queue.receiveQueue().poll());
+        sendQueue.flushSends();
+
+        final ReceiveQueue<Integer> receiveQueue = queue.receiveQueue();
+        assertEquals(Integer.valueOf(1), receiveQueue.poll());
+        assertEquals(Integer.valueOf(2), receiveQueue.poll());
+        sendQueue.stop();
+    }
+
+    @Test
+    public void flushSendsFlushesOtherThreads() throws Exception {
+        final SendQueue<Integer> sendQueue = queue.sendQueueWithAutoFlush(1, TimeUnit.HOURS);
+        final CountDownLatch sent = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        final Thread producer = new Thread(() -> {
+            sendQueue.send(1);
+            sendQueue.send(2);
+            sent.countDown();
+            try {
+                done.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+
+        final ReceiveQueue<Integer> receiveQueue = queue.receiveQueue();
+        assertNull(receiveQueue.poll());
+        /* The producer is still alive, only the flush from this thread pushes its items. */
+        sendQueue.flushSends();
+        assertEquals(Integer.valueOf(1), receiveQueue.poll());
+        assertEquals(Integer.valueOf(2), receiveQueue.poll());
+        done.countDown();
+        producer.join();
+        sendQueue.stop();
+    }
+
+    @Test
+    public void stopFlushesAndDropsBuffers() {
+        final AutoFlushingSendQueue<Integer> sendQueue =
+                (AutoFlushingSendQueue<Integer>) queue.sendQueueWithAutoFlush(1, TimeUnit.HOURS);
+        sendQueue.send(1);
+        assertEquals(1, sendQueue.buffers());
+        sendQueue.stop();
+        assertEquals(0, sendQueue.buffers());
+        assertEquals(Integer.valueOf(1), queue.receiveQueue().poll());
+    }
+
+    @Test
+    public void sharedSendQueue() {
+        final AutoFlushingSendQueue<Integer> sendQueue = new AutoFlushingSendQueue<>(queue.sendQueue(),
+                (runnable, interval, timeUnit) -> null, 10, TimeUnit.MILLISECONDS);
+        sendQueue.send(1);
+        sendQueue.flushSends();
+        assertEquals(Integer.valueOf(1), queue.receiveQueue().poll());
+        assertEquals(1, sendQueue.buffers());
+    }
+}
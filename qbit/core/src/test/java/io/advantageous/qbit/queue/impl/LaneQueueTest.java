@@ -0,0 +1,185 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.annotation.Lane;
+import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.QueueBuilder;
+import io.advantageous.qbit.queue.ReceiveQueue;
+import io.advantageous.qbit.queue.ReceiveQueueListener;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.service.ServiceBuilder;
+import io.advantageous.qbit.service.ServiceProxyUtils;
+import io.advantageous.qbit.service.ServiceQueue;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LaneQueueTest {
+
+    private Queue<String> queue;
+
+    @After
+    public void tearDown() {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    private static int laneOf(final Object item) {
+        return item.toString().startsWith("high") ? 0 : item.toString().startsWith("low") ? 2 : -1;
+    }
+
+    @Test
+    public void strictPriority() {
+        queue = QueueBuilder.queueBuilder().setName("lanes").setLanes(3).setDefaultLane(1)
+                .setLaneSelector(LaneQueueTest::laneOf).build();
+        assertTrue(queue instanceof LaneQueue);
+
+        final SendQueue<String> sendQueue = queue.sendQueue();
+        sendQueue.send("low1");
+        sendQueue.send("normal1");
+        sendQueue.send("normal2");
+        sendQueue.send("high1");
+        sendQueue.send("low2");
+        sendQueue.send("high2");
+        sendQueue.flushSends();
+
+        final ReceiveQueue<String> receiveQueue = queue.receiveQueue();
+        final List<String> items = new ArrayList<>();
+        String item = receiveQueue.poll();
+        while (item != null) {
+            items.add(item);
+            /* A late high priority item jumps ahead of what is left. */
+            if (item.equals("normal1")) {
+                sendQueue.sendAndFlush("high3");
+            }
+            item = receiveQueue.poll();
+        }
+        assertEquals("[high1, high2, normal1, high3, normal2, low1, low2]", items.toString());
+    }
+
+    @Test
+    public void sharedSchedulerWakesOnAnyLane() throws Exception {
+        final SharedQueueScheduler scheduler = new SharedQueueScheduler("lanes", 1);
+        try {
+            queue = QueueBuilder.queueBuilder().setName("lanes").setLanes(2).setPollWait(10_000)
+                    .setLaneSelector(LaneQueueTest::laneOf).setQueueScheduler(scheduler).build();
+
+            final List<String> items = new CopyOnWriteArrayList<>();
+            final CountDownLatch received = new CountDownLatch(2);
+            queue.startListener(item -> {
+                items.add(item);
+                received.countDown();
+            });
+
+            final SendQueue<String> sendQueue = queue.sendQueue();
+            /* Let the listener park before each send, the lanes must wake it. */
+            Thread.sleep(50);
+            sendQueue.send("high1");
+            sendQueue.flushSends();
+            Thread.sleep(50);
+            sendQueue.send("normal1");
+            sendQueue.flushSends();
+
+            assertTrue(received.await(5, TimeUnit.SECONDS));
+            assertEquals("[high1, normal1]", items.toString());
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    public void weightedRoundRobin() {
+        queue = QueueBuilder.queueBuilder().setName("lanes").setLanes(2).setLaneWeights(3, 1)
+                .setLaneSelector(LaneQueueTest::laneOf).build();
+
+        final SendQueue<String> sendQueue = queue.sendQueue();
+        for (int index = 0; index < 6; index++) {
+            sendQueue.send("high" + index);
+            sendQueue.send("bulk" + index);
+        }
+        sendQueue.flushSends();
+
+        final ReceiveQueue<String> receiveQueue = queue.receiveQueue();
+        final List<String> items = new ArrayList<>();
+        String item = receiveQueue.poll();
+        while (item != null) {
+            items.add(item);
+            item = receiveQueue.poll();
+        }
+        assertEquals("[high0, high1, high2, bulk0, high3, high4, high5, bulk1, bulk2, bulk3, bulk4, bulk5]",
+                items.toString());
+    }
+
+    @Test
+    public void listenerWakesUpForAnyLane() throws Exception {
+        queue = QueueBuilder.queueBuilder().setName("lanes").setLanes(2).setPollWait(10_000)
+                .setLaneSelector(LaneQueueTest::laneOf).build();
+        final List<String> items = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(2);
+        queue.startListener(new ReceiveQueueListener<String>() {
+            @Override
+            public void receive(final String item) {
+                items.add(item);
+                latch.countDown();
+            }
+        });
+        Thread.sleep(50);
+
+        final SendQueue<String> sendQueue = queue.sendQueue();
+        sendQueue.sendAndFlush("bulk");
+        sendQueue.sendAndFlush("high");
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals(2, items.size());
+    }
+
+    @Test
+    public void serviceMethodLanes() throws Exception {
+        final LaneService laneService = new LaneService();
+        final ServiceBuilder serviceBuilder = ServiceBuilder.serviceBuilder().setServiceObject(laneService);
+        serviceBuilder.getRequestQueueBuilder().setLanes(2);
+        final ServiceQueue serviceQueue = serviceBuilder.build();
+        assertTrue(serviceQueue.requestQueue() instanceof LaneQueue);
+
+        final LaneServiceClient client = serviceQueue.createProxy(LaneServiceClient.class);
+        for (int index = 0; index < 50; index++) {
+            client.bulk(index);
+        }
+        client.health();
+        ServiceProxyUtils.flushServiceProxy(client);
+
+        serviceQueue.startServiceQueue();
+        assertTrue(laneService.latch.await(10, TimeUnit.SECONDS));
+        assertEquals("health", laneService.calls.get(0));
+        assertEquals("bulk0", laneService.calls.get(1));
+        serviceQueue.stop();
+    }
+
+    public interface LaneServiceClient {
+        void bulk(int index);
+
+        void health();
+    }
+
+    public static class LaneService {
+        final List<String> calls = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(51);
+
+        public void bulk(final int index) {
+            calls.add("bulk" + index);
+            latch.countDown();
+        }
+
+        @Lane(0)
+        public void health() {
+            calls.add("health");
+            latch.countDown();
+        }
+    }
+}
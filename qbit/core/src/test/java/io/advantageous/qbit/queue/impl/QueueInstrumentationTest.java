@@ -0,0 +1,169 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.QueueBuilder;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.service.stats.StatsCollector;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class QueueInstrumentationTest {
+
+    private final Map<String, Long> counts = new ConcurrentHashMap<>();
+    private final Map<String, Long> levels = new ConcurrentHashMap<>();
+    private final AtomicInteger timings = new AtomicInteger();
+
+    private final StatsCollector statsCollector = new StatsCollector() {
+        @Override
+        public void recordCount(String name, long count) {
+            counts.merge(name, count, Long::sum);
+        }
+
+        @Override
+        public void recordLevel(String name, long level) {
+            levels.put(name, level);
+        }
+
+        @Override
+        public void recordTiming(String name, long duration) {
+            assertEquals("test.timeInQueue", name);
+            assertTrue(duration >= 0);
+            timings.incrementAndGet();
+        }
+    };
+
+    @Test
+    public void bucket() {
+        assertEquals(0, QueueInstrumentation.bucket(1));
+        assertEquals(1, QueueInstrumentation.bucket(2));
+        assertEquals(2, QueueInstrumentation.bucket(3));
+        assertEquals(2, QueueInstrumentation.bucket(4));
+        assertEquals(3, QueueInstrumentation.bucket(5));
+        assertEquals(4, QueueInstrumentation.bucket(10));
+        assertEquals(QueueInstrumentation.BUCKETS - 1, QueueInstrumentation.bucket(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void publishQueueStats() throws Exception {
+        publishQueueStats(0);
+    }
+
+    @Test
+    public void publishQueueStatsWithPooledBatches() throws Exception {
+        publishQueueStats(16);
+    }
+
+    private void publishQueueStats(final int batchPoolSize) throws Exception {
+
+        final Queue<String> queue = QueueBuilder.queueBuilder().setName("instrumented")
+                .setArrayBlockingQueue().setBatchSize(10).setBatchPoolSize(batchPoolSize)
+                .setStatsCollector(statsCollector).setStatsPrefix("test")
+                .setStatsFlushSeconds(0).setStatsSampleEvery(5).build();
+
+        final CountDownLatch latch = new CountDownLatch(1000);
+        queue.startListener(item -> latch.countDown());
+
+        final SendQueue<String> sendQueue = queue.sendQueue();
+        for (int index = 0; index < 1000; index++) {
+            sendQueue.send("" + index);
+        }
+        sendQueue.flushSends();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        /* Give the listener a chance to go empty and flush. */
+        for (int index = 0; index < 100 && counts.getOrDefault("test.dequeued", 0L) < 1000; index++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1000L, (long) counts.get("test.enqueued"));
+        assertEquals(1000L, (long) counts.get("test.dequeued"));
+        assertEquals(100L, (long) counts.get("test.batchSize.16"));
+        assertNull(counts.get("test.batchSize.8"));
+        assertEquals(0L, (long) levels.get("test.depth"));
+        assertTrue(levels.containsKey("test.enqueueRate"));
+        assertTrue(levels.containsKey("test.dequeueRate"));
+        assertEquals(20, timings.get());
+        queue.stop();
+    }
+
+    @Test
+    public void probesAreSkipped() {
+
+        final Queue<String> queue = QueueBuilder.queueBuilder().setName("probes")
+                .setArrayBlockingQueue().setBatchSize(1)
+                .setStatsCollector(statsCollector).setStatsPrefix("test")
+                .setStatsSampleEvery(1).build();
+
+        final SendQueue<String> sendQueue = queue.sendQueue();
+        sendQueue.send("a");
+        sendQueue.send("b");
+
+        /* The probes ride along with the items, so they take no room in the queue. */
+        assertEquals(2, queue.size());
+        assertEquals("a", queue.receiveQueue().poll());
+        assertEquals("b", queue.receiveQueue().take());
+        assertNull(queue.receiveQueue().poll());
+        assertEquals(2, timings.get());
+        queue.stop();
+    }
+
+    @Test
+    public void lanesReportUnderTheirOwnPrefix() throws Exception {
+
+        final Set<String> names = ConcurrentHashMap.newKeySet();
+        final StatsCollector laneStats = new StatsCollector() {
+            @Override
+            public void recordCount(String name, long count) {
+                names.add(name);
+            }
+
+            @Override
+            public void recordLevel(String name, long level) {
+                names.add(name);
+            }
+
+            @Override
+            public void recordTiming(String name, long duration) {
+                names.add(name);
+            }
+        };
+
+        final Queue<String> queue = QueueBuilder.queueBuilder().setName("lanes").setLanes(2)
+                .setLaneSelector(item -> item.toString().startsWith("high") ? 0 : 1)
+                .setStatsCollector(laneStats).setStatsPrefix("test").setStatsFlushSeconds(0).build();
+
+        final CountDownLatch latch = new CountDownLatch(2);
+        queue.startListener(item -> latch.countDown());
+
+        final SendQueue<String> sendQueue = queue.sendQueue();
+        sendQueue.send("high");
+        sendQueue.send("low");
+        sendQueue.flushSends();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        for (int index = 0; index < 100 && !(names.contains("test|lane0.dequeued")
+                && names.contains("test|lane1.dequeued")); index++) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(names.toString(), names.contains("test|lane0.enqueued"));
+        assertTrue(names.toString(), names.contains("test|lane1.enqueued"));
+        assertTrue(names.toString(), names.contains("test|lane0.dequeued"));
+        assertTrue(names.toString(), names.contains("test|lane1.dequeued"));
+        assertFalse(names.toString(), names.contains("test.enqueued"));
+        queue.stop();
+    }
+}
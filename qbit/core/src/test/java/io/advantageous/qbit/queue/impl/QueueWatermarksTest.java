@@ -0,0 +1,204 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.QueueBuilder;
+import io.advantageous.qbit.queue.QueueException;
+import io.advantageous.qbit.queue.QueueWatermarkListener;
+import io.advantageous.qbit.queue.SendQueue;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class QueueWatermarksTest {
+
+    @Test
+    public void crossWatermarks() {
+
+        final QueueWatermarks watermarks = new QueueWatermarks("test", 10, 4);
+        final List<String> events = new CopyOnWriteArrayList<>();
+        watermarks.addListener(new QueueWatermarkListener() {
+            @Override
+            public void highWatermark(String queueName, int depth) {
+                events.add("high " + depth);
+            }
+
+            @Override
+            public void lowWatermark(String queueName, int depth) {
+                events.add("low " + depth);
+            }
+        });
+
+        final AtomicBoolean ran = new AtomicBoolean();
+        watermarks.onWritable(() -> ran.set(true));
+        assertTrue(ran.get());
+
+        watermarks.added(9);
+        assertFalse(watermarks.isSaturated());
+        assertEquals(1, watermarks.availableCredits());
+
+        watermarks.added(1);
+        assertTrue(watermarks.isSaturated());
+        assertEquals(0, watermarks.availableCredits());
+
+        ran.set(false);
+        watermarks.onWritable(() -> ran.set(true));
+        assertFalse(ran.get());
+
+        /* Between the watermarks it stays saturated. */
+        watermarks.removed(5);
+        assertTrue(watermarks.isSaturated());
+        assertFalse(ran.get());
+
+        watermarks.removed(1);
+        assertFalse(watermarks.isSaturated());
+        assertTrue(ran.get());
+
+        assertEquals("[high 10, low 4]", events.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lowMustBeBelowHigh() {
+        new QueueWatermarks("test", 10, 10);
+    }
+
+    @Test
+    public void noWatermarks() {
+        assertFalse(QueueBuilder.queueBuilder().setName("none").build()
+                .addWatermarkListener(new QueueWatermarkListener() {
+                }));
+    }
+
+    @Test
+    public void stopResetsDepth() {
+
+        final Queue<String> queue = QueueBuilder.queueBuilder().setName("stop")
+                .setArrayBlockingQueue().setBatchSize(1).setHighWatermark(3).setLowWatermark(1).build();
+
+        final AtomicInteger lowCount = new AtomicInteger();
+        assertTrue(queue.addWatermarkListener(new QueueWatermarkListener() {
+            @Override
+            public void lowWatermark(String queueName, int depth) {
+                lowCount.incrementAndGet();
+            }
+        }));
+
+        final SendQueue<String> sendQueue = queue.sendQueue();
+        for (int index = 0; index < 3; index++) {
+            sendQueue.send("" + index);
+        }
+        assertTrue(queue.isSaturated());
+
+        /* The items are cleared, so nothing would ever count them out. */
+        queue.stop();
+        assertFalse(queue.isSaturated());
+        assertEquals(1, lowCount.get());
+        assertEquals(3, sendQueue.availableCredits());
+    }
+
+    @Test
+    public void queueCredits() throws Exception {
+
+        final Queue<String> queue = QueueBuilder.queueBuilder().setName("credits")
+                .setArrayBlockingQueue().setBatchSize(10).setHighWatermark(100).build();
+
+        final AtomicInteger highCount = new AtomicInteger();
+        queue.addWatermarkListener(new QueueWatermarkListener() {
+            @Override
+            public void highWatermark(String queueName, int depth) {
+                highCount.incrementAndGet();
+            }
+        });
+
+        final SendQueue<String> sendQueue = queue.sendQueue();
+        assertEquals(100, sendQueue.availableCredits());
+
+        for (int index = 0; index < 5; index++) {
+            sendQueue.send("" + index);
+        }
+        /* Items in the local batch count against the credits of this send queue. */
+        assertEquals(95, sendQueue.availableCredits());
+        sendQueue.flushSends();
+        assertEquals(95, sendQueue.availableCredits());
+        assertTrue(sendQueue.isWritable());
+
+        for (int index = 0; index < 100; index++) {
+            sendQueue.send("" + index);
+        }
+        sendQueue.flushSends();
+
+        assertTrue(queue.isSaturated());
+        assertFalse(sendQueue.isWritable());
+        assertEquals(0, sendQueue.availableCredits());
+        assertEquals(1, highCount.get());
+
+        final CountDownLatch writable = new CountDownLatch(1);
+        sendQueue.onWritable(writable::countDown);
+        assertEquals(1, writable.getCount());
+
+        final AtomicInteger received = new AtomicInteger();
+        queue.startListener(item -> received.incrementAndGet());
+
+        assertTrue(writable.await(5, TimeUnit.SECONDS));
+        assertFalse(queue.isSaturated());
+
+        for (int index = 0; index < 100 && received.get() < 105; index++) {
+            Thread.sleep(10);
+        }
+        assertEquals(105, received.get());
+        assertEquals(100, sendQueue.availableCredits());
+        queue.stop();
+    }
+
+    @Test
+    public void noBatchQueueCredits() {
+
+        final Queue<String> queue = QueueBuilder.queueBuilder().setName("no batch")
+                .setArrayBlockingQueue().setBatchSize(1).setHighWatermark(3).setLowWatermark(1).build();
+
+        final SendQueue<String> sendQueue = queue.sendQueue();
+        sendQueue.send("a");
+        sendQueue.send("b");
+        assertEquals(1, sendQueue.availableCredits());
+        sendQueue.send("c");
+        assertTrue(queue.isSaturated());
+
+        queue.receiveQueue().poll();
+        assertTrue(queue.isSaturated());
+        queue.receiveQueue().poll();
+        assertFalse(queue.isSaturated());
+        queue.stop();
+    }
+
+    @Test
+    public void failedSendIsNotCounted() {
+
+        final Queue<String> queue = QueueBuilder.queueBuilder().setName("full").setArrayBlockingQueue()
+                .setSize(1).setCheckIfBusy(true).setBatchSize(2).setHighWatermark(10).setLowWatermark(1).build();
+        final SendQueue<String> sendQueue = queue.sendQueue();
+
+        sendQueue.send("a");
+        sendQueue.send("b");
+        sendQueue.flushSends();
+        assertEquals(8, sendQueue.availableCredits());
+
+        /* The queue holds one batch, so the next one is rejected and still waits in the send queue. */
+        sendQueue.send("c");
+        sendQueue.send("d");
+        try {
+            sendQueue.flushSends();
+        } catch (QueueException ex) {
+            /* expected */
+        }
+        assertEquals(6, sendQueue.availableCredits());
+        queue.stop();
+    }
+}
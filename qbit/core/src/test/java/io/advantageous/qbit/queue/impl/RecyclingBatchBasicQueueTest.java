@@ -0,0 +1,63 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.QueueBuilder;
+import io.advantageous.qbit.queue.impl.sender.BatchArrayPool;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class RecyclingBatchBasicQueueTest extends BasicSendReceiveTest {
+
+
+    @Before
+    public void setup() {
+
+        final QueueBuilder queueBuilder = QueueBuilder.queueBuilder();
+
+        queue = queueBuilder.setArrayBlockingQueue().setBatchSize(50)
+                .setBatchPoolSize(16)
+                .setCheckEvery(5).setCheckIfBusy(true)
+                .setName("Queue test").setPollTimeUnit(TimeUnit.MILLISECONDS)
+                .setPollWait(50).build();
+
+        receiveQueue = queue.receiveQueue();
+        sendQueue = queue.sendQueue();
+    }
+
+
+    @Test
+    public void sendPartialBatchesInARow() {
+
+        for (int batch = 0; batch < 100; batch++) {
+            for (int index = 0; index < 3; index++) {
+                sendQueue.send(batch + ":" + index);
+            }
+            sendQueue.flushSends();
+
+            for (int index = 0; index < 3; index++) {
+                assertEquals(batch + ":" + index, receiveQueue.poll());
+            }
+            assertNull(receiveQueue.poll());
+        }
+    }
+
+    @Test
+    public void poolGivesBackReleasedArrays() {
+        final BatchArrayPool pool = new BatchArrayPool(4, 2);
+        final Object[] array = pool.acquire();
+
+        assertEquals(4, BatchArrayPool.capacity(array));
+        assertSame(pool, BatchArrayPool.owner(array));
+        assertNull(BatchArrayPool.owner(new Object[]{"a", "b"}));
+
+        pool.release(array);
+        assertEquals(1, pool.available());
+        assertSame(array, pool.acquire());
+        assertEquals(0, pool.available());
+    }
+}
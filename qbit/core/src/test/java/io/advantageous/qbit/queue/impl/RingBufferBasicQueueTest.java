@@ -0,0 +1,138 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.QueueBuilder;
+import io.advantageous.qbit.queue.QueueException;
+import io.advantageous.qbit.queue.SendQueue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RingBufferBasicQueueTest extends BasicSendReceiveTest {
+
+
+    @Before
+    public void setup() {
+
+        final QueueBuilder queueBuilder = QueueBuilder.queueBuilder();
+
+        queue = queueBuilder.setRingBufferQueue(1024).setBatchSize(50)
+                .setCheckEvery(5).setCheckIfBusy(true)
+                .setName("Queue test").setPollTimeUnit(TimeUnit.MILLISECONDS)
+                .setPollWait(50).build();
+
+        receiveQueue = queue.receiveQueue();
+        sendQueue = queue.sendQueue();
+    }
+
+
+    @Test(expected = QueueException.class)
+    public void testFull() {
+
+        final QueueBuilder queueBuilder = QueueBuilder.queueBuilder();
+
+        queue = queueBuilder.setRingBufferQueue(4).setBatchSize(5)
+                .setName("Queue test").setPollTimeUnit(TimeUnit.MILLISECONDS)
+                .setPollWait(50).build();
+
+        receiveQueue = queue.receiveQueue();
+        sendQueue = queue.sendQueue();
+
+
+        for (int index = 0; index < 2000; index++) {
+            sendQueue.send("" + index);
+        }
+    }
+
+    @Test
+    public void testWrapAround() throws Exception {
+        final RingBufferBlockingQueue<Integer> ringBuffer = new RingBufferBlockingQueue<>(3);
+        assertEquals(4, ringBuffer.capacity());
+
+        for (int index = 0; index < 100; index++) {
+            assertTrue(ringBuffer.offer(index));
+            assertTrue(ringBuffer.offer(index + 1000));
+            assertEquals(2, ringBuffer.size());
+            assertEquals(index, (int) ringBuffer.peek());
+            assertEquals(index, (int) ringBuffer.poll());
+            assertEquals(index + 1000, (int) ringBuffer.poll(1, TimeUnit.MILLISECONDS));
+            assertNull(ringBuffer.poll());
+        }
+
+        for (int index = 0; index < 4; index++) {
+            assertTrue(ringBuffer.offer(index));
+        }
+        assertFalse(ringBuffer.offer(5));
+        assertFalse(ringBuffer.offer(5, 1, TimeUnit.MILLISECONDS));
+        assertEquals(0, ringBuffer.remainingCapacity());
+
+        final List<Integer> drained = new ArrayList<>();
+        assertEquals(4, ringBuffer.drainTo(drained));
+        assertEquals(4, drained.size());
+        assertTrue(ringBuffer.isEmpty());
+    }
+
+    @Test
+    public void manyProducers() throws Exception {
+
+        final int producers = 4;
+        final int amount = 100_000;
+        final AtomicLong total = new AtomicLong();
+        final AtomicLong count = new AtomicLong();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        queue.startListener(item -> {
+            total.addAndGet(Long.parseLong(item));
+            if (count.incrementAndGet() == producers * amount) {
+                latch.countDown();
+            }
+        });
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int producer = 0; producer < producers; producer++) {
+            final Thread thread = new Thread(() -> {
+                final SendQueue<String> producerSendQueue = queue.sendQueue();
+                for (int index = 0; index < amount; index++) {
+                    while (true) {
+                        try {
+                            producerSendQueue.send("" + index);
+                            break;
+                        } catch (QueueException ex) {
+                            Thread.yield();
+                        }
+                    }
+                }
+                /* The last batch can find the ring full too. */
+                while (true) {
+                    try {
+                        producerSendQueue.flushSends();
+                        break;
+                    } catch (QueueException ex) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        latch.await(10, TimeUnit.SECONDS);
+
+        assertEquals(producers * amount, count.get());
+        assertEquals(producers * ((long) amount * (amount - 1) / 2), total.get());
+        queue.stop();
+    }
+}
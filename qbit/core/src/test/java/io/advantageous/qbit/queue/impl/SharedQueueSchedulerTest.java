@@ -0,0 +1,265 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.QueueBuilder;
+import io.advantageous.qbit.queue.ReceiveQueueListener;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.queue.WaitStrategy;
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.service.ServiceBuilder;
+import io.advantageous.qbit.service.ServiceProxyUtils;
+import io.advantageous.qbit.service.ServiceQueue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SharedQueueSchedulerTest {
+
+    private SharedQueueScheduler scheduler;
+
+    @Before
+    public void setup() {
+        scheduler = new SharedQueueScheduler("test", 2);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    public void manyQueuesFewThreads() throws Exception {
+
+        final int queueCount = 50;
+        final int amount = 1_000;
+        final CountDownLatch latch = new CountDownLatch(queueCount);
+        final AtomicInteger overlapping = new AtomicInteger();
+        final List<Queue<Integer>> queues = new ArrayList<>();
+        final List<String> threadNames = new CopyOnWriteArrayList<>();
+
+        for (int index = 0; index < queueCount; index++) {
+            final Queue<Integer> queue = QueueBuilder.queueBuilder().setName("shared" + index)
+                    .setBatchSize(10).setPollWait(10).setQueueScheduler(scheduler).build();
+            final AtomicInteger inside = new AtomicInteger();
+            final AtomicInteger count = new AtomicInteger();
+            queue.startListener(item -> {
+                if (inside.incrementAndGet() != 1) {
+                    overlapping.incrementAndGet();
+                }
+                if (!threadNames.contains(Thread.currentThread().getName())) {
+                    threadNames.add(Thread.currentThread().getName());
+                }
+                if (count.incrementAndGet() == amount) {
+                    latch.countDown();
+                }
+                inside.decrementAndGet();
+            });
+            queues.add(queue);
+        }
+
+        for (Queue<Integer> queue : queues) {
+            final SendQueue<Integer> sendQueue = queue.sendQueue();
+            for (int index = 0; index < amount; index++) {
+                sendQueue.send(index);
+            }
+            sendQueue.flushSends();
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(0, overlapping.get());
+        assertTrue(threadNames.size() <= 2);
+        queues.forEach(Queue::stop);
+    }
+
+    @Test
+    public void listenerCallbacks() throws Exception {
+
+        final Queue<String> queue = QueueBuilder.queueBuilder().setName("callbacks")
+                .setBatchSize(5).setLimit(5).setPollWait(20).setQueueScheduler(scheduler).build();
+
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch idle = new CountDownLatch(1);
+        final CountDownLatch shutdown = new CountDownLatch(1);
+        final AtomicReference<CountDownLatch> emptyLatch = new AtomicReference<>(new CountDownLatch(1));
+
+        queue.startListener(new ReceiveQueueListener<String>() {
+            @Override
+            public void receive(String item) {
+                events.add(item);
+            }
+
+            @Override
+            public void init() {
+                events.add("init");
+            }
+
+            @Override
+            public void startBatch() {
+                events.add("startBatch");
+            }
+
+            @Override
+            public void limit() {
+                events.add("limit");
+            }
+
+            @Override
+            public void empty() {
+                events.add("empty");
+                emptyLatch.get().countDown();
+            }
+
+            @Override
+            public void idle() {
+                idle.countDown();
+            }
+
+            @Override
+            public void shutdown() {
+                shutdown.countDown();
+            }
+        });
+
+        assertTrue(idle.await(5, TimeUnit.SECONDS));
+
+        final SendQueue<String> sendQueue = queue.sendQueue();
+        for (int index = 0; index < 7; index++) {
+            sendQueue.send("" + index);
+        }
+        sendQueue.flushSends();
+
+        assertTrue(emptyLatch.get().await(5, TimeUnit.SECONDS));
+
+        assertEquals("[init, startBatch, 0, 1, 2, 3, 4, limit, 5, 6, empty]", events.toString());
+
+        queue.stop();
+        assertTrue(shutdown.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void idleQueueParksUntilSent() throws Exception {
+
+        final Queue<String> queue = QueueBuilder.queueBuilder().setName("parked")
+                .setBatchSize(5).setPollWait(1_000).setQueueScheduler(scheduler).build();
+        final ConsumerWakeup wakeup = ((BasicQueue<String>) queue).features().consumerWakeup();
+
+        final AtomicInteger idleCount = new AtomicInteger();
+        final CountDownLatch received = new CountDownLatch(3);
+        queue.startListener(new ReceiveQueueListener<String>() {
+            @Override
+            public void receive(String item) {
+                received.countDown();
+            }
+
+            @Override
+            public void idle() {
+                idleCount.incrementAndGet();
+            }
+        });
+
+        final long parkedBy = System.currentTimeMillis() + 5_000;
+        while (!wakeup.parked() && System.currentTimeMillis() < parkedBy) {
+            Thread.sleep(1);
+        }
+        assertTrue(wakeup.parked());
+
+        /* Nothing polls a parked queue, not even for idle before the poll wait passes. */
+        Thread.sleep(100);
+        assertTrue(wakeup.parked());
+        assertEquals(0, idleCount.get());
+
+        final SendQueue<String> sendQueue = queue.sendQueue();
+        sendQueue.send("a");
+        sendQueue.send("b");
+        sendQueue.send("c");
+        sendQueue.flushSends();
+
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        queue.stop();
+    }
+
+    @Test
+    public void stopWakesParkedListener() throws Exception {
+
+        final Queue<String> queue = QueueBuilder.queueBuilder().setName("stopParked")
+                .setPollWait(10_000).setQueueScheduler(scheduler).build();
+        final ConsumerWakeup wakeup = ((BasicQueue<String>) queue).features().consumerWakeup();
+
+        final CountDownLatch shutdown = new CountDownLatch(1);
+        queue.startListener(new ReceiveQueueListener<String>() {
+            @Override
+            public void receive(String item) {
+            }
+
+            @Override
+            public void shutdown() {
+                shutdown.countDown();
+            }
+        });
+
+        final long parkedBy = System.currentTimeMillis() + 5_000;
+        while (!wakeup.parked() && System.currentTimeMillis() < parkedBy) {
+            Thread.sleep(1);
+        }
+        assertTrue(wakeup.parked());
+
+        queue.stop();
+        assertTrue(shutdown.await(5, TimeUnit.SECONDS));
+        assertFalse(wakeup.parked());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void waitStrategyIsRejected() {
+        QueueBuilder.queueBuilder().setName("spinning").setQueueScheduler(scheduler)
+                .setWaitStrategy(WaitStrategy.busySpin()).build();
+    }
+
+    @Test
+    public void serviceRoundTrip() throws Exception {
+
+        final ServiceBuilder serviceBuilder = ServiceBuilder.serviceBuilder()
+                .setServiceObject(new AdderService());
+        serviceBuilder.getRequestQueueBuilder().setQueueScheduler(scheduler);
+        serviceBuilder.getResponseQueueBuilder().setQueueScheduler(scheduler);
+
+        final ServiceQueue serviceQueue = serviceBuilder.buildAndStartAll();
+        final Adder adder = serviceQueue.createProxy(Adder.class);
+
+        final CountDownLatch latch = new CountDownLatch(100);
+        final AtomicInteger total = new AtomicInteger();
+        for (int index = 0; index < 100; index++) {
+            adder.add(result -> {
+                total.addAndGet(result);
+                latch.countDown();
+            }, index, 1);
+        }
+        ServiceProxyUtils.flushServiceProxy(adder);
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(100 * 99 / 2 + 100, total.get());
+        serviceQueue.stop();
+    }
+
+    public interface Adder {
+        void add(Callback<Integer> callback, int a, int b);
+    }
+
+    public static class AdderService {
+        public void add(final Callback<Integer> callback, final int a, final int b) {
+            callback.accept(a + b);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package io.advantageous.qbit.queue.impl.durable;
+
+import io.advantageous.qbit.queue.JsonQueue;
+import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.QueueBuilder;
+import io.advantageous.qbit.queue.ReceiveQueue;
+import io.advantageous.qbit.queue.ReceiveQueueListener;
+import io.advantageous.qbit.queue.SendQueue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DurableQueueTest {
+
+    private File directory;
+    private Queue<String> queue;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("durable-queue").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        if (queue != null) {
+            queue.stop();
+        }
+        delete(directory);
+    }
+
+    private static void delete(final File file) {
+        final File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+    }
+
+    private Queue<String> open(final int segmentSize) {
+        return QueueBuilder.queueBuilder().setName("durable")
+                .setDurableDirectory(directory.getPath())
+                .setSegmentSize(segmentSize)
+                .setFsyncPolicy(FsyncPolicy.BATCH)
+                .setBatchSize(10)
+                .buildDurableQueue();
+    }
+
+    @Test
+    public void sendAndReceive() {
+        queue = open(4096);
+        assertTrue(queue instanceof DurableQueue);
+
+        final SendQueue<String> sendQueue = queue.sendQueue();
+        final ReceiveQueue<String> receiveQueue = queue.receiveQueue();
+        assertNull(receiveQueue.poll());
+
+        for (int index = 0; index < 25; index++) {
+            sendQueue.send("item" + index);
+        }
+        /* 20 were flushed by the batch size, 5 are still local. */
+        assertEquals(20, queue.size());
+        sendQueue.flushSends();
+        assertEquals(25, queue.size());
+
+        for (int index = 0; index < 25; index++) {
+            assertEquals("item" + index, receiveQueue.pollWait());
+        }
+        assertNull(receiveQueue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void restartResumesFromConsumerOffset() {
+        queue = open(4096);
+        final SendQueue<String> sendQueue = queue.sendQueue();
+        for (int index = 0; index < 10; index++) {
+            sendQueue.send("item" + index);
+        }
+        sendQueue.flushSends();
+
+        final ReceiveQueue<String> receiveQueue = queue.receiveQueue();
+        assertEquals("item0", receiveQueue.poll());
+        assertEquals("item1", receiveQueue.poll());
+        assertEquals("item2", receiveQueue.poll());
+        queue.stop();
+
+        /* item2 was handed out but never committed by a following read so it comes back. */
+        queue = open(4096);
+        assertEquals(8, queue.size());
+        final ReceiveQueue<String> reopened = queue.receiveQueue();
+        assertEquals("item2", reopened.poll());
+
+        queue.sendQueue().sendAndFlush("after restart");
+        for (int index = 3; index < 10; index++) {
+            assertEquals("item" + index, reopened.poll());
+        }
+        assertEquals("after restart", reopened.poll());
+        assertNull(reopened.poll());
+    }
+
+    @Test
+    public void segmentsRollAndConsumedSegmentsAreDeleted() {
+        queue = open(256);
+        final SendQueue<String> sendQueue = queue.sendQueue();
+        for (int index = 0; index < 100; index++) {
+            sendQueue.send(String.format("message-%03d", index));
+        }
+        sendQueue.flushSends();
+        assertTrue(segmentCount() > 5);
+
+        final ReceiveQueue<String> receiveQueue = queue.receiveQueue();
+        for (int index = 0; index < 100; index++) {
+            assertEquals(String.format("message-%03d", index), receiveQueue.poll());
+        }
+        assertNull(receiveQueue.poll());
+        assertEquals(1, segmentCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void itemLargerThanSegment() {
+        queue = open(64);
+        queue.sendQueue().sendAndFlush("this string does not fit in a sixty four byte segment at all, not even close");
+    }
+
+    @Test
+    public void tornRecordIsDropped() throws Exception {
+        queue = open(4096);
+        queue.sendQueue().sendMany("one", "two");
+        queue.stop();
+
+        /* Corrupt the last byte of "two". */
+        final File segment = DurableSegment.segmentFile(directory, 0);
+        final byte[] bytes = Files.readAllBytes(segment.toPath());
+        final int end = 2 * DurableQueue.HEADER_SIZE + "one".length() + "two".length();
+        bytes[end - 1] = 'X';
+        Files.write(segment.toPath(), bytes);
+
+        queue = open(4096);
+        assertEquals(1, queue.size());
+        final ReceiveQueue<String> receiveQueue = queue.receiveQueue();
+        assertEquals("one", receiveQueue.poll());
+        assertNull(receiveQueue.poll());
+
+        queue.sendQueue().sendAndFlush("three");
+        assertEquals("three", receiveQueue.poll());
+    }
+
+    @Test
+    public void listener() throws Exception {
+        queue = open(1024 * 1024);
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(1000);
+        queue.startListener(new ReceiveQueueListener<String>() {
+            @Override
+            public void receive(final String item) {
+                received.add(item);
+                latch.countDown();
+            }
+        });
+        assertTrue(queue.started());
+
+        final SendQueue<String> sendQueue = queue.sendQueue();
+        for (int index = 0; index < 1000; index++) {
+            sendQueue.send("item" + index);
+        }
+        sendQueue.flushSends();
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals("item0", received.get(0));
+        assertEquals("item999", received.get(999));
+    }
+
+    @Test
+    public void jsonQueue() {
+        queue = open(4096);
+        final JsonQueue<Employee> employeeQueue = new JsonQueue<>(Employee.class, queue);
+        employeeQueue.sendQueue().sendAndFlush(new Employee("Rick"));
+        queue.stop();
+
+        queue = open(4096);
+        final Employee employee = new JsonQueue<>(Employee.class, queue).receiveQueue().poll();
+        assertEquals("Rick", employee.name);
+    }
+
+    @Test
+    public void sendAfterStopIsRejected() {
+        queue = open(4096);
+        final SendQueue<String> sendQueue = queue.sendQueue();
+        sendQueue.sendAndFlush("before stop");
+        queue.stop();
+        assertNull(queue.receiveQueue().poll());
+
+        try {
+            sendQueue.sendAndFlush("after stop");
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+
+        /* Stopping twice is harmless and the item is still on disk. */
+        queue.stop();
+        queue = open(4096);
+        assertEquals("before stop", queue.receiveQueue().poll());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void durableDirectoryNeedsStringQueue() {
+        QueueBuilder.queueBuilder().setName("durable").setDurableDirectory(directory.getPath()).build();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void inMemorySettingsAreRejected() {
+        QueueBuilder.queueBuilder().setName("durable").setDurableDirectory(directory.getPath())
+                .setHighWatermark(100).buildDurableQueue();
+    }
+
+    @Test
+    public void durableLanes() {
+        queue = QueueBuilder.queueBuilder().setName("durable").setDurableDirectory(directory.getPath())
+                .setSegmentSize(4096).setLanes(2).buildDurableQueue();
+        queue.sendQueue().sendAndFlush("lane item");
+        assertEquals("lane item", queue.receiveQueue().pollWait());
+    }
+
+    private int segmentCount() {
+        final File[] files = directory.listFiles((dir, name) -> name.endsWith(DurableSegment.SUFFIX));
+        return files == null ? 0 : files.length;
+    }
+
+    public static class Employee {
+        String name;
+
+        public Employee(final String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package io.advantageous.qbit.queue.impl.wait;
+
+import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.QueueBuilder;
+import io.advantageous.qbit.queue.ReceiveQueueListener;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.queue.WaitStrategy;
+import org.junit.Test;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class WaitStrategyTest {
+
+    private final WaitStrategy[] strategies = new WaitStrategy[]{
+            WaitStrategy.blocking(),
+            WaitStrategy.busySpin(),
+            WaitStrategy.spinThenYield(10),
+            WaitStrategy.spinYieldPark(10, 10, 1_000, 100_000),
+            WaitStrategy.waitStrategy("spinYieldPark")
+    };
+
+    @Test
+    public void returnsItem() throws Exception {
+        for (WaitStrategy strategy : strategies) {
+            final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(10);
+            queue.offer("hi");
+            assertEquals(strategy.toString(), "hi", strategy.waitForItem(queue, 10, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    public void timesOut() throws Exception {
+        for (WaitStrategy strategy : strategies) {
+            final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(10);
+            final long start = System.nanoTime();
+            assertNull(strategy.toString(), strategy.waitForItem(queue, 5, TimeUnit.MILLISECONDS));
+            assertTrue(strategy.toString(), System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(5));
+        }
+    }
+
+    @Test
+    public void wakesUpWhenItemArrives() throws Exception {
+        for (WaitStrategy strategy : strategies) {
+            final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(10);
+            final Thread thread = new Thread(() -> {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                queue.offer("late");
+            });
+            thread.start();
+            assertEquals(strategy.toString(), "late", strategy.waitForItem(queue, 5, TimeUnit.SECONDS));
+            thread.join();
+        }
+    }
+
+    @Test
+    public void listenerCallbacks() throws Exception {
+        for (WaitStrategy strategy : strategies) {
+
+            final Queue<String> queue = QueueBuilder.queueBuilder().setRingBufferQueue(64)
+                    .setBatchSize(5).setPollWait(10).setWaitStrategy(strategy)
+                    .setName("wait " + strategy).build();
+
+            final AtomicInteger received = new AtomicInteger();
+            final AtomicInteger empty = new AtomicInteger();
+            final CountDownLatch idle = new CountDownLatch(2);
+            final CountDownLatch done = new CountDownLatch(1);
+
+            queue.startListener(new ReceiveQueueListener<String>() {
+                @Override
+                public void receive(String item) {
+                    if (received.incrementAndGet() == 20) {
+                        done.countDown();
+                    }
+                }
+
+                @Override
+                public void empty() {
+                    empty.incrementAndGet();
+                }
+
+                @Override
+                public void idle() {
+                    idle.countDown();
+                }
+            });
+
+            assertTrue(strategy.toString(), idle.await(5, TimeUnit.SECONDS));
+
+            final SendQueue<String> sendQueue = queue.sendQueue();
+            for (int index = 0; index < 20; index++) {
+                sendQueue.send("" + index);
+            }
+            sendQueue.flushSends();
+
+            assertTrue(strategy.toString(), done.await(5, TimeUnit.SECONDS));
+            assertTrue(strategy.toString(), empty.get() > 0);
+            queue.stop();
+        }
+    }
+}
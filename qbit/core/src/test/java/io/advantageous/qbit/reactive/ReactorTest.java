@@ -3,6 +3,8 @@ package io.advantageous.qbit.reactive;
 import io.advantageous.qbit.util.TestTimer;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -277,4 +279,87 @@ public class ReactorTest {
 
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testOnlyDueCallbacksTimeOut() throws Exception {
+
+        final TestTimer testTimer = new TestTimer();
+        testTimer.setTime();
+        final Reactor reactor = ReactorBuilder.reactorBuilder().setTimer(testTimer).build();
+        reactor.process();
+
+        final AtomicInteger timeouts = new AtomicInteger();
+        final AtomicInteger results = new AtomicInteger();
+        final List<AsyncFutureCallback<Object>> callbacks = new ArrayList<>();
+
+        /* Timeouts of one to ten seconds. */
+        for (int index = 0; index < 10_000; index++) {
+            callbacks.add(reactor.callbackBuilder().setTimeoutTimeUnit(TimeUnit.SECONDS)
+                    .setTimeoutDuration(index % 10 + 1)
+                    .setOnTimeout(timeouts::incrementAndGet)
+                    .setCallback(Object.class, o -> results.incrementAndGet()).build());
+        }
+
+        /* Exactly at five seconds only the one to four second callbacks are past due. */
+        testTimer.seconds(5);
+        reactor.process();
+        assertEquals(4_000, timeouts.get());
+        assertTrue(callbacks.get(3).isTimedOut());
+
+        /* Complete every other callback from another thread, results for timed out callbacks are dropped. */
+        final Thread thread = new Thread(() -> {
+            for (int index = 0; index < callbacks.size(); index += 2) {
+                callbacks.get(index).accept("done");
+            }
+        });
+        thread.start();
+        thread.join();
+
+        reactor.process();
+        assertEquals(3_000, results.get());
+
+        /* The five and seven second callbacks completed, only the six second ones are now past due. */
+        testTimer.seconds(2);
+        reactor.process();
+        assertEquals(5_000, timeouts.get());
+
+        testTimer.seconds(10);
+        reactor.process();
+        assertEquals(3_000, results.get());
+        assertEquals(7_000, timeouts.get());
+        assertTrue(callbacks.get(3).isTimedOut());
+    }
+
+    @Test
+    public void testCoordinatorTimeout() throws Exception {
+
+        final TestTimer testTimer = new TestTimer();
+        testTimer.setTime();
+        final Reactor reactor = ReactorBuilder.reactorBuilder().setTimer(testTimer).build();
+        reactor.process();
+
+        final AtomicBoolean complete = new AtomicBoolean();
+        final AtomicInteger finished = new AtomicInteger();
+        final AtomicInteger timeouts = new AtomicInteger();
+
+        reactor.coordinatorBuilder().setCoordinator(complete::get).setTimeoutDuration(1)
+                .setFinishedHandler(finished::incrementAndGet).build();
+        reactor.coordinatorBuilder().setCoordinator(() -> false).setTimeoutDuration(2)
+                .setTimeOutHandler(timeouts::incrementAndGet).build();
+
+        reactor.process();
+        complete.set(true);
+        reactor.process();
+        assertEquals(1, finished.get());
+
+        testTimer.seconds(1);
+        reactor.process();
+        assertEquals(0, timeouts.get());
+
+        testTimer.seconds(2);
+        reactor.process();
+        reactor.process();
+        assertEquals(1, timeouts.get());
+        assertEquals(1, finished.get());
+    }
+}
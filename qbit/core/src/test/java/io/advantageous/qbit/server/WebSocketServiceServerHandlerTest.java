@@ -0,0 +1,82 @@
+package io.advantageous.qbit.server;
+
+import io.advantageous.qbit.http.server.websocket.WebSocketMessage;
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.QueueBuilder;
+import io.advantageous.qbit.service.ServiceBundle;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static io.advantageous.qbit.http.server.websocket.WebSocketMessageBuilder.webSocketMessageBuilder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WebSocketServiceServerHandlerTest {
+
+    private final List<Runnable> held = new CopyOnWriteArrayList<>();
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private Queue<MethodCall<Object>> methodQueue;
+    private WebSocketServiceServerHandler handler;
+
+    @Before
+    public void setup() {
+        methodQueue = QueueBuilder.queueBuilder().setName("calls").build();
+
+        /* A bundle that stays saturated and keeps the writable callbacks for the test to run. */
+        final ServiceBundle serviceBundle = (ServiceBundle) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ServiceBundle.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "methodSendQueue":
+                            return methodQueue.sendQueue();
+                        case "isSaturated":
+                            return true;
+                        case "onWritable":
+                            held.add((Runnable) args[0]);
+                            return null;
+                        default:
+                            return null;
+                    }
+                });
+        handler = new WebSocketServiceServerHandler(10, serviceBundle, 1, 1, 50, 2);
+    }
+
+    @After
+    public void tearDown() {
+        methodQueue.stop();
+    }
+
+    private WebSocketMessage message(final String remoteAddress) {
+        return webSocketMessageBuilder().setRemoteAddress(remoteAddress).setUri("/services")
+                .setMessage("not a method call").setSender(sent::add).build();
+    }
+
+    @Test
+    public void heldMessagesAreBounded() {
+        handler.handleWebSocketCall(message("a"));
+        handler.handleWebSocketCall(message("a"));
+        assertEquals(2, held.size());
+        assertTrue(sent.isEmpty());
+
+        /* Past the bound the message is rejected instead of held. */
+        handler.handleWebSocketCall(message("a"));
+        assertEquals(2, held.size());
+        assertEquals(1, sent.size());
+        assertTrue(sent.get(0), sent.get(0).contains("SERVICE SATURATED"));
+
+        /* The bound is per connection. */
+        handler.handleWebSocketCall(message("b"));
+        assertEquals(3, held.size());
+
+        /* Once the held messages run there is room again. */
+        held.get(0).run();
+        handler.handleWebSocketCall(message("a"));
+        assertEquals(4, held.size());
+        assertEquals(1, sent.stream().filter(text -> text.contains("SERVICE SATURATED")).count());
+    }
+}
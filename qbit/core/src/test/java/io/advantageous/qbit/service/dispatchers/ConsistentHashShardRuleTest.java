@@ -0,0 +1,148 @@
+package io.advantageous.qbit.service.dispatchers;
+
+import io.advantageous.boon.core.Sys;
+import io.advantageous.qbit.message.MethodCallBuilder;
+import io.advantageous.qbit.service.ServiceBuilder;
+import io.advantageous.qbit.service.ServiceQueue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ConsistentHashShardRuleTest {
+
+    private static final int KEYS = 10_000;
+
+    private final ConsistentHashShardRule rule = new ConsistentHashShardRule(methodArgs -> methodArgs[0]);
+
+    private int shard(final ShardRule shardRule, final int key, final int numWorkers) {
+        return shardRule.shard("record", new Object[]{"key" + key}, numWorkers);
+    }
+
+    @Test
+    public void testAddingWorkerOnlyMovesKeysToIt() {
+        final ShardRule eight = rule.withWorkers(new int[]{0, 1, 2, 3, 4, 5, 6, 7});
+        final ShardRule nine = rule.withWorkers(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8});
+
+        final int[] counts = new int[9];
+        int moved = 0;
+        for (int key = 0; key < KEYS; key++) {
+            final int before = shard(eight, key, 8);
+            final int after = shard(nine, key, 9);
+            counts[after]++;
+            if (before != after) {
+                assertEquals(8, after);
+                moved++;
+            }
+        }
+        assertEquals(counts[8], moved);
+        assertTrue("moved " + moved, moved > KEYS / 18 && moved < KEYS * 2 / 9);
+        for (int count : counts) {
+            assertTrue("count " + count, count > KEYS / 18);
+        }
+    }
+
+    @Test
+    public void testRemovingWorkerOnlyMovesItsKeys() {
+        final ShardRule five = rule.withWorkers(new int[]{0, 1, 2, 3, 4});
+        final int[] remaining = {0, 1, 2, 4};
+        final ShardRule four = rule.withWorkers(remaining);
+
+        for (int key = 0; key < KEYS; key++) {
+            final int before = shard(five, key, 5);
+            final int after = remaining[shard(four, key, 4)];
+            if (before != 3) {
+                assertEquals(before, after);
+            }
+        }
+    }
+
+    @Test
+    public void testUnboundRuleUsesWorkerCount() {
+        for (int key = 0; key < 100; key++) {
+            final int shard = shard(rule, key, 3);
+            assertTrue(shard >= 0 && shard < 3);
+            assertEquals(shard(rule.withWorkers(new int[]{0, 1, 2}), key, 3), shard);
+        }
+    }
+
+    @Test
+    public void testResizeKeepsPerKeyOrder() {
+        final Map<String, Integer> lastSeen = new ConcurrentHashMap<>();
+        final AtomicBoolean outOfOrder = new AtomicBoolean();
+        final AtomicInteger handled = new AtomicInteger();
+
+        final ShardedMethodDispatcher dispatcher = ServiceWorkers.consistentShardOnArgumentWorkers(0);
+        final List<ServiceQueue> workers = new ArrayList<>();
+        for (int index = 0; index < 2; index++) {
+            workers.add(worker(lastSeen, outOfOrder, handled));
+            dispatcher.addService(workers.get(index));
+        }
+        dispatcher.start();
+
+        int sent = 0;
+        for (int round = 0; round < 6; round++) {
+            for (int sequence = 0; sequence < 500; sequence++) {
+                for (int key = 0; key < 20; key++) {
+                    dispatcher.accept(MethodCallBuilder.methodCallBuilder().setName("record")
+                            .setBody(new Object[]{"key" + key, round * 500 + sequence}).build());
+                    sent++;
+                }
+            }
+            if (round < 3) {
+                final ServiceQueue worker = worker(lastSeen, outOfOrder, handled);
+                workers.add(worker);
+                dispatcher.addWorker(worker);
+            } else if (round == 3) {
+                dispatcher.removeWorker(workers.remove(0));
+            }
+        }
+
+        for (int index = 0; index < 500 && (dispatcher.resizing() || handled.get() < sent); index++) {
+            dispatcher.flush();
+            Sys.sleep(10);
+        }
+
+        assertFalse(dispatcher.resizing());
+        assertEquals(sent, handled.get());
+        assertFalse(outOfOrder.get());
+        assertEquals(4, workers.size());
+        dispatcher.stop();
+    }
+
+    private ServiceQueue worker(final Map<String, Integer> lastSeen, final AtomicBoolean outOfOrder,
+                                final AtomicInteger handled) {
+        return ServiceBuilder.serviceBuilder().setServiceObject(new OrderedService(lastSeen, outOfOrder, handled))
+                .build();
+    }
+
+    public static class OrderedService {
+
+        private final Map<String, Integer> lastSeen;
+        private final AtomicBoolean outOfOrder;
+        private final AtomicInteger handled;
+
+        OrderedService(final Map<String, Integer> lastSeen, final AtomicBoolean outOfOrder,
+                       final AtomicInteger handled) {
+            this.lastSeen = lastSeen;
+            this.outOfOrder = outOfOrder;
+            this.handled = handled;
+        }
+
+        public void record(final String key, final int sequence) {
+            final Integer last = lastSeen.put(key, sequence);
+            if (last != null && last >= sequence) {
+                outOfOrder.set(true);
+            }
+            if (handled.incrementAndGet() % 1_000 == 0) {
+                Sys.sleep(5);
+            }
+        }
+    }
+}
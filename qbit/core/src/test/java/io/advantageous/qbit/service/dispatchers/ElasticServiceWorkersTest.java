@@ -0,0 +1,141 @@
+package io.advantageous.qbit.service.dispatchers;
+
+import io.advantageous.boon.core.Sys;
+import io.advantageous.qbit.message.MethodCallBuilder;
+import io.advantageous.qbit.service.dispatchers.ElasticServiceWorkers.ScalingSignal;
+import io.advantageous.qbit.service.stats.StatsCollector;
+import io.advantageous.qbit.util.TestTimer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class ElasticServiceWorkersTest {
+
+    private CountDownLatch release;
+    private AtomicInteger handled;
+    private Map<String, Integer> stats;
+    private TestTimer testTimer;
+    private ElasticServiceWorkers workers;
+
+    @Before
+    public void setup() {
+        release = new CountDownLatch(1);
+        handled = new AtomicInteger();
+        stats = new ConcurrentHashMap<>();
+        testTimer = new TestTimer();
+        testTimer.setTime();
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        workers.stop();
+    }
+
+    private ElasticServiceWorkers build(final ScalingSignal scalingSignal) {
+        workers = (ElasticServiceWorkers) RoundRobinServiceWorkerBuilder.roundRobinServiceWorkerBuilder()
+                .setServiceObjectSupplier(Worker::new)
+                .setMinWorkers(1).setMaxWorkers(2).setFlushInterval(1)
+                .setScalingSignal(scalingSignal).setScaleUpSamples(2).setScaleDownSamples(3)
+                .setScaleIntervalMS(60_000).setTimer(testTimer)
+                .setStatsCollector(new StatsCollector() {
+                    @Override
+                    public void increment(final String name) {
+                        stats.merge(name, 1, Integer::sum);
+                    }
+                }).build();
+        workers.start();
+        return workers;
+    }
+
+    private void send(final int count) {
+        for (int index = 0; index < count; index++) {
+            workers.accept(MethodCallBuilder.methodCallBuilder().setName("work").setBody(new Object[0]).build());
+            if (index % 10 == 0) {
+                workers.flush();
+            }
+        }
+        workers.flush();
+    }
+
+    @Test
+    public void testScalesOnQueueDepth() {
+        build(ScalingSignal.QUEUE_DEPTH);
+        assertEquals(1, workers.workerCount());
+
+        send(200);
+        Sys.sleep(100);
+
+        workers.sample();
+        assertEquals(null, stats.get("serviceWorkers.scaleUp"));
+        workers.sample();
+        assertEquals(1, stats.get("serviceWorkers.scaleUp").intValue());
+        workers.flush();
+        assertEquals(2, workers.workerCount());
+
+        /* Already at max workers. */
+        workers.sample();
+        workers.sample();
+        assertEquals(1, stats.get("serviceWorkers.scaleUp").intValue());
+
+        release.countDown();
+        send(100);
+        for (int index = 0; index < 500 && handled.get() < 300; index++) {
+            Sys.sleep(10);
+        }
+        assertEquals(300, handled.get());
+
+        /* The idle pool shrinks back after the scale down samples, but not below min workers. */
+        workers.sample();
+        workers.sample();
+        workers.sample();
+        assertEquals(1, stats.get("serviceWorkers.scaleDown").intValue());
+        workers.flush();
+        assertEquals(1, workers.workerCount());
+
+        for (int index = 0; index < 10; index++) {
+            workers.sample();
+        }
+        assertEquals(1, stats.get("serviceWorkers.scaleDown").intValue());
+        assertEquals(1, workers.workerCount());
+
+        send(10);
+        for (int index = 0; index < 500 && handled.get() < 310; index++) {
+            Sys.sleep(10);
+        }
+        assertEquals(310, handled.get());
+    }
+
+    @Test
+    public void testScalesOnTimeInQueue() {
+        build(ScalingSignal.TIME_IN_QUEUE);
+
+        send(1);
+        Sys.sleep(100);
+
+        /* First sample sends the probe, it is stuck behind the blocked call. */
+        workers.sample();
+        testTimer.seconds(1);
+        workers.sample();
+        workers.sample();
+        assertEquals(1, stats.get("serviceWorkers.scaleUp").intValue());
+        workers.flush();
+        assertEquals(2, workers.workerCount());
+    }
+
+    public class Worker {
+
+        public void work() throws InterruptedException {
+            release.await(10, TimeUnit.SECONDS);
+            handled.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package io.advantageous.qbit.service.dispatchers;
+
+import io.advantageous.boon.core.Sys;
+import io.advantageous.qbit.message.MethodCallBuilder;
+import io.advantageous.qbit.service.ServiceBuilder;
+import io.advantageous.qbit.test.TimedTesting;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class LoadAwareServiceWorkersTest extends TimedTesting {
+
+    private static final int CALLS = 1_000;
+
+    private CountDownLatch release;
+    private AtomicReference<Worker> blocked;
+    private AtomicInteger handled;
+    private Worker[] workers;
+    private ServiceWorkers dispatcher;
+
+    @Before
+    public void setup() {
+        release = new CountDownLatch(1);
+        blocked = new AtomicReference<>();
+        handled = new AtomicInteger();
+        workers = new Worker[]{new Worker(), new Worker()};
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    public void testLeastQueueDepth() {
+        runWithStalledWorker(ServiceWorkers.leastQueueDepthWorkers(1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testPowerOfTwoChoices() {
+        runWithStalledWorker(ServiceWorkers.powerOfTwoChoicesWorkers(1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testWorkStealing() {
+        final WorkStealingServiceDispatcher workStealing = ServiceWorkers.workStealingWorkers(1, TimeUnit.MILLISECONDS);
+        runWithStalledWorker(workStealing);
+        assertEquals(0, workStealing.backlogSize());
+    }
+
+    private void runWithStalledWorker(final ServiceWorkers serviceWorkers) {
+        dispatcher = serviceWorkers;
+        for (Worker worker : workers) {
+            dispatcher.addService(ServiceBuilder.serviceBuilder().setServiceObject(worker).build());
+        }
+        dispatcher.start();
+
+        dispatcher.accept(MethodCallBuilder.methodCallBuilder().setName("work").setBody(new Object[]{true}).build());
+        dispatcher.flush();
+        waitForTrigger(5, o -> blocked.get() != null);
+        assertNotNull(blocked.get());
+
+        for (int index = 0; index < CALLS; index++) {
+            dispatcher.accept(MethodCallBuilder.methodCallBuilder().setName("work").setBody(new Object[]{false}).build());
+            if (index % 10 == 0) {
+                Sys.sleep(1);
+            }
+        }
+        dispatcher.flush();
+
+        final Worker idle = blocked.get() == workers[0] ? workers[1] : workers[0];
+        waitForTrigger(5, o -> idle.count.get() >= CALLS * 9 / 10);
+        assertTrue("idle worker handled " + idle.count.get(), idle.count.get() >= CALLS * 9 / 10);
+
+        release.countDown();
+        waitForTrigger(5, o -> {
+            dispatcher.flush();
+            return handled.get() == CALLS + 1;
+        });
+        assertEquals(CALLS + 1, handled.get());
+    }
+
+    public class Worker {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        public void work(final boolean block) throws InterruptedException {
+            if (block) {
+                blocked.set(this);
+                release.await(10, TimeUnit.SECONDS);
+            } else {
+                count.incrementAndGet();
+            }
+            handled.incrementAndGet();
+        }
+    }
+}
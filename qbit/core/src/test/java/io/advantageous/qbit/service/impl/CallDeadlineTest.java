@@ -0,0 +1,264 @@
+package io.advantageous.qbit.service.impl;
+
+import io.advantageous.qbit.annotation.RequestMapping;
+import io.advantageous.qbit.annotation.RequestMethod;
+import io.advantageous.qbit.http.HttpStatus;
+import io.advantageous.qbit.http.HttpStatusCodeException;
+import io.advantageous.qbit.http.request.HttpTextResponse;
+import io.advantageous.qbit.message.MethodCallBuilder;
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.reactive.CallbackBuilder;
+import io.advantageous.qbit.reactive.Reactor;
+import io.advantageous.qbit.reactive.ReactorBuilder;
+import io.advantageous.qbit.server.EndpointServerBuilder;
+import io.advantageous.qbit.server.ServiceEndpointServer;
+import io.advantageous.qbit.service.Protocol;
+import io.advantageous.qbit.service.ServiceBuilder;
+import io.advantageous.qbit.service.ServiceProxyUtils;
+import io.advantageous.qbit.service.ServiceQueue;
+import io.advantageous.qbit.service.rest.endpoint.tests.sim.HttpServerSimulator;
+import io.advantageous.qbit.service.stats.StatsCollector;
+import io.advantageous.qbit.spi.FactorySPI;
+import io.advantageous.qbit.util.Timer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class CallDeadlineTest {
+
+    private BackendService backendService;
+    private ServiceQueue backendQueue;
+    private ServiceQueue frontQueue;
+    private AtomicLong expiredDrops;
+
+    @Before
+    public void setup() {
+        backendService = new BackendService();
+        expiredDrops = new AtomicLong();
+        final StatsCollector statsCollector = new StatsCollector() {
+            @Override
+            public void recordCount(final String name, final long count) {
+                if ("backend.expiredDropCount".equals(name)) {
+                    expiredDrops.addAndGet(count);
+                }
+            }
+        };
+        backendQueue = ServiceBuilder.serviceBuilder().setServiceObject(backendService)
+                .registerStatsCollections("backend", statsCollector, 0, 0)
+                .buildAndStartAll();
+        frontQueue = ServiceBuilder.serviceBuilder()
+                .setServiceObject(new FrontService(backendQueue.createProxy(Backend.class)))
+                .buildAndStartAll();
+    }
+
+    @After
+    public void tearDown() {
+        frontQueue.stop();
+        backendQueue.stop();
+    }
+
+    @Test
+    public void testExpiredCallDropped() throws Exception {
+        backendQueue.requestQueue().sendQueue().sendAndFlush(MethodCallBuilder.methodCallBuilder()
+                .setName("count").setBody(new Object[]{1})
+                .setDeadline(Timer.timer().now() - 1_000).build());
+
+        final Backend backend = backendQueue.createProxy(Backend.class);
+        final CountDownLatch countDownLatch = new CountDownLatch(1);
+        backend.count(value -> countDownLatch.countDown(), 2);
+        ServiceProxyUtils.flushServiceProxy(backend);
+
+        assertTrue(countDownLatch.await(10, TimeUnit.SECONDS));
+        assertEquals(1, backendService.counted.get());
+
+        final long end = System.currentTimeMillis() + 5_000;
+        while (expiredDrops.get() == 0 && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, expiredDrops.get());
+    }
+
+    @Test
+    public void testDeadlineFromCallbackTimeout() throws Exception {
+        final Backend backend = backendQueue.createProxy(Backend.class);
+        final CountDownLatch countDownLatch = new CountDownLatch(1);
+        final Reactor reactor = ReactorBuilder.reactorBuilder().build();
+        final CallbackBuilder callbackBuilder = reactor.callbackBuilder();
+        callbackBuilder.setCallback(Long.class, value -> countDownLatch.countDown());
+        callbackBuilder.setOnError(error -> countDownLatch.countDown());
+        callbackBuilder.setTimeoutDuration(5).setTimeoutTimeUnit(TimeUnit.SECONDS);
+        final long now = Timer.timer().now();
+        backend.deadline(callbackBuilder.build());
+        ServiceProxyUtils.flushServiceProxy(backend);
+
+        /* Reactor callbacks are completed when the reactor processes them. */
+        final long end = System.currentTimeMillis() + 10_000;
+        while (countDownLatch.getCount() > 0 && System.currentTimeMillis() < end) {
+            reactor.process();
+            Thread.sleep(10);
+        }
+        assertEquals(0, countDownLatch.getCount());
+        final long deadline = backendService.lastDeadline.get();
+        assertTrue(deadline >= now + 4_000);
+        assertTrue(deadline <= Timer.timer().now() + 5_000);
+    }
+
+    @Test
+    public void testDeadlinePassedToDownstreamCalls() throws Exception {
+        final Front front = frontQueue.createProxy(Front.class);
+        final long deadline = Timer.timer().now() + 60_000;
+        final CountDownLatch countDownLatch = new CountDownLatch(1);
+        final AtomicLong seen = new AtomicLong();
+        front.deadline(value -> {
+            seen.set(value);
+            countDownLatch.countDown();
+        });
+        ServiceProxyUtils.flushServiceProxy(front);
+        assertTrue(countDownLatch.await(10, TimeUnit.SECONDS));
+        /* Without a deadline of its own the call carries none downstream. */
+        assertEquals(0, seen.get());
+
+        final CountDownLatch withDeadline = new CountDownLatch(1);
+        frontQueue.requestQueue().sendQueue().sendAndFlush(MethodCallBuilder.methodCallBuilder()
+                .setName("deadline").setDeadline(deadline)
+                .setBody(new Object[]{(Callback<Long>) value -> {
+                    seen.set(value);
+                    withDeadline.countDown();
+                }}).build());
+        assertTrue(withDeadline.await(10, TimeUnit.SECONDS));
+        assertEquals(deadline, seen.get());
+    }
+
+    @Test
+    public void testInheritedDeadlineFailsFast() throws Exception {
+        final CountDownLatch countDownLatch = new CountDownLatch(1);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        frontQueue.requestQueue().sendQueue().sendAndFlush(MethodCallBuilder.methodCallBuilder()
+                .setName("slowDeadline").setDeadline(Timer.timer().now() + 50)
+                .setBody(new Object[]{new Callback<Long>() {
+                    @Override
+                    public void accept(final Long value) {
+                        countDownLatch.countDown();
+                    }
+
+                    @Override
+                    public void onError(final Throwable throwable) {
+                        error.set(throwable);
+                        countDownLatch.countDown();
+                    }
+                }}).build());
+
+        /* The front service outlives the deadline, so the backend answers the inherited deadline with an error. */
+        assertTrue(countDownLatch.await(10, TimeUnit.SECONDS));
+        assertTrue(error.get() instanceof HttpStatusCodeException);
+        assertEquals(HttpStatus.TIMED_OUT, ((HttpStatusCodeException) error.get()).code());
+        assertEquals(0, backendService.lastDeadline.get());
+    }
+
+    @Test
+    public void testExpiredHttpRequestAnswered() {
+        final HttpServerSimulator httpServerSimulator = new HttpServerSimulator();
+        FactorySPI.setHttpServerFactory((options, endPointName, systemManager, serviceDiscovery,
+                                         healthServiceAsync, serviceDiscoveryTtl, serviceDiscoveryTtlTimeUnit,
+                                         decorators, httpResponseCreator, requestBodyContinuePredicate) -> {
+            httpServerSimulator.setResponseDecorators(decorators);
+            return httpServerSimulator;
+        });
+        final RestService restService = new RestService();
+        final ServiceEndpointServer serviceEndpointServer = EndpointServerBuilder.endpointServerBuilder()
+                .build().initServices(restService).startServer();
+        try {
+            /* The simulator flushes requests after 100ms, well past the 10ms the client allows. */
+            final HttpTextResponse httpResponse = httpServerSimulator.postBodyWithHeaders("/deadline/ping", 1,
+                    Collections.singletonMap(Protocol.TIMEOUT_HEADER, "10"));
+            assertNotNull(httpResponse);
+            assertEquals(HttpStatus.TIMED_OUT, httpResponse.code());
+            assertEquals(0, restService.pings.get());
+
+            assertEquals(HttpStatus.OK, httpServerSimulator.postBodyWithHeaders("/deadline/ping", 1,
+                    Collections.singletonMap(Protocol.TIMEOUT_HEADER, "60000")).code());
+            assertEquals(1, restService.pings.get());
+        } finally {
+            serviceEndpointServer.stop();
+        }
+    }
+
+    public interface Backend {
+
+        void count(Callback<Integer> callback, int value);
+
+        void deadline(Callback<Long> callback);
+    }
+
+    public interface Front {
+
+        void deadline(Callback<Long> callback);
+    }
+
+    @RequestMapping("/deadline")
+    public static class RestService {
+
+        private final AtomicInteger pings = new AtomicInteger();
+
+        @RequestMapping(value = "/ping", method = RequestMethod.POST)
+        public int ping(final int value) {
+            return pings.incrementAndGet();
+        }
+    }
+
+    public static class BackendService {
+
+        private final AtomicInteger counted = new AtomicInteger();
+        private final AtomicLong lastDeadline = new AtomicLong();
+
+        public int count(final int value) {
+            return counted.incrementAndGet();
+        }
+
+        public long deadline() {
+            lastDeadline.set(BaseServiceQueueImpl.currentDeadline());
+            return lastDeadline.get();
+        }
+    }
+
+    public static class FrontService {
+
+        private final Backend backend;
+
+        public FrontService(final Backend backend) {
+            this.backend = backend;
+        }
+
+        public void deadline(final Callback<Long> callback) {
+            backend.deadline(callback::accept);
+            ServiceProxyUtils.flushServiceProxy(backend);
+        }
+
+        public void slowDeadline(final Callback<Long> callback) throws InterruptedException {
+            Thread.sleep(200);
+            backend.deadline(new Callback<Long>() {
+                @Override
+                public void accept(final Long value) {
+                    callback.accept(value);
+                }
+
+                @Override
+                public void onError(final Throwable error) {
+                    callback.onError(error);
+                }
+            });
+            ServiceProxyUtils.flushServiceProxy(backend);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package io.advantageous.qbit.service.impl;
+
+import io.advantageous.boon.core.Lists;
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.message.MethodCallBuilder;
+import io.advantageous.qbit.message.ResponseBuilder;
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.reactive.CallbackBuilder;
+import io.advantageous.qbit.service.CallbackManagerBuilder;
+import io.advantageous.qbit.service.ServiceBundle;
+import io.advantageous.qbit.service.ServiceBundleBuilder;
+import io.advantageous.qbit.service.ServiceProxyUtils;
+import io.advantageous.qbit.util.TestTimer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CallbackManagerWithTimingWheelTest {
+
+    private CallbackManagerWithTimingWheel callbackManager;
+    private TestTimer testTimer;
+    private AtomicReference<Object> result;
+    private AtomicInteger timeouts;
+
+    @Before
+    public void setUp() {
+        testTimer = new TestTimer();
+        testTimer.setTime();
+        callbackManager = (CallbackManagerWithTimingWheel) CallbackManagerBuilder.callbackManagerBuilder()
+                .setTimingWheel(true).setTimer(testTimer).setName("testBuilder").build();
+        result = new AtomicReference<>("none");
+        timeouts = new AtomicInteger();
+    }
+
+    private MethodCall<Object> methodCall(final String returnAddress, final long id) {
+        final CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder();
+        callbackBuilder.setCallback(Object.class, result::set);
+        callbackBuilder.setOnTimeout(timeouts::incrementAndGet);
+        return MethodCallBuilder.methodCallBuilder()
+                .setAddress("/hello/world").setName("foo").setReturnAddress(returnAddress)
+                .setTimestamp(testTimer.now()).setId(id)
+                .setBody(Lists.list(callbackBuilder.build())).build();
+    }
+
+    @Test
+    public void testResponseCompletesCallback() {
+        final MethodCall<Object> methodCall = methodCall("client", 1);
+        callbackManager.registerCallbacks(methodCall);
+        assertEquals(1, callbackManager.outstandingCallbacksCount());
+
+        callbackManager.handleResponse(ResponseBuilder.fromMethodCall(methodCall, "GOT IT"));
+
+        assertEquals("GOT IT", result.get());
+        assertEquals(0, callbackManager.outstandingCallbacksCount());
+    }
+
+    @Test
+    public void testSameIdFromDifferentClients() {
+        final List<MethodCall<Object>> calls = new ArrayList<>();
+        for (int index = 0; index < 5_000; index++) {
+            final MethodCall<Object> methodCall = methodCall("client" + index, 7);
+            calls.add(methodCall);
+            callbackManager.registerCallbacks(methodCall);
+        }
+        assertEquals(5_000, callbackManager.outstandingCallbacksCount());
+
+        for (int index = calls.size() - 1; index >= 0; index--) {
+            callbackManager.handleResponse(ResponseBuilder.fromMethodCall(calls.get(index), index));
+            assertEquals(index, result.get());
+        }
+        assertEquals(0, callbackManager.outstandingCallbacksCount());
+    }
+
+    @Test
+    public void testDefaultTimeout() {
+        for (int index = 0; index < 40_000; index++) {
+            callbackManager.registerCallbacks(methodCall("client", index));
+        }
+
+        assertEquals(40_000, callbackManager.outstandingCallbacksCount());
+        callbackManager.process(0);
+        assertEquals(40_000, callbackManager.outstandingCallbacksCount());
+        testTimer.minutes(5);
+        callbackManager.process(0);
+        assertEquals(0, callbackManager.outstandingCallbacksCount());
+        assertEquals(40_000, timeouts.get());
+    }
+
+    @Test
+    public void testWithTimeouts() {
+        callbackManager = (CallbackManagerWithTimingWheel) CallbackManagerBuilder.callbackManagerBuilder()
+                .setTimingWheel(true).setTimeOutMS(30_000).setHandleTimeouts(true)
+                .setTimer(testTimer).setName("testBuilder").build();
+
+        for (int index = 0; index < 40_000; index++) {
+            callbackManager.registerCallbacks(methodCall("client", index));
+        }
+        testTimer.seconds(10);
+        final MethodCall<Object> later = methodCall("client", 40_000);
+        callbackManager.registerCallbacks(later);
+
+        assertEquals(40_001, callbackManager.outstandingCallbacksCount());
+        testTimer.seconds(1);
+        callbackManager.process(0);
+        assertEquals(40_001, callbackManager.outstandingCallbacksCount());
+        testTimer.seconds(20);
+        callbackManager.process(0);
+        assertEquals(1, callbackManager.outstandingCallbacksCount());
+        assertEquals(40_000, timeouts.get());
+
+        callbackManager.handleResponse(ResponseBuilder.fromMethodCall(later, "LATE"));
+        assertEquals("LATE", result.get());
+        assertEquals(0, callbackManager.outstandingCallbacksCount());
+    }
+
+    @Test
+    public void testWithServiceBundle() throws Exception {
+        final ServiceBundle serviceBundle = ServiceBundleBuilder.serviceBundleBuilder()
+                .setCallbackManager(callbackManager).build();
+        serviceBundle.addServiceObject("abc", new MyService());
+        final IMyService myService = serviceBundle.createLocalProxy(IMyService.class, "abc");
+        serviceBundle.start();
+
+        final int callCount = 10_000;
+        final CountDownLatch countDownLatch = new CountDownLatch(callCount);
+        final CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder();
+        callbackBuilder.setCallback(Object.class, o -> {
+            result.set(o);
+            countDownLatch.countDown();
+        });
+
+        for (int index = 0; index < callCount; index++) {
+            myService.method1(callbackBuilder.build());
+        }
+        ServiceProxyUtils.flushServiceProxy(myService);
+
+        assertTrue(countDownLatch.await(20, TimeUnit.SECONDS));
+        assertEquals(0, callbackManager.outstandingCallbacksCount());
+        assertEquals("METHOD 1 RETURN", result.get());
+        serviceBundle.stop();
+    }
+
+    public interface IMyService {
+        void method1(Callback<String> callback);
+    }
+
+    public static class MyService {
+
+        public String method1() {
+            return "METHOD 1 RETURN";
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package io.advantageous.qbit.service.impl;
+
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.service.ServiceBundle;
+import io.advantageous.qbit.service.ServiceBundleBuilder;
+import io.advantageous.qbit.service.ServiceProxyUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DirectRoutingServiceBundleTest {
+
+    private ServiceBundle serviceBundle;
+    private Set<String> interceptorThreads;
+
+    @Before
+    public void setup() {
+        interceptorThreads = ConcurrentHashMap.newKeySet();
+        serviceBundle = ServiceBundleBuilder.serviceBundleBuilder().setDirectRouting(true)
+                .setBeforeMethodCall(methodCall -> {
+                    interceptorThreads.add(Thread.currentThread().getName());
+                    return true;
+                }).build();
+    }
+
+    @After
+    public void tearDown() {
+        serviceBundle.stop();
+    }
+
+    @Test
+    public void testCallsFromSeveralProducers() throws Exception {
+        final CounterService counterService = new CounterService();
+        serviceBundle.addServiceObject("counter", counterService);
+        serviceBundle.startServiceBundle();
+
+        final int producerCount = 4;
+        final int callCount = 1_000;
+        final CountDownLatch countDownLatch = new CountDownLatch(producerCount * callCount);
+        final AtomicInteger outOfOrder = new AtomicInteger();
+        final List<Thread> producers = new ArrayList<>();
+
+        for (int producer = 0; producer < producerCount; producer++) {
+            final int producerId = producer;
+            final Thread thread = new Thread(() -> {
+                final CounterClient client = serviceBundle.createLocalProxy(CounterClient.class, "counter");
+                final int[] last = {-1};
+                for (int index = 0; index < callCount; index++) {
+                    client.add(producerId, index, seen -> {
+                        if (seen != last[0] + 1) {
+                            outOfOrder.incrementAndGet();
+                        }
+                        last[0] = seen;
+                        countDownLatch.countDown();
+                    });
+                }
+                ServiceProxyUtils.flushServiceProxy(client);
+            }, "producer-" + producer);
+            producers.add(thread);
+            thread.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertTrue(countDownLatch.await(20, TimeUnit.SECONDS));
+        assertEquals(0, outOfOrder.get());
+        assertEquals(producerCount, interceptorThreads.size());
+        for (String threadName : interceptorThreads) {
+            assertTrue(threadName, threadName.startsWith("producer-"));
+        }
+    }
+
+    @Test
+    public void testFlushFromAnotherThread() throws Exception {
+        serviceBundle.addServiceObject("counter", new CounterService());
+        serviceBundle.startServiceBundle();
+
+        final int callCount = 10;
+        final CountDownLatch countDownLatch = new CountDownLatch(callCount);
+        final CountDownLatch sent = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        final Thread producer = new Thread(() -> {
+            final CounterClient client = serviceBundle.createLocalProxy(CounterClient.class, "counter");
+            for (int index = 0; index < callCount; index++) {
+                client.add(0, index, seen -> countDownLatch.countDown());
+            }
+            sent.countDown();
+            try {
+                done.await(20, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "producer");
+        producer.start();
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+
+        /* The producer never flushes; the bundle flush from this thread pushes its buffer. */
+        serviceBundle.flushSends();
+        assertTrue(countDownLatch.await(20, TimeUnit.SECONDS));
+        done.countDown();
+        producer.join();
+    }
+
+    @Test
+    public void testServiceWorkersStillRouted() throws Exception {
+        serviceBundle.addRoundRobinService("counter", 2, CounterService::new);
+        serviceBundle.startServiceBundle();
+
+        final int callCount = 100;
+        final CountDownLatch countDownLatch = new CountDownLatch(callCount);
+        final CounterClient client = serviceBundle.createLocalProxy(CounterClient.class, "counter");
+        for (int index = 0; index < callCount; index++) {
+            client.add(0, index, seen -> countDownLatch.countDown());
+        }
+        ServiceProxyUtils.flushServiceProxy(client);
+
+        assertTrue(countDownLatch.await(20, TimeUnit.SECONDS));
+    }
+
+    public interface CounterClient {
+
+        void add(int producer, int sequence, Callback<Integer> callback);
+    }
+
+    public static class CounterService {
+
+        public int add(final int producer, final int sequence) {
+            return sequence;
+        }
+    }
+}
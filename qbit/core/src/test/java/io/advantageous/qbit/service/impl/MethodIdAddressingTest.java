@@ -0,0 +1,111 @@
+package io.advantageous.qbit.service.impl;
+
+import io.advantageous.qbit.annotation.Service;
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.message.MethodCallBuilder;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.service.ServiceBundle;
+import io.advantageous.qbit.service.ServiceBundleBuilder;
+import io.advantageous.qbit.service.ServiceBuilder;
+import io.advantageous.qbit.service.ServiceQueue;
+import io.advantageous.qbit.test.TimedTesting;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class MethodIdAddressingTest extends TimedTesting {
+
+    private CounterService counterService;
+    private ServiceQueue serviceQueue;
+
+    @Before
+    public void setup() {
+        counterService = new CounterService();
+        serviceQueue = ServiceBuilder.serviceBuilder().setServiceObject(counterService).buildAndStartAll();
+    }
+
+    @After
+    public void tearDown() {
+        serviceQueue.stop();
+    }
+
+    @Test
+    public void testServiceQueueResolvesMethodIds() {
+        final int addId = serviceQueue.methodId("add");
+        final int totalId = serviceQueue.methodId("total");
+        assertTrue(addId >= 0);
+        assertTrue(totalId >= 0);
+        assertTrue(addId != totalId);
+        assertEquals(-1, serviceQueue.methodId("missing"));
+
+        callCounter(serviceQueue.createProxy(CounterClient.class));
+    }
+
+    @Test
+    public void testServiceBundleResolvesServiceAndMethodIds() {
+        final ServiceBundle serviceBundle = ServiceBundleBuilder.serviceBundleBuilder().build();
+        serviceBundle.addServiceQueue("counter", serviceQueue);
+        serviceBundle.startServiceBundle();
+        try {
+            final int serviceId = serviceBundle.serviceId("counter");
+            assertTrue(serviceId >= 0);
+            assertEquals(-1, serviceBundle.serviceId("missing"));
+            assertEquals(serviceQueue.methodId("add"), serviceBundle.methodId(serviceId, "add"));
+            assertEquals(-1, serviceBundle.methodId(serviceId + 1, "add"));
+
+            callCounter(serviceBundle.createLocalProxy(CounterClient.class, "counter"));
+        } finally {
+            serviceBundle.stop();
+        }
+    }
+
+    @Test
+    public void testMismatchedMethodIdFallsBackToName() {
+        final SendQueue<MethodCall<Object>> requests = serviceQueue.requests();
+        requests.sendAndFlush(MethodCallBuilder.methodCallBuilder()
+                .setName("add").setAddress("add").setBody(new Object[]{5})
+                .setMethodId(serviceQueue.methodId("total")).build());
+
+        waitForTrigger(5, o -> counterService.count == 5);
+        assertEquals(5, counterService.count);
+    }
+
+    private void callCounter(final CounterClient client) {
+        client.add(2);
+        client.add(3);
+        final AtomicReference<Integer> total = new AtomicReference<>();
+        client.total(total::set);
+        client.flush();
+
+        waitForTrigger(5, o -> total.get() != null);
+        assertEquals(5, total.get().intValue());
+    }
+
+    @Service
+    public interface CounterClient {
+
+        void add(int amount);
+
+        void total(Callback<Integer> callback);
+
+        void flush();
+    }
+
+    public static class CounterService {
+
+        private volatile int count;
+
+        public void add(final int amount) {
+            count += amount;
+        }
+
+        public void total(final Callback<Integer> callback) {
+            callback.accept(count);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package io.advantageous.qbit.service.impl;
+
+import io.advantageous.qbit.annotation.CacheEvict;
+import io.advantageous.qbit.annotation.Cacheable;
+import io.advantageous.qbit.annotation.OnEvent;
+import io.advantageous.qbit.client.ClientProxy;
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.message.MethodCallBuilder;
+import io.advantageous.qbit.message.Response;
+import io.advantageous.qbit.message.impl.MessagePool;
+import io.advantageous.qbit.message.impl.ResponseImpl;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.reactive.CallbackBuilder;
+import io.advantageous.qbit.service.ServiceBuilder;
+import io.advantageous.qbit.service.ServiceProxyUtils;
+import io.advantageous.qbit.service.ServiceQueue;
+import io.advantageous.qbit.service.stats.StatsCollector;
+import io.advantageous.qbit.util.Timer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class ServiceResultCacheTest {
+
+    private UserService userService;
+    private ServiceQueue serviceQueue;
+    private Users users;
+    private Map<String, AtomicLong> counts;
+
+    @Before
+    public void setup() {
+        userService = new UserService();
+        counts = new ConcurrentHashMap<>();
+        final StatsCollector statsCollector = new StatsCollector() {
+            @Override
+            public void recordCount(final String name, final long count) {
+                counts.computeIfAbsent(name, key -> new AtomicLong()).addAndGet(count);
+            }
+        };
+        serviceQueue = ServiceBuilder.serviceBuilder().setServiceObject(userService)
+                .registerStatsCollections("users", statsCollector, 0, 0)
+                .buildAndStartAll();
+        users = serviceQueue.createProxy(Users.class);
+    }
+
+    @After
+    public void tearDown() {
+        serviceQueue.stop();
+    }
+
+    @Test
+    public void testRepeatedCallsAnsweredFromCache() throws Exception {
+        assertEquals("user1", name(1));
+        assertEquals("user1", name(1));
+        assertEquals("user2", name(2));
+        assertEquals("user1", name(1));
+        assertEquals(2, userService.nameCalls.get());
+
+        assertEquals("loaded 7", load(7));
+        assertEquals("loaded 7", load(7));
+        assertEquals(1, userService.loadCalls.get());
+
+        waitForCount("users.cache.name.hit", 2);
+        assertEquals(2, counts.get("users.cache.name.miss").get());
+    }
+
+    @Test
+    public void testCacheEvict() throws Exception {
+        assertEquals("user1", name(1));
+        assertEquals("user1", name(1));
+        assertEquals(1, userService.nameCalls.get());
+
+        userService.prefix = "member";
+        users.rename();
+        ServiceProxyUtils.flushServiceProxy(users);
+
+        assertEquals("member1", name(1));
+        assertEquals(2, userService.nameCalls.get());
+    }
+
+    @Test
+    public void testFailuresNotKept() throws Exception {
+        assertNull(name(-1));
+        assertNull(name(-1));
+        assertEquals(2, userService.nameCalls.get());
+    }
+
+    @Test
+    public void testTtlAndEvents() throws Exception {
+        final AtomicLong now = new AtomicLong(1_000);
+        final Timer timer = new Timer() {
+            @Override
+            public long now() {
+                return now.get();
+            }
+        };
+        final ServiceResultCache resultCache = ServiceResultCache.resultCache(new UserService(), timer);
+        final AtomicInteger sent = new AtomicInteger();
+        final SendQueue<Response<Object>> responseSendQueue =
+                resultCache.responseSendQueue(new SendQueue<Response<Object>>() {
+                    @Override
+                    public boolean send(final Response<Object> item) {
+                        sent.incrementAndGet();
+                        return true;
+                    }
+                });
+
+        final MethodCall<Object> first = call("age", 1);
+        assertNull(resultCache.lookup(first));
+        responseSendQueue.send(ResponseImpl.response(first, 30));
+
+        final Response<Object> hit = resultCache.lookup(call("age", 1));
+        assertNotNull(hit);
+        assertEquals(30, hit.body());
+
+        now.addAndGet(200);
+        assertNull(resultCache.lookup(call("age", 1)));
+
+        final MethodCall<Object> second = call("age", 1);
+        assertNull(resultCache.lookup(second));
+        responseSendQueue.send(ResponseImpl.response(second, 31));
+        assertNotNull(resultCache.lookup(call("age", 1)));
+
+        resultCache.evictOn("user.changed");
+        assertNull(resultCache.lookup(call("age", 1)));
+        assertEquals(2, sent.get());
+    }
+
+    @Test
+    public void testReusedPooledCallNotTakenForMiss() {
+        final ServiceResultCache resultCache = ServiceResultCache.resultCache(new UserService(), Timer.timer());
+        final SendQueue<Response<Object>> responseSendQueue =
+                resultCache.responseSendQueue(new SendQueue<Response<Object>>() {
+                    @Override
+                    public boolean send(final Response<Object> item) {
+                        return true;
+                    }
+                });
+
+        /* The miss is released without a response, and its call object is reused for another call. */
+        final MethodCall<Object> miss = MessagePool.methodCall("age", "caller", 1L, 1L, new Object[]{1}, -1);
+        assertNull(resultCache.lookup(miss));
+        MessagePool.release(miss);
+        final MethodCall<Object> reused = MessagePool.methodCall("other", "caller", 2L, 2L, new Object[]{2}, -1);
+        assertSame(miss, reused);
+
+        responseSendQueue.send(ResponseImpl.response(reused, 99));
+        assertNull(resultCache.lookup(call("age", 1)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testVoidMethodRejected() {
+        ServiceResultCache.resultCache(new Object() {
+            @Cacheable
+            public void touch(final int id) {
+            }
+        }, Timer.timer());
+    }
+
+    private static MethodCall<Object> call(final String name, final Object... args) {
+        return MethodCallBuilder.methodCallBuilder().setName(name).setBody(args).build();
+    }
+
+    private String name(final int id) throws InterruptedException {
+        final CountDownLatch countDownLatch = new CountDownLatch(1);
+        final String[] result = new String[1];
+        final CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder();
+        callbackBuilder.setCallback(String.class, value -> {
+            result[0] = value;
+            countDownLatch.countDown();
+        });
+        callbackBuilder.setOnError(error -> countDownLatch.countDown());
+        users.name(callbackBuilder.build(), id);
+        ServiceProxyUtils.flushServiceProxy(users);
+        assertTrue(countDownLatch.await(10, TimeUnit.SECONDS));
+        return result[0];
+    }
+
+    private String load(final int id) throws InterruptedException {
+        final CountDownLatch countDownLatch = new CountDownLatch(1);
+        final String[] result = new String[1];
+        users.load(value -> {
+            result[0] = value;
+            countDownLatch.countDown();
+        }, id);
+        ServiceProxyUtils.flushServiceProxy(users);
+        assertTrue(countDownLatch.await(10, TimeUnit.SECONDS));
+        return result[0];
+    }
+
+    private void waitForCount(final String name, final long count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            final AtomicLong value = counts.get(name);
+            if (value != null && value.get() >= count) {
+                return;
+            }
+            users.clientProxyFlush();
+            Thread.sleep(10);
+        }
+        fail(name + " did not reach " + count + " " + counts);
+    }
+
+    public interface Users extends ClientProxy {
+
+        void name(Callback<String> callback, int id);
+
+        void load(Callback<String> callback, int id);
+
+        void rename();
+    }
+
+    public static class UserService {
+
+        private final AtomicInteger nameCalls = new AtomicInteger();
+        private final AtomicInteger loadCalls = new AtomicInteger();
+        private volatile String prefix = "user";
+
+        @Cacheable
+        public String name(final int id) {
+            nameCalls.incrementAndGet();
+            if (id < 0) {
+                throw new IllegalArgumentException("no user " + id);
+            }
+            return prefix + id;
+        }
+
+        @Cacheable(maxEntries = 10, eviction = Cacheable.Eviction.LFU)
+        public void load(final Callback<String> callback, final int id) {
+            loadCalls.incrementAndGet();
+            new Thread(() -> callback.accept("loaded " + id)).start();
+        }
+
+        @Cacheable(ttlMS = 100)
+        public int age(final int id) {
+            return 30;
+        }
+
+        @CacheEvict("name")
+        public void rename() {
+        }
+
+        @CacheEvict
+        @OnEvent("user.changed")
+        public void userChanged(final Object event) {
+        }
+    }
+}
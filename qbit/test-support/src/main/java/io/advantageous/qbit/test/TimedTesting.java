@@ -39,6 +39,9 @@ public class TimedTesting {
 
     protected void waitForTrigger(int seconds, Predicate predicate) {
 
+        /* Each wait starts over, so a test can wait more than once. */
+        stop.set(false);
+        setupLatch();
         triggerLatchWhen(predicate);
         waitForLatch(seconds);
     }
@@ -33,10 +33,12 @@ import io.advantageous.qbit.http.server.RequestContinuePredicate;
 import io.advantageous.qbit.http.server.impl.SimpleHttpServer;
 import io.advantageous.qbit.http.server.websocket.WebSocketMessage;
 import io.advantageous.qbit.http.websocket.WebSocket;
+import io.advantageous.qbit.queue.BackPressure;
 import io.advantageous.qbit.service.discovery.ServiceDiscovery;
 import io.advantageous.qbit.service.health.HealthServiceAsync;
 import io.advantageous.qbit.system.QBitSystemManager;
 import io.advantageous.qbit.util.Timer;
+import io.vertx.core.Context;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpServerRequest;
@@ -68,6 +70,7 @@ public class HttpServerVertx implements HttpServer {
     private final VertxServerUtils vertxUtils = new VertxServerUtils();
     private final boolean startedVertx;
     private io.vertx.core.http.HttpServer httpServer;
+    private volatile BackPressure backPressure;
 
     /**
      * Holds on to Boon cache so we don't have to recreate reflected gak.
@@ -158,6 +161,11 @@ public class HttpServerVertx implements HttpServer {
     }
 
 
+    @Override
+    public void setBackPressure(final BackPressure backPressure) {
+        this.backPressure = backPressure;
+    }
+
     @Override
     public void start() {
         startWithNotify(null);
@@ -271,6 +279,22 @@ public class HttpServerVertx implements HttpServer {
      */
     private void handleHttpRequest(final HttpServerRequest request) {
 
+        final BackPressure backPressure = this.backPressure;
+        if (backPressure != null && backPressure.isSaturated()) {
+            /* Stop reading from the connection and pick the request back up once the service queues drain. */
+            request.pause();
+            final Context context = vertx.getOrCreateContext();
+            backPressure.onWritable(() -> context.runOnContext(event -> {
+                dispatchHttpRequest(request);
+                request.resume();
+            }));
+            return;
+        }
+
+        dispatchHttpRequest(request);
+    }
+
+    private void dispatchHttpRequest(final HttpServerRequest request) {
 
         if (debug) {
             setupMetrics(request);
@@ -353,7 +377,17 @@ public class HttpServerVertx implements HttpServer {
     }
 
     private void handleWebSocketMessage(final ServerWebSocket webSocket) {
-        simpleHttpServer.handleOpenWebSocket(vertxUtils.createWebSocket(webSocket));
+        simpleHttpServer.handleOpenWebSocket(vertxUtils.createWebSocket(webSocket,
+                () -> pauseWebSocketWhileSaturated(webSocket)));
+    }
+
+    private void pauseWebSocketWhileSaturated(final ServerWebSocket webSocket) {
+        final BackPressure backPressure = this.backPressure;
+        if (backPressure != null && backPressure.isSaturated()) {
+            webSocket.pause();
+            final Context context = vertx.getOrCreateContext();
+            backPressure.onWritable(() -> context.runOnContext(event -> webSocket.resume()));
+        }
     }
 
 
@@ -124,6 +124,13 @@ public class VertxServerUtils {
     }
 
     public WebSocket createWebSocket(final ServerWebSocket vertxServerWebSocket) {
+        return createWebSocket(vertxServerWebSocket, null);
+    }
+
+    /**
+     * @param messageHandled if not null, called after each complete message has been handed to the web socket
+     */
+    public WebSocket createWebSocket(final ServerWebSocket vertxServerWebSocket, final Runnable messageHandled) {
 
 
         final MultiMap<String, String> params = paramMap(vertxServerWebSocket);
@@ -184,6 +191,9 @@ public class VertxServerUtils {
 
                 count[0] = 0;
                 bufferRef[0] = null;
+                if (messageHandled != null) {
+                    messageHandled.run();
+                }
             } else {
                 bufferRef[0] = createNewBuffer(bufferRef[0], event.binaryData());
             }